@@ -0,0 +1,129 @@
+package biz.ple.corba.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.util.CorbaObjectId;
+
+
+/**
+ * <p>Encoding and decoding of object ids via {@link CorbaObjectId}. The {@code byteBuffer...} benchmarks
+ * are the {@link ByteBuffer}-based code {@code CorbaObjectId} used up to 1.3.1, as a baseline.</p>
+ * <p>Run with {@code -prof gc} to see the allocation per operation: the decoding methods should not
+ * allocate at all.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CorbaObjectIdBenchmark {
+
+    private long value;
+    private byte[] longId;
+    private byte[] taggedLongId;
+    private byte[] uuidId;
+    private byte[] taggedStringId;
+    private byte[] buffer;
+    private UUID uuid;
+
+
+    @Setup
+    public void setUp()
+    {
+        value = 0x0123456789ABCDEFL;
+        longId = CorbaObjectId.fromLong(value);
+        taggedLongId = CorbaObjectId.fromTaggedLong((byte) 'E', value);
+        uuid = UUID.randomUUID();
+        uuidId = CorbaObjectId.fromUuid(uuid);
+        taggedStringId = CorbaObjectId.fromTaggedString((byte) 'C', "ACME-Corporation/4711");
+        buffer = new byte[64];
+    }
+
+
+    @Benchmark
+    public byte[] fromLong()
+    {
+        return CorbaObjectId.fromLong(++value);
+    }
+
+
+    @Benchmark
+    public byte[] byteBufferFromLong()
+    {
+        return ByteBuffer.allocate(Long.BYTES).putLong(++value).array();
+    }
+
+
+    @Benchmark
+    public long toLong()
+    {
+        return CorbaObjectId.toLong(longId);
+    }
+
+
+    @Benchmark
+    public long byteBufferToLong()
+    {
+        return ByteBuffer.wrap(longId).getLong();
+    }
+
+
+    @Benchmark
+    public int writeLong()
+    {
+        return CorbaObjectId.writeLong(++value, buffer, 8);
+    }
+
+
+    @Benchmark
+    public byte[] fromTaggedLong()
+    {
+        return CorbaObjectId.fromTaggedLong((byte) 'E', ++value);
+    }
+
+
+    @Benchmark
+    public long toTaggedLong()
+    {
+        return CorbaObjectId.hasTag(taggedLongId, (byte) 'E') ? CorbaObjectId.toTaggedLong(taggedLongId) : -1L;
+    }
+
+
+    @Benchmark
+    public byte[] fromUuid()
+    {
+        return CorbaObjectId.fromUuid(uuid);
+    }
+
+
+    @Benchmark
+    public UUID toUuid()
+    {
+        return CorbaObjectId.toUuid(uuidId);
+    }
+
+
+    @Benchmark
+    public String toTaggedString()
+    {
+        return CorbaObjectId.toTaggedString(taggedStringId);
+    }
+
+}
@@ -0,0 +1,148 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+
+import biz.ple.corba.annotations.CorbaRef;
+import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.springext.CorbaBeanPostProcessor;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * <p>Startup of a Spring application context whose singletons have {@code holders * 10} {@link CorbaRef @CorbaRef}
+ * fields (1,000 by default), with immediate resolution (each reference is looked up while its bean is
+ * initialized) and with {@link CorbaBeanPostProcessor#setDeferredRefResolution(boolean) deferred} bulk
+ * resolution on {@code threads} threads. Every invocation starts and closes a new context with the same,
+ * already initialized client ORB; the references are bound in a nested naming context of the embedded
+ * Naming Service.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(1)
+public class CorbaRefResolutionBenchmark {
+
+    private static final String CONTEXT_PATH = "benchmarks.ctx/corbaRefs.ctx";
+    private static final int REFS_PER_HOLDER = 10;
+
+
+    /** A singleton with ten references, as a client bean of a larger application might have. */
+    public static class RefHolder {
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space0.obj")
+        ParkingSpace space0;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space1.obj")
+        ParkingSpace space1;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space2.obj")
+        ParkingSpace space2;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space3.obj")
+        ParkingSpace space3;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space4.obj")
+        ParkingSpace space4;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space5.obj")
+        ParkingSpace space5;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space6.obj")
+        ParkingSpace space6;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space7.obj")
+        ParkingSpace space7;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space8.obj")
+        ParkingSpace space8;
+
+        @CorbaRef(cosNamingPath = CONTEXT_PATH + "/space9.obj")
+        ParkingSpace space9;
+
+    }
+
+
+    @Param({ "false", "true" })
+    public boolean deferred;
+
+    @Param({ "8" })
+    public int threads;
+
+    @Param({ "100" })
+    public int holders;
+
+    private OrbBean serverOrb;
+    private OrbBean clientOrb;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        serverOrb = Orbs.start();
+        ParkingSpaceImpl[] impls = new ParkingSpaceImpl[REFS_PER_HOLDER];
+        for (int id = 0; id < REFS_PER_HOLDER; ++id) {
+            impls[id] = new ParkingSpaceImpl(id);
+        }
+        PoaBean poaBean = ServantSetup.ACTIVE_OBJECT_MAP.deploy(serverOrb.getRootPoa(), "corbaRefs", impls);
+        NamingContextBean serverCtx = new NamingContextBean(serverOrb.getRootNamingCtx(), CONTEXT_PATH);
+        serverCtx.corbaInit();
+        for (int id = 0; id < REFS_PER_HOLDER; ++id) {
+            serverCtx.getNamingCtx().rebind(serverCtx.getNamingCtx().to_name("space" + id + ".obj"),
+                                            poaBean.createObjectReference(CorbaObjectId.fromLong(id), ParkingSpace.class));
+        }
+        clientOrb = Orbs.start();
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(clientOrb, serverOrb);
+    }
+
+
+    @Benchmark
+    public Object startContext()
+    {
+        MutablePropertyValues bppProps = new MutablePropertyValues();
+        bppProps.add("deferredRefResolution", deferred);
+        bppProps.add("refResolutionThreads", threads);
+        RootBeanDefinition bppDef = new RootBeanDefinition(CorbaBeanPostProcessor.class);
+        bppDef.setPropertyValues(bppProps);
+
+        try (GenericApplicationContext ctx = new GenericApplicationContext()) {
+            ctx.getBeanFactory().registerSingleton("orb", clientOrb);
+            ctx.registerBeanDefinition("corbaBeanPostProcessor", bppDef);
+            for (int holder = 0; holder < holders; ++holder) {
+                ctx.registerBeanDefinition("refHolder" + holder, new RootBeanDefinition(RefHolder.class));
+            }
+            ctx.refresh();
+            return ctx.getBean("refHolder" + (holders - 1), RefHolder.class).space9;
+        }
+    }
+
+}
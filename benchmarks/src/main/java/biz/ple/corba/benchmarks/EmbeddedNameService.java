@@ -0,0 +1,123 @@
+package biz.ple.corba.benchmarks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+
+import org.jacorb.naming.NameServer;
+
+
+/**
+ * <p>Runs JacORB's COS Naming Service in the benchmark JVM, so that the benchmarks do not depend on an
+ * externally started Naming Service. The Naming Service is started (on a free port of the loopback
+ * interface) on the first invocation of {@link #corbaloc()} and runs until the JVM exits; its naming contexts
+ * are persisted in a new temporary directory, so every JVM (JMH forks one per benchmark) gets an empty Naming
+ * Service instead of bindings left over from earlier runs.</p>
+ * <p>JacORB's {@code NameServer} initializes its ORB from the system properties, so JacORB is set as the
+ * {@code org.omg.CORBA.ORBClass} and {@code ORBSingletonClass} system properties (unless they are set
+ * already, e.g. via {@code -jvmArgsAppend}) before it is started; otherwise the JDK's own ORB (up to Java 10)
+ * would run the Naming Service, and {@code ORB.init()} would return the JDK's singleton ORB.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class EmbeddedNameService {
+
+    private static final long STARTUP_TIMEOUT_MILLIS = 10000L;
+
+    private static String corbaloc;
+
+
+    private EmbeddedNameService()
+    {
+    }
+
+
+    /**
+     * Returns the initial reference of the embedded Naming Service, to be passed to
+     * {@link biz.ple.corba.beans.OrbBean#setNameServiceInitRef(String)}; starts the Naming Service if it has
+     * not been started yet.
+     */
+    public static synchronized String corbaloc()
+    {
+        if (corbaloc == null) {
+            useJacorb();
+            int port = freePort();
+            String dbDir = tempDir();
+            Thread nameServer = new Thread(() -> NameServer.main(new String[] { "-DOAPort=" + port,
+                                                                                "-DOAIAddr=127.0.0.1",
+                                                                                "-Djacorb.naming.db_dir=" + dbDir }),
+                                           "EmbeddedNameService");
+            nameServer.setDaemon(true);
+            nameServer.start();
+            awaitListening(port);
+            corbaloc = "corbaloc::127.0.0.1:" + port + "/NameService";
+        }
+        return corbaloc;
+    }
+
+
+    /**
+     * Sets JacORB as the {@code org.omg.CORBA.ORBClass} and {@code ORBSingletonClass} system properties,
+     * unless they are set already; must be invoked before the first ORB of the JVM is initialized.
+     */
+    public static void useJacorb()
+    {
+        if (System.getProperty("org.omg.CORBA.ORBClass") == null) {
+            System.setProperty("org.omg.CORBA.ORBClass", "org.jacorb.orb.ORB");
+        }
+        if (System.getProperty("org.omg.CORBA.ORBSingletonClass") == null) {
+            System.setProperty("org.omg.CORBA.ORBSingletonClass", "org.jacorb.orb.ORBSingleton");
+        }
+    }
+
+
+    private static int freePort()
+    {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+        catch (IOException iox) {
+            throw new IllegalStateException("Could not find a free port for the Naming Service.", iox);
+        }
+    }
+
+
+    private static String tempDir()
+    {
+        try {
+            return Files.createTempDirectory("corbaBeans-ns").toString();
+        }
+        catch (IOException iox) {
+            throw new IllegalStateException("Could not create a directory for the Naming Service.", iox);
+        }
+    }
+
+
+    private static void awaitListening(int port)
+    {
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+        while (true) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 500);
+                return;
+            }
+            catch (IOException iox) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("The Naming Service did not start within "
+                                                    + STARTUP_TIMEOUT_MILLIS + " ms.", iox);
+                }
+            }
+            try {
+                Thread.sleep(50L);
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the Naming Service.", ie);
+            }
+        }
+    }
+
+}
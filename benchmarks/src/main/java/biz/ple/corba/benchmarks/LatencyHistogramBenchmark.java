@@ -0,0 +1,74 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.metrics.LatencyHistogram;
+
+
+/**
+ * Recording into a {@link LatencyHistogram} shared by several threads, unstriped ({@code stripes=1}) and
+ * striped; the cost of the metrics interceptors on every request is dominated by this.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LatencyHistogramBenchmark {
+
+    /** The value recorded by each benchmark thread. */
+    @State(Scope.Thread)
+    public static class Value {
+
+        long nanos = 1000L;
+
+    }
+
+
+    @Param({ "1", "16" })
+    public int stripes;
+
+    private LatencyHistogram histogram;
+
+
+    @Setup
+    public void setUp()
+    {
+        histogram = new LatencyHistogram(stripes);
+    }
+
+
+    @Benchmark
+    public void record(Value value)
+    {
+        value.nanos = value.nanos < 10000000L ? value.nanos * 3L / 2L : 1000L;
+        histogram.record(value.nanos);
+    }
+
+
+    @Benchmark
+    @Threads(1)
+    public long snapshotP99()
+    {
+        return histogram.snapshot().getValueAtPercentile(99.0);
+    }
+
+}
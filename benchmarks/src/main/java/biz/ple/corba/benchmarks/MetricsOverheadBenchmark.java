@@ -0,0 +1,90 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * The overhead of the built-in metrics interceptors on a remote invocation: none installed, the server
+ * request metrics installed but {@link biz.ple.corba.metrics.ServerRequestMetrics#setEnabled(boolean)
+ * disabled}, server request metrics, client invocation metrics, and both.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    public enum Metrics {
+        NONE, SERVER_DISABLED, SERVER, CLIENT, BOTH
+    }
+
+
+    /** The index of the next target object of a benchmark thread. */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+    }
+
+
+    @Param
+    public Metrics metrics;
+
+    private RoundTripFixture fixture;
+    private ParkingSpace[] references;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        boolean server = metrics == Metrics.SERVER_DISABLED || metrics == Metrics.SERVER || metrics == Metrics.BOTH;
+        boolean client = metrics == Metrics.CLIENT || metrics == Metrics.BOTH;
+        fixture = new RoundTripFixture(ServantSetup.ACTIVE_OBJECT_MAP, 100,
+                                       orb -> orb.setServerMetricsEnabled(server),
+                                       orb -> orb.setClientMetricsEnabled(client));
+        OrbBean serverOrb = fixture.getServerOrb();
+        if (metrics == Metrics.SERVER_DISABLED) {
+            serverOrb.getServerMetrics().setEnabled(false);
+        }
+        references = fixture.getReferences();
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        fixture.stop();
+    }
+
+
+    @Benchmark
+    public String getOwner(Cursor cursor)
+    {
+        int index = cursor.next;
+        cursor.next = index + 1 < references.length ? index + 1 : 0;
+        return references[index].owner();
+    }
+
+}
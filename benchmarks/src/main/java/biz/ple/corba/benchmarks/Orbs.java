@@ -0,0 +1,67 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.Properties;
+import java.util.function.Consumer;
+
+import biz.ple.corba.beans.OrbBean;
+
+
+/**
+ * Creates the {@link OrbBean}s used by the benchmarks, all of which use the {@link EmbeddedNameService}.
+ * Client and server of a round trip benchmark use separate ORBs, so that requests are marshalled and go
+ * through the interceptors, as between processes, instead of JacORB's collocation shortcut. JacORB's
+ * in-process loopback transport is disabled, so that the requests also go through a TCP connection (on
+ * the loopback interface); pass {@code -Djacorb.iiop.enable_loopback=on} to the forked JVMs (via
+ * {@code -jvmArgsAppend}) to measure with it.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class Orbs {
+
+    private Orbs()
+    {
+    }
+
+
+    /**
+     * Creates, initializes and starts an {@code OrbBean}.
+     * @param configurer
+     *      Invoked before initialization, e.g. to enable metrics or register interceptors.
+     */
+    public static OrbBean start(Consumer<OrbBean> configurer) throws Exception
+    {
+        OrbBean orbBean = new OrbBean();
+        orbBean.setNameServiceInitRef(EmbeddedNameService.corbaloc());
+        Properties orbProps = new Properties();
+        orbProps.put("jacorb.iiop.enable_loopback", System.getProperty("jacorb.iiop.enable_loopback", "off"));
+        orbBean.setOrbProperties(orbProps);
+        configurer.accept(orbBean);
+        orbBean.corbaInit();
+        orbBean.start();
+        return orbBean;
+    }
+
+
+    /**
+     * Creates, initializes and starts an {@code OrbBean} with the default settings.
+     */
+    public static OrbBean start() throws Exception
+    {
+        return start(orbBean -> { });
+    }
+
+
+    /**
+     * Shuts down ORBs without waiting for requests in progress; {@code null}s are ignored.
+     */
+    public static void stop(OrbBean... orbBeans)
+    {
+        for (OrbBean orbBean: orbBeans) {
+            if (orbBean != null) {
+                orbBean.stop(false);
+            }
+        }
+    }
+
+}
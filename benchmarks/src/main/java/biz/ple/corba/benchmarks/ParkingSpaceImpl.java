@@ -0,0 +1,39 @@
+package biz.ple.corba.benchmarks;
+
+import biz.ple_idl.domain.ParkingSpaceOperations;
+
+
+/**
+ * A trivial implementation of the {@code ParkingSpace} IDL interface, so that the round trip benchmarks
+ * measure the ORB and the servant management, not the servant.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class ParkingSpaceImpl implements ParkingSpaceOperations {
+
+    private final String parkingId;
+    private final String owner;
+
+
+    public ParkingSpaceImpl(long id)
+    {
+        this.parkingId = String.format("PS%06d", id);
+        this.owner = "Owner of " + parkingId;
+    }
+
+
+    @Override
+    public String parkingId()
+    {
+        return parkingId;
+    }
+
+
+    @Override
+    public String owner()
+    {
+        return owner;
+    }
+
+}
@@ -0,0 +1,104 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * <p>Creation of object references via {@link PoaBean#createObjectReference(byte[], Class)} and
+ * {@link PoaBean#createObjectReferences(long[], Class)}, e.g. by finder operations returning many
+ * references. {@link #reflectiveCreateObjectReference()} is the reflection-based code {@code PoaBean} used
+ * up to 1.3.1, as a baseline.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceCreationBenchmark {
+
+    /** The number of references created by the bulk benchmarks. */
+    @Param({ "100" })
+    public int batchSize;
+
+    private OrbBean orbBean;
+    private PoaBean poaBean;
+    private byte[] objectId;
+    private long[] objectIds;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        orbBean = Orbs.start();
+        poaBean = ServantSetup.SERVANT_LOCATOR.deploy(orbBean.getRootPoa(), "references", new ParkingSpaceImpl[0]);
+        objectId = CorbaObjectId.fromLong(4711L);
+        objectIds = new long[batchSize];
+        for (int k = 0; k < batchSize; ++k) {
+            objectIds[k] = k;
+        }
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(orbBean);
+    }
+
+
+    @Benchmark
+    public ParkingSpace createObjectReference()
+    {
+        return poaBean.createObjectReference(objectId, ParkingSpace.class);
+    }
+
+
+    @Benchmark
+    public ParkingSpace reflectiveCreateObjectReference() throws Exception
+    {
+        Class<?> helperClass = Class.forName(ParkingSpace.class.getName() + "Helper");
+        String corbaInterfaceId = (String) (helperClass.getDeclaredMethod("id").invoke(null));
+        org.omg.CORBA.Object ref = poaBean.getPoa().create_reference_with_id(objectId, corbaInterfaceId);
+        return ParkingSpace.class.cast(helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class).invoke(null, ref));
+    }
+
+
+    @Benchmark
+    public ParkingSpace[] createObjectReferencesBulk()
+    {
+        return poaBean.createObjectReferences(objectIds, ParkingSpace.class);
+    }
+
+
+    @Benchmark
+    public void createObjectReferencesLoop(Blackhole bh)
+    {
+        for (long id: objectIds) {
+            bh.consume(poaBean.createObjectReference(CorbaObjectId.fromLong(id), ParkingSpace.class));
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.beans.CachingReferenceLookup;
+import biz.ple.corba.beans.NamedReferenceLookup;
+import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * <p>Lookup of an object reference in the (embedded) Naming Service by a client ORB, via
+ * {@link NamedReferenceLookup#lookup(NamingContextBean, String, Class)} and {@link CachingReferenceLookup}.
+ * {@link #reflectiveLookup()} is the reflection-based code {@code NamedReferenceLookup} used up to 1.3.1,
+ * as a baseline. With {@code namingCache=true}, the client ORB's {@code NamingContextCache} is enabled, so
+ * that the uncached lookups do not make remote calls either.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceLookupBenchmark {
+
+    private static final String CONTEXT_PATH = "benchmarks.ctx";
+    private static final String NAME = "parkingSpace.obj";
+
+    @Param({ "false", "true" })
+    public boolean namingCache;
+
+    private OrbBean serverOrb;
+    private OrbBean clientOrb;
+    private NamingContextBean namingCtx;
+    private CachingReferenceLookup cachingLookup;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        serverOrb = Orbs.start();
+        PoaBean poaBean = ServantSetup.SERVANT_ACTIVATOR.deploy(serverOrb.getRootPoa(), "lookup",
+                                                                new ParkingSpaceImpl[] { new ParkingSpaceImpl(0L) });
+        NamingContextBean serverCtx = new NamingContextBean(serverOrb.getRootNamingCtx(), CONTEXT_PATH);
+        serverCtx.corbaInit();
+        serverCtx.getNamingCtx().rebind(serverCtx.getNamingCtx().to_name(NAME),
+                                        poaBean.createObjectReference(CorbaObjectId.fromLong(0L), ParkingSpace.class));
+
+        clientOrb = Orbs.start(orbBean -> orbBean.setNamingCacheEnabled(namingCache));
+        namingCtx = new NamingContextBean(clientOrb.getRootNamingCtx(), CONTEXT_PATH);
+        namingCtx.setLookupOnly(true);
+        namingCtx.corbaInit();
+        cachingLookup = new CachingReferenceLookup();
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(clientOrb, serverOrb);
+    }
+
+
+    @Benchmark
+    public ParkingSpace namedReferenceLookup() throws Throwable
+    {
+        return NamedReferenceLookup.lookup(namingCtx, NAME, ParkingSpace.class);
+    }
+
+
+    @Benchmark
+    public ParkingSpace reflectiveLookup() throws Exception
+    {
+        Class<?> helperClass = Class.forName(ParkingSpace.class.getName() + "Helper");
+        org.omg.CORBA.Object obj = namingCtx.lookup(NAME);
+        return ParkingSpace.class.cast(helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class).invoke(null, obj));
+    }
+
+
+    @Benchmark
+    public ParkingSpace cachingReferenceLookup() throws Exception
+    {
+        return cachingLookup.lookup(namingCtx, NAME, ParkingSpace.class);
+    }
+
+
+    @Benchmark
+    public ParkingSpace cachingReferenceLookupUnchecked() throws Exception
+    {
+        return cachingLookup.lookupUnchecked(namingCtx, NAME, ParkingSpace.class);
+    }
+
+}
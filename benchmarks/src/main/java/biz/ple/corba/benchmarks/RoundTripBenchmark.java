@@ -0,0 +1,109 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * <p>Remote invocations of {@code ParkingSpace} attributes from a client ORB to a server ORB in the same
+ * JVM, for each {@link ServantSetup}. Every invocation targets the next of {@code objects} objects, so
+ * that the servant managers' caches and eviction are exercised: the caching Servant Locator and the
+ * evicting Servant Activator keep only half of the servants.</p>
+ * <p>{@code DEFAULT_SERVANT} vs. {@code DISPATCHING_DEFAULT_SERVANT} compares a hand-written
+ * {@code _invoke()} with the dispatch through the IDL-generated skeleton. With {@code upcallExecutor=true},
+ * the servant upcalls are executed on a separate thread pool ({@code OrbBean.setUpcallExecutor}), which
+ * shows the cost of the thread hand-off. Run with {@code -t <threads>} to measure under contention.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoundTripBenchmark {
+
+    /** The index of the next target object of a benchmark thread. */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+    }
+
+
+    @Param
+    public ServantSetup setup;
+
+    @Param({ "1000" })
+    public int objects;
+
+    @Param({ "false" })
+    public boolean upcallExecutor;
+
+    private ExecutorService executor;
+    private RoundTripFixture fixture;
+    private ParkingSpace[] references;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        if (upcallExecutor) {
+            executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+        fixture = new RoundTripFixture(setup, objects, orb -> orb.setUpcallExecutor(executor), orb -> { });
+        references = fixture.getReferences();
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        fixture.stop();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Benchmark
+    public String getOwner(Cursor cursor)
+    {
+        return next(cursor).owner();
+    }
+
+
+    @Benchmark
+    public String getParkingId(Cursor cursor)
+    {
+        return next(cursor).parkingId();
+    }
+
+
+    private ParkingSpace next(Cursor cursor)
+    {
+        int index = cursor.next;
+        cursor.next = index + 1 < references.length ? index + 1 : 0;
+        return references[index];
+    }
+
+}
@@ -0,0 +1,111 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.function.Consumer;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple_idl.domain.ParkingSpace;
+import biz.ple_idl.domain.ParkingSpaceHelper;
+
+
+/**
+ * A server ORB serving {@code ParkingSpace} objects with a {@link ServantSetup}, and a client ORB holding
+ * references to all of them.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class RoundTripFixture {
+
+    private final OrbBean serverOrb;
+    private final OrbBean clientOrb;
+    private final ParkingSpace[] references;
+
+
+    /**
+     * Starts the ORBs and deploys the servants.
+     * @param setup
+     *      The way the server POA finds the servants.
+     * @param objects
+     *      The number of objects.
+     * @param serverConfigurer
+     *      Invoked before the server ORB is initialized.
+     * @param clientConfigurer
+     *      Invoked before the client ORB is initialized.
+     */
+    RoundTripFixture(ServantSetup setup, int objects, Consumer<OrbBean> serverConfigurer,
+                     Consumer<OrbBean> clientConfigurer) throws Exception
+    {
+        this(setup, newImpls(objects), serverConfigurer, clientConfigurer);
+    }
+
+
+    /**
+     * Starts the ORBs and deploys the given implementations.
+     * @param setup
+     *      The way the server POA finds the servants.
+     * @param impls
+     *      The implementations; the object id of {@code impls[k]} is {@code k}.
+     * @param serverConfigurer
+     *      Invoked before the server ORB is initialized.
+     * @param clientConfigurer
+     *      Invoked before the client ORB is initialized.
+     */
+    RoundTripFixture(ServantSetup setup, ParkingSpaceImpl[] impls, Consumer<OrbBean> serverConfigurer,
+                     Consumer<OrbBean> clientConfigurer) throws Exception
+    {
+        int objects = impls.length;
+        long[] objectIds = new long[objects];
+        for (int id = 0; id < objects; ++id) {
+            objectIds[id] = id;
+        }
+        serverOrb = Orbs.start(serverConfigurer);
+        clientOrb = Orbs.start(clientConfigurer);
+        PoaBean poaBean = setup.deploy(serverOrb.getRootPoa(), "roundTrip", impls);
+        ParkingSpace[] serverRefs = poaBean.createObjectReferences(objectIds, ParkingSpace.class);
+        references = new ParkingSpace[objects];
+        for (int id = 0; id < objects; ++id) {
+            String ior = serverOrb.getORB().object_to_string(serverRefs[id]);
+            references[id] = ParkingSpaceHelper.narrow(clientOrb.getORB().string_to_object(ior));
+        }
+    }
+
+
+    private static ParkingSpaceImpl[] newImpls(int objects)
+    {
+        ParkingSpaceImpl[] impls = new ParkingSpaceImpl[objects];
+        for (int id = 0; id < objects; ++id) {
+            impls[id] = new ParkingSpaceImpl(id);
+        }
+        return impls;
+    }
+
+
+    OrbBean getServerOrb()
+    {
+        return serverOrb;
+    }
+
+
+    OrbBean getClientOrb()
+    {
+        return clientOrb;
+    }
+
+
+    /**
+     * Returns the client ORB's references; the reference at index {@code k} denotes the object served by
+     * {@code new ParkingSpaceImpl(k)}.
+     */
+    ParkingSpace[] getReferences()
+    {
+        return references;
+    }
+
+
+    void stop()
+    {
+        Orbs.stop(clientOrb, serverOrb);
+    }
+
+}
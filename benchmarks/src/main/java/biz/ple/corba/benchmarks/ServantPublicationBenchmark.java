@@ -0,0 +1,149 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.NameServicePublisher;
+import biz.ple.corba.beans.server.NamedServantObject;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.beans.server.PoaPolicies;
+import biz.ple.corba.beans.server.PoaPolicyName;
+import biz.ple.corba.beans.server.PoaPolicyValue;
+import biz.ple.corba.config.CorbaBasics;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple_idl.domain.ParkingSpacePOATie;
+
+
+/**
+ * <p>The startup of a server with many named servants: the time to initialize {@code servants}
+ * {@link NamedServantObject}s, i.e. to activate them (or, in lazy mode, only create their references)
+ * and to bind their references in the (embedded) Naming Service, either synchronously one by one or
+ * in parallel via a {@link NameServicePublisher}. Every measurement uses a new POA.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ServantPublicationBenchmark {
+
+    public enum Publication {
+        /** Activation and synchronous binding during initialization. */
+        EAGER,
+        /** Lazy activation, synchronous binding. */
+        LAZY,
+        /** Activation during initialization, parallel binding afterwards. */
+        PUBLISHER,
+        /** Lazy activation, parallel binding. */
+        LAZY_PUBLISHER
+    }
+
+
+    private static final CorbaBasics BASICS = new CorbaBasics();
+
+    @Param
+    public Publication publication;
+
+    @Param({ "1000" })
+    public int servants;
+
+    private OrbBean orbBean;
+    private PoaBean rootPoa;
+    private NamingContextBean namingCtx;
+    private int run;
+    private String poaName;
+    private NamedServantObject[] servantObjects;
+    private NameServicePublisher publisher;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        orbBean = Orbs.start();
+        rootPoa = orbBean.getRootPoa();
+        namingCtx = new NamingContextBean(orbBean.getRootNamingCtx(), "publication.ctx");
+        namingCtx.corbaInit();
+    }
+
+
+    @Setup(Level.Iteration)
+    public void prepareServants() throws Exception
+    {
+        boolean lazy = publication == Publication.LAZY || publication == Publication.LAZY_PUBLISHER;
+        PoaPolicies policies;
+        if (lazy) {
+            policies = BASICS.activatorPoaPolicies();
+        }
+        else {
+            policies = new PoaPolicies(BASICS.defaultPoaPolicies());
+            policies.setPolicy(PoaPolicyName.IdAssignment, PoaPolicyValue.User);
+        }
+        poaName = "publication" + (++run);
+        PoaBean poaBean = new PoaBean(rootPoa, poaName, policies);
+        poaBean.setLazyActivation(lazy);
+        poaBean.corbaInit();
+        publisher = publication == Publication.PUBLISHER || publication == Publication.LAZY_PUBLISHER
+                    ? new NameServicePublisher() : null;
+        servantObjects = new NamedServantObject[servants];
+        for (int id = 0; id < servants; ++id) {
+            NamedServantObject servantObject = new NamedServantObject(poaBean, ParkingSpacePOATie.class,
+                                                                      new ParkingSpaceImpl(id), namingCtx,
+                                                                      "parkingSpace" + id + ".obj");
+            servantObject.setUserObjectId(CorbaObjectId.fromLong(id));
+            servantObject.setLazy(lazy);
+            servantObject.setPublisher(publisher);
+            servantObjects[id] = servantObject;
+        }
+    }
+
+
+    @TearDown(Level.Iteration)
+    public void destroyPoa()
+    {
+        rootPoa.destroyChildPoa(poaName, false, true);
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(orbBean);
+    }
+
+
+    @Benchmark
+    public int initializeServants() throws Exception
+    {
+        for (NamedServantObject servantObject: servantObjects) {
+            servantObject.corbaInit();
+        }
+        if (publisher != null) {
+            NameServicePublisher.Report report = publisher.publish().get();
+            if (!report.isSuccessful()) {
+                throw new IllegalStateException(report.getFailures().size() + " bindings failed.");
+            }
+            return report.getPublished();
+        }
+        return servantObjects.length;
+    }
+
+}
@@ -0,0 +1,323 @@
+package biz.ple.corba.benchmarks;
+
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.BAD_OPERATIONHelper;
+import org.omg.CORBA.OBJECT_NOT_EXIST;
+import org.omg.CORBA.OBJECT_NOT_EXISTHelper;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.CurrentPackage.NoContext;
+import org.omg.PortableServer.CurrentPackage.NoContextHelper;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.beans.server.PoaPolicies;
+import biz.ple.corba.beans.server.PoaPolicyName;
+import biz.ple.corba.beans.server.PoaPolicyValue;
+import biz.ple.corba.config.CorbaBasics;
+import biz.ple.corba.util.CachingServantLocatorBase;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple.corba.util.DefaultServantBase;
+import biz.ple.corba.util.DispatchingDefaultServant;
+import biz.ple.corba.util.EvictingServantActivatorBase;
+import biz.ple.corba.util.ServantActivatorBase;
+import biz.ple.corba.util.ServantLocatorBase;
+import biz.ple_idl.domain.ParkingSpaceOperations;
+import biz.ple_idl.domain.ParkingSpacePOATie;
+
+
+/**
+ * <p>The ways a POA can find the servant for a request, each set up for {@code ParkingSpace} objects with
+ * the object ids {@code CorbaObjectId.fromLong(0)} to {@code CorbaObjectId.fromLong(objects - 1)}. The
+ * servant managers and default servants are deliberately simple, so that the round trip benchmarks
+ * compare the request processing paths rather than the lookup of the implementations.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public enum ServantSetup {
+
+    /** All servants activated up front (Retain, UseActiveObjectMapOnly). */
+    ACTIVE_OBJECT_MAP {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            PoaPolicies policies = new PoaPolicies(BASICS.defaultPoaPolicies());
+            policies.setPolicy(PoaPolicyName.IdAssignment, PoaPolicyValue.User);
+            PoaBean poaBean = parent.createChildPoa(name, policies);
+            POA poa = poaBean.getPoa();
+            for (int id = 0; id < impls.length; ++id) {
+                poa.activate_object_with_id(CorbaObjectId.fromLong(id),
+                                            poaBean.prepareServant(new ParkingSpacePOATie(impls[id], poa)));
+            }
+            return poaBean;
+        }
+    },
+
+    /** Servants incarnated on the first request and retained (Retain, UseServantManager). */
+    SERVANT_ACTIVATOR {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            return parent.createChildPoa(name, BASICS.activatorPoaPolicies(), new Activator(impls));
+        }
+    },
+
+    /** Like {@link #SERVANT_ACTIVATOR}, but at most half of the servants are kept active. */
+    EVICTING_SERVANT_ACTIVATOR {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            EvictingActivator activator = new EvictingActivator(impls);
+            activator.setMaxServants(Math.max(1, impls.length / 2));
+            return parent.createChildPoa(name, BASICS.activatorPoaPolicies(), activator);
+        }
+    },
+
+    /** A new servant for every request (NonRetain, UseServantManager). */
+    SERVANT_LOCATOR {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            return parent.createChildPoa(name, BASICS.locatorPoaPolicies(), new Locator(impls));
+        }
+    },
+
+    /** A Servant Locator caching at most half of the servants. */
+    CACHING_SERVANT_LOCATOR {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            return parent.createChildPoa(name, BASICS.locatorPoaPolicies(), new CachingLocator(impls));
+        }
+    },
+
+    /** A default servant which marshals the replies itself, as written before DispatchingDefaultServant. */
+    DEFAULT_SERVANT {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            HandWrittenDefaultServant servant = new HandWrittenDefaultServant(impls);
+            servant.setPoaBean(parent);
+            return parent.createChildPoa(name, BASICS.defaultServantPoaPolicies(), servant);
+        }
+    },
+
+    /** A {@link DispatchingDefaultServant}, which delegates to the IDL-generated skeleton. */
+    DISPATCHING_DEFAULT_SERVANT {
+        @Override
+        PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception
+        {
+            DispatchingServant servant = new DispatchingServant(impls);
+            servant.setPoaBean(parent);
+            return parent.createChildPoa(name, BASICS.defaultServantPoaPolicies(), servant);
+        }
+    };
+
+
+    private static final CorbaBasics BASICS = new CorbaBasics();
+
+
+    /**
+     * Creates a child POA serving the given implementations.
+     * @param parent
+     *      The parent POA.
+     * @param name
+     *      The name of the new POA.
+     * @param impls
+     *      The implementations; the object with the object id {@code CorbaObjectId.fromLong(k)} is served by
+     *      {@code impls[k]}.
+     * @return
+     *      The new, initialized POA bean.
+     */
+    abstract PoaBean deploy(PoaBean parent, String name, ParkingSpaceImpl[] impls) throws Exception;
+
+
+    /** Returns the implementation for an object id; {@code null} if there is none. */
+    private static ParkingSpaceImpl implFor(ParkingSpaceImpl[] impls, byte[] oid)
+    {
+        long id = CorbaObjectId.toLong(oid);
+        return id >= 0L && id < impls.length ? impls[(int) id] : null;
+    }
+
+
+    private static final class Activator extends ServantActivatorBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ParkingSpaceImpl[] impls;
+
+        Activator(ParkingSpaceImpl[] impls)
+        {
+            this.impls = impls;
+        }
+
+        @Override
+        public Servant incarnate(byte[] oid, POA adapter)
+        {
+            ParkingSpaceImpl impl = implFor(impls, oid);
+            if (impl == null) {
+                throw new OBJECT_NOT_EXIST();
+            }
+            return new ParkingSpacePOATie(impl, adapter);
+        }
+
+        @Override
+        public void etherealize(byte[] oid, POA adapter, Servant servant, boolean cleanupInProgress,
+                                boolean remainingActivations)
+        {
+            // Nothing to clean up
+        }
+
+    }
+
+
+    private static final class EvictingActivator extends EvictingServantActivatorBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ParkingSpaceImpl[] impls;
+
+        EvictingActivator(ParkingSpaceImpl[] impls)
+        {
+            this.impls = impls;
+        }
+
+        @Override
+        protected Servant createServant(byte[] oid, POA adapter)
+        {
+            ParkingSpaceImpl impl = implFor(impls, oid);
+            if (impl == null) {
+                throw new OBJECT_NOT_EXIST();
+            }
+            return new ParkingSpacePOATie(impl, adapter);
+        }
+
+    }
+
+
+    private static final class Locator extends ServantLocatorBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ParkingSpaceImpl[] impls;
+
+        Locator(ParkingSpaceImpl[] impls)
+        {
+            this.impls = impls;
+        }
+
+        @Override
+        public Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie)
+        {
+            ParkingSpaceImpl impl = implFor(impls, oid);
+            if (impl == null) {
+                throw new OBJECT_NOT_EXIST();
+            }
+            return new ParkingSpacePOATie(impl, adapter);
+        }
+
+        @Override
+        public void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant)
+        {
+            // Nothing to clean up
+        }
+
+    }
+
+
+    private static final class CachingLocator extends CachingServantLocatorBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ParkingSpaceImpl[] impls;
+
+        CachingLocator(ParkingSpaceImpl[] impls)
+        {
+            super(Math.max(1, impls.length / 2));
+            this.impls = impls;
+        }
+
+        @Override
+        protected Servant createServant(byte[] oid, POA adapter)
+        {
+            ParkingSpaceImpl impl = implFor(impls, oid);
+            return impl != null ? new ParkingSpacePOATie(impl, adapter) : null;
+        }
+
+    }
+
+
+    private static final class HandWrittenDefaultServant extends DefaultServantBase {
+
+        private static final String[] implementedIFs = { "IDL:biz/ple_idl/domain/ParkingSpace:1.0" };
+        private final ParkingSpaceImpl[] impls;
+
+        HandWrittenDefaultServant(ParkingSpaceImpl[] impls)
+        {
+            this.impls = impls;
+        }
+
+        @Override
+        public OutputStream _invoke(String method, InputStream input, ResponseHandler handler)
+            throws SystemException
+        {
+            ParkingSpaceImpl impl;
+            try {
+                impl = implFor(impls, poaCurrent.get_object_id());
+            }
+            catch (NoContext ncx) {
+                OutputStream xcpStrm = handler.createExceptionReply();
+                NoContextHelper.write(xcpStrm, ncx);
+                return xcpStrm;
+            }
+            if (impl == null) {
+                OutputStream xcpStrm = handler.createExceptionReply();
+                OBJECT_NOT_EXISTHelper.write(xcpStrm, new OBJECT_NOT_EXIST());
+                return xcpStrm;
+            }
+            OutputStream resp;
+            switch (method) {
+            case "_get_owner":
+                resp = handler.createReply();
+                resp.write_string(impl.owner());
+                return resp;
+            case "_get_parkingId":
+                resp = handler.createReply();
+                resp.write_string(impl.parkingId());
+                return resp;
+            default:
+                OutputStream xcpStrm = handler.createExceptionReply();
+                BAD_OPERATIONHelper.write(xcpStrm, new BAD_OPERATION("No method '" + method + "' in IDL interface ParkingSpace."));
+                return xcpStrm;
+            }
+        }
+
+        @Override
+        public String[] _all_interfaces(POA poa, byte[] objectId)
+        {
+            return implementedIFs;
+        }
+
+    }
+
+
+    private static final class DispatchingServant extends DispatchingDefaultServant<ParkingSpaceOperations> {
+
+        private final ParkingSpaceImpl[] impls;
+
+        DispatchingServant(ParkingSpaceImpl[] impls)
+        {
+            super(ParkingSpacePOATie.class);
+            this.impls = impls;
+        }
+
+        @Override
+        protected ParkingSpaceOperations resolveTarget(byte[] oid)
+        {
+            return implFor(impls, oid);
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+package biz.ple.corba.benchmarks;
+
+import static biz.ple.corba.util.PrimitiveContextCodecs.INT64;
+import static biz.ple.corba.util.PrimitiveContextCodecs.UTF8_STRING;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.util.CdrEncapsulationContextCodec;
+import biz.ple.corba.util.VarintContextCodec;
+import biz.ple_idl.domain.AddressRec;
+
+
+/**
+ * Encoding and decoding of service context data with the {@link biz.ple.corba.util.ServiceContextCodec}
+ * implementations: fixed-layout primitives, zig-zag varints and CDR encapsulations of an IDL struct.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceContextCodecBenchmark {
+
+    private OrbBean orbBean;
+    private VarintContextCodec varintCodec;
+    private CdrEncapsulationContextCodec<AddressRec> cdrCodec;
+    private long[] fields;
+    private AddressRec address;
+    private byte[] int64Data;
+    private byte[] stringData;
+    private byte[] varintData;
+    private byte[] cdrData;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        orbBean = Orbs.start();
+        varintCodec = new VarintContextCodec(3);
+        cdrCodec = new CdrEncapsulationContextCodec<>(orbBean, AddressRec.class);
+        fields = new long[] { 42L, 7L, 1234567L };
+        address = new AddressRec("Main Street", "42a", 12345, "Springfield");
+        int64Data = INT64.encodeLong(0x0123456789ABCDEFL);
+        stringData = UTF8_STRING.encode("tenant-42");
+        varintData = varintCodec.encode(fields);
+        cdrData = cdrCodec.encode(address);
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(orbBean);
+    }
+
+
+    @Benchmark
+    public byte[] encodeInt64()
+    {
+        return INT64.encodeLong(0x0123456789ABCDEFL);
+    }
+
+
+    @Benchmark
+    public long decodeInt64()
+    {
+        return INT64.decodeLong(int64Data);
+    }
+
+
+    @Benchmark
+    public byte[] encodeString()
+    {
+        return UTF8_STRING.encode("tenant-42");
+    }
+
+
+    @Benchmark
+    public String decodeString()
+    {
+        return UTF8_STRING.decode(stringData);
+    }
+
+
+    @Benchmark
+    public byte[] encodeVarints()
+    {
+        return varintCodec.encode(fields);
+    }
+
+
+    @Benchmark
+    public long[] decodeVarints()
+    {
+        varintCodec.decodeInto(varintData, fields);
+        return fields;
+    }
+
+
+    @Benchmark
+    public byte[] encodeCdrStruct()
+    {
+        return cdrCodec.encode(address);
+    }
+
+
+    @Benchmark
+    public AddressRec decodeCdrStruct()
+    {
+        return cdrCodec.decode(cdrData);
+    }
+
+}
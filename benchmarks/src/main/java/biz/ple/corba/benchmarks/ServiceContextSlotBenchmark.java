@@ -0,0 +1,117 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.ServiceContextDefinition;
+import biz.ple.corba.util.ServiceContextManagerBase;
+
+
+/**
+ * <p>Writing and reading a PICurrent slot via the {@link ServiceContextManagerBase} methods, as application
+ * code does before every remote invocation which carries a service context, with and without
+ * {@link ServiceContextManagerBase#setReuseSlotValues(boolean) reuse of the slot values}.</p>
+ * <p>Run with {@code -prof gc}: with {@code reuseSlotValues=true}, writing a primitive value should not
+ * allocate, and neither should reading it with the non-boxing getters.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceContextSlotBenchmark {
+
+    /** A Service Context Manager exposing the protected slot accessors. */
+    public static class SlotManager extends ServiceContextManagerBase {
+
+        public void setLongLong(long value)
+        {
+            setLongLongData(value);
+        }
+
+        public Long getLongLongBoxed()
+        {
+            return getLongLongData();
+        }
+
+        public long getLongLong()
+        {
+            return getLongLongData(0L);
+        }
+
+    }
+
+
+    /** The value written by each benchmark thread. */
+    @State(Scope.Thread)
+    public static class Value {
+
+        long value;
+
+    }
+
+
+    @Param({ "false", "true" })
+    public boolean reuseSlotValues;
+
+    private OrbBean orbBean;
+    private SlotManager manager;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        manager = new SlotManager();
+        manager.setReuseSlotValues(reuseSlotValues);
+        orbBean = Orbs.start(orb -> orb.registerServiceContext(new ServiceContextDefinition(manager, null)));
+        manager.setLongLong(42L);
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        Orbs.stop(orbBean);
+    }
+
+
+    @Benchmark
+    public void setLongLong(Value value)
+    {
+        manager.setLongLong(++value.value);
+    }
+
+
+    @Benchmark
+    public long setAndGetLongLong(Value value)
+    {
+        manager.setLongLong(++value.value);
+        return manager.getLongLong();
+    }
+
+
+    @Benchmark
+    public Long setAndGetLongLongBoxed(Value value)
+    {
+        manager.setLongLong(++value.value);
+        return manager.getLongLongBoxed();
+    }
+
+}
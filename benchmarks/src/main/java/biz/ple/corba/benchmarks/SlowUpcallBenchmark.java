@@ -0,0 +1,171 @@
+package biz.ple.corba.benchmarks;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple_idl.domain.ParkingSpace;
+
+
+/**
+ * <p>Many concurrent invocations of a slow servant (sleeping {@code serviceMillis} per upcall), for each
+ * way of executing the upcalls ({@link UpcallMode}). The server ORB's request processor pool has
+ * {@code maxThreads} threads; the benchmark runs more client threads than that.</p>
+ * <p>As the ORB's request processor thread waits for every upcall, the throughput is bounded by
+ * {@code maxThreads / serviceMillis} in all modes: an upcall executor changes where the servant code runs,
+ * not how many requests are processed concurrently. The benchmark shows the cost of the hand-off under
+ * that load, and whether a mode falls short of the bound.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(64)
+@Fork(1)
+public class SlowUpcallBenchmark {
+
+    /** Where the servant upcalls are executed. */
+    public enum UpcallMode {
+
+        /** On the ORB's request processor threads (no upcall executor). */
+        ORB_THREADS {
+            @Override
+            ExecutorService createExecutor(int maxThreads)
+            {
+                return null;
+            }
+        },
+
+        /** On a fixed pool with as many threads as the ORB's request processor pool. */
+        FIXED_POOL {
+            @Override
+            ExecutorService createExecutor(int maxThreads)
+            {
+                return Executors.newFixedThreadPool(maxThreads);
+            }
+        },
+
+        /** On a virtual thread per upcall; requires Java 21 or later. */
+        VIRTUAL_THREADS {
+            @Override
+            ExecutorService createExecutor(int maxThreads)
+            {
+                try {
+                    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                }
+                catch (ReflectiveOperationException rox) {
+                    throw new IllegalStateException("Virtual threads require Java 21 or later.", rox);
+                }
+            }
+        };
+
+        abstract ExecutorService createExecutor(int maxThreads);
+
+    }
+
+
+    /** A {@code ParkingSpace} whose owner takes a while to look up. */
+    static final class SlowParkingSpaceImpl extends ParkingSpaceImpl {
+
+        private final long serviceMillis;
+
+        SlowParkingSpaceImpl(long id, long serviceMillis)
+        {
+            super(id);
+            this.serviceMillis = serviceMillis;
+        }
+
+        @Override
+        public String owner()
+        {
+            try {
+                Thread.sleep(serviceMillis);
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return super.owner();
+        }
+
+    }
+
+
+    /** The index of the next target object of a benchmark thread. */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        int next;
+
+    }
+
+
+    @Param
+    public UpcallMode mode;
+
+    @Param({ "10" })
+    public int serviceMillis;
+
+    @Param({ "16" })
+    public int maxThreads;
+
+    @Param({ "100" })
+    public int objects;
+
+    private ExecutorService executor;
+    private RoundTripFixture fixture;
+    private ParkingSpace[] references;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        executor = mode.createExecutor(maxThreads);
+        ParkingSpaceImpl[] impls = new ParkingSpaceImpl[objects];
+        for (int id = 0; id < objects; ++id) {
+            impls[id] = new SlowParkingSpaceImpl(id, serviceMillis);
+        }
+        fixture = new RoundTripFixture(ServantSetup.ACTIVE_OBJECT_MAP, impls, orb -> {
+            orb.setMaxThreads(maxThreads);
+            orb.setUpcallExecutor(executor);
+        }, orb -> { });
+        references = fixture.getReferences();
+    }
+
+
+    @TearDown
+    public void tearDown()
+    {
+        fixture.stop();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+
+    @Benchmark
+    public String getOwner(Cursor cursor)
+    {
+        int index = cursor.next;
+        cursor.next = index + 1 < references.length ? index + 1 : 0;
+        return references[index].owner();
+    }
+
+}
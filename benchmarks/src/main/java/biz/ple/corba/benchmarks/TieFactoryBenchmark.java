@@ -0,0 +1,90 @@
+package biz.ple.corba.benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.TimeUnit;
+
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import biz.ple.corba.util.TieFactory;
+import biz.ple_idl.domain.ParkingSpaceOperations;
+import biz.ple_idl.domain.ParkingSpacePOATie;
+
+
+/**
+ * Creation of TIE objects via {@link TieFactory}, compared with {@code new} and with the reflective
+ * constructor invocation used up to 1.3.1.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TieFactoryBenchmark {
+
+    private ParkingSpaceImpl impl;
+    private TieFactory<ParkingSpaceOperations> factory;
+    private Constructor<?> constructor;
+    private Servant tie;
+
+
+    @Setup
+    public void setUp() throws Exception
+    {
+        impl = new ParkingSpaceImpl(42L);
+        factory = TieFactory.forTieClass(ParkingSpacePOATie.class, ParkingSpaceOperations.class);
+        constructor = ParkingSpacePOATie.class.getConstructor(ParkingSpaceOperations.class, POA.class);
+        tie = factory.create(null, null);
+    }
+
+
+    @Benchmark
+    public Servant newTie()
+    {
+        return new ParkingSpacePOATie(impl, null);
+    }
+
+
+    @Benchmark
+    public Servant factoryCreate()
+    {
+        return factory.create(impl, null);
+    }
+
+
+    @Benchmark
+    public Servant factoryCreateUnchecked()
+    {
+        return factory.createUnchecked(impl, null);
+    }
+
+
+    @Benchmark
+    public Servant reflectiveCreate() throws Exception
+    {
+        return (Servant) constructor.newInstance(impl, null);
+    }
+
+
+    @Benchmark
+    public Servant factorySetDelegate()
+    {
+        factory.setDelegate(tie, impl);
+        return tie;
+    }
+
+}
@@ -0,0 +1,118 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import biz.ple.corba.beans.NamedReferenceLookup;
+import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.benchmarks.Orbs;
+import biz.ple_idl.domain.AddressRec;
+import biz.ple_idl.domain.Company;
+import biz.ple_idl.domain.CompanyHome;
+import biz.ple_idl.domain.Employee;
+import biz.ple_idl.domain.EmployeeHome;
+
+
+/**
+ * The client side of a load test: an ORB of its own, the references of the "Domain Server's" homes and
+ * of the employees and companies the load test works on. Shared by all client threads.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class DomainClient {
+
+    private static final String APPLICATION_CTX = "applications.ctx/domainApp.ctx";
+
+    private final OrbBean orbBean;
+    private final EmployeeHome employeeHome;
+    private final CompanyHome companyHome;
+    private long[] employeeIds = new long[0];
+    private Employee[] employees = new Employee[0];
+    private Company[] companies = new Company[0];
+
+
+    /**
+     * Starts the client ORB and looks up the homes in the Naming Service.
+     */
+    DomainClient() throws Exception
+    {
+        orbBean = Orbs.start();
+        try {
+            NamingContextBean appCtx = new NamingContextBean(orbBean.getRootNamingCtx(), APPLICATION_CTX);
+            appCtx.setLookupOnly(true);
+            appCtx.corbaInit();
+            employeeHome = NamedReferenceLookup.lookup(appCtx, "employeeHome.obj", EmployeeHome.class);
+            companyHome = NamedReferenceLookup.lookup(appCtx, "companyHome.obj", CompanyHome.class);
+        }
+        catch (Throwable thr) {
+            Orbs.stop(orbBean);
+            throw new IllegalStateException("Could not look up the homes of the Domain Server.", thr);
+        }
+    }
+
+
+    /**
+     * Creates the employees and companies the load test works on.
+     */
+    void populate(int employeeCount, int companyCount)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        employees = new Employee[employeeCount];
+        employeeIds = new long[employeeCount];
+        for (int idx = 0; idx < employeeCount; ++idx) {
+            employees[idx] = createEmployee(random);
+            employeeIds[idx] = employees[idx].id();
+        }
+        companies = new Company[companyCount];
+        for (int idx = 0; idx < companyCount; ++idx) {
+            companies[idx] = companyHome.create("Company " + idx, address(random), "TAX-" + idx);
+        }
+    }
+
+
+    Employee createEmployee(ThreadLocalRandom random)
+    {
+        int number = random.nextInt(100000);
+        return employeeHome.create("First" + number, "Last" + number, address(random), "Job " + (number % 10),
+                                   30000 + number);
+    }
+
+
+    EmployeeHome getEmployeeHome()
+    {
+        return employeeHome;
+    }
+
+
+    long randomEmployeeId(ThreadLocalRandom random)
+    {
+        return employeeIds[random.nextInt(employeeIds.length)];
+    }
+
+
+    Employee randomEmployee(ThreadLocalRandom random)
+    {
+        return employees[random.nextInt(employees.length)];
+    }
+
+
+    Company randomCompany(ThreadLocalRandom random)
+    {
+        return companies[random.nextInt(companies.length)];
+    }
+
+
+    void stop()
+    {
+        Orbs.stop(orbBean);
+    }
+
+
+    private static AddressRec address(ThreadLocalRandom random)
+    {
+        return new AddressRec("Main Street", String.valueOf(1 + random.nextInt(999)), 10000 + random.nextInt(90000),
+                              "Springfield");
+    }
+
+}
@@ -0,0 +1,278 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.benchmarks.EmbeddedNameService;
+import biz.ple.corba.benchmarks.Orbs;
+import biz.ple.corba.benchmarks.ParkingSpaceImpl;
+import biz.ple.corba.config.CorbaBasics;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple.corba.util.EvictingServantActivatorBase;
+import biz.ple_idl.domain.ParkingSpace;
+import biz.ple_idl.domain.ParkingSpaceHelper;
+import biz.ple_idl.domain.ParkingSpacePOATie;
+
+
+/**
+ * <p>A soak test of {@link EvictingServantActivatorBase}: a RETAIN POA whose Servant Activator keeps at most
+ * {@code limit} servants active is sent requests for {@code objects} new object ids per round, by
+ * {@code clients} threads of a client ORB of its own. After every round, the test waits for the evictions to
+ * complete, runs the garbage collector and prints the used heap (as reported by the {@link MemoryMXBean})
+ * together with the number of active, incarnated and etherealized servants.</p>
+ * <p>The used heap after the {@code warmup} rounds is the baseline. The test fails (exit code 1) if the used
+ * heap after the last round exceeds the baseline by more than {@code tolerance} MB, or if more servants
+ * than the limit remain active.</p>
+ * <pre>
+ * java -cp target/benchmarks.jar biz.ple.corba.benchmarks.load.EvictionSoakTest rounds=50 objects=5000
+ * </pre>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class EvictionSoakTest {
+
+    public static final String USAGE =
+        "Arguments (all optional, as name=value):\n"
+        + "  limit=100        maximum number of active servants\n"
+        + "  objects=5000     new object ids invoked per round\n"
+        + "  rounds=20        number of rounds\n"
+        + "  warmup=3         rounds before the heap baseline is taken\n"
+        + "  clients=4        number of client threads\n"
+        + "  tolerance=4      permitted growth of the used heap after the warmup (MB)";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EvictionSoakTest.class);
+    private static final long MB = 1024L * 1024L;
+    private static final long SETTLE_TIMEOUT_MILLIS = 30_000L;
+
+
+    /** Incarnates a new {@code ParkingSpace} for every object id and counts the etherealized servants. */
+    private static final class SoakActivator extends EvictingServantActivatorBase {
+
+        private static final long serialVersionUID = 1L;
+        private final AtomicLong etherealized = new AtomicLong();
+
+        @Override
+        protected Servant createServant(byte[] oid, POA adapter)
+        {
+            return new ParkingSpacePOATie(new ParkingSpaceImpl(CorbaObjectId.toLong(oid)), adapter);
+        }
+
+        @Override
+        protected void destroyServant(byte[] oid, Servant servant, boolean cleanupInProgress)
+        {
+            etherealized.incrementAndGet();
+        }
+
+        long getEtherealizedCount()
+        {
+            return etherealized.get();
+        }
+
+    }
+
+
+    private int limit = 100;
+    private int objects = 5000;
+    private int rounds = 20;
+    private int warmup = 3;
+    private int clients = 4;
+    private long toleranceMB = 4L;
+
+
+    private EvictionSoakTest()
+    {
+    }
+
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 1 && "help".equals(args[0])) {
+            System.out.println(USAGE);
+            return;
+        }
+        EvictionSoakTest test = new EvictionSoakTest();
+        try {
+            for (String arg: args) {
+                test.set(arg);
+            }
+            if (test.warmup >= test.rounds) {
+                throw new IllegalArgumentException("There must be more rounds than warmup rounds.");
+            }
+        }
+        catch (IllegalArgumentException iax) {
+            System.err.println(iax.getMessage());
+            System.err.println(USAGE);
+            System.exit(1);
+            return;
+        }
+        EmbeddedNameService.useJacorb();
+        if (!test.run()) {
+            System.exit(1);
+        }
+    }
+
+
+    private void set(String arg)
+    {
+        int eq = arg.indexOf('=');
+        if (eq <= 0) {
+            throw new IllegalArgumentException("Argument '" + arg + "' is not of the form name=value.");
+        }
+        String name = arg.substring(0, eq);
+        String value = arg.substring(eq + 1).trim();
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        }
+        catch (NumberFormatException nfx) {
+            throw new IllegalArgumentException("Value of '" + name + "' is not a number: " + value);
+        }
+        if (number < 0 || (number == 0 && !"warmup".equals(name) && !"tolerance".equals(name))) {
+            throw new IllegalArgumentException("Value of '" + name + "' is out of range: " + value);
+        }
+        switch (name) {
+            case "limit":
+                limit = number;
+                break;
+            case "objects":
+                objects = number;
+                break;
+            case "rounds":
+                rounds = number;
+                break;
+            case "warmup":
+                warmup = number;
+                break;
+            case "clients":
+                clients = number;
+                break;
+            case "tolerance":
+                toleranceMB = number;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown argument '" + name + "'.");
+        }
+    }
+
+
+    /**
+     * Runs all rounds and checks the used heap; returns {@code false} if the test failed.
+     */
+    private boolean run() throws Exception
+    {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        SoakActivator activator = new SoakActivator();
+        activator.setMaxServants(limit);
+        OrbBean serverOrb = null;
+        OrbBean clientOrb = null;
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        try {
+            serverOrb = Orbs.start();
+            clientOrb = Orbs.start();
+            PoaBean poaBean = serverOrb.getRootPoa().createChildPoa("soak", new CorbaBasics().activatorPoaPolicies(),
+                                                                    activator);
+            long baseline = -1L;
+            long used = 0L;
+            long nextId = 0L;
+            System.out.println("round  used heap (MB)  active  incarnated  etherealized");
+            for (int round = 1; round <= rounds; ++round) {
+                invokeRound(poaBean, serverOrb, clientOrb, clientThreads, nextId);
+                nextId += objects;
+                settle(activator);
+                used = usedHeapAfterGc(memory);
+                System.out.printf("%5d  %14.1f  %6d  %10d  %12d%n", round, (double) used / MB, activator.getActiveCount(),
+                                  activator.getIncarnationCount(), activator.getEtherealizedCount());
+                if (round == Math.max(warmup, 1)) {
+                    baseline = used;
+                }
+            }
+
+            boolean passed = true;
+            long growth = used - baseline;
+            if (growth > toleranceMB * MB) {
+                System.out.printf("FAILED: used heap grew by %.1f MB after the warmup (tolerance: %d MB)%n",
+                                  (double) growth / MB, toleranceMB);
+                passed = false;
+            }
+            if (activator.getActiveCount() > limit) {
+                System.out.printf("FAILED: %d servants active (limit: %d)%n", activator.getActiveCount(), limit);
+                passed = false;
+            }
+            if (passed) {
+                System.out.printf("PASSED: used heap changed by %.1f MB after the warmup (tolerance: %d MB)%n",
+                                  (double) growth / MB, toleranceMB);
+            }
+            return passed;
+        }
+        finally {
+            clientThreads.shutdownNow();
+            Orbs.stop(clientOrb, serverOrb);
+        }
+    }
+
+
+    /** Invokes one new object each for the object ids {@code firstId} to {@code firstId + objects - 1}. */
+    private void invokeRound(PoaBean poaBean, OrbBean serverOrb, OrbBean clientOrb, ExecutorService clientThreads,
+                             long firstId) throws Exception
+    {
+        List<Future<?>> results = new ArrayList<>(clients);
+        for (int client = 0; client < clients; ++client) {
+            int offset = client;
+            results.add(clientThreads.submit(() -> {
+                for (long id = firstId + offset; id < firstId + objects; id += clients) {
+                    ParkingSpace serverRef = poaBean.createObjectReference(CorbaObjectId.fromLong(id), ParkingSpace.class);
+                    String ior = serverOrb.getORB().object_to_string(serverRef);
+                    ParkingSpace ref = ParkingSpaceHelper.narrow(clientOrb.getORB().string_to_object(ior));
+                    ref.owner();
+                    ref._release();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> result: results) {
+            result.get();
+        }
+    }
+
+
+    /** Waits until the evicted servants have been etherealized and no more than the limit are active. */
+    private void settle(SoakActivator activator) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + SETTLE_TIMEOUT_MILLIS;
+        while (activator.getActiveCount() > limit
+               || activator.getIncarnationCount() - activator.getEtherealizedCount() > limit)
+        {
+            if (System.currentTimeMillis() > deadline) {
+                LOG.warn("Evictions did not complete within {} ms.", SETTLE_TIMEOUT_MILLIS);
+                return;
+            }
+            Thread.sleep(10L);
+        }
+    }
+
+
+    private static long usedHeapAfterGc(MemoryMXBean memory) throws InterruptedException
+    {
+        // Several collections, so that objects freed by finalization or reference processing are gone as well
+        for (int gc = 0; gc < 3; ++gc) {
+            memory.gc();
+            Thread.sleep(50L);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+}
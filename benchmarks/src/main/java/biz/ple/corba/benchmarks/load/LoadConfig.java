@@ -0,0 +1,264 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * <p>The configuration of a load test, parsed from {@code name=value} command line arguments; see
+ * {@link #USAGE} for the names and default values. The same workload is run against every
+ * {@link ServerSetup} in {@link #getSetups()}.</p>
+ * <ul>
+ *   <li>In the <b>closed</b> loop mode, each of the {@code clients} threads issues its next request as soon
+ *       as (plus an optional think time) the previous one has completed, so the throughput is whatever the
+ *       server sustains.</li>
+ *   <li>In the <b>open</b> loop mode, requests are issued at a fixed {@code rate}, independent of how fast they
+ *       are completed, by {@code clients} threads; a request's latency is measured from the time it was due,
+ *       so that waiting for a free client thread counts as well.</li>
+ * </ul>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class LoadConfig {
+
+    public enum Mode { CLOSED, OPEN }
+
+
+    public static final String USAGE =
+        "Arguments (all optional, as name=value):\n"
+        + "  setups=LOCATOR,ACTIVATOR,DEFAULT_SERVANT   the POA configurations serving the employees\n"
+        + "  mode=closed                                closed or open loop\n"
+        + "  clients=8                                  number of client threads\n"
+        + "  rate=1000                                  open loop: requests per second (all clients)\n"
+        + "  thinkTime=0                                closed loop: pause between requests (ms)\n"
+        + "  warmup=10                                  warmup per setup (s), not measured\n"
+        + "  duration=30                                measurement per setup (s)\n"
+        + "  employees=1000                             employees created before the test\n"
+        + "  companies=10                               companies created before the test\n"
+        + "  mix=find:50,parkingSpace:20,create:10,findAll:5,hire:10,fire:5\n"
+        + "                                             operations and their relative weights\n"
+        + "  report=load-report.json                    the report file (JSON)";
+
+    private List<ServerSetup> setups = new ArrayList<>();
+    private Mode mode = Mode.CLOSED;
+    private int clients = 8;
+    private int rate = 1000;
+    private long thinkTimeMillis = 0L;
+    private int warmupSeconds = 10;
+    private int durationSeconds = 30;
+    private int employees = 1000;
+    private int companies = 10;
+    private Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+    private String reportFile = "load-report.json";
+
+    private Operation[] mixOperations;
+    private int[] mixThresholds;
+
+
+    private LoadConfig()
+    {
+        Collections.addAll(setups, ServerSetup.values());
+        parseMix("find:50,parkingSpace:20,create:10,findAll:5,hire:10,fire:5");
+    }
+
+
+    /**
+     * Parses the command line arguments.
+     * @throws IllegalArgumentException
+     *      If an argument is unknown or its value is invalid.
+     */
+    public static LoadConfig parse(String... args)
+    {
+        LoadConfig config = new LoadConfig();
+        for (String arg: args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Argument '" + arg + "' is not of the form name=value.");
+            }
+            config.set(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return config;
+    }
+
+
+    private void set(String name, String value)
+    {
+        switch (name) {
+            case "setups":
+                setups.clear();
+                for (String setup: value.split(",")) {
+                    setups.add(ServerSetup.valueOf(setup.trim().toUpperCase()));
+                }
+                break;
+            case "mode":
+                mode = Mode.valueOf(value.trim().toUpperCase());
+                break;
+            case "clients":
+                clients = positive(name, value);
+                break;
+            case "rate":
+                rate = positive(name, value);
+                break;
+            case "thinkTime":
+                thinkTimeMillis = notNegative(name, value);
+                break;
+            case "warmup":
+                warmupSeconds = notNegative(name, value);
+                break;
+            case "duration":
+                durationSeconds = positive(name, value);
+                break;
+            case "employees":
+                employees = positive(name, value);
+                break;
+            case "companies":
+                companies = positive(name, value);
+                break;
+            case "mix":
+                parseMix(value);
+                break;
+            case "report":
+                reportFile = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown argument '" + name + "'.");
+        }
+    }
+
+
+    private static int positive(String name, String value)
+    {
+        int number = Integer.parseInt(value.trim());
+        if (number <= 0) {
+            throw new IllegalArgumentException("The value of '" + name + "' must be positive.");
+        }
+        return number;
+    }
+
+
+    private static int notNegative(String name, String value)
+    {
+        int number = Integer.parseInt(value.trim());
+        if (number < 0) {
+            throw new IllegalArgumentException("The value of '" + name + "' must not be negative.");
+        }
+        return number;
+    }
+
+
+    private void parseMix(String value)
+    {
+        Map<Operation, Integer> newMix = new EnumMap<>(Operation.class);
+        for (String entry: value.split(",")) {
+            int colon = entry.indexOf(':');
+            Operation op = Operation.forLabel((colon < 0 ? entry : entry.substring(0, colon)).trim());
+            int weight = colon < 0 ? 1 : Integer.parseInt(entry.substring(colon + 1).trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("The weight of '" + op.getLabel() + "' must not be negative.");
+            }
+            if (weight > 0) {
+                newMix.put(op, weight);
+            }
+        }
+        if (newMix.isEmpty()) {
+            throw new IllegalArgumentException("The mix must contain at least one operation.");
+        }
+        mixOperations = new Operation[newMix.size()];
+        mixThresholds = new int[newMix.size()];
+        int idx = 0;
+        int total = 0;
+        for (Map.Entry<Operation, Integer> entry: newMix.entrySet()) {
+            total += entry.getValue();
+            mixOperations[idx] = entry.getKey();
+            mixThresholds[idx++] = total;
+        }
+        mix = newMix;
+    }
+
+
+    /**
+     * Picks an operation at random, according to the weights of the mix.
+     */
+    Operation nextOperation(ThreadLocalRandom random)
+    {
+        int value = random.nextInt(mixThresholds[mixThresholds.length - 1]);
+        int idx = 0;
+        while (value >= mixThresholds[idx]) {
+            ++idx;
+        }
+        return mixOperations[idx];
+    }
+
+
+    public List<ServerSetup> getSetups()
+    {
+        return Collections.unmodifiableList(setups);
+    }
+
+
+    public Mode getMode()
+    {
+        return mode;
+    }
+
+
+    public int getClients()
+    {
+        return clients;
+    }
+
+
+    public int getRate()
+    {
+        return rate;
+    }
+
+
+    public long getThinkTimeMillis()
+    {
+        return thinkTimeMillis;
+    }
+
+
+    public int getWarmupSeconds()
+    {
+        return warmupSeconds;
+    }
+
+
+    public int getDurationSeconds()
+    {
+        return durationSeconds;
+    }
+
+
+    public int getEmployees()
+    {
+        return employees;
+    }
+
+
+    public int getCompanies()
+    {
+        return companies;
+    }
+
+
+    /** Returns the operations and their (relative) weights. */
+    public Map<Operation, Integer> getMix()
+    {
+        return Collections.unmodifiableMap(mix);
+    }
+
+
+    public String getReportFile()
+    {
+        return reportFile;
+    }
+
+}
@@ -0,0 +1,126 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Runs one phase of a load test, in the closed or open loop {@link LoadConfig.Mode mode}.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class LoadGenerator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadGenerator.class);
+
+    /** How long an open loop test waits for the requests still queued at its end, in seconds. */
+    private static final long DRAIN_TIMEOUT_SECONDS = 60L;
+
+    private final LoadConfig config;
+    private final DomainClient client;
+
+
+    LoadGenerator(LoadConfig config, DomainClient client)
+    {
+        this.config = config;
+        this.client = client;
+    }
+
+
+    /**
+     * Runs the workload for the given number of seconds.
+     */
+    LoadResults run(int seconds) throws InterruptedException
+    {
+        LoadResults results = new LoadResults(config);
+        long durationNanos = TimeUnit.SECONDS.toNanos(seconds);
+        if (config.getMode() == LoadConfig.Mode.CLOSED) {
+            runClosedLoop(results, durationNanos);
+        }
+        else {
+            runOpenLoop(results, durationNanos);
+        }
+        return results;
+    }
+
+
+    private void runClosedLoop(LoadResults results, long durationNanos) throws InterruptedException
+    {
+        Thread[] threads = new Thread[config.getClients()];
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        results.setStartNanos(start);
+        for (int idx = 0; idx < threads.length; ++idx) {
+            threads[idx] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    execute(results, random, System.nanoTime());
+                    if (config.getThinkTimeMillis() > 0L) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(config.getThinkTimeMillis()));
+                    }
+                }
+            }, "load-client-" + idx);
+            threads[idx].start();
+        }
+        for (Thread thread: threads) {
+            thread.join();
+        }
+        results.setEndNanos(System.nanoTime());
+    }
+
+
+    private void runOpenLoop(LoadResults results, long durationNanos) throws InterruptedException
+    {
+        AtomicInteger threadCount = new AtomicInteger(0);
+        ExecutorService clients = Executors.newFixedThreadPool(config.getClients(), runnable -> {
+            Thread thread = new Thread(runnable, "load-client-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = TimeUnit.SECONDS.toNanos(1L) / config.getRate();
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        results.setStartNanos(start);
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0L) {
+                LockSupport.parkNanos(wait);
+            }
+            long scheduled = due;
+            clients.execute(() -> execute(results, ThreadLocalRandom.current(), scheduled));
+        }
+        clients.shutdown();
+        if (!clients.awaitTermination(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            int dropped = clients.shutdownNow().size();
+            LOG.warn("{} requests were still queued {} s after the end of the test.", dropped, DRAIN_TIMEOUT_SECONDS);
+            results.recordDropped(dropped);
+        }
+        results.setEndNanos(System.nanoTime());
+    }
+
+
+    /**
+     * Executes a random operation and records its latency, measured from {@code startNanos}.
+     */
+    private void execute(LoadResults results, ThreadLocalRandom random, long startNanos)
+    {
+        Operation op = config.nextOperation(random);
+        try {
+            op.execute(client, random);
+            results.record(op, System.nanoTime() - startNanos);
+        }
+        catch (RuntimeException rtx) {
+            LOG.debug("Operation {} failed.", op.getLabel(), rtx);
+            results.recordError(op);
+        }
+    }
+
+}
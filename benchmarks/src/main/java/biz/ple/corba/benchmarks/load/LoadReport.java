@@ -0,0 +1,179 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import biz.ple.corba.metrics.LatencyHistogram;
+
+
+/**
+ * Collects the measurement results of every {@link ServerSetup} of a load test and writes them as a JSON
+ * document (throughput in requests per second, latencies in microseconds):
+ * <pre>
+ * { "mode": "closed", "clients": 8, ..., "mix": { "find": 50, ... },
+ *   "results": [ { "setup": "LOCATOR", "seconds": 30.0, "requests": 123456, "errors": 0, "dropped": 0,
+ *                  "throughput": 4115.2, "latency": { "mean": ..., "p50": ..., "p90": ..., "p99": ...,
+ *                                                     "p999": ..., "max": ... },
+ *                  "operations": [ { "name": "find", "requests": ..., "errors": ..., "throughput": ...,
+ *                                    "latency": { ... } }, ... ] }, ... ] }
+ * </pre>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class LoadReport {
+
+    private static final double[] PERCENTILES = { 50.0, 90.0, 99.0, 99.9 };
+    private static final String[] PERCENTILE_NAMES = { "p50", "p90", "p99", "p999" };
+
+    private final LoadConfig config;
+    private final List<ServerSetup> setups = new ArrayList<>();
+    private final List<LoadResults> results = new ArrayList<>();
+
+
+    LoadReport(LoadConfig config)
+    {
+        this.config = config;
+    }
+
+
+    void add(ServerSetup setup, LoadResults setupResults)
+    {
+        setups.add(setup);
+        results.add(setupResults);
+    }
+
+
+    /**
+     * Prints one line per setup and operation.
+     */
+    void printSummary(PrintStream out)
+    {
+        out.printf("%-16s %-13s %10s %8s %12s %10s %10s %10s %10s%n", "setup", "operation", "requests", "errors",
+                   "req/s", "p50 [us]", "p90 [us]", "p99 [us]", "max [us]");
+        for (int idx = 0; idx < setups.size(); ++idx) {
+            LoadResults setupResults = results.get(idx);
+            double seconds = setupResults.getElapsedSeconds();
+            for (Operation op: setupResults.getOperations()) {
+                printLine(out, setups.get(idx).name(), op.getLabel(), setupResults.getLatencies(op),
+                          setupResults.getErrors(op), seconds);
+            }
+            printLine(out, setups.get(idx).name(), "(all)", setupResults.getOverallLatencies(),
+                      setupResults.getErrors(), seconds);
+        }
+    }
+
+
+    private static void printLine(PrintStream out, String setup, String operation, LatencyHistogram.Snapshot latencies,
+                                  long errors, double seconds)
+    {
+        out.printf(Locale.ROOT, "%-16s %-13s %10d %8d %12.1f %10.1f %10.1f %10.1f %10.1f%n", setup, operation,
+                   latencies.getCount(), errors, latencies.getCount() / seconds,
+                   latencies.getValueAtPercentile(50.0, TimeUnit.MICROSECONDS),
+                   latencies.getValueAtPercentile(90.0, TimeUnit.MICROSECONDS),
+                   latencies.getValueAtPercentile(99.0, TimeUnit.MICROSECONDS),
+                   latencies.getMax() / 1e3);
+    }
+
+
+    /**
+     * Writes the report to {@link LoadConfig#getReportFile()}.
+     */
+    void write() throws IOException
+    {
+        try (Writer writer = Files.newBufferedWriter(Paths.get(config.getReportFile()), StandardCharsets.UTF_8)) {
+            writer.write(toJson());
+        }
+    }
+
+
+    String toJson()
+    {
+        StringBuilder json = new StringBuilder(4096);
+        json.append("{\n");
+        json.append("  \"mode\": \"").append(config.getMode().name().toLowerCase(Locale.ROOT)).append("\",\n");
+        json.append("  \"clients\": ").append(config.getClients()).append(",\n");
+        if (config.getMode() == LoadConfig.Mode.OPEN) {
+            json.append("  \"rate\": ").append(config.getRate()).append(",\n");
+        }
+        else {
+            json.append("  \"thinkTimeMillis\": ").append(config.getThinkTimeMillis()).append(",\n");
+        }
+        json.append("  \"warmupSeconds\": ").append(config.getWarmupSeconds()).append(",\n");
+        json.append("  \"durationSeconds\": ").append(config.getDurationSeconds()).append(",\n");
+        json.append("  \"employees\": ").append(config.getEmployees()).append(",\n");
+        json.append("  \"companies\": ").append(config.getCompanies()).append(",\n");
+        json.append("  \"mix\": {");
+        String separator = " ";
+        for (Map.Entry<Operation, Integer> entry: config.getMix().entrySet()) {
+            json.append(separator).append('"').append(entry.getKey().getLabel()).append("\": ").append(entry.getValue());
+            separator = ", ";
+        }
+        json.append(" },\n");
+        json.append("  \"results\": [");
+        for (int idx = 0; idx < setups.size(); ++idx) {
+            appendSetup(json, setups.get(idx), results.get(idx));
+            json.append(idx < setups.size() - 1 ? "," : "\n  ");
+        }
+        json.append("]\n}\n");
+        return json.toString();
+    }
+
+
+    private static void appendSetup(StringBuilder json, ServerSetup setup, LoadResults setupResults)
+    {
+        double seconds = setupResults.getElapsedSeconds();
+        LatencyHistogram.Snapshot overall = setupResults.getOverallLatencies();
+        json.append("\n    {\n");
+        json.append("      \"setup\": \"").append(setup.name()).append("\",\n");
+        json.append("      \"seconds\": ").append(format(seconds)).append(",\n");
+        json.append("      \"requests\": ").append(overall.getCount()).append(",\n");
+        json.append("      \"errors\": ").append(setupResults.getErrors()).append(",\n");
+        json.append("      \"dropped\": ").append(setupResults.getDropped()).append(",\n");
+        json.append("      \"throughput\": ").append(format(overall.getCount() / seconds)).append(",\n");
+        json.append("      \"latency\": ");
+        appendLatency(json, overall);
+        json.append(",\n      \"operations\": [");
+        String separator = "\n";
+        for (Operation op: setupResults.getOperations()) {
+            LatencyHistogram.Snapshot latencies = setupResults.getLatencies(op);
+            json.append(separator);
+            json.append("        { \"name\": \"").append(op.getLabel()).append("\", ");
+            json.append("\"requests\": ").append(latencies.getCount()).append(", ");
+            json.append("\"errors\": ").append(setupResults.getErrors(op)).append(", ");
+            json.append("\"throughput\": ").append(format(latencies.getCount() / seconds)).append(", ");
+            json.append("\"latency\": ");
+            appendLatency(json, latencies);
+            json.append(" }");
+            separator = ",\n";
+        }
+        json.append("\n      ]\n    }");
+    }
+
+
+    private static void appendLatency(StringBuilder json, LatencyHistogram.Snapshot latencies)
+    {
+        json.append("{ \"mean\": ").append(format(latencies.getMean() / 1e3));
+        for (int idx = 0; idx < PERCENTILES.length; ++idx) {
+            json.append(", \"").append(PERCENTILE_NAMES[idx]).append("\": ")
+                .append(format(latencies.getValueAtPercentile(PERCENTILES[idx], TimeUnit.MICROSECONDS)));
+        }
+        json.append(", \"max\": ").append(format(latencies.getMax() / 1e3)).append(" }");
+    }
+
+
+    private static String format(double value)
+    {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : String.format(Locale.ROOT, "%.1f", value);
+    }
+
+}
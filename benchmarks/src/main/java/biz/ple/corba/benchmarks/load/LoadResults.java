@@ -0,0 +1,119 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import biz.ple.corba.metrics.LatencyHistogram;
+
+
+/**
+ * The latencies and errors of one phase (warmup or measurement) of a load test, per operation and overall.
+ * Failed requests are counted, but their latencies are not recorded.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class LoadResults {
+
+    private static final int MAX_STRIPES = 16;
+
+    private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final LatencyHistogram overall;
+    private final LongAdder dropped = new LongAdder();
+    private long startNanos;
+    private long endNanos;
+
+
+    LoadResults(LoadConfig config)
+    {
+        int stripes = Math.min(config.getClients(), MAX_STRIPES);
+        for (Operation op: config.getMix().keySet()) {
+            latencies.put(op, new LatencyHistogram(stripes));
+            errors.put(op, new LongAdder());
+        }
+        overall = new LatencyHistogram(stripes);
+    }
+
+
+    void record(Operation op, long nanos)
+    {
+        latencies.get(op).record(nanos);
+        overall.record(nanos);
+    }
+
+
+    void recordError(Operation op)
+    {
+        errors.get(op).increment();
+    }
+
+
+    /** Counts requests of an open loop test which have not been executed by the end of the test. */
+    void recordDropped(long count)
+    {
+        dropped.add(count);
+    }
+
+
+    void setStartNanos(long startNanos)
+    {
+        this.startNanos = startNanos;
+    }
+
+
+    void setEndNanos(long endNanos)
+    {
+        this.endNanos = endNanos;
+    }
+
+
+    /** Returns the operations of the mix, in the order of their declaration. */
+    Iterable<Operation> getOperations()
+    {
+        return latencies.keySet();
+    }
+
+
+    LatencyHistogram.Snapshot getLatencies(Operation op)
+    {
+        return latencies.get(op).snapshot();
+    }
+
+
+    LatencyHistogram.Snapshot getOverallLatencies()
+    {
+        return overall.snapshot();
+    }
+
+
+    long getErrors(Operation op)
+    {
+        return errors.get(op).sum();
+    }
+
+
+    long getErrors()
+    {
+        long total = 0L;
+        for (LongAdder count: errors.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+
+    long getDropped()
+    {
+        return dropped.sum();
+    }
+
+
+    /** Returns the duration of the phase in seconds. */
+    double getElapsedSeconds()
+    {
+        return (endNanos - startNanos) / 1e9;
+    }
+
+}
@@ -0,0 +1,92 @@
+package biz.ple.corba.benchmarks.load;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.benchmarks.EmbeddedNameService;
+import biz.ple.test.servers.DomainServer;
+import biz.ple.test.servers.config.DomainConfiguration;
+
+
+/**
+ * <p>An end-to-end load test of the integration tests' "Domain Server", which runs entirely in one JVM: the
+ * {@link EmbeddedNameService}, the {@link DomainServer} and the client threads, which use an ORB of their
+ * own. For every {@link ServerSetup}, a new Domain Server is started, populated with employees and companies,
+ * warmed up and then measured with the same workload (see {@link LoadConfig}); the results are printed and
+ * written to a JSON report.</p>
+ * <pre>
+ * java -cp target/benchmarks.jar biz.ple.corba.benchmarks.load.LoadTest mode=open rate=2000 clients=16
+ * </pre>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class LoadTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadTest.class);
+
+
+    private LoadTest()
+    {
+    }
+
+
+    public static void main(String[] args) throws Exception
+    {
+        if (args.length == 1 && "help".equals(args[0])) {
+            System.out.println(LoadConfig.USAGE);
+            return;
+        }
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        }
+        catch (IllegalArgumentException iax) {
+            System.err.println(iax.getMessage());
+            System.err.println(LoadConfig.USAGE);
+            System.exit(1);
+            return;
+        }
+        // The Domain Server's and the clients' helper classes use the singleton ORB, which must be JacORB's
+        EmbeddedNameService.useJacorb();
+        System.setProperty(DomainConfiguration.NAME_SERVICE_INIT_REF, EmbeddedNameService.corbaloc());
+        LoadReport report = new LoadReport(config);
+        for (ServerSetup setup: config.getSetups()) {
+            report.add(setup, run(config, setup));
+        }
+        report.printSummary(System.out);
+        report.write();
+        LOG.info("Report written to {}.", config.getReportFile());
+    }
+
+
+    private static LoadResults run(LoadConfig config, ServerSetup setup) throws Exception
+    {
+        LOG.info("Starting the Domain Server with {} ...", setup);
+        AnnotationConfigApplicationContext serverCtx = DomainServer.start(setup.getProfile());
+        DomainClient client = null;
+        try {
+            client = new DomainClient();
+            client.populate(config.getEmployees(), config.getCompanies());
+            LoadGenerator generator = new LoadGenerator(config, client);
+            if (config.getWarmupSeconds() > 0) {
+                LOG.info("Warming up for {} s ...", config.getWarmupSeconds());
+                generator.run(config.getWarmupSeconds());
+            }
+            LOG.info("Measuring for {} s ...", config.getDurationSeconds());
+            return generator.run(config.getDurationSeconds());
+        }
+        finally {
+            if (client != null) {
+                client.stop();
+            }
+            OrbBean serverOrb = serverCtx.getBean("orb", OrbBean.class);
+            serverOrb.stop(false);
+            serverOrb.waitForShutdown();
+            serverCtx.close();
+        }
+    }
+
+}
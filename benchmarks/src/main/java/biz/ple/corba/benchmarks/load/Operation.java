@@ -0,0 +1,108 @@
+package biz.ple.corba.benchmarks.load;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import biz.ple_idl.domain.Employee;
+
+
+/**
+ * The operations a load test client performs; which of them, and how often, is configured by the
+ * {@link LoadConfig#getMix() mix}. Operations on existing employees and companies pick them at random from
+ * those created by {@link DomainClient#populate(int, int)}.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public enum Operation {
+
+    /** Creates an employee and deletes it again, so that the number of employees stays constant. */
+    CREATE("create") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            Employee employee = client.createEmployee(random);
+            client.getEmployeeHome().delete(employee);
+        }
+    },
+
+    /** Finds an employee by id and reads one of its attributes. */
+    FIND("find") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            client.getEmployeeHome().findById(client.randomEmployeeId(random)).lastName();
+        }
+    },
+
+    /** Retrieves the references of all employees. */
+    FIND_ALL("findAll") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            client.getEmployeeHome().findAll();
+        }
+    },
+
+    /** A company hires an employee (which may already work for it). */
+    HIRE("hire") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            client.randomCompany(random).hire(client.randomEmployee(random));
+        }
+    },
+
+    /** A company fires an employee (which may not work for it). */
+    FIRE("fire") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            client.randomCompany(random).fire(client.randomEmployee(random));
+        }
+    },
+
+    /** Retrieves the parking space of an employee (served by a default servant) and reads its id. */
+    PARKING_SPACE("parkingSpace") {
+        @Override
+        void execute(DomainClient client, ThreadLocalRandom random)
+        {
+            client.randomEmployee(random).getParkingSpace().parkingId();
+        }
+    };
+
+
+    private final String label;
+
+
+    Operation(String label)
+    {
+        this.label = label;
+    }
+
+
+    /** Returns the name of the operation in the mix and in the report. */
+    public String getLabel()
+    {
+        return label;
+    }
+
+
+    /**
+     * Returns the operation with the given {@link #getLabel() label}.
+     * @throws IllegalArgumentException
+     *      If there is no such operation.
+     */
+    public static Operation forLabel(String label)
+    {
+        for (Operation op: values()) {
+            if (op.label.equals(label)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + label + "'.");
+    }
+
+
+    abstract void execute(DomainClient client, ThreadLocalRandom random);
+
+}
@@ -0,0 +1,40 @@
+package biz.ple.corba.benchmarks.load;
+
+import biz.ple.test.servers.config.DomainConfiguration;
+
+
+/**
+ * The ways the "Domain Server" can serve its employees; each corresponds to a Spring profile of the
+ * {@link DomainConfiguration}.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public enum ServerSetup {
+
+    /** A caching Servant Locator (POA with the NON_RETAIN policy). */
+    LOCATOR(DomainConfiguration.EMPLOYEES_LOCATOR),
+
+    /** A Servant Activator; incarnated employees stay in the Active Object Map. */
+    ACTIVATOR(DomainConfiguration.EMPLOYEES_ACTIVATOR),
+
+    /** A dispatching default servant. */
+    DEFAULT_SERVANT(DomainConfiguration.EMPLOYEES_DEFAULT_SERVANT);
+
+
+    private final String profile;
+
+
+    ServerSetup(String profile)
+    {
+        this.profile = profile;
+    }
+
+
+    /** Returns the Spring profile which selects this setup. */
+    public String getProfile()
+    {
+        return profile;
+    }
+
+}
@@ -100,13 +100,9 @@ public class CompanyFactory extends ServantLocatorBase implements CompanyHomeOpe
     @Override
     public Company[] findAll()
     {
-        Long[] allIds = companies.keySet().toArray(new Long[companies.keySet().size()]);
+        long[] allIds = companies.keySet().stream().mapToLong(Long::longValue).toArray();
         Arrays.sort(allIds);
-        Company[] result = new Company[allIds.length];
-        for (int k = 0; k < allIds.length; ++k) {
-            result[k] = myPoa.createObjectReference(CorbaObjectId.fromLong(allIds[k]), Company.class);
-        }
-        return result;
+        return myPoa.createObjectReferences(allIds, Company.class);
     }
 
 
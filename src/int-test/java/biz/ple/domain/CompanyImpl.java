@@ -1,7 +1,7 @@
 package biz.ple.domain;
 
-import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 import biz.ple_idl.domain.AddressRec;
@@ -23,7 +23,7 @@ public class CompanyImpl extends CompanyPOA {
     public CompanyImpl(long id)
     {
         this.id = id;
-        this.employees = new LinkedList<>();
+        this.employees = new CopyOnWriteArrayList<>();
     }
 
 
@@ -120,9 +120,8 @@ public class CompanyImpl extends CompanyPOA {
             return;
         }
         long oldId = oldEmp.id();
-        List<Employee> changedRoster = employees.stream().filter(emp -> emp.id() != oldId).collect(Collectors.toList());
-        if (changedRoster.size() < employees.size()) {
-            employees = changedRoster;
+        List<Employee> leaving = employees.stream().filter(emp -> emp.id() == oldId).collect(Collectors.toList());
+        if (employees.removeAll(leaving)) {
             oldEmp.setCompany(null);
         }
     }
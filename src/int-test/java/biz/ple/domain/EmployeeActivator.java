@@ -0,0 +1,83 @@
+package biz.ple.domain;
+
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.INV_OBJREF;
+import org.omg.CORBA.OBJECT_NOT_EXIST;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+import org.omg.PortableServer.POAPackage.WrongPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+
+import biz.ple.corba.annotations.CorbaServantActivator;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple.corba.util.ServantActivatorBase;
+import biz.ple_idl.domain.EmployeePOATie;
+
+
+/**
+ * Alternative to the {@link EmployeeLocator}: incarnates employees once and keeps them in the
+ * POA's Active Object Map until they are deleted.
+ */
+@CorbaServantActivator(poa = "employeesPoa")
+@Profile("employeesActivator")
+public class EmployeeActivator extends ServantActivatorBase {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(EmployeeActivator.class);
+
+    private EmployeeRepository employeeRepo;
+
+
+    @Autowired
+    public void setEmployeeRepository(EmployeeRepository repo)
+    {
+        this.employeeRepo = repo;
+        repo.addDeletionListener(this::deactivate);
+    }
+
+
+    @Override
+    public Servant incarnate(byte[] oid, POA adapter)
+    {
+        long objectId;
+        try {
+            objectId = CorbaObjectId.toLong(oid);
+        }
+        catch (Exception xcp) {
+            LOG.error("ObjectId (byte array) {} does not seem to represent a long value.", oid);
+            throw new INV_OBJREF("ObjectId must be convertible to a long.");
+        }
+        EmployeeImpl impl = employeeRepo.getEmployee(objectId);
+        if (impl == null) {
+            throw new OBJECT_NOT_EXIST(0, CompletionStatus.COMPLETED_NO);
+        }
+        return new EmployeePOATie(impl, adapter);
+    }
+
+
+    @Override
+    public void etherealize(byte[] oid, POA adapter, Servant servant, boolean cleanupInProgress,
+                            boolean remainingActivations)
+    {
+        // Nothing to do here
+    }
+
+
+    private void deactivate(long id)
+    {
+        try {
+            myPoa.getPoa().deactivate_object(CorbaObjectId.fromLong(id));
+        }
+        catch (ObjectNotActive ona) {
+            // The employee has never been used since it was created
+        }
+        catch (WrongPolicy wp) {
+            LOG.error("The POA {} does not retain its servants.", myPoa.getPoa().the_name());
+        }
+    }
+
+}
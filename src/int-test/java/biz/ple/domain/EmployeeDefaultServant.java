@@ -0,0 +1,38 @@
+package biz.ple.domain;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+
+import biz.ple.corba.annotations.CorbaDefaultServant;
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple.corba.util.DispatchingDefaultServant;
+import biz.ple_idl.domain.EmployeeOperations;
+import biz.ple_idl.domain.EmployeePOATie;
+
+
+/**
+ * Alternative to the {@link EmployeeLocator}: one servant for all employees, which dispatches each
+ * request to the employee found in the repository.
+ */
+@CorbaDefaultServant(poa = "employeesPoa")
+@Profile("employeesDefaultServant")
+public class EmployeeDefaultServant extends DispatchingDefaultServant<EmployeeOperations> {
+
+    private EmployeeRepository employeeRepo;
+
+
+    @Autowired
+    public EmployeeDefaultServant(EmployeeRepository employeeRepo)
+    {
+        super(EmployeePOATie.class);
+        this.employeeRepo = employeeRepo;
+    }
+
+
+    @Override
+    protected EmployeeOperations resolveTarget(byte[] oid)
+    {
+        return employeeRepo.getEmployee(CorbaObjectId.toLong(oid));
+    }
+
+}
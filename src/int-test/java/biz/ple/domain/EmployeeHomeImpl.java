@@ -94,12 +94,7 @@ public class EmployeeHomeImpl implements EmployeeHomeOperations {
     @Override
     public Employee[] findAll()
     {
-        Long[] allIds = repo.getAllEmployeeIds();
-        Employee[] result = new Employee[allIds.length];
-        for (int k = 0; k < allIds.length; ++k) {
-              result[k] = employeePoa.createObjectReference(fromLong(allIds[k]), Employee.class);
-        }
-        return result;
+        return employeePoa.createObjectReferences(repo.getAllEmployeeIds(), Employee.class);
     }
 
 
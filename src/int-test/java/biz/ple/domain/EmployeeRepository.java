@@ -1,10 +1,12 @@
 package biz.ple.domain;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
 
 import org.springframework.stereotype.Component;
 
@@ -16,6 +18,7 @@ public class EmployeeRepository {
 
     private AtomicLong nextId = new AtomicLong(1L);
     private Map<Long, EmployeeImpl> employees = new ConcurrentHashMap<>();
+    private List<LongConsumer> deletionListeners = new CopyOnWriteArrayList<>();
 
 
     public EmployeeImpl getEmployee(long id)
@@ -33,10 +36,9 @@ public class EmployeeRepository {
     }
 
 
-    public Long[] getAllEmployeeIds()
+    public long[] getAllEmployeeIds()
     {
-        Set<Long> keys = employees.keySet();
-        Long[] keysArray = keys.toArray(new Long[keys.size()]);
+        long[] keysArray = employees.keySet().stream().mapToLong(Long::longValue).toArray();
         Arrays.sort(keysArray);
         return keysArray;
     }
@@ -45,6 +47,15 @@ public class EmployeeRepository {
     public void deleteEmployee(long id)
     {
         employees.remove(id);
+        for (LongConsumer listener: deletionListeners) {
+            listener.accept(id);
+        }
+    }
+
+
+    public void addDeletionListener(LongConsumer listener)
+    {
+        deletionListeners.add(listener);
     }
 
 }
@@ -7,6 +7,13 @@ import biz.ple.corba.util.ServiceContextManagerBase;
 @CorbaServiceContextManager(serviceName = ExampleService.SERVICE_NAME)
 public class ExampleServiceContext extends ServiceContextManagerBase {
 
+    public ExampleServiceContext()
+    {
+        // The slot is written before each call and read by the client interceptor only
+        setReuseSlotValues(true);
+    }
+
+
     public void setData(Integer number)
     {
         if (number != null) {
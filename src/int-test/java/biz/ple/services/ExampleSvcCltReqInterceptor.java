@@ -1,11 +1,9 @@
 package biz.ple.services;
 
-import java.nio.ByteBuffer;
+import static biz.ple.corba.util.PrimitiveContextCodecs.INT32;
 
 import org.omg.CORBA.Any;
 import org.omg.CORBA.BAD_OPERATION;
-import org.omg.CORBA.BAD_PARAM;
-import org.omg.IOP.ServiceContext;
 import org.omg.PortableInterceptor.ClientRequestInfo;
 import org.omg.PortableInterceptor.ForwardRequest;
 import org.omg.PortableInterceptor.InvalidSlot;
@@ -30,9 +28,7 @@ public class ExampleSvcCltReqInterceptor extends ServiceContextPropagatingClient
     {
         try {
             Any data = piCurrent.get_slot(piCurrentSlotId);
-            ByteBuffer buffer = ByteBuffer.allocate(4);
-            buffer.asIntBuffer().put(data.extract_long());
-            ri.add_request_service_context(new ServiceContext(ExampleService.SERVICE_CONTEXT_ID, buffer.array()), true);
+            addRequestContext(ri, ExampleService.SERVICE_CONTEXT_ID, INT32.encodeInt(data.extract_long()));
         }
         catch (InvalidSlot ivs) {
             LOG.error("Problem getting info from PI Current.", ivs);
@@ -53,25 +49,18 @@ public class ExampleSvcCltReqInterceptor extends ServiceContextPropagatingClient
     public void receive_reply(ClientRequestInfo ri)
     {
         try {
-            ServiceContext ctx = ri.get_reply_service_context(ExampleService.SERVICE_CONTEXT_ID);
-            if (ctx.context_data != null && ctx.context_data.length > 0) {
-                if (ctx.context_data.length != 4) {
-                    LOG.error("Context data has unexpected length " +  ctx.context_data.length + " (should be 4).");
-                    return;
-                }
-                ByteBuffer buffer = ByteBuffer.allocate(4);
-                buffer.put(ctx.context_data);
-                buffer.position(0);
+            byte[] ctxData = getReplyContextData(ri, ExampleService.SERVICE_CONTEXT_ID);
+            if (ctxData != null) {
                 Any data = orbBean.createAny();
-                data.insert_long(buffer.asIntBuffer().get());
+                data.insert_long(INT32.decodeInt(ctxData));
                 piCurrent.set_slot(piCurrentSlotId, data);
             }
         }
         catch (InvalidSlot argh) {
             LOG.error("Problem setting data on PI Current.", argh);
         }
-        catch (BAD_PARAM fail) {
-            // Do nothing, no service context data for ExampleService.SERVICE_CONTEXT_ID
+        catch (IllegalArgumentException iae) {
+            LOG.error(iae.getMessage());
         }
     }
 
@@ -1,11 +1,9 @@
 package biz.ple.services;
 
-import java.nio.ByteBuffer;
+import static biz.ple.corba.util.PrimitiveContextCodecs.INT32;
 
 import org.omg.CORBA.Any;
 import org.omg.CORBA.BAD_OPERATION;
-import org.omg.CORBA.BAD_PARAM;
-import org.omg.IOP.ServiceContext;
 import org.omg.PortableInterceptor.ForwardRequest;
 import org.omg.PortableInterceptor.InvalidSlot;
 import org.omg.PortableInterceptor.ServerRequestInfo;
@@ -36,25 +34,18 @@ public class ExampleSvcSrvReqInterceptor extends ServiceContextPropagatingServer
         throws ForwardRequest
     {
         try {
-            ServiceContext ctx = ri.get_request_service_context(ExampleService.SERVICE_CONTEXT_ID);
-            if (ctx.context_data != null && ctx.context_data.length > 0) {
-                if (ctx.context_data.length != 4) {
-                    LOG.error("Context data has unexpected length " +  ctx.context_data.length + " (should be 4).");
-                    return;
-                }
-                ByteBuffer buffer = ByteBuffer.allocate(4);
-                buffer.put(ctx.context_data);
-                buffer.position(0);
+            byte[] ctxData = getRequestContextData(ri, ExampleService.SERVICE_CONTEXT_ID);
+            if (ctxData != null) {
                 Any data = orbBean.createAny();
-                data.insert_long(buffer.asIntBuffer().get());
+                data.insert_long(INT32.decodeInt(ctxData));
                 piCurrent.set_slot(piCurrentSlotId, data);
             }
         }
         catch (InvalidSlot argh) {
             LOG.error("Problem setting data on PI Current.", argh);
         }
-        catch (BAD_PARAM fail) {
-            // Do nothing, there's simply no context data
+        catch (IllegalArgumentException iae) {
+            LOG.error(iae.getMessage());
         }
     }
 
@@ -65,9 +56,7 @@ public class ExampleSvcSrvReqInterceptor extends ServiceContextPropagatingServer
         try {
             Any data = piCurrent.get_slot(piCurrentSlotId);
             int val = data.extract_long();
-            ByteBuffer buffer = ByteBuffer.allocate(4);
-            buffer.asIntBuffer().put(val + 1);
-            ri.add_reply_service_context(new ServiceContext(ExampleService.SERVICE_CONTEXT_ID, buffer.array()), true);
+            addReplyContext(ri, ExampleService.SERVICE_CONTEXT_ID, INT32.encodeInt(val + 1));
         }
         catch (InvalidSlot ivs) {
             LOG.error("Problem getting info from PI Current.", ivs);
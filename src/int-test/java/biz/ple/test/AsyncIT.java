@@ -0,0 +1,233 @@
+package biz.ple.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.omg.CORBA.Any;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.SetOverrideType;
+import org.omg.CORBA.TIMEOUT;
+import org.omg.Messaging.RELATIVE_RT_TIMEOUT_POLICY_TYPE;
+import org.omg.TimeBase.TimeTHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import biz.ple.corba.annotations.CorbaAsync;
+import biz.ple.corba.annotations.CorbaRef;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.test.async.EmployeeAsync;
+import biz.ple.test.async.EmployeeHomeAsync;
+import biz.ple.test.async.ServerManagerAsync;
+import biz.ple.test.config.AsyncITConfig;
+import biz.ple.test.servers.config.DomainConfiguration;
+import biz.ple_idl.domain.AddressRec;
+import biz.ple_idl.domain.Company;
+import biz.ple_idl.domain.CompanyHome;
+import biz.ple_idl.domain.Employee;
+import biz.ple_idl.domain.EmployeeHelper;
+import biz.ple_idl.domain.EmployeeHome;
+import biz.ple_idl.srvmgmt.UnknownPoaManagerGroup;
+
+
+/**
+ * Asynchronous proxies ({@code @CorbaAsync} interfaces injected via {@code @CorbaRef}), against the
+ * "Domain Server" running in the same VM (see {@link EmployeesIT}).
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = AsyncITConfig.class)
+public class AsyncIT {
+
+    private static OrbBean serverSideORB;
+    private static AnnotationConfigApplicationContext serverCtx;
+
+
+    @BeforeClass
+    public static void setupClass() throws Exception
+    {
+        serverCtx = new AnnotationConfigApplicationContext(DomainConfiguration.class);
+        serverSideORB = serverCtx.getBean("orb", OrbBean.class);
+        serverSideORB.start();
+    }
+
+
+    @AfterClass
+    public static void teardownClass() throws Exception
+    {
+        serverSideORB.stop(false);
+        serverSideORB.waitForShutdown();
+    }
+
+
+    /** Default methods do not correspond to operations, so proxies of this interface cannot be created. */
+    @CorbaAsync(Employee.class)
+    public interface EmployeeWithDefaultAsync extends EmployeeAsync {
+
+        default CompletableFuture<String> greeting()
+        {
+            return firstName().thenApply(name -> "Hello, " + name);
+        }
+
+    }
+
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "employeeHome.obj")
+    EmployeeHome empHome;
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "employeeHome.obj")
+    EmployeeHomeAsync asyncEmpHome;
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "employeeHome.obj", executor = "replyExecutor")
+    EmployeeHomeAsync asyncEmpHomeOwnExecutor;
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "companyHome.obj")
+    CompanyHome compHome;
+
+    @CorbaRef(rootCtxBean = "serverManagerCtx", cosNamingPath = "serverManager.obj")
+    ServerManagerAsync asyncServerManager;
+
+    @Autowired
+    OrbBean orb;
+
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception
+    {
+        return future.get(10L, TimeUnit.SECONDS);
+    }
+
+
+    private static Throwable awaitFailure(CompletableFuture<?> future) throws Exception
+    {
+        try {
+            future.get(10L, TimeUnit.SECONDS);
+        }
+        catch (ExecutionException exx) {
+            return exx.getCause();
+        }
+        fail("The invocation should have failed.");
+        return null;
+    }
+
+
+    private Employee createEmployee(String firstName, int salary)
+    {
+        return empHome.create(firstName, "Async", new AddressRec("Nebenstraße", "7", 34567, "Irgendwo"),
+                              "Asynchroner Angestellter", salary);
+    }
+
+
+    @Test
+    public void testReplies() throws Exception
+    {
+        Employee created = await(asyncEmpHome.create("Erika", "Async", new AddressRec("Hauptstraße", "3", 23456, "Dorf"),
+                                                     "Asynchrone Angestellte", 60_000));
+        assertNotNull(created);
+        assertEquals("Erika", created.firstName());
+
+        Employee found = await(asyncEmpHome.findById(created.id()));
+        assertTrue(created._is_equivalent(found));
+
+        EmployeeAsync emp = orb.getAsyncProxyFactory().createProxy(found, EmployeeAsync.class);
+        assertEquals(created.id(), await(emp.id()).longValue());
+        assertEquals("Dorf", await(emp.address()).city);
+        assertEquals(null, await(emp.firstName("Erna")));
+        assertEquals("Erna", await(emp.firstName()));
+        assertEquals(0, orb.getAsyncProxyFactory().getPendingCount());
+    }
+
+
+    @Test
+    public void testManyInvocationsInFlight() throws Exception
+    {
+        Employee created = createEmployee("Viktor", 70_000);
+        EmployeeAsync emp = orb.getAsyncProxyFactory().createProxy(created, EmployeeAsync.class);
+        List<CompletableFuture<Integer>> salaries = new ArrayList<>();
+        for (int count = 0; count < 50; ++count) {
+            salaries.add(emp.salary());
+        }
+        for (CompletableFuture<Integer> salary: salaries) {
+            assertEquals(70_000, await(salary).intValue());
+        }
+    }
+
+
+    @Test
+    public void testUserException() throws Exception
+    {
+        Throwable failure = awaitFailure(asyncServerManager.getGroupState("noSuchGroup"));
+        assertTrue(failure instanceof UnknownPoaManagerGroup);
+        assertEquals("noSuchGroup", ((UnknownPoaManagerGroup) failure).name);
+    }
+
+
+    @Test
+    public void testSystemException() throws Exception
+    {
+        // A company does not have the operations of an employee, so its servant raises BAD_OPERATION
+        Company company = compHome.create("Asynchron GmbH", new AddressRec("Ringstraße", "9", 45678, "Stadt"), "12/34");
+        Employee notAnEmployee = EmployeeHelper.unchecked_narrow(company);
+        EmployeeAsync emp = orb.getAsyncProxyFactory().createProxy(notAnEmployee, EmployeeAsync.class);
+        Throwable failure = awaitFailure(emp.salary());
+        assertTrue(failure instanceof BAD_OPERATION);
+        assertTrue(failure.getMessage().contains("_get_salary"));
+    }
+
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        // A relative round-trip timeout of 100 nanoseconds (1 TimeT unit) expires before any reply arrives
+        Employee created = createEmployee("Eilig", 80_000);
+        Any timeout = orb.createAny();
+        TimeTHelper.insert(timeout, 1L);
+        Policy policy = orb.getORB().create_policy(RELATIVE_RT_TIMEOUT_POLICY_TYPE.value, timeout);
+        Employee impatient = EmployeeHelper.unchecked_narrow(
+            created._set_policy_override(new Policy[] { policy }, SetOverrideType.ADD_OVERRIDE));
+        EmployeeAsync emp = orb.getAsyncProxyFactory().createProxy(impatient, EmployeeAsync.class);
+        assertTrue(awaitFailure(emp.salary()) instanceof TIMEOUT);
+
+        // The factory is still usable afterwards
+        EmployeeAsync patient = orb.getAsyncProxyFactory().createProxy(created, EmployeeAsync.class);
+        assertEquals(80_000, await(patient.salary()).intValue());
+    }
+
+
+    @Test
+    public void testCorbaRefExecutor() throws Exception
+    {
+        int tasks = AsyncITConfig.REPLY_TASKS.get();
+        Employee[] all = await(asyncEmpHomeOwnExecutor.findAll());
+        assertNotNull(all);
+        assertTrue(AsyncITConfig.REPLY_TASKS.get() > tasks);
+    }
+
+
+
+    @Test
+    public void testDefaultMethodsRejected() throws Exception
+    {
+        Employee created = createEmployee("Standard", 50_000);
+        try {
+            orb.getAsyncProxyFactory().createProxy(created, EmployeeWithDefaultAsync.class);
+            fail("Interfaces with default methods should be rejected.");
+        }
+        catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("greeting()"));
+        }
+    }
+
+}
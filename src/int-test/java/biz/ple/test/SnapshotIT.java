@@ -0,0 +1,179 @@
+package biz.ple.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.omg.CORBA.BAD_OPERATION;
+import org.omg.CORBA.SystemException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import biz.ple.corba.annotations.CorbaRef;
+import biz.ple.corba.beans.AsyncProxyFactory;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.SnapshotProxyFactory;
+import biz.ple.test.config.AsyncITConfig;
+import biz.ple.test.servers.config.DomainConfiguration;
+import biz.ple_idl.domain.AddressRec;
+import biz.ple_idl.domain.Company;
+import biz.ple_idl.domain.CompanyHome;
+import biz.ple_idl.domain.Employee;
+import biz.ple_idl.domain.EmployeeHelper;
+import biz.ple_idl.domain.EmployeeHome;
+import biz.ple_idl.domain.EmployeeOperations;
+
+
+/**
+ * Snapshot proxies of the Domain Server's employees, against the "Domain Server" running in the same VM
+ * (see {@link EmployeesIT}).
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = AsyncITConfig.class)
+public class SnapshotIT {
+
+    private static final long LONG_WINDOW = 60_000L;
+
+    private static OrbBean serverSideORB;
+    private static AnnotationConfigApplicationContext serverCtx;
+
+
+    @BeforeClass
+    public static void setupClass() throws Exception
+    {
+        serverCtx = new AnnotationConfigApplicationContext(DomainConfiguration.class);
+        serverSideORB = serverCtx.getBean("orb", OrbBean.class);
+        serverSideORB.start();
+    }
+
+
+    @AfterClass
+    public static void teardownClass() throws Exception
+    {
+        serverSideORB.stop(false);
+        serverSideORB.waitForShutdown();
+    }
+
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "employeeHome.obj")
+    EmployeeHome empHome;
+
+    @CorbaRef(rootCtxBean = "applicationCtx", cosNamingPath = "companyHome.obj")
+    CompanyHome compHome;
+
+    @Autowired
+    OrbBean orb;
+
+    private SnapshotProxyFactory snapshots;
+    private Employee employee;
+
+
+    @Before
+    public void setup()
+    {
+        snapshots = new SnapshotProxyFactory(orb.getAsyncProxyFactory());
+        employee = empHome.create("Susanne", "Schnappschuss", new AddressRec("Bildweg", "5", 56789, "Fotostadt"),
+                                  "Fotografin", 55_000);
+    }
+
+
+    @Test
+    public void testReadsWithinWindow() throws Exception
+    {
+        EmployeeOperations emp = snapshots.createProxy(employee, EmployeeOperations.class, LONG_WINDOW);
+        assertEquals("Susanne", emp.firstName());
+        assertEquals("Schnappschuss", emp.lastName());
+        assertEquals("Fotostadt", emp.address().city);
+        assertEquals(55_000, emp.salary());
+        assertEquals(employee.id(), emp.id());
+
+        // Changes through other references are not seen within the window ...
+        employee.salary(56_000);
+        assertEquals(55_000, emp.salary());
+
+        // ... but writes through the proxy discard the snapshot
+        emp.jobDescription("Oberfotografin");
+        assertEquals("Oberfotografin", emp.jobDescription());
+        assertEquals(56_000, emp.salary());
+    }
+
+
+    @Test
+    public void testReadsWithoutWindow() throws Exception
+    {
+        EmployeeOperations emp = snapshots.createProxy(employee, EmployeeOperations.class, 0L);
+        assertEquals(55_000, emp.salary());
+        employee.salary(57_000);
+        assertEquals(57_000, emp.salary());
+
+        try (SnapshotProxyFactory.Scope scope = SnapshotProxyFactory.openScope()) {
+            assertEquals(57_000, emp.salary());
+            employee.salary(58_000);
+            assertEquals(57_000, emp.salary());
+            assertEquals("Susanne", emp.firstName());
+        }
+        assertEquals(58_000, emp.salary());
+    }
+
+
+    @Test
+    public void testFailedReads() throws Exception
+    {
+        // A company does not have the attributes of an employee, so every read fails
+        Company company = compHome.create("Schnappschuss AG", new AddressRec("Bildweg", "6", 56789, "Fotostadt"), "56/78");
+        EmployeeOperations notAnEmployee = snapshots.createProxy(EmployeeHelper.unchecked_narrow(company),
+                                                                 EmployeeOperations.class, LONG_WINDOW);
+        try {
+            notAnEmployee.salary();
+            fail("Reading an attribute the object does not have should fail.");
+        }
+        catch (BAD_OPERATION expected) {
+            assertTrue(expected.getMessage().contains("_get_salary"));
+        }
+    }
+
+
+
+    @Test
+    public void testLoadFailingToSend() throws Exception
+    {
+        // An asynchronous proxy factory whose reply POA is gone cannot send any request, as when it is being
+        // destroyed concurrently; the server ORB's factory is not used otherwise
+        AsyncProxyFactory brokenFactory = serverSideORB.getAsyncProxyFactory();
+        serverSideORB.getRootPoa().getPoa().find_POA(AsyncProxyFactory.REPLY_POA_NAME, false).destroy(false, true);
+        SnapshotProxyFactory brokenSnapshots = new SnapshotProxyFactory(brokenFactory);
+        Employee localRef = EmployeeHelper.narrow(
+            serverSideORB.getORB().string_to_object(orb.getORB().object_to_string(employee)));
+        EmployeeOperations emp = brokenSnapshots.createProxy(localRef, EmployeeOperations.class, LONG_WINDOW);
+
+        // Every read fails instead of waiting for a snapshot which is never completed
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+        try {
+            for (int read = 0; read < 2; ++read) {
+                try {
+                    reader.submit(() -> emp.salary()).get(10L, TimeUnit.SECONDS);
+                    fail("Reading an attribute without sending a request should fail.");
+                }
+                catch (ExecutionException expected) {
+                    assertTrue(expected.getCause() instanceof SystemException);
+                }
+            }
+        }
+        finally {
+            reader.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,23 @@
+package biz.ple.test.async;
+
+import java.util.concurrent.CompletableFuture;
+
+import biz.ple.corba.annotations.CorbaAsync;
+import biz.ple_idl.domain.AddressRec;
+import biz.ple_idl.domain.Employee;
+
+
+@CorbaAsync(Employee.class)
+public interface EmployeeAsync {
+
+    CompletableFuture<Long> id();
+
+    CompletableFuture<String> firstName();
+
+    CompletableFuture<Void> firstName(String firstName);
+
+    CompletableFuture<AddressRec> address();
+
+    CompletableFuture<Integer> salary();
+
+}
@@ -0,0 +1,20 @@
+package biz.ple.test.async;
+
+import java.util.concurrent.CompletableFuture;
+
+import biz.ple.corba.annotations.CorbaAsync;
+import biz.ple_idl.domain.AddressRec;
+import biz.ple_idl.domain.Employee;
+import biz.ple_idl.domain.EmployeeHome;
+
+
+@CorbaAsync(EmployeeHome.class)
+public interface EmployeeHomeAsync {
+
+    CompletableFuture<Employee> create(String firstName, String lastName, AddressRec address, String job, int salary);
+
+    CompletableFuture<Employee> findById(long id);
+
+    CompletableFuture<Employee[]> findAll();
+
+}
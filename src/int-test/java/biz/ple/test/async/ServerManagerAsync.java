@@ -0,0 +1,15 @@
+package biz.ple.test.async;
+
+import java.util.concurrent.CompletableFuture;
+
+import biz.ple.corba.annotations.CorbaAsync;
+import biz.ple_idl.srvmgmt.PoaManagerGroupState;
+import biz.ple_idl.srvmgmt.ServerManager;
+
+
+@CorbaAsync(ServerManager.class)
+public interface ServerManagerAsync {
+
+    CompletableFuture<PoaManagerGroupState> getGroupState(String groupName);
+
+}
@@ -0,0 +1,87 @@
+package biz.ple.test.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.springext.CorbaBeanFactoryPostProcessor;
+import biz.ple.corba.springext.CorbaBeanPostProcessor;
+
+
+@Configuration
+public class AsyncITConfig {
+
+    /** The number of tasks run by the {@link #replyExecutor()}. */
+    public static final AtomicInteger REPLY_TASKS = new AtomicInteger();
+
+
+    // The basics: Spring extensions and the ORB
+    // =========================================
+
+    @Bean
+    public static CorbaBeanFactoryPostProcessor corbaBeanFactoryPostProcessor()
+    {
+        return new CorbaBeanFactoryPostProcessor();
+    }
+
+
+    @Bean
+    public static CorbaBeanPostProcessor corbaBeanPostProcessor()
+    {
+        return new CorbaBeanPostProcessor();
+    }
+
+
+    @Bean
+    public OrbBean orb() throws Exception
+    {
+        OrbBean bean = new OrbBean();
+        bean.setNameServiceInitRef("file://target/JacORB_NSRef.ior");
+        return bean;
+    }
+
+
+    // Executor for @CorbaRef(executor = "replyExecutor")
+    // ==================================================
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService replyThreads()
+    {
+        return Executors.newFixedThreadPool(2);
+    }
+
+
+    @Bean
+    public Executor replyExecutor()
+    {
+        ExecutorService threads = replyThreads();
+        return task -> threads.execute(() -> {
+            REPLY_TASKS.incrementAndGet();
+            task.run();
+        });
+    }
+
+
+    // Naming Contexts
+    // ===============
+
+    @Bean
+    public NamingContextBean applicationCtx() throws Exception
+    {
+        return new NamingContextBean(orb().getRootNamingCtx(), "applications.ctx/domainApp.ctx");
+    }
+
+
+    @Bean
+    public NamingContextBean serverManagerCtx() throws Exception
+    {
+        return new NamingContextBean(orb().getRootNamingCtx(), "servers.ctx/domainServer.management");
+    }
+
+}
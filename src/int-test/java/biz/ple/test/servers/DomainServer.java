@@ -12,12 +12,14 @@ public class DomainServer {
 
     private static final Logger LOG = LoggerFactory.getLogger(DomainServer.class);
 
+    /**
+     * The command line arguments are the Spring profiles to activate, e.g. {@code employeesActivator}
+     * (see {@link DomainConfiguration}).
+     */
     public static void main(String[] args)
     {
-        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(DomainConfiguration.class);
+        AnnotationConfigApplicationContext ctx = start(args);
         OrbBean orb = ctx.getBean("orb", OrbBean.class);
-        LOG.info("===> ORB START <===");
-        orb.start();
         // Here, you can do all sorts of things, e.g. start a "Server CLI" or a monitoring thread
         try {
             LOG.info("Waiting for shutdown (e.g. via ServerManager) ...");
@@ -28,4 +30,21 @@ public class DomainServer {
         ctx.close();
     }
 
+
+    /**
+     * Creates the "Domain Server" application context with the given Spring profiles and starts its ORB;
+     * used to run the server inside another application, e.g. a load test.
+     */
+    public static AnnotationConfigApplicationContext start(String... profiles)
+    {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+        ctx.getEnvironment().setActiveProfiles(profiles);
+        ctx.register(DomainConfiguration.class);
+        ctx.refresh();
+        OrbBean orb = ctx.getBean("orb", OrbBean.class);
+        LOG.info("===> ORB START <===");
+        orb.start();
+        return ctx;
+    }
+
 }
@@ -5,11 +5,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
 
 import biz.ple.corba.beans.NamingContextBean;
 import biz.ple.corba.beans.OrbBean;
 import biz.ple.corba.beans.server.NamedServantObject;
 import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.beans.server.PoaPolicies;
 import biz.ple.corba.config.CorbaAnnotationProcessing;
 import biz.ple.corba.config.CorbaBasics;
 import biz.ple.corba.util.ServerManagerImpl;
@@ -25,9 +27,24 @@ import biz.ple_idl.srvmgmt.ServerManagerPOATie;
 )
 public class DomainConfiguration {
 
+    /** Profile: employees are served by the {@code EmployeeLocator} (also used if no profile is active). */
+    public static final String EMPLOYEES_LOCATOR = "employeesLocator";
+
+    /** Profile: employees are served by the {@code EmployeeActivator}. */
+    public static final String EMPLOYEES_ACTIVATOR = "employeesActivator";
+
+    /** Profile: employees are served by the {@code EmployeeDefaultServant}. */
+    public static final String EMPLOYEES_DEFAULT_SERVANT = "employeesDefaultServant";
+
+    /** Property (e.g. a system property) which overrides the Name Service's initial reference. */
+    public static final String NAME_SERVICE_INIT_REF = "domain.nameServiceInitRef";
+
     @Autowired
     CorbaBasics basics;
 
+    @Autowired
+    Environment env;
+
 
     // The ORB
     // =======
@@ -36,7 +53,7 @@ public class DomainConfiguration {
     public OrbBean orb() throws Exception
     {
         OrbBean bean = new OrbBean();
-        bean.setNameServiceInitRef("file://target/JacORB_NSRef.ior");
+        bean.setNameServiceInitRef(env.getProperty(NAME_SERVICE_INIT_REF, "file://target/JacORB_NSRef.ior"));
         return bean;
     }
 
@@ -62,7 +79,17 @@ public class DomainConfiguration {
     @Bean
     public PoaBean employeesPoa() throws Exception
     {
-        PoaBean bean = new PoaBean(orb().getRootPoa(), "employeesPoa", basics.locatorPoaPolicies());
+        PoaPolicies policies;
+        if (env.acceptsProfiles(EMPLOYEES_ACTIVATOR)) {
+            policies = basics.activatorPoaPolicies();
+        }
+        else if (env.acceptsProfiles(EMPLOYEES_DEFAULT_SERVANT)) {
+            policies = basics.defaultServantPoaPolicies();
+        }
+        else {
+            policies = basics.locatorPoaPolicies();
+        }
+        PoaBean bean = new PoaBean(orb().getRootPoa(), "employeesPoa", policies);
         return bean;
     }
 
@@ -0,0 +1,48 @@
+package biz.ple.corba.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import biz.ple.corba.beans.AsyncProxyFactory;
+import biz.ple.corba.springext.CorbaBeanPostProcessor;
+
+
+/**
+ * <p>Marks an interface as the asynchronous variant of an IDL interface. Every method of the annotated
+ * interface corresponds to the operation (or attribute accessor) of the IDL interface's Java mapping
+ * with the same name and parameter types, but returns a {@link java.util.concurrent.CompletableFuture
+ * CompletableFuture} of the operation's result instead of the result itself
+ * ({@code CompletableFuture<Void>} for operations without a result), e.g.</p>
+ * <pre>
+ * &#64;CorbaAsync(EmployeeHome.class)
+ * public interface EmployeeHomeAsync {
+ *     CompletableFuture&lt;Employee&gt; findById(long id);
+ *     CompletableFuture&lt;Employee[]&gt; findAll();
+ * }
+ * </pre>
+ * <p>A field or setter method annotated with {@link CorbaRef @CorbaRef} may be of an interface annotated
+ * with {@code @CorbaAsync}; the reference looked up in the Naming Service is then narrowed to the IDL
+ * interface and wrapped in a proxy created by the ORB's {@link AsyncProxyFactory}, whose invocations are
+ * sent as CORBA AMI requests and do not block the calling thread.</p>
+ * <p>Operations with {@code out} or {@code inout} parameters (i.e. Holder parameters) are not supported, and
+ * the annotated interface may not declare or inherit default methods.</p>
+ * <hr>
+ * <p><b>Note:</b> For {@code @CorbaRef} injection of asynchronous proxies, a {@link CorbaBeanPostProcessor}
+ * must be present in the Spring application context.</p>
+ * <hr>
+ */
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface CorbaAsync
+{
+
+    /**
+     * The Java interface generated by the IDL compiler for the IDL interface whose operations the annotated
+     * interface mirrors.
+     */
+    Class<? extends org.omg.CORBA.Object> value();
+
+}
@@ -22,6 +22,10 @@ import biz.ple.corba.springext.CorbaBeanPostProcessor;
  * (usually generated from) an OMG IDL interface.</p>
  * <p>If the lookup cannot be performed, yields nothing, or the result cannot be
  * cast to the expected type, a {@link BeanInitializationException} is thrown.</p>
+ * <p>The type of the field or parameter may also be an interface annotated with
+ * {@link CorbaAsync @CorbaAsync}; the result of the lookup is then narrowed to the
+ * IDL interface given by that annotation and wrapped in an asynchronous proxy (see
+ * {@link OrbBean#getAsyncProxyFactory()}).</p>
  * <hr>
  * <p><b>Note:</b> For this notation to have any effect, a {@link CorbaBeanPostProcessor}
  * must be present in the Spring application context.</p>
@@ -62,4 +66,15 @@ public @interface CorbaRef
      */
     boolean optional() default false;
 
+
+    /**
+     * The name of an {@link java.util.concurrent.Executor Executor} bean on which the
+     * futures returned by an asynchronous proxy are completed. If empty, the executor
+     * {@link OrbBean#setAsyncExecutor(java.util.concurrent.Executor) configured} for the
+     * ORB is used. Ignored unless the field or parameter is of an interface annotated
+     * with {@link CorbaAsync @CorbaAsync}.
+     * @since 1.4.0
+     */
+    String executor() default "";
+
 }
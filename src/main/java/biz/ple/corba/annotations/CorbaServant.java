@@ -77,4 +77,16 @@ public @interface CorbaServant
 
     String userObjectId() default "";
 
+
+    /**
+     * If {@code true}, the servant is not activated when the bean is created; instead, only its object
+     * reference is created (and published in the Naming Service), and the TIE object is created and
+     * activated on the first request for the object. The POA identified by {@link #poa() poa} must have
+     * the {@code UseServantManager} and {@code Retain} policies, no Servant Activator of its own and
+     * {@link biz.ple.corba.beans.server.PoaBean#setLazyActivation(boolean) lazy activation} enabled.
+     * @see NamedServantObject#setLazy(boolean)
+     * @since 1.4.0
+     */
+    boolean lazy() default false;
+
 }
@@ -0,0 +1,853 @@
+package biz.ple.corba.beans;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.omg.CORBA.BAD_INV_ORDER;
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.NO_IMPLEMENT;
+import org.omg.CORBA.OMGVMCID;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.Policy;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.TIMEOUT;
+import org.omg.CORBA.portable.ApplicationException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.RemarshalException;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.CORBA.portable.Streamable;
+import org.omg.Messaging.ExceptionHolder;
+import org.omg.Messaging.ReplyHandler;
+import org.omg.Messaging.ReplyHandlerHelper;
+import org.omg.PortableServer.IdAssignmentPolicyValue;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.RequestProcessingPolicyValue;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantRetentionPolicyValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.ple.corba.annotations.CorbaAsync;
+
+
+/**
+ * <p>Creates asynchronous proxies for CORBA object references: implementations of an interface annotated
+ * with {@link CorbaAsync @CorbaAsync}, whose methods send their invocation as a CORBA AMI (Asynchronous
+ * Method Invocation) request and immediately return a {@link CompletableFuture}, which is completed when
+ * the reply arrives. A client can thus have many invocations in flight without blocking a thread per
+ * invocation.</p>
+ * <p>No {@code sendc_} operations or reply handler classes generated by the IDL compiler are required:
+ * arguments and results are marshalled by the IDL-generated stub of the target interface, which is run
+ * against a delegate that sends the request via JacORB's AMI entry point instead of waiting for the reply.
+ * All replies are received by a single default servant of a dedicated POA (with a POA Manager of its own),
+ * which identifies the pending invocation by the object id of the reply handler reference it was sent with.
+ * The object id consists of a handler slot and the slot's generation: reply handler references are reused
+ * once the reply to their invocation has been received, but if an invocation ends without it (e.g. if sending
+ * failed after the request may have been written, or the invocation timed out), the slot's next reference
+ * has a new generation, and late replies to the old one are discarded.
+ * Completion (and thus the execution of dependent stages that do not specify an executor of their own)
+ * takes place on the {@link Executor} given to the factory or to {@link #createProxy(org.omg.CORBA.Object,
+ * Class, Executor)}, never on the ORB's thread reading the reply.</p>
+ * <p>User exceptions and system exceptions raised by the operation complete the future exceptionally with
+ * the respective exception. There is no timeout of its own; relative round-trip timeout policies of the
+ * ORB apply as usual.</p>
+ * <p>Note that this class relies on JacORB-specific APIs.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class AsyncProxyFactory {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncProxyFactory.class);
+
+    /** The name of the POA receiving the replies (created as a child of the Root POA). */
+    public static final String REPLY_POA_NAME = "corbaBeans.asyncReplies";
+
+    /** Thrown by the sending delegate to return from the stub method once the request has been sent. */
+    private static final class RequestSent extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        RequestSent()
+        {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final RequestSent REQUEST_SENT = new RequestSent();
+
+    private final ORB orb;
+    private final POA replyPoa;
+    private final Executor defaultExecutor;
+    private final AtomicInteger slots = new AtomicInteger(0);
+    private final Queue<ReplyHandlerRef> idleHandlers = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<Integer, PendingCall> pendingCalls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Map<Method, AsyncOperation>> operations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Method, AsyncOperation> idlOperations = new ConcurrentHashMap<>();
+    private volatile boolean destroyed;
+
+
+    /**
+     * Creates the factory and the POA receiving the replies to its proxies' invocations.
+     * @param orb
+     *      The ORB through which the proxies' invocations are made; must be a JacORB ORB.
+     * @param rootPoa
+     *      The ORB's Root POA.
+     * @param executor
+     *      The executor on which the futures returned by the proxies are completed by default;
+     *      {@code null} for the {@link ForkJoinPool#commonPool() common pool}.
+     * @throws IllegalStateException
+     *      if the reply POA cannot be created or activated.
+     */
+    public AsyncProxyFactory(ORB orb, POA rootPoa, Executor executor)
+    {
+        this.orb = orb;
+        this.defaultExecutor = executor != null ? executor : ForkJoinPool.commonPool();
+        Policy[] policies = new Policy[] {
+            rootPoa.create_id_assignment_policy(IdAssignmentPolicyValue.USER_ID),
+            rootPoa.create_servant_retention_policy(ServantRetentionPolicyValue.NON_RETAIN),
+            rootPoa.create_request_processing_policy(RequestProcessingPolicyValue.USE_DEFAULT_SERVANT)
+        };
+        try {
+            replyPoa = rootPoa.create_POA(REPLY_POA_NAME, null, policies);
+            replyPoa.set_servant(new ReplyDispatcher());
+            replyPoa.the_POAManager().activate();
+        }
+        catch (Exception xcp) {
+            throw new IllegalStateException("Could not create the POA '" + REPLY_POA_NAME + "' for asynchronous replies.", xcp);
+        }
+        finally {
+            for (Policy policy: policies) {
+                policy.destroy();
+            }
+        }
+    }
+
+
+    /**
+     * Creates an asynchronous proxy completing its futures on the factory's default executor.
+     * @see #createProxy(org.omg.CORBA.Object, Class, Executor)
+     */
+    public <A> A createProxy(org.omg.CORBA.Object target, Class<A> asyncInterface)
+    {
+        return createProxy(target, asyncInterface, defaultExecutor);
+    }
+
+
+    /**
+     * Creates an asynchronous proxy for an object reference.
+     * @param target
+     *      The object reference; must be an instance of the IDL interface given by the
+     *      {@link CorbaAsync @CorbaAsync} annotation of {@code asyncInterface}, i.e. narrowed to it.
+     * @param asyncInterface
+     *      An interface annotated with {@code @CorbaAsync}.
+     * @param executor
+     *      The executor on which the futures returned by the proxy are completed.
+     * @return
+     *      The proxy; its {@code hashCode()} and {@code toString()} methods are those of {@code target},
+     *      {@code equals()} is identity.
+     * @throws IllegalArgumentException
+     *      if {@code asyncInterface} is not annotated with {@code @CorbaAsync}, has default methods, one of its
+     *      methods does not correspond to an operation of the IDL interface, or {@code target} is not of that
+     *      interface.
+     */
+    public <A> A createProxy(org.omg.CORBA.Object target, Class<A> asyncInterface, Executor executor)
+    {
+        Map<Method, AsyncOperation> ops = operations.computeIfAbsent(asyncInterface, AsyncProxyFactory::bindOperations);
+        Class<?> idlInterface = asyncInterface.getAnnotation(CorbaAsync.class).value();
+        if (!idlInterface.isInstance(target) || !(target instanceof ObjectImpl)) {
+            throw new IllegalArgumentException("The target of an asynchronous proxy of type " + asyncInterface.getName()
+                                               + " must be a stub of type " + idlInterface.getName() + ".");
+        }
+        if (!(((ObjectImpl) target)._get_delegate() instanceof org.jacorb.orb.Delegate)) {
+            throw new IllegalArgumentException("Asynchronous invocations are only supported for JacORB object references.");
+        }
+        InvocationHandler handler = new AsyncInvocationHandler((ObjectImpl) target, ops, executor);
+        return asyncInterface.cast(Proxy.newProxyInstance(asyncInterface.getClassLoader(),
+                                                          new Class<?>[] { asyncInterface }, handler));
+    }
+
+
+    /**
+     * Returns the executor on which the futures returned by the proxies are completed by default.
+     */
+    public Executor getDefaultExecutor()
+    {
+        return defaultExecutor;
+    }
+
+
+    /**
+     * Returns the number of invocations whose replies are outstanding.
+     */
+    public int getPendingCount()
+    {
+        return pendingCalls.size();
+    }
+
+
+    /**
+     * Sends an invocation of a method of an IDL interface's Java mapping (e.g. of its {@code Operations}
+     * interface) asynchronously.
+     * @param target
+     *      The object reference, narrowed to {@code idlInterface}.
+     * @param idlInterface
+     *      The Java interface generated by the IDL compiler for the IDL interface.
+     * @param idlMethod
+     *      The method; must not have Holder parameters.
+     * @param args
+     *      The arguments of the invocation.
+     * @param executor
+     *      The executor on which the returned future is completed.
+     * @return
+     *      The future of the invocation's result ({@code null} for operations without a result).
+     */
+    CompletableFuture<Object> invoke(ObjectImpl target, Class<?> idlInterface, Method idlMethod, Object[] args,
+                                     Executor executor)
+    {
+        AsyncOperation op = idlOperations.computeIfAbsent(
+            idlMethod, method -> new AsyncOperation(method, findStubConstructor(idlInterface)));
+        return send(target, op, args, executor);
+    }
+
+
+    /**
+     * Returns the name of the CORBA operation a method of an IDL interface's Java mapping invokes, e.g.
+     * {@code "_get_name"} and {@code "_set_name"} for the accessors of an attribute {@code name}. The
+     * name is determined by letting the stub start a request; nothing is sent.
+     */
+    static String operationName(Class<?> idlInterface, Method idlMethod)
+    {
+        Class<?>[] paramTypes = idlMethod.getParameterTypes();
+        Object[] args = new Object[paramTypes.length];
+        for (int idx = 0; idx < paramTypes.length; ++idx) {
+            if (paramTypes[idx].isPrimitive()) {
+                args[idx] = Array.get(Array.newInstance(paramTypes[idx], 1), 0);
+            }
+        }
+        RecordingDelegate recorder = new RecordingDelegate();
+        try {
+            new AsyncOperation(idlMethod, findStubConstructor(idlInterface)).runStub(recorder, args);
+        }
+        catch (RequestSent sent) {
+            return recorder.operation;
+        }
+        catch (Throwable thr) {
+            throw new IllegalArgumentException("Could not determine the operation of method " + idlMethod.getName()
+                                               + "() of " + idlInterface.getName() + ".", thr);
+        }
+        throw new IllegalArgumentException("Method " + idlMethod.getName() + "() of " + idlInterface.getName()
+                                           + " does not invoke an operation.");
+    }
+
+
+    /**
+     * Destroys the reply POA. The futures of invocations still pending, as well as those of later invocations
+     * through the factory's proxies, are completed exceptionally with {@code BAD_INV_ORDER}. Invoked by
+     * {@link OrbBean#stop(boolean)} before the ORB is shut down.
+     */
+    public void destroy()
+    {
+        destroyed = true;
+        try {
+            replyPoa.destroy(false, false);
+        }
+        catch (SystemException sysex) {
+            LOG.debug("Could not destroy the POA '" + REPLY_POA_NAME + "'.", sysex);
+        }
+        idleHandlers.clear();
+        for (PendingCall call: pendingCalls.values()) {
+            if (pendingCalls.remove(call.handler.slot, call)) {
+                complete(call, null, shutdownException());
+            }
+        }
+    }
+
+
+    private CompletableFuture<Object> send(ObjectImpl target, AsyncOperation op, Object[] args, Executor executor)
+    {
+        if (destroyed) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            future.completeExceptionally(shutdownException());
+            return future;
+        }
+        ReplyHandlerRef handler = idleHandlers.poll();
+        if (handler == null) {
+            handler = createReplyHandler(slots.incrementAndGet(), 0);
+        }
+        PendingCall call = new PendingCall(op, args, executor, handler);
+        pendingCalls.put(handler.slot, call);
+        if (destroyed) {
+            // destroy() may have missed the call
+            if (pendingCalls.remove(handler.slot, call)) {
+                complete(call, null, shutdownException());
+            }
+            return call.future;
+        }
+        try {
+            op.runStub(new SendingDelegate(target, handler), args);
+            // The stub returns normally only for oneway operations, for which there is no reply
+            if (release(call, true)) {
+                complete(call, null, null);
+            }
+        }
+        catch (RequestSent sent) {
+            // Reply outstanding
+        }
+        catch (Throwable thr) {
+            // The request may have been written nonetheless; a reply to it must not be taken for a later call's
+            if (release(call, false)) {
+                complete(call, null, thr);
+            }
+        }
+        return call.future;
+    }
+
+
+    private static Map<Method, AsyncOperation> bindOperations(Class<?> asyncInterface)
+    {
+        CorbaAsync annotation = asyncInterface.getAnnotation(CorbaAsync.class);
+        if (!asyncInterface.isInterface() || annotation == null) {
+            throw new IllegalArgumentException(asyncInterface.getName() + " is not an interface annotated with @CorbaAsync.");
+        }
+        Class<?> idlInterface = annotation.value();
+        Constructor<?> stubConstructor = findStubConstructor(idlInterface);
+        Map<Method, AsyncOperation> ops = new HashMap<>();
+        for (Method method: asyncInterface.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            if (method.isDefault()) {
+                throw new IllegalArgumentException("Method " + method.getName() + "() of " + asyncInterface.getName()
+                                                   + " is a default method, which is not supported.");
+            }
+            Method syncMethod;
+            try {
+                syncMethod = idlInterface.getMethod(method.getName(), method.getParameterTypes());
+            }
+            catch (NoSuchMethodException nsm) {
+                throw new IllegalArgumentException("Method " + method.getName() + "() of " + asyncInterface.getName()
+                                                   + " has no counterpart with the same parameter types in "
+                                                   + idlInterface.getName() + ".");
+            }
+            for (Class<?> paramType: syncMethod.getParameterTypes()) {
+                if (Streamable.class.isAssignableFrom(paramType)) {
+                    throw new IllegalArgumentException("Operation " + method.getName() + "() of " + idlInterface.getName()
+                                                       + " has out or inout parameters, which are not supported.");
+                }
+            }
+            checkResultType(method, syncMethod);
+            ops.put(method, new AsyncOperation(syncMethod, stubConstructor));
+        }
+        return Collections.unmodifiableMap(ops);
+    }
+
+
+    private static Constructor<?> findStubConstructor(Class<?> idlInterface)
+    {
+        String pkg = idlInterface.getPackage() != null ? idlInterface.getPackage().getName() + "." : "";
+        String stubName = pkg + "_" + idlInterface.getSimpleName() + "Stub";
+        try {
+            Class<?> stubClass = Class.forName(stubName, true, idlInterface.getClassLoader());
+            return stubClass.asSubclass(ObjectImpl.class).getConstructor();
+        }
+        catch (ClassNotFoundException | NoSuchMethodException | ClassCastException xcp) {
+            throw new IllegalArgumentException("No stub class " + stubName + " with a public default constructor found.");
+        }
+    }
+
+
+    private static void checkResultType(Method method, Method syncMethod)
+    {
+        Type returnType = method.getGenericReturnType();
+        Type resultType = returnType instanceof ParameterizedType ? ((ParameterizedType) returnType).getActualTypeArguments()[0]
+                                                                  : null;
+        Class<?> expected = boxed(syncMethod.getReturnType());
+        if (method.getReturnType() != CompletableFuture.class || resultType == null
+            || !expected.equals(resultType instanceof ParameterizedType ? ((ParameterizedType) resultType).getRawType()
+                                                                        : resultType)) {
+            throw new IllegalArgumentException("The return type of method " + method.getName() + "() of "
+                                               + method.getDeclaringClass().getName() + " must be CompletableFuture<"
+                                               + expected.getSimpleName() + ">.");
+        }
+    }
+
+
+    private static Class<?> boxed(Class<?> type)
+    {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == void.class) {
+            return Void.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        if (type == char.class) {
+            return Character.class;
+        }
+        if (type == byte.class) {
+            return Byte.class;
+        }
+        if (type == short.class) {
+            return Short.class;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        return type == float.class ? Float.class : Double.class;
+    }
+
+
+    /**
+     * Creates a reply handler reference for a generation of a handler slot. Reply handlers are reused once the
+     * reply to their call has been received, so that references are only created as long as the number of
+     * outstanding calls grows (or a call ends without its reply).
+     */
+    private ReplyHandlerRef createReplyHandler(int slot, int generation)
+    {
+        byte[] objectId = ByteBuffer.allocate(2 * Integer.BYTES).putInt(slot).putInt(generation).array();
+        ObjectImpl ref = (ObjectImpl) replyPoa.create_reference_with_id(objectId, ReplyHandlerHelper.id());
+        return new ReplyHandlerRef(slot, generation, ref._get_delegate());
+    }
+
+
+    /**
+     * Ends a pending call and returns its handler slot to the pool.
+     * @param replied
+     *      {@code true} if no (further) reply to the call can arrive, so that its reply handler reference can be
+     *      reused as is; {@code false} to continue with the next generation of the slot.
+     * @return
+     *      {@code true} if the call was still pending, i.e. the caller is to complete it.
+     */
+    private boolean release(PendingCall call, boolean replied)
+    {
+        ReplyHandlerRef handler = call.handler;
+        if (!pendingCalls.remove(handler.slot, call)) {
+            return false;
+        }
+        if (!destroyed) {
+            try {
+                idleHandlers.offer(replied ? handler : createReplyHandler(handler.slot, handler.generation + 1));
+            }
+            catch (RuntimeException rex) {
+                // E.g. the reply POA has been destroyed; the slot is not used again
+                LOG.debug("Could not create reply handler reference.", rex);
+            }
+        }
+        return true;
+    }
+
+
+    private static BAD_INV_ORDER shutdownException()
+    {
+        return new BAD_INV_ORDER("The ORB is being shut down; no reply to the asynchronous invocation will be received.",
+                                 OMGVMCID.value | 4, CompletionStatus.COMPLETED_MAYBE);
+    }
+
+
+    /**
+     * Adds the operation to the message of a system exception raised by the ORB or the server, whose message
+     * often does not tell much (e.g. "Server-side Exception: null" for a {@code TRANSIENT} raised because the
+     * server's request queue is full). The exception keeps its type, minor code and completion status.
+     */
+    private static Throwable withOperation(Throwable failure, String operation)
+    {
+        if (!(failure instanceof SystemException)) {
+            return failure;
+        }
+        SystemException sysex = (SystemException) failure;
+        try {
+            SystemException described = sysex.getClass().getConstructor(String.class, int.class, CompletionStatus.class)
+                .newInstance("Asynchronous invocation of '" + operation + "' failed: " + sysex.getMessage(),
+                             sysex.minor, sysex.completed);
+            described.initCause(sysex);
+            return described;
+        }
+        catch (ReflectiveOperationException | RuntimeException xcp) {
+            return sysex;
+        }
+    }
+
+
+    private static void complete(PendingCall call, Object result, Throwable failure)
+    {
+        Runnable completion = failure == null ? () -> call.future.complete(result)
+                                              : () -> call.future.completeExceptionally(failure);
+        try {
+            call.executor.execute(completion);
+        }
+        catch (RejectedExecutionException rex) {
+            completion.run();
+        }
+    }
+
+
+    /** An operation of an asynchronous interface, bound to the corresponding method of the IDL interface. */
+    private static final class AsyncOperation {
+
+        final Method syncMethod;
+        final Constructor<?> stubConstructor;
+
+        AsyncOperation(Method syncMethod, Constructor<?> stubConstructor)
+        {
+            this.syncMethod = syncMethod;
+            this.stubConstructor = stubConstructor;
+        }
+
+        /**
+         * Runs the stub method on a fresh stub with the given delegate, i.e. lets the stub marshal the
+         * arguments resp. unmarshal the result.
+         */
+        Object runStub(org.omg.CORBA.portable.Delegate delegate, Object[] args)
+            throws Throwable
+        {
+            ObjectImpl stub = (ObjectImpl) stubConstructor.newInstance();
+            stub._set_delegate(delegate);
+            try {
+                return syncMethod.invoke(stub, args);
+            }
+            catch (InvocationTargetException itx) {
+                throw itx.getCause();
+            }
+        }
+
+    }
+
+
+    /** An invocation whose reply is outstanding. */
+    private static final class PendingCall {
+
+        final AsyncOperation op;
+        final Object[] args;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        final Executor executor;
+        final ReplyHandlerRef handler;
+
+        PendingCall(AsyncOperation op, Object[] args, Executor executor, ReplyHandlerRef handler)
+        {
+            this.op = op;
+            this.args = args;
+            this.executor = executor;
+            this.handler = handler;
+        }
+
+    }
+
+
+    private final class AsyncInvocationHandler implements InvocationHandler {
+
+        private final ObjectImpl target;
+        private final Map<Method, AsyncOperation> ops;
+        private final Executor executor;
+
+        AsyncInvocationHandler(ObjectImpl target, Map<Method, AsyncOperation> ops, Executor executor)
+        {
+            this.target = target;
+            this.ops = ops;
+            this.executor = executor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            AsyncOperation op = ops.get(method);
+            if (op == null) {
+                // All other methods of the interface are bound to operations
+                return "equals".equals(method.getName()) ? proxy == args[0] : method.invoke(target, args);
+            }
+            return send(target, op, args, executor);
+        }
+
+    }
+
+
+    /**
+     * Lets a stub send its request via JacORB's AMI entry point: the request's output stream is obtained from
+     * the target's delegate, and the request is sent with a reply handler for the pending call.
+     */
+    private final class SendingDelegate extends StubDelegate {
+
+        private final ObjectImpl target;
+        private final ReplyHandlerRef handler;
+        private boolean responseExpected;
+
+        SendingDelegate(ObjectImpl target, ReplyHandlerRef handler)
+        {
+            this.target = target;
+            this.handler = handler;
+        }
+
+        @Override
+        public OutputStream request(org.omg.CORBA.Object self, String operation, boolean responseExpected)
+        {
+            this.responseExpected = responseExpected;
+            return target._get_delegate().request(target, operation, responseExpected);
+        }
+
+        @Override
+        public InputStream invoke(org.omg.CORBA.Object self, OutputStream os)
+            throws ApplicationException, RemarshalException
+        {
+            org.jacorb.orb.Delegate delegate = (org.jacorb.orb.Delegate) target._get_delegate();
+            if (!responseExpected) {
+                return delegate.invoke(target, os);
+            }
+            delegate.invoke(target, os, handler);
+            throw REQUEST_SENT;
+        }
+
+        @Override
+        public ORB orb(org.omg.CORBA.Object self)
+        {
+            return orb;
+        }
+
+    }
+
+
+    /** Lets a stub unmarshal the result from a reply; the arguments the stub marshals again are discarded. */
+    private final class ReplayingDelegate extends StubDelegate {
+
+        private final InputStream reply;
+
+        ReplayingDelegate(InputStream reply)
+        {
+            this.reply = reply;
+        }
+
+        @Override
+        public OutputStream request(org.omg.CORBA.Object self, String operation, boolean responseExpected)
+        {
+            return orb.create_output_stream();
+        }
+
+        @Override
+        public InputStream invoke(org.omg.CORBA.Object self, OutputStream os)
+        {
+            return reply;
+        }
+
+        @Override
+        public ORB orb(org.omg.CORBA.Object self)
+        {
+            return orb;
+        }
+
+    }
+
+
+    /**
+     * The default servant of the reply POA. Replies are unmarshalled on the ORB thread delivering them (the
+     * reply stream is only valid during the upcall); the future is then completed on the call's executor.
+     */
+    private final class ReplyDispatcher extends Servant implements InvokeHandler {
+
+        private final String[] ids = { ReplyHandlerHelper.id() };
+
+        @Override
+        public String[] _all_interfaces(POA poa, byte[] objectId)
+        {
+            return ids;
+        }
+
+        @Override
+        public OutputStream _invoke(String method, InputStream input, ResponseHandler handler)
+        {
+            ByteBuffer objectId = ByteBuffer.wrap(_object_id());
+            int slot = objectId.remaining() == 2 * Integer.BYTES ? objectId.getInt() : -1;
+            int generation = slot != -1 ? objectId.getInt() : -1;
+            PendingCall call = pendingCalls.get(slot);
+            if (call == null || call.handler.generation != generation) {
+                LOG.warn("Discarding late reply '{}' to asynchronous invocation {}/{}.", method, slot, generation);
+                return null;
+            }
+            if (method.endsWith("_excep")) {
+                Throwable failure;
+                try {
+                    ExceptionHolder holder = (ExceptionHolder) ((org.omg.CORBA_2_3.portable.InputStream) input).read_value();
+                    holder.raise_exception();
+                    failure = new IllegalStateException("Exception reply without exception.");
+                }
+                catch (Throwable thr) {
+                    failure = thr;
+                }
+                // After a timeout, the ORB might still deliver the actual reply
+                if (release(call, !(failure instanceof TIMEOUT))) {
+                    complete(call, null, withOperation(failure, method.substring(0, method.length() - "_excep".length())));
+                }
+            }
+            else if (release(call, true)) {
+                try {
+                    complete(call, call.op.runStub(new ReplayingDelegate(input), call.args), null);
+                }
+                catch (Throwable thr) {
+                    complete(call, null, thr);
+                }
+            }
+            return null;
+        }
+
+    }
+
+
+    /** Records the name of the operation a stub method invokes, and aborts the invocation. */
+    private static final class RecordingDelegate extends StubDelegate {
+
+        private String operation;
+
+        @Override
+        public OutputStream request(org.omg.CORBA.Object self, String operation, boolean responseExpected)
+        {
+            this.operation = operation;
+            throw REQUEST_SENT;
+        }
+
+    }
+
+
+    /** A reference to the reply handler of a pending call (JacORB's OMG API has no {@code ReplyHandler} stub). */
+    private static final class ReplyHandlerRef extends ObjectImpl implements ReplyHandler {
+
+        private static final long serialVersionUID = 1L;
+        private static final String[] IDS = { ReplyHandlerHelper.id() };
+
+        final int slot;
+        final int generation;
+
+        ReplyHandlerRef(int slot, int generation, org.omg.CORBA.portable.Delegate delegate)
+        {
+            this.slot = slot;
+            this.generation = generation;
+            _set_delegate(delegate);
+        }
+
+        @Override
+        public String[] _ids()
+        {
+            return IDS.clone();
+        }
+
+    }
+
+
+    /** A delegate for the stubs run by the factory, which supports only what the stub methods need. */
+    private abstract static class StubDelegate extends org.omg.CORBA.portable.Delegate {
+
+        @Override
+        public boolean is_local(org.omg.CORBA.Object self)
+        {
+            return false;
+        }
+
+        @Override
+        public void releaseReply(org.omg.CORBA.Object self, InputStream is)
+        {
+            // Nothing to release; the reply stream belongs to the ORB
+        }
+
+        // Abstract in JacORB's OMG API, but not in the JDK's (hence no @Override)
+        public org.omg.CORBA.InterfaceDef get_interface(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public org.omg.CORBA.Object get_interface_def(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        // Abstract in JacORB's OMG API, but not in the JDK's (hence no @Override)
+        public String repository_id(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public org.omg.CORBA.Object duplicate(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public void release(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public boolean is_a(org.omg.CORBA.Object self, String repositoryId)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public boolean non_existent(org.omg.CORBA.Object self)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public boolean is_equivalent(org.omg.CORBA.Object self, org.omg.CORBA.Object rhs)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public int hash(org.omg.CORBA.Object self, int max)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public org.omg.CORBA.Request create_request(org.omg.CORBA.Object self, org.omg.CORBA.Context ctx, String operation,
+                                                    org.omg.CORBA.NVList args, org.omg.CORBA.NamedValue result)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public org.omg.CORBA.Request create_request(org.omg.CORBA.Object self, org.omg.CORBA.Context ctx, String operation,
+                                                    org.omg.CORBA.NVList args, org.omg.CORBA.NamedValue result,
+                                                    org.omg.CORBA.ExceptionList exceptions,
+                                                    org.omg.CORBA.ContextList contexts)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+        @Override
+        public org.omg.CORBA.Request request(org.omg.CORBA.Object self, String operation)
+        {
+            throw new NO_IMPLEMENT();
+        }
+
+    }
+
+}
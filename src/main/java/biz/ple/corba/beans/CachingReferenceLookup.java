@@ -0,0 +1,184 @@
+package biz.ple.corba.beans;
+
+import org.omg.CosNaming.NamingContextPackage.CannotProceed;
+
+import biz.ple.corba.util.ExpiringCache;
+import biz.ple.corba.util.HelperAccess;
+
+
+/**
+ * <p>Looks up object references in the COS Naming Service like {@link NamedReferenceLookup}, but caches
+ * the narrowed references per (Naming Context, name, type). Intended for code which looks up references
+ * repeatedly, e.g. per request, and would otherwise pay for a remote {@code resolve()} and possibly a
+ * remote {@code _is_a()} (caused by {@code narrow()}) on every lookup.</p>
+ * <ul>
+ *   <li>Narrowed references are cached for a configurable time-to-live (default: 60 seconds).</li>
+ *   <li>'Not found' results are cached as well, for a shorter time-to-live (default: 5 seconds), so that
+ *       repeated lookups of missing names do not hit the Name Service either.</li>
+ *   <li>The number of cached entries is bounded (default: 1000); least recently used entries are evicted.</li>
+ *   <li>The {@code Helper} methods are resolved once per interface type (see {@link HelperAccess}).</li>
+ *   <li>{@link #lookupUnchecked(NamingContextBean, String, Class) lookupUnchecked()} narrows with
+ *       {@code unchecked_narrow()}, i.e. without any type check, for callers who know the type of the
+ *       bound object.</li>
+ * </ul>
+ * <p>Naming Contexts are distinguished by the identity of the {@code NamingContextBean} passed. Stale
+ * entries can be removed via {@link #invalidate(NamingContextBean, String)} and {@link #invalidateAll()}.
+ * Instances are thread-safe and can be shared as Spring beans.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class CachingReferenceLookup {
+
+    private static final class LookupKey {
+
+        final NamingContextBean ctx;
+        final String name;
+        final Class<?> type;
+        final boolean checked;
+
+        LookupKey(NamingContextBean ctx, String name, Class<?> type, boolean checked)
+        {
+            this.ctx = ctx;
+            this.name = name;
+            this.type = type;
+            this.checked = checked;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey key = (LookupKey) other;
+            return ctx == key.ctx && type == key.type && checked == key.checked && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return ((System.identityHashCode(ctx) * 31 + name.hashCode()) * 31 + type.hashCode()) * 2 + (checked ? 1 : 0);
+        }
+
+    }
+
+
+    private final ExpiringCache<LookupKey, org.omg.CORBA.Object> cache;
+
+
+    /**
+     * Constructor; creates a lookup with a time-to-live of 60 seconds, a time-to-live for 'not found'
+     * results of 5 seconds and a maximum of 1000 cached entries.
+     */
+    public CachingReferenceLookup()
+    {
+        this(60000L, 5000L, 1000);
+    }
+
+
+    /**
+     * Constructor.
+     * @param ttlMillis
+     *      The time-to-live of cached references in milliseconds; if zero or negative, references do not
+     *      expire by age.
+     * @param notFoundTtlMillis
+     *      The time-to-live of cached 'not found' results in milliseconds; if zero or negative, 'not found'
+     *      results are not cached.
+     * @param maxEntries
+     *      The maximum number of cached entries; must be positive.
+     */
+    public CachingReferenceLookup(long ttlMillis, long notFoundTtlMillis, int maxEntries)
+    {
+        this.cache = new ExpiringCache<>(ttlMillis, notFoundTtlMillis, maxEntries);
+    }
+
+
+    /**
+     * Looks up an object reference and narrows it with {@code Helper.narrow()}, or returns the cached result
+     * of an earlier lookup.
+     * @param namingCtx
+     *      A {@code NamingContextBean} encapsulating the Naming Context where {@code name} is to be looked up.
+     * @param name
+     *      A COS Naming name in extended syntax.
+     * @param interfaceClass
+     *      The expected type of the reference.
+     * @return
+     *      The narrowed reference; {@code null} if nothing is bound to {@code name}.
+     * @throws CannotProceed
+     *      if the Name Service cannot complete the lookup.
+     * @throws org.omg.CORBA.BAD_PARAM
+     *      if the bound object is not of type {@code interfaceClass}.
+     */
+    public <T extends org.omg.CORBA.Object> T lookup(NamingContextBean namingCtx, String name, Class<T> interfaceClass)
+        throws CannotProceed
+    {
+        return lookup(namingCtx, name, interfaceClass, true);
+    }
+
+
+    /**
+     * Like {@link #lookup(NamingContextBean, String, Class)}, but narrows with {@code Helper.unchecked_narrow()},
+     * i.e. without verifying the type of the bound object, which saves a possible remote {@code _is_a()} call.
+     * If the bound object is not of type {@code interfaceClass}, invocations on the returned reference will fail.
+     */
+    public <T extends org.omg.CORBA.Object> T lookupUnchecked(NamingContextBean namingCtx, String name, Class<T> interfaceClass)
+        throws CannotProceed
+    {
+        return lookup(namingCtx, name, interfaceClass, false);
+    }
+
+
+    /**
+     * Removes the cached results for a name in a Naming Context (for all types).
+     */
+    public void invalidate(NamingContextBean namingCtx, String name)
+    {
+        cache.invalidateIf(key -> key.ctx == namingCtx && key.name.equals(name));
+    }
+
+
+    /**
+     * Removes all cached results.
+     */
+    public void invalidateAll()
+    {
+        cache.invalidateAll();
+    }
+
+
+    public long getHitCount()
+    {
+        return cache.getHitCount();
+    }
+
+
+    public long getMissCount()
+    {
+        return cache.getMissCount();
+    }
+
+
+    private <T extends org.omg.CORBA.Object> T lookup(NamingContextBean namingCtx, String name, Class<T> interfaceClass,
+                                                      boolean checked)
+        throws CannotProceed
+    {
+        HelperAccess<T> helper = HelperAccess.forInterface(interfaceClass);
+        try {
+            return interfaceClass.cast(cache.get(new LookupKey(namingCtx, name, interfaceClass, checked), key -> {
+                org.omg.CORBA.Object obj = namingCtx.lookup(name);
+                if (obj == null) {
+                    return null;
+                }
+                return checked ? helper.narrow(obj) : helper.uncheckedNarrow(obj);
+            }));
+        }
+        catch (CannotProceed | RuntimeException xcp) {
+            throw xcp;
+        }
+        catch (Exception xcp) {
+            throw new IllegalStateException("Lookup of '" + name + "' failed.", xcp);
+        }
+    }
+
+}
@@ -1,12 +1,12 @@
 package biz.ple.corba.beans;
 
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import biz.ple.corba.util.HelperAccess;
 
 
 /**
  * <p>Use this class and it's init-method to use CORBA object references retrieved from
  * the COS Naming Service as Spring beans.</p>
+ * <p>For repeated lookups at runtime, use a {@link CachingReferenceLookup}.</p>
  *
  * @author Philipp Leibfried
  * @since 1.0.0
@@ -35,30 +35,15 @@ public class NamedReferenceLookup {
      */
     public static <T> T lookup(NamingContextBean namingCtx, String name, Class<T> interfaceClass) throws Throwable
     {
-        Class<?> helperClass = null;
-        try {
-            helperClass = Class.forName(interfaceClass.getName() + "Helper");
-        } catch (ClassNotFoundException cnf) {
-            throw new IllegalArgumentException("Class " + interfaceClass.getName() + "Helper does not seem to exist.");
+        if (!org.omg.CORBA.Object.class.isAssignableFrom(interfaceClass)) {
+            throw new IllegalArgumentException("Class " + interfaceClass.getName() + " is not a CORBA interface type.");
         }
+        // The Helper's narrow() is resolved only once per interface type (see HelperAccess)
+        HelperAccess<? extends org.omg.CORBA.Object> helper =
+            HelperAccess.forInterface(interfaceClass.asSubclass(org.omg.CORBA.Object.class));
         Object obj = namingCtx.lookup(name);
-        Method caster;
-        try {
-            // We have to use narrow() here because simple casting is not enough for references to remote objects
-            caster = helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class);
-        }
-        catch (NoSuchMethodException e) {
-            throw new IllegalArgumentException("Class " + helperClass.getName() + " does not have a method 'narrow(org.omg.CORBA.Object)'.");
-        }
-        try {
-            return interfaceClass.cast(caster.invoke(null, obj));
-        }
-        catch (IllegalAccessException e) {
-            throw new IllegalArgumentException("Method narrow(org.omg.CORBA.Object) seems not to be accessible.");
-        }
-        catch (InvocationTargetException e) {
-            throw e.getCause();
-        }
+        // We have to use narrow() here because simple casting is not enough for references to remote objects
+        return interfaceClass.cast(helper.narrow((org.omg.CORBA.Object) obj));
     }
 
 
@@ -30,6 +30,8 @@ public class NamingContextBean {
 	private NamingContextExt myCtx;
 	private String path;
 	private boolean lookupOnly;
+	private NamingContextCache cache;
+	private String absPath;
 
 
 	/**
@@ -49,6 +51,7 @@ public class NamingContextBean {
 		this.parentCtx = parentCtx;
 		this.path = path;
 		this.lookupOnly = false;
+		this.cache = parentCtx != null ? parentCtx.cache : null;
 	}
 
 
@@ -65,6 +68,21 @@ public class NamingContextBean {
 	}
 
 
+	/**
+	 * Constructor for the root naming context bean of an {@link OrbBean}, optionally with an
+	 * ORB-scoped {@link NamingContextCache} which is shared by all descendant context beans.
+	 */
+	NamingContextBean(NamingContextExt rootCtx, NamingContextCache cache)
+	{
+		this.myCtx = rootCtx;
+		this.path = "/";
+		this.parentCtx = null;
+		this.lookupOnly = false;
+		this.cache = cache;
+		this.absPath = cache != null ? "" : null;
+	}
+
+
 	/**
 	 * Setter for the {@code lookupOnly} attribute; default is {@code false}.
 	 * @param lookupOnly
@@ -88,6 +106,9 @@ public class NamingContextBean {
      * parent context passed in the constructor do not exist, and
      * {@link #setLookupOnly(boolean) lookupOnly} is not set to {@code true}, these Naming
      * Contexts are created (remotely) during initialization.</p>
+     * <p>If the ORB's {@link NamingContextCache naming cache} is enabled, the Naming Contexts on the
+     * path are taken from the cache where possible, so that no remote calls are made for paths
+     * resolved before.</p>
      * <p>In terms of the Spring Framework, this is the {@code NamingContextBean} class'
      * init-method.</p>
 	 */
@@ -99,40 +120,52 @@ public class NamingContextBean {
 		}
 
 		// Create or find the specified path, create missing contexts
-		NamingContextExt currCtx = parentCtx.getNamingCtx(), nextCtx;
+		NamingContextExt currCtx = parentCtx.getNamingCtx();
+		String currPath = cache != null ? parentCtx.absPath : null;
 		String[] elems = path.split("/");
-		for (String elem: elems) {
-			if (elem.trim().length() == 0) {
+		for (String rawElem: elems) {
+			String elem = rawElem.trim();
+			if (elem.length() == 0) {
 				continue;
 			}
-			Object entry;
-			try {
-				entry = currCtx.resolve_str(elem);
-			} catch (InvalidName ivn) {
-				throw new IllegalArgumentException("The string '" + elem + "' is not a valid CORBA naming component.");
-			} catch (NotFound nfe) {
-				entry = null;
-			}
-			nextCtx = null;
-			if (entry == null) {
-			    if (lookupOnly) {
-			        throw new IllegalArgumentException("The name component '" + elem + "' could not be resolved.");
-			    }
-				nextCtx = NamingContextExtHelper.narrow(currCtx.bind_new_context(currCtx.to_name(elem)));
+			if (currPath != null) {
+				currPath = NamingContextCache.append(currPath, elem);
+				NamingContextExt fromCtx = currCtx;
+				currCtx = cache.getContext(currPath, key -> resolveOrCreate(fromCtx, elem));
 			}
 			else {
-				try {
-					nextCtx = NamingContextExtHelper.narrow(entry);
-				} catch (BAD_PARAM bpe) {
-					throw new IllegalStateException("Node '" + elem + "' on the naming path is not a NamingContext.");
-				}
+				currCtx = resolveOrCreate(currCtx, elem);
 			}
-			currCtx = nextCtx;
 		}
+		absPath = currPath;
 		myCtx = currCtx;
 	}
 
 
+	private NamingContextExt resolveOrCreate(NamingContextExt currCtx, String elem) throws Exception
+	{
+		Object entry;
+		try {
+			entry = currCtx.resolve_str(elem);
+		} catch (InvalidName ivn) {
+			throw new IllegalArgumentException("The string '" + elem + "' is not a valid CORBA naming component.");
+		} catch (NotFound nfe) {
+			entry = null;
+		}
+		if (entry == null) {
+		    if (lookupOnly) {
+		        throw new IllegalArgumentException("The name component '" + elem + "' could not be resolved.");
+		    }
+			return NamingContextExtHelper.narrow(currCtx.bind_new_context(currCtx.to_name(elem)));
+		}
+		try {
+			return NamingContextExtHelper.narrow(entry);
+		} catch (BAD_PARAM bpe) {
+			throw new IllegalStateException("Node '" + elem + "' on the naming path is not a NamingContext.");
+		}
+	}
+
+
 	/**
 	 * Returns the {@code NamingContextExt} object encapsulated by this {@code NamingContextBean}.
 	 * @return
@@ -156,7 +189,8 @@ public class NamingContextBean {
 	 * @return
 	 *     The object reference mapped to {@code name} in the Naming Context encapsulated by this
 	 *     {@code NamingContextBean}. {@code Null} if there is nothing mapped to that name in the
-	 *     Naming Context.
+	 *     Naming Context. If the ORB's {@link NamingContextCache naming cache} is enabled, a cached
+	 *     reference may be returned ('not found' results are not cached).
 	 * @throws CannotProceed
 	 *     if there is a technical problem while performing the lookup. This is usually due to a
 	 *     an internal error.
@@ -164,6 +198,40 @@ public class NamingContextBean {
 	 *     if the string passed in {@code name} is not a valid COS Naming name.
 	 */
 	public org.omg.CORBA.Object lookup(String name) throws CannotProceed
+	{
+		String simpleName = name.trim();
+		if (cache != null && absPath != null) {
+			try {
+				return cache.getObject(NamingContextCache.append(absPath, simpleName), key -> resolveName(simpleName));
+			}
+			catch (CannotProceed | RuntimeException xcp) {
+				throw xcp;
+			}
+			catch (Exception xcp) {
+				throw new IllegalStateException("Lookup of '" + simpleName + "' failed.", xcp);
+			}
+		}
+		return resolveName(simpleName);
+	}
+
+
+	/**
+	 * Removes the cached object reference for a name in this Naming Context (and all cached entries
+	 * below it, should {@code name} denote a Naming Context) from the ORB's {@link NamingContextCache
+	 * naming cache}. Invoke this after a binding in this Naming Context has changed. Has no effect if
+	 * the cache is disabled.
+	 * @param name
+	 *     A simple name (not a path) in extended CosNaming syntax.
+	 */
+	public void invalidate(String name)
+	{
+		if (cache != null && absPath != null) {
+			cache.invalidate(NamingContextCache.append(absPath, name.trim()));
+		}
+	}
+
+
+	private org.omg.CORBA.Object resolveName(String name) throws CannotProceed
 	{
 	    org.omg.CORBA.Object result = null;
 	    try {
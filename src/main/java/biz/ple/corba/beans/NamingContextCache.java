@@ -0,0 +1,128 @@
+package biz.ple.corba.beans;
+
+import org.omg.CosNaming.NamingContextExt;
+
+import biz.ple.corba.util.ExpiringCache;
+
+
+/**
+ * <p>ORB-scoped cache for COS Naming resolutions, used by the {@link NamingContextBean}s derived from an
+ * {@link OrbBean}'s {@link OrbBean#getRootNamingCtx() root naming context}. It maps normalized absolute
+ * paths (name components separated by single slashes, without leading or trailing slashes; the root
+ * context has the empty path) to naming contexts, and paths of names to the object references returned
+ * by {@link NamingContextBean#lookup(String)}.</p>
+ * <p>Entries expire after a configurable time-to-live, the number of entries is bounded, and concurrent
+ * misses for the same path result in a single remote resolution (see {@link ExpiringCache}). When a
+ * binding changes, e.g. after a {@code rebind()}, the affected entries should be removed via
+ * {@link #invalidate(String)}.</p>
+ * <p>The cache is created and configured by the {@code OrbBean}; see {@link OrbBean#setNamingCacheTtl(long)}.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class NamingContextCache {
+
+    private final ExpiringCache<String, NamingContextExt> contexts;
+    private final ExpiringCache<String, org.omg.CORBA.Object> objects;
+
+
+    /**
+     * Constructor.
+     * @param ttlMillis
+     *      The time-to-live of cached entries in milliseconds; if zero or negative, entries do not expire.
+     * @param maxSize
+     *      The maximum number of cached naming contexts and the maximum number of cached object references.
+     */
+    public NamingContextCache(long ttlMillis, int maxSize)
+    {
+        this.contexts = new ExpiringCache<>(ttlMillis, 0L, maxSize);
+        this.objects = new ExpiringCache<>(ttlMillis, 0L, maxSize);
+    }
+
+
+    /**
+     * Normalizes a COS Naming path: empty components (i.e. leading, trailing and duplicate slashes) are
+     * removed, and the remaining components are trimmed.
+     */
+    public static String normalize(String path)
+    {
+        if (path == null || path.isEmpty()) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(path.length());
+        for (String elem: path.split("/")) {
+            String trimmed = elem.trim();
+            if (!trimmed.isEmpty()) {
+                if (result.length() > 0) {
+                    result.append('/');
+                }
+                result.append(trimmed);
+            }
+        }
+        return result.toString();
+    }
+
+
+    /**
+     * Concatenates a normalized path and a single, trimmed name component.
+     */
+    static String append(String normalizedPath, String component)
+    {
+        return normalizedPath.isEmpty() ? component : normalizedPath + "/" + component;
+    }
+
+
+    NamingContextExt getContext(String absPath, ExpiringCache.Loader<String, NamingContextExt> loader)
+        throws Exception
+    {
+        return contexts.get(absPath, loader);
+    }
+
+
+    org.omg.CORBA.Object getObject(String absPath, ExpiringCache.Loader<String, org.omg.CORBA.Object> loader)
+        throws Exception
+    {
+        return objects.get(absPath, loader);
+    }
+
+
+    /**
+     * Removes the cached entries for a path and all paths below it.
+     * @param path
+     *      An absolute path (relative to the root naming context); normalized before use.
+     */
+    public void invalidate(String path)
+    {
+        String normalized = normalize(path);
+        if (normalized.isEmpty()) {
+            invalidateAll();
+            return;
+        }
+        String prefix = normalized + "/";
+        contexts.invalidateIf(key -> key.equals(normalized) || key.startsWith(prefix));
+        objects.invalidateIf(key -> key.equals(normalized) || key.startsWith(prefix));
+    }
+
+
+    /**
+     * Removes all cached entries.
+     */
+    public void invalidateAll()
+    {
+        contexts.invalidateAll();
+        objects.invalidateAll();
+    }
+
+
+    public long getHitCount()
+    {
+        return contexts.getHitCount() + objects.getHitCount();
+    }
+
+
+    public long getMissCount()
+    {
+        return contexts.getMissCount() + objects.getMissCount();
+    }
+
+}
@@ -1,12 +1,19 @@
 package biz.ple.corba.beans;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
 
+import org.jacorb.poa.RequestQueueListener;
 import org.omg.CORBA.Any;
 import org.omg.CORBA.ORB;
 import org.omg.CORBA.ORBPackage.InvalidName;
@@ -28,9 +35,12 @@ import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
 
 import biz.ple.corba.beans.server.PoaBean;
+import biz.ple.corba.beans.server.PoaManagerGroup;
 import biz.ple.corba.interfaces.PICurrentInjectable;
 import biz.ple.corba.interfaces.ServiceContextPropagatingClientRequestInterceptor;
 import biz.ple.corba.interfaces.ServiceContextPropagatingServerRequestInterceptor;
+import biz.ple.corba.metrics.ClientInvocationMetrics;
+import biz.ple.corba.metrics.ServerRequestMetrics;
 
 
 /**
@@ -137,8 +147,8 @@ public class OrbBean {
                 else
                 if (srvInterceptor != null) {
                     info.add_server_request_interceptor(srvInterceptor);
-                    if (cltInterceptor instanceof PICurrentInjectable) {
-                        PICurrentInjectable inj = (PICurrentInjectable) cltInterceptor;
+                    if (srvInterceptor instanceof PICurrentInjectable) {
+                        PICurrentInjectable inj = (PICurrentInjectable) srvInterceptor;
                         inj.setOrb(orbBean);
                         allocateSlotAndInjectPICurrent(info, inj);
                     }
@@ -213,10 +223,57 @@ public class OrbBean {
 
     }
 
+    private static class QueueListenerRegistration implements MethodInterceptor
+    {
+        private RequestPoolMetrics metrics;
+
+        public QueueListenerRegistration(RequestPoolMetrics metrics)
+        {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object intercept(Object self, Method meth, Object[] args, MethodProxy proxy)
+            throws Throwable
+        {
+            if ("requestAddedToQueue".equals(meth.getName())) {
+                metrics.requestQueued((Integer) args[1]);
+                return null;
+            }
+            else
+            if ("requestRemovedFromQueue".equals(meth.getName())) {
+                metrics.requestDequeued();
+                return null;
+            }
+            else {
+                return proxy.invokeSuper(self, args);
+            }
+        }
+
+    }
+
+
+    /**
+     * What happens to a request arriving at a POA whose request queue has reached its maximum
+     * {@link OrbBean#setQueueDepth(int) depth}.
+     */
+    public enum QueueFullPolicy {
+
+        /** The request is rejected with a {@code TRANSIENT} system exception (JacORB's default). */
+        REJECT,
+
+        /** The request is accepted when the queue has shrunk to its {@link OrbBean#setQueueResumeDepth(int)
+         *  resume depth}; meanwhile, the connection the request arrived on is not read from. */
+        WAIT
+
+    }
+
     public static final String NAMING_SERVICE_NAME = "NameService";
     public static final String PI_CURRENT_NAME     = "PICurrent";
     public static final String ROOT_POA_NAME       = "RootPOA";
 
+    private static final int JACORB_DEFAULT_QUEUE_MAX = 100;
+
     private ORB theORB;
     private POA rootPoa;
     private String nsInitRef;
@@ -224,6 +281,32 @@ public class OrbBean {
     private Current piCurrent;
     private Object orbSync = new Object();
     private List<Class<?>> initializers = new LinkedList<>();
+    private boolean namingCacheEnabled = false;
+    private long namingCacheTtl = 60000L;
+    private int namingCacheSize = 1000;
+    private NamingContextCache namingCache;
+    private Properties extraProps = new Properties();
+    private Integer minThreads;
+    private Integer maxThreads;
+    private Boolean sharedThreadPool;
+    private Integer queueDepth;
+    private Integer queueResumeDepth;
+    private QueueFullPolicy queueFullPolicy;
+    private Integer serverConnectionIdleTimeout;
+    private Integer clientConnectionIdleTimeout;
+    private Integer maxServerConnections;
+    private boolean poolMetricsEnabled = false;
+    private RequestPoolMetrics poolMetrics;
+    private boolean clientMetricsEnabled = false;
+    private ClientInvocationMetrics clientMetrics;
+    private boolean serverMetricsEnabled = false;
+    private ServerRequestMetrics serverMetrics;
+    private String metricsName = "default";
+    private Executor upcallExecutor;
+    private Executor asyncExecutor;
+    private AsyncProxyFactory asyncProxyFactory;
+    private final ConcurrentMap<String, PoaManagerGroup> poaManagerGroups = new ConcurrentHashMap<>();
+    private volatile boolean started = false;
 
 
     private String registerInterceptor(Callback callback)
@@ -231,7 +314,7 @@ public class OrbBean {
         Enhancer enh = new Enhancer();
         enh.setUseCache(false);
         enh.setSuperclass(_ORBInitializerLocalBase.class);
-        enh.setInterfaces(new Class[] { ORBInitializer.class });
+        enh.setInterfaces(new Class<?>[] { ORBInitializer.class });
         enh.setCallbackType(MethodInterceptor.class);
         Class<?> genClazz = enh.createClass();
         Enhancer.registerStaticCallbacks(genClazz, new Callback[] { callback });
@@ -240,6 +323,41 @@ public class OrbBean {
     }
 
 
+    /**
+     * Generates a {@link RequestQueueListener} class passing the queue events to the metrics; JacORB
+     * instantiates it by name.
+     * @return
+     *      The name of the generated class.
+     */
+    static String registerQueueListener(RequestPoolMetrics metrics)
+    {
+        Enhancer enh = new Enhancer();
+        enh.setUseCache(false);
+        enh.setInterfaces(new Class<?>[] { RequestQueueListener.class });
+        enh.setCallbackType(MethodInterceptor.class);
+        Class<?> genClazz = enh.createClass();
+        Enhancer.registerStaticCallbacks(genClazz, new Callback[] { new QueueListenerRegistration(metrics) });
+        return genClazz.getName();
+    }
+
+
+    private static void putIfSet(Properties props, String key, Object value)
+    {
+        if (value != null) {
+            props.put(key, value.toString());
+        }
+    }
+
+
+    private static Integer requireNonNegative(int value, String what)
+    {
+        if (value < 0) {
+            throw new IllegalArgumentException(what + " may not be negative.");
+        }
+        return value;
+    }
+
+
     /**
      * <p>Registers a {@link ServiceContextDefinition 1Service Context Definition} with this OrbBean.</p>
      * <p>By invoking this method several times, several Service Context Definitions can be registered.
@@ -261,7 +379,7 @@ public class OrbBean {
         Enhancer enh = new Enhancer();
         enh.setUseCache(false);
         enh.setSuperclass(_ORBInitializerLocalBase.class);
-        enh.setInterfaces(new Class[] { ORBInitializer.class });
+        enh.setInterfaces(new Class<?>[] { ORBInitializer.class });
         enh.setCallbackType(MethodInterceptor.class);
         Class<?> genClazz = enh.createClass();
         Enhancer.registerStaticCallbacks(genClazz,
@@ -384,6 +502,361 @@ public class OrbBean {
     }
 
 
+    /**
+     * Enables or disables the ORB-scoped {@link NamingContextCache} (default: disabled). If enabled, the
+     * {@link NamingContextBean}s derived from the {@link #getRootNamingCtx() root naming context} resolve
+     * naming context paths and look up names via the cache. Must be invoked before {@link #corbaInit()}.
+     * @param enabled
+     *      {@code true} to enable the cache.
+     */
+    public void setNamingCacheEnabled(boolean enabled)
+    {
+        this.namingCacheEnabled = enabled;
+    }
+
+
+    /**
+     * Sets the time-to-live of the entries in the {@link NamingContextCache} (default: 60 seconds).
+     * Must be invoked before {@link #corbaInit()}.
+     * @param ttlMillis
+     *      The time-to-live in milliseconds; if zero or negative, entries only leave the cache
+     *      when they are evicted or invalidated.
+     */
+    public void setNamingCacheTtl(long ttlMillis)
+    {
+        this.namingCacheTtl = ttlMillis;
+    }
+
+
+    /**
+     * Sets the maximum number of naming contexts and the maximum number of object references held by the
+     * {@link NamingContextCache} (default: 1000 each). Must be invoked before {@link #corbaInit()}.
+     */
+    public void setNamingCacheSize(int maxEntries)
+    {
+        this.namingCacheSize = maxEntries;
+    }
+
+
+    /**
+     * Returns the ORB-scoped naming cache, e.g. to invalidate entries after bindings have changed.
+     * @return
+     *      The {@link NamingContextCache}; {@code null} if the cache is disabled or the
+     *      {@code OrbBean} has not been initialized yet.
+     */
+    public NamingContextCache getNamingContextCache()
+    {
+        return namingCache;
+    }
+
+
+    /**
+     * <p>Sets additional ORB properties, e.g. JacORB-specific properties for which this class does not provide
+     * a dedicated setter. The properties are passed to {@link ORB#init(String[], Properties) ORB.init()}; the
+     * values set via the dedicated setters of this class take precedence. Must be invoked before
+     * {@link #corbaInit()}.</p>
+     * @param orbProps
+     *      The additional properties.
+     */
+    public void setOrbProperties(Properties orbProps)
+    {
+        extraProps = new Properties();
+        extraProps.putAll(orbProps);
+    }
+
+
+    /**
+     * Sets the number of request processor threads a POA's thread pool starts with and never shrinks below
+     * ({@code jacorb.poa.thread_pool_min}; JacORB default: 5). Must be invoked before {@link #corbaInit()}.
+     */
+    public void setMinThreads(int minThreads)
+    {
+        this.minThreads = requireNonNegative(minThreads, "Minimum thread count");
+    }
+
+
+    /**
+     * Sets the maximum number of request processor threads of a POA's thread pool, i.e. the maximum number of
+     * requests a POA processes concurrently ({@code jacorb.poa.thread_pool_max}; JacORB default: 20). Must be
+     * invoked before {@link #corbaInit()}.
+     */
+    public void setMaxThreads(int maxThreads)
+    {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("Maximum thread count must be positive.");
+        }
+        this.maxThreads = maxThreads;
+    }
+
+
+    /**
+     * Determines whether all POAs share a single thread pool or each POA has its own
+     * ({@code jacorb.poa.thread_pool_shared}; JacORB default: each POA has its own). Must be invoked before
+     * {@link #corbaInit()}.
+     */
+    public void setSharedThreadPool(boolean shared)
+    {
+        this.sharedThreadPool = shared;
+    }
+
+
+    /**
+     * Sets the maximum number of requests waiting in a POA's request queue for a processor thread
+     * ({@code jacorb.poa.queue_max}; JacORB default: 100). What happens to further requests is determined
+     * by the {@link #setQueueFullPolicy(QueueFullPolicy) queue full policy}. Must be invoked before
+     * {@link #corbaInit()}.
+     */
+    public void setQueueDepth(int queueDepth)
+    {
+        if (queueDepth < 1) {
+            throw new IllegalArgumentException("Queue depth must be positive.");
+        }
+        this.queueDepth = queueDepth;
+    }
+
+
+    /**
+     * Sets the queue length at which requests are accepted again after the queue has been full, if the
+     * {@link QueueFullPolicy#WAIT WAIT} policy is in effect ({@code jacorb.poa.queue_min}; JacORB default: 10).
+     * Must be invoked before {@link #corbaInit()}.
+     */
+    public void setQueueResumeDepth(int queueResumeDepth)
+    {
+        this.queueResumeDepth = requireNonNegative(queueResumeDepth, "Queue resume depth");
+    }
+
+
+    /**
+     * Sets the policy for requests arriving at a full request queue ({@code jacorb.poa.queue_wait};
+     * default: {@link QueueFullPolicy#REJECT REJECT}). Must be invoked before {@link #corbaInit()}.
+     */
+    public void setQueueFullPolicy(QueueFullPolicy policy)
+    {
+        this.queueFullPolicy = policy;
+    }
+
+
+    /**
+     * Sets the time after which idle server-side connections, i.e. connections opened by clients, are closed
+     * ({@code jacorb.connection.server.timeout}; JacORB default: never). Must be invoked before
+     * {@link #corbaInit()}.
+     * @param timeoutMillis
+     *      The timeout in milliseconds; zero means 'never'.
+     */
+    public void setServerConnectionIdleTimeout(int timeoutMillis)
+    {
+        this.serverConnectionIdleTimeout = requireNonNegative(timeoutMillis, "Connection idle timeout");
+    }
+
+
+    /**
+     * Sets the time after which idle client-side connections, i.e. connections opened by this ORB to servers,
+     * are closed ({@code jacorb.connection.client.idle_timeout}; JacORB default: never). Must be invoked
+     * before {@link #corbaInit()}.
+     * @param timeoutMillis
+     *      The timeout in milliseconds; zero means 'never'.
+     */
+    public void setClientConnectionIdleTimeout(int timeoutMillis)
+    {
+        this.clientConnectionIdleTimeout = requireNonNegative(timeoutMillis, "Connection idle timeout");
+    }
+
+
+    /**
+     * Sets the maximum number of server-side connections; if exceeded, idle connections are closed
+     * ({@code jacorb.connection.max_server_connections}; JacORB default: unlimited). Must be invoked before
+     * {@link #corbaInit()}.
+     */
+    public void setMaxServerConnections(int maxConnections)
+    {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("Maximum number of server connections must be positive.");
+        }
+        this.maxServerConnections = maxConnections;
+    }
+
+
+    /**
+     * Enables or disables the collection of {@link RequestPoolMetrics} (default: disabled). If enabled, a
+     * Server Request Interceptor and a request queue listener are registered with the ORB during
+     * {@link #corbaInit()}. Must be invoked before {@code corbaInit()}.
+     */
+    public void setPoolMetricsEnabled(boolean enabled)
+    {
+        this.poolMetricsEnabled = enabled;
+    }
+
+
+    /**
+     * Enables or disables the collection of {@link ClientInvocationMetrics} (default: disabled), i.e. of the
+     * latencies and exceptions of all invocations made through the ORB, per interface and operation. If
+     * enabled, a Client Request Interceptor is registered with the ORB during {@link #corbaInit()}, and the
+     * metrics are registered as an MXBean named {@code biz.ple.corba:type=ClientInvocationMetrics,name=<name>}
+     * (see {@link #setMetricsName(String)}). Must be invoked before {@code corbaInit()}.
+     * @since 1.4.0
+     */
+    public void setClientMetricsEnabled(boolean enabled)
+    {
+        this.clientMetricsEnabled = enabled;
+    }
+
+
+    /**
+     * Enables or disables the collection of {@link ServerRequestMetrics} (default: disabled), i.e. of the
+     * latencies and exceptions of all requests processed by the ORB, per POA and operation (and optionally
+     * object id prefix). If enabled, a Server Request Interceptor is registered with the ORB during
+     * {@link #corbaInit()}, and the metrics are registered as an MXBean named
+     * {@code biz.ple.corba:type=ServerRequestMetrics,name=<name>} (see {@link #setMetricsName(String)}). Must be
+     * invoked before {@code corbaInit()}; once enabled, recording can be switched off and on at runtime via
+     * {@link ServerRequestMetrics#setEnabled(boolean)}.
+     * @since 1.4.0
+     */
+    public void setServerMetricsEnabled(boolean enabled)
+    {
+        this.serverMetricsEnabled = enabled;
+    }
+
+
+    /**
+     * Sets the name under which the metrics of this {@code OrbBean} are registered as MXBeans (default:
+     * {@code "default"}); must be unique if an application has several {@code OrbBean}s.
+     * @since 1.4.0
+     */
+    public void setMetricsName(String name)
+    {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Metrics name may not be blank.");
+        }
+        this.metricsName = name.trim();
+    }
+
+
+    /**
+     * Sets the default {@link Executor} on which servant upcalls are executed, for all {@link PoaBean}s of
+     * this ORB which do not set their own; see {@link PoaBean#setUpcallExecutor(Executor)}. Must be invoked
+     * before the {@code PoaBean}s are initialized.
+     * @param executor
+     *      The executor; {@code null} (the default) to execute upcalls on the ORB's request processor threads.
+     */
+    public void setUpcallExecutor(Executor executor)
+    {
+        this.upcallExecutor = executor;
+    }
+
+
+    public Executor getUpcallExecutor()
+    {
+        return upcallExecutor;
+    }
+
+
+    /**
+     * Sets the {@link Executor} on which the futures returned by asynchronous proxies are completed (see
+     * {@link #getAsyncProxyFactory()}). Must be invoked before the factory is first used.
+     * @param executor
+     *      The executor; {@code null} (the default) for the {@link java.util.concurrent.ForkJoinPool#commonPool()
+     *      common pool}.
+     * @since 1.4.0
+     */
+    public void setAsyncExecutor(Executor executor)
+    {
+        this.asyncExecutor = executor;
+    }
+
+
+    /**
+     * Returns the factory of asynchronous proxies for references obtained through this ORB; the factory and
+     * the POA receiving the replies to asynchronous invocations are created on first use.
+     * @throws IllegalStateException
+     *      if the {@code OrbBean} has not been initialized yet.
+     * @since 1.4.0
+     */
+    public synchronized AsyncProxyFactory getAsyncProxyFactory()
+    {
+        if (asyncProxyFactory == null) {
+            if (theORB == null) {
+                throw new IllegalStateException("The ORB has not been initialized yet.");
+            }
+            asyncProxyFactory = new AsyncProxyFactory(theORB, rootPoa, asyncExecutor);
+        }
+        return asyncProxyFactory;
+    }
+
+
+    /**
+     * Registers a {@link PoaManagerGroup}; invoked by the {@code PoaManagerGroup}'s constructor.
+     * @throws IllegalArgumentException
+     *      if a group with the same name is already registered.
+     */
+    public void registerPoaManagerGroup(PoaManagerGroup group)
+    {
+        if (poaManagerGroups.putIfAbsent(group.getName(), group) != null) {
+            throw new IllegalArgumentException("POA Manager group '" + group.getName() + "' already exists.");
+        }
+        if (started) {
+            group.orbStarted();
+        }
+    }
+
+
+    /**
+     * Returns a {@link PoaManagerGroup} by name.
+     * @return
+     *      The group; {@code null} if no group named {@code name} is registered.
+     */
+    public PoaManagerGroup getPoaManagerGroup(String name)
+    {
+        return poaManagerGroups.get(name);
+    }
+
+
+    /**
+     * Returns all {@link PoaManagerGroup}s registered with this {@code OrbBean}.
+     */
+    public Collection<PoaManagerGroup> getPoaManagerGroups()
+    {
+        return Collections.unmodifiableCollection(new ArrayList<>(poaManagerGroups.values()));
+    }
+
+
+    /**
+     * Returns the live metrics of request processing.
+     * @return
+     *      The {@link RequestPoolMetrics}; {@code null} if metrics are disabled or the {@code OrbBean} has not
+     *      been initialized yet.
+     */
+    public RequestPoolMetrics getPoolMetrics()
+    {
+        return poolMetrics;
+    }
+
+
+    /**
+     * Returns the metrics of the invocations made through the ORB.
+     * @return
+     *      The {@link ClientInvocationMetrics}; {@code null} if client metrics are disabled or the {@code OrbBean}
+     *      has not been initialized yet.
+     * @since 1.4.0
+     */
+    public ClientInvocationMetrics getClientMetrics()
+    {
+        return clientMetrics;
+    }
+
+
+    /**
+     * Returns the metrics of the requests processed by the ORB.
+     * @return
+     *      The {@link ServerRequestMetrics}; {@code null} if server metrics are disabled or the {@code OrbBean}
+     *      has not been initialized yet.
+     * @since 1.4.0
+     */
+    public ServerRequestMetrics getServerMetrics()
+    {
+        return serverMetrics;
+    }
+
+
     /**
      * <p>Initializes the {@link ORB} encapsulated by this {@code OrbBean}.</p>
      * <p>Before calling the ORB's initialization method, properties are set and
@@ -405,12 +878,51 @@ public class OrbBean {
     {
         // Basic initialization properties
         Properties orbProps = new Properties();
+        orbProps.putAll(extraProps);
         orbProps.put("org.omg.CORBA.ORBClass", "org.jacorb.orb.ORB");
         orbProps.put("org.omg.CORBA.ORBSingletonClass", "org.jacorb.orb.ORBSingleton");
         if (nsInitRef != null) {
             orbProps.put("ORBInitRef.NameService", nsInitRef);
         }
 
+        // Request processing and connection properties
+        if (minThreads != null && maxThreads != null && minThreads > maxThreads) {
+            throw new IllegalStateException("Minimum thread count " + minThreads + " exceeds maximum thread count "
+                                            + maxThreads + ".");
+        }
+        putIfSet(orbProps, "jacorb.poa.thread_pool_min", minThreads);
+        putIfSet(orbProps, "jacorb.poa.thread_pool_max", maxThreads);
+        putIfSet(orbProps, "jacorb.poa.thread_pool_shared", sharedThreadPool);
+        putIfSet(orbProps, "jacorb.poa.queue_max", queueDepth);
+        putIfSet(orbProps, "jacorb.poa.queue_min", queueResumeDepth);
+        if (queueFullPolicy != null) {
+            orbProps.put("jacorb.poa.queue_wait", queueFullPolicy == QueueFullPolicy.WAIT ? "on" : "off");
+        }
+        putIfSet(orbProps, "jacorb.connection.server.timeout", serverConnectionIdleTimeout);
+        putIfSet(orbProps, "jacorb.connection.client.idle_timeout", clientConnectionIdleTimeout);
+        putIfSet(orbProps, "jacorb.connection.max_server_connections", maxServerConnections);
+
+        // Request processing metrics: a server interceptor and a queue listener (instantiated by JacORB per queue)
+        if (poolMetricsEnabled) {
+            String depth = orbProps.getProperty("jacorb.poa.queue_max", String.valueOf(JACORB_DEFAULT_QUEUE_MAX));
+            poolMetrics = new RequestPoolMetrics(Integer.parseInt(depth.trim()));
+            registerServerInterceptor(poolMetrics.getInterceptor());
+            String listeners = orbProps.getProperty("jacorb.poa.queue_listeners", "").trim();
+            String listenerClass = registerQueueListener(poolMetrics);
+            orbProps.put("jacorb.poa.queue_listeners", listeners.isEmpty() ? listenerClass
+                                                                           : listeners + "," + listenerClass);
+        }
+
+        // Invocation and request metrics: interceptors which keep the start time of each request in a PICurrent slot
+        if (clientMetricsEnabled && clientMetrics == null) {
+            clientMetrics = new ClientInvocationMetrics();
+            registerClientInterceptor(clientMetrics);
+        }
+        if (serverMetricsEnabled && serverMetrics == null) {
+            serverMetrics = new ServerRequestMetrics();
+            registerServerInterceptor(serverMetrics);
+        }
+
         // Add initializer classes (names) to ORB properties if applicable
         if (initializers != null) {
             int index = 0;
@@ -426,7 +938,16 @@ public class OrbBean {
         // Get RootPOA and NamingService
         rootPoa = POAHelper.narrow(theORB.resolve_initial_references(ROOT_POA_NAME));
         rootNamingCtx = NamingContextExtHelper.narrow(theORB.resolve_initial_references(NAMING_SERVICE_NAME));
+        if (namingCacheEnabled) {
+            namingCache = new NamingContextCache(namingCacheTtl, namingCacheSize);
+        }
         piCurrent = CurrentHelper.narrow(theORB.resolve_initial_references(PI_CURRENT_NAME));
+        if (clientMetrics != null) {
+            clientMetrics.registerMBean(metricsName);
+        }
+        if (serverMetrics != null) {
+            serverMetrics.registerMBean(metricsName);
+        }
     }
 
 
@@ -463,11 +984,11 @@ public class OrbBean {
      *      #setNameServiceInitRef set} for the Naming Service's initial reference prior
      *      to initializaion.
      * @see #setNameServiceInitRef
+     * @see #setNamingCacheEnabled(boolean)
      */
-    @SuppressWarnings("deprecation")
     public NamingContextBean getRootNamingCtx()
     {
-    	return new NamingContextBean(rootNamingCtx);
+    	return new NamingContextBean(rootNamingCtx, namingCache);
     }
 
 
@@ -499,6 +1020,7 @@ public class OrbBean {
      * <p>Activates the POA Manager of the ORB encapsulated by this {@code OrbBean} and starts processing
      * of CORBA requests by invoking the ORB's {@link ORB#run() run()} method in a separate thread,
      * meaning that this method is non-blocking and returns after that thread has been started.</p>
+     * <p>The POA Managers of {@link PoaManagerGroup}s are activated as well (unless configured otherwise).</p>
      * @see #stop(boolean) stop()
      * @see #waitForShutdown()
      */
@@ -510,6 +1032,10 @@ public class OrbBean {
         catch (AdapterInactive e) {
             throw new IllegalStateException("Could not active RootPOA because of AdapterInactive exception.");
         }
+        started = true;
+        for (PoaManagerGroup group: poaManagerGroups.values()) {
+            group.orbStarted();
+        }
         OrbRunnerThread orbThread = new OrbRunnerThread(theORB, orbSync);
         orbThread.start();
     }
@@ -519,12 +1045,21 @@ public class OrbBean {
      * <p>Stops processing of CORBA requests by the ORB encapsulating by this {@code OrbBean} by invoking
      * the ORB's {@link ORB#shutdown(boolean) shutDown()} method in a separate thread. meaning that this method
      * is non-blocking and returns after that thread has been started.
+     * <p>The {@link #getAsyncProxyFactory() asynchronous proxy factory}, if any, is destroyed first, which completes
+     * the futures of asynchronous invocations still waiting for their replies exceptionally.</p>
      * @param waitForRequests
      *      Indicates whether all requests being processed at the time of invocation should be allowed to
      *      complete before the ORB is actually shut down.
      */
     public void stop(boolean waitForRequests)
     {
+        AsyncProxyFactory asyncFactory;
+        synchronized (this) {
+            asyncFactory = asyncProxyFactory;
+        }
+        if (asyncFactory != null) {
+            asyncFactory.destroy();
+        }
     	OrbShutdownThread shutdownThread = new OrbShutdownThread(theORB, waitForRequests);
     	shutdownThread.start();
     }
@@ -0,0 +1,237 @@
+package biz.ple.corba.beans;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.omg.PortableInterceptor.ForwardRequest;
+import org.omg.PortableInterceptor.ServerRequestInfo;
+
+import biz.ple.corba.interfaces.StandaloneServerRequestInterceptor;
+
+
+/**
+ * <p>Live metrics of the request processing of an {@link OrbBean}, i.e. of JacORB's request queues and
+ * request processor thread pools. Enabled via {@link OrbBean#setPoolMetricsEnabled(boolean)} and
+ * obtained via {@link OrbBean#getPoolMetrics()}.</p>
+ * <p>The metrics are collected by a Server Request Interceptor (requests in progress and completed) and by a
+ * JacORB {@code RequestQueueListener} (queue lengths), both registered by the {@code OrbBean}. Values are
+ * summed up over all POAs of the ORB. All methods are thread-safe and cheap enough to be polled, e.g. by a
+ * monitoring agent.</p>
+ * <p>Note that JacORB rejects a request arriving at a full queue (with {@code TRANSIENT}) <i>before</i> any
+ * interceptor or listener sees it, so individual rejections cannot be counted. Instead, the
+ * {@link #getQueueFullCount() queue full count} counts how often a queue has reached its maximum depth;
+ * if it grows while the {@link OrbBean.QueueFullPolicy#REJECT REJECT} policy is in effect, requests are
+ * being rejected.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class RequestPoolMetrics {
+
+    /** Counts the requests in progress, i.e. the busy request processor threads. */
+    private class MetricsInterceptor implements StandaloneServerRequestInterceptor {
+
+        @Override
+        public String name()
+        {
+            return "corbaBeans.RequestPoolMetrics";
+        }
+
+        @Override
+        public void destroy()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void receive_request_service_contexts(ServerRequestInfo ri) throws ForwardRequest
+        {
+            requestStarted();
+        }
+
+        @Override
+        public void receive_request(ServerRequestInfo ri) throws ForwardRequest
+        {
+            // Counted in receive_request_service_contexts()
+        }
+
+        @Override
+        public void send_reply(ServerRequestInfo ri)
+        {
+            requestFinished(false);
+        }
+
+        @Override
+        public void send_exception(ServerRequestInfo ri) throws ForwardRequest
+        {
+            requestFinished(true);
+        }
+
+        @Override
+        public void send_other(ServerRequestInfo ri) throws ForwardRequest
+        {
+            requestFinished(false);
+        }
+
+    }
+
+
+    private final int queueDepth;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger peakQueued = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+    private final MetricsInterceptor interceptor = new MetricsInterceptor();
+
+
+    /**
+     * Constructor.
+     * @param queueDepth
+     *      The maximum depth of a request queue, as configured for the ORB; zero or negative if unlimited.
+     */
+    RequestPoolMetrics(int queueDepth)
+    {
+        this.queueDepth = queueDepth;
+    }
+
+
+    StandaloneServerRequestInterceptor getInterceptor()
+    {
+        return interceptor;
+    }
+
+
+    void requestStarted()
+    {
+        updatePeak(peakActive, active.incrementAndGet());
+    }
+
+
+    void requestFinished(boolean exception)
+    {
+        active.decrementAndGet();
+        completed.incrementAndGet();
+        if (exception) {
+            failed.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Invoked by the queue listener when a request has been added to a POA's queue.
+     * @param queueLength
+     *      The length of that queue after adding the request.
+     */
+    void requestQueued(int queueLength)
+    {
+        updatePeak(peakQueued, queued.incrementAndGet());
+        if (queueDepth > 0 && queueLength >= queueDepth) {
+            queueFull.incrementAndGet();
+        }
+    }
+
+
+    void requestDequeued()
+    {
+        queued.decrementAndGet();
+    }
+
+
+    /**
+     * Returns the number of requests currently being processed, which is the number of request processor
+     * threads currently busy executing upcalls (or interceptors).
+     */
+    public int getActiveThreads()
+    {
+        return active.get();
+    }
+
+
+    /**
+     * Returns the highest number of requests processed concurrently since the ORB was initialized or since
+     * the last {@link #resetPeaks()}.
+     */
+    public int getPeakActiveThreads()
+    {
+        return peakActive.get();
+    }
+
+
+    /**
+     * Returns the number of requests currently waiting in the request queues of all POAs.
+     */
+    public int getQueueLength()
+    {
+        return queued.get();
+    }
+
+
+    /**
+     * Returns the highest number of queued requests since the ORB was initialized or since the last
+     * {@link #resetPeaks()}.
+     */
+    public int getPeakQueueLength()
+    {
+        return peakQueued.get();
+    }
+
+
+    /**
+     * Returns the number of requests completed, i.e. answered with a reply, an exception, or a location forward.
+     */
+    public long getCompletedCount()
+    {
+        return completed.get();
+    }
+
+
+    /**
+     * Returns the number of requests completed with an exception (user or system exception).
+     */
+    public long getFailedCount()
+    {
+        return failed.get();
+    }
+
+
+    /**
+     * Returns how often a request queue has reached its maximum depth. Depending on the
+     * {@link OrbBean.QueueFullPolicy}, further requests are rejected or have to wait until then.
+     */
+    public long getQueueFullCount()
+    {
+        return queueFull.get();
+    }
+
+
+    /**
+     * Resets the peak values to the current values.
+     */
+    public void resetPeaks()
+    {
+        peakActive.set(active.get());
+        peakQueued.set(queued.get());
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "RequestPoolMetrics[active=" + active.get() + ", peakActive=" + peakActive.get()
+            + ", queued=" + queued.get() + ", peakQueued=" + peakQueued.get() + ", completed=" + completed.get()
+            + ", failed=" + failed.get() + ", queueFull=" + queueFull.get() + "]";
+    }
+
+
+    private static void updatePeak(AtomicInteger peak, int value)
+    {
+        int current = peak.get();
+        while (value > current && !peak.compareAndSet(current, value)) {
+            current = peak.get();
+        }
+    }
+
+}
@@ -0,0 +1,369 @@
+package biz.ple.corba.beans;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.omg.CORBA.portable.ObjectImpl;
+
+
+/**
+ * <p>Creates proxies which serve the attribute reads of an IDL interface from a short-lived snapshot of all
+ * of the object's attributes, instead of making a remote invocation per read. A proxy implements the
+ * {@code Operations} interface generated by the IDL compiler (e.g. {@code EmployeeOperations}), so code
+ * written against it does not change:</p>
+ * <pre>
+ * SnapshotProxyFactory snapshots = new SnapshotProxyFactory(orb.getAsyncProxyFactory());
+ * EmployeeOperations emp = snapshots.createProxy(employeeRef, EmployeeOperations.class, 100L);
+ * String name = emp.firstName() + " " + emp.lastName();   // one snapshot
+ * </pre>
+ * <p>The first read of an attribute loads the snapshot: the values of all attributes are requested at
+ * once, as asynchronous invocations (see {@link AsyncProxyFactory}), so that loading takes about one
+ * round trip instead of one per attribute. Reads are coalesced: concurrent reads wait for the snapshot
+ * being loaded, and subsequent reads are served from it until its window (measured from the start of
+ * loading) has elapsed. With a window of {@code 0}, reads go to the object one by one, except inside an
+ * explicit {@link #openScope() scope}, which keeps the snapshots it has used until it is closed:</p>
+ * <pre>
+ * try (SnapshotProxyFactory.Scope scope = SnapshotProxyFactory.openScope()) {
+ *     // all reads through any snapshot proxy in this thread see the same snapshot per proxy
+ * }
+ * </pre>
+ * <p>Attribute writes through the proxy, as well as all other operations (which might change attributes as
+ * well), are passed to the object and discard the proxy's snapshot, both the shared one and that of the
+ * current thread's scope. Changes made by other clients, or through other proxies of the same object, are
+ * not seen until the snapshot expires. The values of a snapshot are shared by all readers and must not be
+ * modified (e.g. IDL structs or sequences). If reading an attribute fails while a snapshot is loaded, only
+ * reads of that attribute throw the exception (and discard the snapshot); the other attributes are read
+ * from the snapshot as usual.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class SnapshotProxyFactory {
+
+    private static final ThreadLocal<Scope> CURRENT_SCOPE = new ThreadLocal<>();
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final AsyncProxyFactory asyncFactory;
+    private final ConcurrentMap<Class<?>, InterfaceInfo> interfaces = new ConcurrentHashMap<>();
+
+
+    /**
+     * Creates a factory whose proxies load their snapshots through the given {@link AsyncProxyFactory}.
+     * @param asyncFactory
+     *      The {@code AsyncProxyFactory} of the ORB the proxied references belong to; see
+     *      {@link OrbBean#getAsyncProxyFactory()}.
+     */
+    public SnapshotProxyFactory(AsyncProxyFactory asyncFactory)
+    {
+        this.asyncFactory = asyncFactory;
+    }
+
+
+    /**
+     * Creates a snapshot proxy loading its snapshots on the {@link AsyncProxyFactory#getDefaultExecutor()
+     * default executor} of the factory's {@code AsyncProxyFactory}.
+     * @see #createProxy(org.omg.CORBA.Object, Class, long, Executor)
+     */
+    public <T> T createProxy(org.omg.CORBA.Object target, Class<T> operationsInterface, long windowMillis)
+    {
+        return createProxy(target, operationsInterface, windowMillis, asyncFactory.getDefaultExecutor());
+    }
+
+
+    /**
+     * Creates a snapshot proxy for an object reference.
+     * @param target
+     *      The object reference, narrowed to the IDL interface of {@code operationsInterface}.
+     * @param operationsInterface
+     *      The {@code Operations} interface generated by the IDL compiler for the IDL interface.
+     * @param windowMillis
+     *      For how long (in milliseconds) a snapshot serves reads outside of a scope; {@code 0} to use
+     *      snapshots only inside scopes.
+     * @param executor
+     *      The executor on which the replies of the asynchronous invocations loading a snapshot are processed.
+     * @return
+     *      The proxy; its {@code hashCode()} and {@code toString()} methods are those of {@code target},
+     *      {@code equals()} is identity.
+     * @throws IllegalArgumentException
+     *      if {@code operationsInterface} is not an {@code Operations} interface generated by the IDL compiler,
+     *      {@code target} is not of the corresponding IDL interface, or {@code windowMillis} is negative.
+     */
+    public <T> T createProxy(org.omg.CORBA.Object target, Class<T> operationsInterface, long windowMillis,
+                             Executor executor)
+    {
+        if (windowMillis < 0L) {
+            throw new IllegalArgumentException("The snapshot window must not be negative.");
+        }
+        InterfaceInfo info = interfaces.computeIfAbsent(operationsInterface, InterfaceInfo::new);
+        if (!info.idlInterface.isInstance(target) || !(target instanceof ObjectImpl)) {
+            throw new IllegalArgumentException("The target of a snapshot proxy of type " + operationsInterface.getName()
+                                               + " must be a stub of type " + info.idlInterface.getName() + ".");
+        }
+        InvocationHandler handler = new SnapshotHandler((ObjectImpl) target, info,
+                                                        TimeUnit.MILLISECONDS.toNanos(windowMillis), executor);
+        return operationsInterface.cast(Proxy.newProxyInstance(operationsInterface.getClassLoader(),
+                                                               new Class<?>[] { operationsInterface }, handler));
+    }
+
+
+    /**
+     * Opens a scope for the current thread, in which every snapshot proxy serves all reads from the same
+     * snapshot, regardless of its window, until the scope is closed or the proxy is written to. Scopes may
+     * be nested; the outermost one determines the lifetime of the snapshots.
+     * @return
+     *      The scope, which must be closed by the thread which opened it.
+     */
+    public static Scope openScope()
+    {
+        Scope scope = CURRENT_SCOPE.get();
+        if (scope != null) {
+            ++scope.depth;
+            return scope;
+        }
+        scope = new Scope();
+        CURRENT_SCOPE.set(scope);
+        return scope;
+    }
+
+
+    /** A thread's scope of snapshots; see {@link SnapshotProxyFactory#openScope()}. */
+    public static final class Scope implements AutoCloseable {
+
+        private final Map<SnapshotHandler, Snapshot> snapshots = new IdentityHashMap<>();
+        private int depth = 1;
+
+        private Scope()
+        {
+        }
+
+        @Override
+        public void close()
+        {
+            if (--depth == 0) {
+                snapshots.clear();
+                CURRENT_SCOPE.remove();
+            }
+        }
+
+    }
+
+
+    /** The attribute accessors of an {@code Operations} interface. */
+    private static final class InterfaceInfo {
+
+        final Class<?> idlInterface;
+        final Map<Method, String> getters = new HashMap<>();
+        final List<Method> getterList = new ArrayList<>();
+
+        InterfaceInfo(Class<?> operationsInterface)
+        {
+            String name = operationsInterface.getName();
+            if (!operationsInterface.isInterface() || !name.endsWith("Operations")) {
+                throw new IllegalArgumentException(name + " is not an Operations interface generated by the IDL compiler.");
+            }
+            try {
+                idlInterface = Class.forName(name.substring(0, name.length() - "Operations".length()), true,
+                                             operationsInterface.getClassLoader());
+            }
+            catch (ClassNotFoundException cnf) {
+                throw new IllegalArgumentException("No IDL interface found for " + name + ".");
+            }
+            if (!operationsInterface.isAssignableFrom(idlInterface)
+                || !org.omg.CORBA.Object.class.isAssignableFrom(idlInterface)) {
+                throw new IllegalArgumentException(idlInterface.getName() + " is not the IDL interface of " + name + ".");
+            }
+            for (Method method: operationsInterface.getMethods()) {
+                if (method.getParameterCount() == 0 && method.getReturnType() != void.class) {
+                    String operation = AsyncProxyFactory.operationName(idlInterface, method);
+                    if (operation.startsWith("_get_")) {
+                        getters.put(method, operation.substring("_get_".length()));
+                        getterList.add(method);
+                    }
+                }
+            }
+        }
+
+    }
+
+
+    /** Takes the place of the value of an attribute whose accessor failed in a snapshot. */
+    private static final class Failure {
+
+        final Throwable cause;
+
+        Failure(Throwable cause)
+        {
+            this.cause = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        }
+
+    }
+
+
+    /** The attribute values of an object, as loaded (or being loaded) at a point in time. */
+    private static final class Snapshot {
+
+        final CompletableFuture<Map<String, Object>> values = new CompletableFuture<>();
+        final long expiresAt;
+
+        Snapshot(long expiresAt)
+        {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isUsable(long now)
+        {
+            return !values.isDone() || (now - expiresAt < 0L && !values.isCompletedExceptionally());
+        }
+
+    }
+
+
+    private final class SnapshotHandler implements InvocationHandler {
+
+        private final ObjectImpl target;
+        private final InterfaceInfo info;
+        private final long windowNanos;
+        private final Executor executor;
+        private final AtomicReference<Snapshot> shared = new AtomicReference<>();
+
+        SnapshotHandler(ObjectImpl target, InterfaceInfo info, long windowNanos, Executor executor)
+        {
+            this.target = target;
+            this.info = info;
+            this.windowNanos = windowNanos;
+            this.executor = executor;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+            throws Throwable
+        {
+            if (method.getDeclaringClass() == Object.class) {
+                return "equals".equals(method.getName()) ? proxy == args[0] : method.invoke(target, args);
+            }
+            String attribute = info.getters.get(method);
+            Scope scope = CURRENT_SCOPE.get();
+            if (attribute != null && (scope != null || windowNanos > 0L)) {
+                return read(scope, attribute);
+            }
+            if (attribute == null) {
+                discardSnapshots(scope);
+            }
+            try {
+                return method.invoke(target, args);
+            }
+            catch (InvocationTargetException itx) {
+                throw itx.getCause();
+            }
+            finally {
+                if (attribute == null) {
+                    // A snapshot loaded while the operation was in progress may not reflect its effects
+                    discardSnapshots(scope);
+                }
+            }
+        }
+
+        private Object read(Scope scope, String attribute)
+        {
+            Snapshot snapshot = scope != null ? scope.snapshots.get(this) : null;
+            if (snapshot == null) {
+                snapshot = currentSnapshot();
+                if (scope != null) {
+                    scope.snapshots.put(this, snapshot);
+                }
+            }
+            Object value;
+            try {
+                value = snapshot.values.join().get(attribute);
+            }
+            catch (CompletionException cex) {
+                value = new Failure(cex);
+            }
+            if (!(value instanceof Failure)) {
+                return value;
+            }
+            // Only reads of the failed attribute fail; the next one loads a new snapshot
+            shared.compareAndSet(snapshot, null);
+            if (scope != null) {
+                scope.snapshots.remove(this);
+            }
+            Throwable cause = ((Failure) value).cause;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Reading the attribute " + attribute + " of " + info.idlInterface.getName()
+                                            + " failed.", cause);
+        }
+
+        /** Returns the shared snapshot if it is being loaded or has not expired, otherwise loads a new one. */
+        private Snapshot currentSnapshot()
+        {
+            while (true) {
+                long now = System.nanoTime();
+                Snapshot snapshot = shared.get();
+                if (snapshot != null && snapshot.isUsable(now)) {
+                    return snapshot;
+                }
+                Snapshot fresh = new Snapshot(now + windowNanos);
+                if (shared.compareAndSet(snapshot, fresh)) {
+                    load(fresh);
+                    return fresh;
+                }
+            }
+        }
+
+        /** Loads the attributes; an attribute whose accessor fails is stored as a {@link Failure}. */
+        private void load(Snapshot snapshot)
+        {
+            List<Method> getters = info.getterList;
+            List<CompletableFuture<Object>> results = new ArrayList<>(getters.size());
+            for (Method getter: getters) {
+                CompletableFuture<Object> result;
+                try {
+                    result = asyncFactory.invoke(target, info.idlInterface, getter, NO_ARGS, executor);
+                }
+                catch (RuntimeException | Error xcp) {
+                    // The request could not be sent, e.g. because the factory's reply POA is being destroyed
+                    result = new CompletableFuture<>();
+                    result.completeExceptionally(xcp);
+                }
+                results.add(result.handle((value, thr) -> thr == null ? value : new Failure(thr)));
+            }
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()])).whenComplete((ignored, thr) -> {
+                Map<String, Object> values = new HashMap<>();
+                for (int idx = 0; idx < getters.size(); ++idx) {
+                    values.put(info.getters.get(getters.get(idx)), results.get(idx).join());
+                }
+                snapshot.values.complete(Collections.unmodifiableMap(values));
+            });
+        }
+
+        private void discardSnapshots(Scope scope)
+        {
+            shared.set(null);
+            if (scope != null) {
+                scope.snapshots.remove(this);
+            }
+        }
+
+    }
+
+}
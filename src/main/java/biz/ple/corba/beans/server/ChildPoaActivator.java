@@ -0,0 +1,131 @@
+package biz.ple.corba.beans.server;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.omg.CORBA.SystemException;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer._AdapterActivatorLocalBase;
+import org.omg.PortableServer.POAManagerPackage.AdapterInactive;
+import org.omg.PortableServer.POAPackage.AdapterAlreadyExists;
+import org.omg.PortableServer.POAPackage.InvalidPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.ple.corba.interfaces.ChildPoaConfigurer;
+
+
+/**
+ * <p>The Adapter Activator of a {@link PoaBean} which creates child POAs on demand; see
+ * {@link PoaBean#setChildPoaConfigurer(ChildPoaConfigurer)}. When a request arrives for an unknown child
+ * POA, a {@code PoaBean} with a copy of the policy template is created, configured by the
+ * {@link ChildPoaConfigurer} and initialized. If the child has a POA Manager of its own (not one of a
+ * {@link PoaManagerGroup}), it is activated.</p>
+ * <p>If an idle timeout is set, the child POAs created on demand are checked periodically (on a daemon
+ * thread shared by all {@code PoaBean}s) and destroyed if no request is in progress and none has been
+ * received within the timeout. The next request for a destroyed child POA creates it again.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class ChildPoaActivator extends _AdapterActivatorLocalBase {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(ChildPoaActivator.class);
+
+    private static final ScheduledExecutorService REAPER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "IdlePoaReaper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PoaBean parent;
+    private final PoaPolicies template;
+    private final ChildPoaConfigurer configurer;
+    private final long idleTimeoutMillis;
+    private ScheduledFuture<?> reaperTask;
+
+
+    ChildPoaActivator(PoaBean parent, PoaPolicies template, ChildPoaConfigurer configurer, long idleTimeoutMillis)
+    {
+        this.parent = parent;
+        this.template = new PoaPolicies(template);
+        this.configurer = configurer;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+
+    @Override
+    public boolean unknown_adapter(POA parentPoa, String name)
+    {
+        PoaBean child = new PoaBean(parent, name, new PoaPolicies(template));
+        try {
+            if (!configurer.configure(name, child)) {
+                return false;
+            }
+            if (idleTimeoutMillis > 0L) {
+                child.trackRequests();
+            }
+            child.corbaInit();
+            if (!child.isUsingParentPoaManager() && child.getPoaManagerGroup() == null) {
+                child.getPoa().the_POAManager().activate();
+            }
+            LOG.debug("Created POA '{}' on demand.", name);
+            return true;
+        }
+        catch (AdapterAlreadyExists aae) {
+            // Created concurrently, e.g. via PoaBean.createChildPoa()
+            return true;
+        }
+        catch (InvalidPolicy | AdapterInactive | SystemException | IllegalArgumentException | IllegalStateException xcp) {
+            LOG.warn("Could not create POA '" + name + "' on demand.", xcp);
+            if (child.getPoa() != null) {
+                parent.destroyChildPoa(child, false, false);
+            }
+            return false;
+        }
+    }
+
+
+    synchronized void startReaper()
+    {
+        if (idleTimeoutMillis > 0L && reaperTask == null) {
+            long period = Math.max(idleTimeoutMillis / 2L, 1L);
+            reaperTask = REAPER.scheduleWithFixedDelay(this::destroyIdleChildren, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+
+    synchronized void stopReaper()
+    {
+        if (reaperTask != null) {
+            reaperTask.cancel(false);
+            reaperTask = null;
+        }
+    }
+
+
+    private void destroyIdleChildren()
+    {
+        if (parent.getPoa() == null) {
+            stopReaper();
+            return;
+        }
+        long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        for (PoaBean child: parent.getChildPoas()) {
+            if (child.isIdle(idleNanos)) {
+                try {
+                    if (parent.destroyChildPoa(child, true, false)) {
+                        LOG.debug("Destroyed idle POA '{}'.", child.getName());
+                    }
+                }
+                catch (SystemException sx) {
+                    LOG.warn("Could not destroy idle POA '" + child.getName() + "'.", sx);
+                }
+            }
+        }
+    }
+
+}
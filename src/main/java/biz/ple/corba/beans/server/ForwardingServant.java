@@ -0,0 +1,115 @@
+package biz.ple.corba.beans.server;
+
+import org.omg.CORBA.BAD_INV_ORDER;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+
+
+/**
+ * <p>Base class for servants which stand in for another (stream-based) servant in the POA, e.g. to execute
+ * its upcalls on an executor or to record its requests. All upcalls are forwarded to the target servant;
+ * subclasses hook into each request by overriding {@link #dispatch(String, InputStream, ResponseHandler)}.</p>
+ * <p>The POA sets the ORB's servant delegate on the servant it knows, i.e. the wrapper; it is passed on to the
+ * target before its first upcall, so that the POA Current and {@code _this()} work as usual within the
+ * target.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public abstract class ForwardingServant extends Servant implements InvokeHandler {
+
+    /**
+     * Wrappers recording the time of the last request skip accesses closer together than this (in
+     * nanoseconds) to the previously recorded one.
+     */
+    protected static final long ACCESS_RESOLUTION = 1000000L;
+
+    private final Servant target;
+    private volatile boolean targetDelegateSet;
+
+
+    /**
+     * Constructor.
+     * @param target
+     *      The servant the upcalls are forwarded to; requests can only be forwarded to servants implementing
+     *      {@link InvokeHandler}.
+     */
+    protected ForwardingServant(Servant target)
+    {
+        this.target = target;
+    }
+
+
+    /**
+     * Returns the servant the upcalls are forwarded to.
+     */
+    public final Servant getTarget()
+    {
+        return target;
+    }
+
+
+    @Override
+    public String[] _all_interfaces(POA poa, byte[] objectId)
+    {
+        return target._all_interfaces(poa, objectId);
+    }
+
+
+    @Override
+    public boolean _non_existent()
+    {
+        ensureTargetDelegate();
+        return target._non_existent();
+    }
+
+
+    @Override
+    public final OutputStream _invoke(String method, InputStream input, ResponseHandler handler)
+        throws SystemException
+    {
+        ensureTargetDelegate();
+        return dispatch(method, input, handler);
+    }
+
+
+    /**
+     * Invoked for every request; forwards it to the target via {@link #forward(String, InputStream,
+     * ResponseHandler)} by default.
+     */
+    protected OutputStream dispatch(String method, InputStream input, ResponseHandler handler)
+        throws SystemException
+    {
+        return forward(method, input, handler);
+    }
+
+
+    /**
+     * Passes a request to the target servant.
+     */
+    protected final OutputStream forward(String method, InputStream input, ResponseHandler handler)
+        throws SystemException
+    {
+        return ((InvokeHandler) target)._invoke(method, input, handler);
+    }
+
+
+    private void ensureTargetDelegate()
+    {
+        if (!targetDelegateSet) {
+            try {
+                target._get_delegate();
+            }
+            catch (BAD_INV_ORDER noDelegate) {
+                target._set_delegate(_get_delegate());
+            }
+            targetDelegateSet = true;
+        }
+    }
+
+}
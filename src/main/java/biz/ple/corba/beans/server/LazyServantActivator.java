@@ -0,0 +1,69 @@
+package biz.ple.corba.beans.server;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.OBJECT_NOT_EXIST;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer._ServantActivatorLocalBase;
+
+
+/**
+ * <p>The Servant Activator a {@link PoaBean} with the {@code UseServantManager} and {@code Retain} policies
+ * uses if no Servant Activator has been set. It incarnates the servants of {@link NamedServantObject}s in
+ * {@link NamedServantObject#setLazy(boolean) lazy} mode, whose object references are published before the
+ * servant (or its TIE object) has been created and activated: the servant is created and activated on the
+ * first request for its object.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class LazyServantActivator extends _ServantActivatorLocalBase {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Keyed by the object id, converted 1:1 to a string. */
+    private final ConcurrentMap<String, NamedServantObject> servants = new ConcurrentHashMap<>();
+
+
+    void register(byte[] oid, NamedServantObject servantObject)
+    {
+        if (servants.putIfAbsent(toKey(oid), servantObject) != null) {
+            throw new IllegalArgumentException("A servant with the object id '" + toKey(oid) + "' is already registered.");
+        }
+    }
+
+
+    @Override
+    public Servant incarnate(byte[] oid, POA adapter)
+    {
+        NamedServantObject servantObject = servants.get(toKey(oid));
+        if (servantObject == null) {
+            throw new OBJECT_NOT_EXIST(0, CompletionStatus.COMPLETED_NO);
+        }
+        try {
+            return servantObject.createServant();
+        }
+        catch (IllegalArgumentException | IllegalStateException | ClassCastException xcp) {
+            throw new org.omg.CORBA.INTERNAL("Could not create servant: " + xcp, 0, CompletionStatus.COMPLETED_NO);
+        }
+    }
+
+
+    @Override
+    public void etherealize(byte[] oid, POA adapter, Servant servant, boolean cleanupInProgress,
+                            boolean remainingActivations)
+    {
+        // The servant is created again on the next request
+    }
+
+
+    private static String toKey(byte[] oid)
+    {
+        return new String(oid, StandardCharsets.ISO_8859_1);
+    }
+
+}
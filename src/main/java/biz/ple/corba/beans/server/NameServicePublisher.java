@@ -0,0 +1,276 @@
+package biz.ple.corba.beans.server;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.omg.CORBA.COMM_FAILURE;
+import org.omg.CORBA.NO_RESOURCES;
+import org.omg.CORBA.NO_RESPONSE;
+import org.omg.CORBA.TIMEOUT;
+import org.omg.CORBA.TRANSIENT;
+import org.omg.CosNaming.NamingContextPackage.CannotProceed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * <p>Publishes the object references of {@link NamedServantObject}s in the Naming Service in bulk, instead of
+ * one blocking {@code rebind()} per servant during initialization. {@code NamedServantObject}s with a publisher
+ * (see {@link NamedServantObject#setPublisher(NameServicePublisher)}) which are initialized before
+ * {@link #publish()} has been invoked only register their binding; {@code publish()} then rebinds all of them
+ * in parallel on a bounded number of threads and returns immediately, so that the startup of a server does
+ * not depend on the latency (or availability) of the Naming Service.</p>
+ * <p>A rebind which fails with {@code CannotProceed} or a transient CORBA system exception ({@code TRANSIENT},
+ * {@code COMM_FAILURE}, {@code TIMEOUT}, {@code NO_RESPONSE}, {@code NO_RESOURCES}) is retried with exponential
+ * backoff (with jitter), up to the configured number of attempts. Other failures are not retried. The outcome
+ * is reported by the {@code CompletableFuture} returned by {@code publish()}, which completes normally with a
+ * {@link Report} once every binding has been published or has failed, unless a binding failed with an
+ * {@link Error}; the future then completes exceptionally with that error (after all other bindings have
+ * completed or failed as well).</p>
+ * <p>{@code NamedServantObject}s initialized after {@code publish()} has been invoked bind their references
+ * synchronously, as without a publisher.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class NameServicePublisher {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NameServicePublisher.class);
+
+
+    /**
+     * The outcome of a {@link NameServicePublisher#publish()} run.
+     */
+    public static final class Report {
+
+        private final int published;
+        private final Map<NamedServantObject, Throwable> failures;
+        private final long elapsedMillis;
+
+        Report(int published, Map<NamedServantObject, Throwable> failures, long elapsedMillis)
+        {
+            this.published = published;
+            this.failures = Collections.unmodifiableMap(failures);
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /** Returns the number of references bound successfully. */
+        public int getPublished()
+        {
+            return published;
+        }
+
+        /** Returns the {@code NamedServantObject}s whose references could not be bound, and the last failure for each. */
+        public Map<NamedServantObject, Throwable> getFailures()
+        {
+            return failures;
+        }
+
+        public boolean isSuccessful()
+        {
+            return failures.isEmpty();
+        }
+
+        /** Returns the time from the invocation of {@code publish()} until the last binding completed or failed. */
+        public long getElapsedMillis()
+        {
+            return elapsedMillis;
+        }
+
+    }
+
+
+    private final List<NamedServantObject> pending = new ArrayList<>();
+    private int threads = 4;
+    private int maxAttempts = 5;
+    private long initialBackoffMillis = 100L;
+    private long maxBackoffMillis = 5000L;
+    private CompletableFuture<Report> publication;
+
+
+    /**
+     * Sets the maximum number of concurrent {@code rebind()} requests (default: 4).
+     */
+    public synchronized void setThreads(int threads)
+    {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of publication threads must be positive.");
+        }
+        this.threads = threads;
+    }
+
+
+    /**
+     * Sets the maximum number of attempts to bind a reference, including the first one (default: 5).
+     */
+    public synchronized void setMaxAttempts(int maxAttempts)
+    {
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Maximum number of attempts must be positive.");
+        }
+        this.maxAttempts = maxAttempts;
+    }
+
+
+    /**
+     * Sets the delays between the attempts to bind a reference: the delay before the second attempt is (about)
+     * {@code initialMillis}, and doubles with every further attempt up to {@code maxMillis} (defaults: 100 and
+     * 5000 milliseconds).
+     */
+    public synchronized void setBackoff(long initialMillis, long maxMillis)
+    {
+        if (initialMillis <= 0L || maxMillis < initialMillis) {
+            throw new IllegalArgumentException("Backoff delays must be positive, and the maximum not less than the initial delay.");
+        }
+        this.initialBackoffMillis = initialMillis;
+        this.maxBackoffMillis = maxMillis;
+    }
+
+
+    /**
+     * Registers the binding of an initialized {@code NamedServantObject} for publication.
+     * @return
+     *      {@code false} if {@link #publish()} has already been invoked, i.e. the caller must bind the
+     *      reference itself.
+     */
+    synchronized boolean register(NamedServantObject servantObject)
+    {
+        if (publication != null) {
+            return false;
+        }
+        pending.add(servantObject);
+        return true;
+    }
+
+
+    /**
+     * Starts publishing all registered bindings, unless already started.
+     * @return
+     *      A future which is completed when all bindings have been published or have finally failed (exceptionally
+     *      if a binding failed with an {@code Error}); the same future is returned by subsequent invocations.
+     */
+    public synchronized CompletableFuture<Report> publish()
+    {
+        if (publication != null) {
+            return publication;
+        }
+        publication = new CompletableFuture<>();
+        if (pending.isEmpty()) {
+            publication.complete(new Report(0, Collections.<NamedServantObject, Throwable>emptyMap(), 0L));
+            return publication;
+        }
+        new Run(new ArrayList<>(pending)).start();
+        pending.clear();
+        return publication;
+    }
+
+
+    /**
+     * Returns the future returned by {@link #publish()}; {@code null} if it has not been invoked yet.
+     */
+    public synchronized CompletableFuture<Report> getPublication()
+    {
+        return publication;
+    }
+
+
+    /** One publication run; the executor is shut down when the last binding has completed or failed. */
+    private final class Run {
+
+        private final List<NamedServantObject> bindings;
+        private final ScheduledThreadPoolExecutor executor;
+        private final AtomicInteger remaining;
+        private final AtomicInteger published = new AtomicInteger();
+        private final Map<NamedServantObject, Throwable> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+        private final AtomicReference<Error> error = new AtomicReference<>();
+        private final CompletableFuture<Report> future = publication;
+        private final int attempts = maxAttempts;
+        private final long initialBackoff = initialBackoffMillis;
+        private final long maxBackoff = maxBackoffMillis;
+        private final long start = System.nanoTime();
+
+        Run(List<NamedServantObject> bindings)
+        {
+            this.bindings = bindings;
+            this.remaining = new AtomicInteger(bindings.size());
+            AtomicInteger count = new AtomicInteger();
+            this.executor = new ScheduledThreadPoolExecutor(threads, r -> {
+                Thread thread = new Thread(r, "NameServicePublisher-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        void start()
+        {
+            for (NamedServantObject binding: bindings) {
+                executor.execute(() -> attempt(binding, 1));
+            }
+        }
+
+        private void attempt(NamedServantObject binding, int attempt)
+        {
+            try {
+                binding.bind();
+                published.incrementAndGet();
+                done();
+            }
+            catch (CannotProceed | TRANSIENT | COMM_FAILURE | TIMEOUT | NO_RESPONSE | NO_RESOURCES xcp) {
+                if (attempt < attempts) {
+                    long delay = Math.min(initialBackoff << Math.min(attempt - 1, 30), maxBackoff);
+                    delay = delay / 2L + ThreadLocalRandom.current().nextLong(delay / 2L + 1L);
+                    LOG.debug("Binding '{}' failed (attempt {}), retrying in {} ms: {}", binding.getName(), attempt, delay, xcp.toString());
+                    executor.schedule(() -> attempt(binding, attempt + 1), delay, TimeUnit.MILLISECONDS);
+                }
+                else {
+                    failed(binding, xcp);
+                }
+            }
+            catch (Throwable thr) {
+                // Whatever happens, the binding must be accounted for, or the future never completes
+                failed(binding, thr);
+            }
+        }
+
+        private void failed(NamedServantObject binding, Throwable cause)
+        {
+            try {
+                LOG.warn("Could not bind '" + binding.getName() + "' in the Naming Service.", cause);
+                failures.put(binding, cause);
+                if (cause instanceof Error) {
+                    error.compareAndSet(null, (Error) cause);
+                }
+            }
+            finally {
+                done();
+            }
+        }
+
+        private void done()
+        {
+            if (remaining.decrementAndGet() == 0) {
+                executor.shutdown();
+                long elapsed = (System.nanoTime() - start) / 1000000L;
+                LOG.info("Published {} of {} object references in the Naming Service in {} ms.", published.get(),
+                         bindings.size(), elapsed);
+                if (error.get() != null) {
+                    future.completeExceptionally(error.get());
+                }
+                else {
+                    future.complete(new Report(published.get(), new LinkedHashMap<>(failures), elapsed));
+                }
+            }
+        }
+
+    }
+
+}
@@ -1,11 +1,11 @@
 package biz.ple.corba.beans.server;
 
-import java.lang.reflect.Constructor;
 import java.util.Arrays;
 
 import javax.annotation.PostConstruct;
 
 import org.omg.CosNaming.NamingContextExt;
+import org.omg.CosNaming.NamingContextPackage.CannotProceed;
 import org.omg.CosNaming.NamingContextPackage.InvalidName;
 import org.omg.CosNaming.NamingContextPackage.NotFound;
 import org.omg.PortableServer.POA;
@@ -14,6 +14,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import biz.ple.corba.beans.NamingContextBean;
+import biz.ple.corba.util.HelperAccess;
+import biz.ple.corba.util.TieFactory;
 
 
 /**
@@ -38,6 +40,8 @@ public class NamedServantObject {
 	private byte[] userObjectId;
 	private byte[] objectId;
 	private org.omg.CORBA.Object ref;
+	private boolean lazy;
+	private NameServicePublisher publisher;
 
 
 	/**
@@ -137,11 +141,48 @@ public class NamedServantObject {
 	}
 
 
+	/**
+	 * <p>Determines whether the servant is activated on initialization (the default) or on the first
+	 * request for it. Must be invoked before {@link #corbaInit()}.</p>
+	 * <p>In lazy mode, {@link #corbaInit()} only creates the object reference (via {@code create_reference_with_id()}
+	 * or, with the {@code System} ID Assignment policy, {@code create_reference()}) and publishes it in the
+	 * Naming Service; the TIE object is created and activated by the {@link PoaBean}'s internal Servant Activator
+	 * on the first request. This makes the startup of servers with many servants considerably faster. The POA
+	 * must have the {@link PoaPolicyValue#UseServantManager UseServantManager} and {@link PoaPolicyValue#Retain Retain}
+	 * policies, no Servant Activator of its own and {@link PoaBean#setLazyActivation(boolean) lazy activation}
+	 * enabled.</p>
+	 * @param lazy
+	 *     {@code true} to activate the servant on the first request.
+	 * @since 1.4.0
+	 */
+	public void setLazy(boolean lazy)
+	{
+		this.lazy = lazy;
+	}
+
+
+	/**
+	 * <p>Defers the publication of the object reference in the Naming Service to a {@link NameServicePublisher},
+	 * which binds the references of many servants in parallel once they have all been initialized. Must be
+	 * invoked before {@link #corbaInit()}; has no effect if no Naming Context bean was given in the constructor.</p>
+	 * <p>If the publisher has already started publishing when this bean is initialized, the reference is bound
+	 * synchronously by {@code corbaInit()}.</p>
+	 * @param publisher
+	 *     The publisher; {@code null} (the default) to bind the reference synchronously.
+	 * @since 1.4.0
+	 */
+	public void setPublisher(NameServicePublisher publisher)
+	{
+		this.publisher = publisher;
+	}
+
+
 	/**
 	 * Activates the Servant/TIE object passed in the
 	 * {@link #NamedServantObject(PoaBean, Class, Object, NamingContextBean, String) constructor}. If
 	 * a Naming Context bean and a name were given in the constructor, a reference to the activated
-	 * servant is stored in the Naming Service.
+	 * servant is stored in the Naming Service (or, if a {@link #setPublisher(NameServicePublisher) publisher}
+	 * has been set, registered with the publisher for later publication).
 	 * <p>In terms of the Spring Framework, this is the bean's init-method.</p>
 	 * @throws Exception
 	 *     in case anything goes wrong, for example if the TIE object cannot be instantiated or the
@@ -151,38 +192,42 @@ public class NamedServantObject {
 	public void corbaInit() throws Exception
 	{
 	    LOG.debug("corbaInit() called.");
-		// If we need a TIE object, instantiate it
-		Object tieObject = null;
-		if (tieClass != null) {
-			Constructor<?>[] cs = tieClass.getDeclaredConstructors();
-			for (Constructor<?> c: cs) {
-				if (c.getParameterTypes().length == 2) {
-					tieObject = c.newInstance(servant, poaBean.getPoa());
-					LOG.debug("TIE object created.");
-					break;
-				}
-			}
-		} else {
-			LOG.debug("No TIE object created, assuming inheritance-based approach.");
-			tieObject = servant;
+		POA poa = poaBean.getPoa();
+		boolean userId = poaBean.getPolicyValue(PoaPolicyName.IdAssignment) == PoaPolicyValue.User;
+		if (userId && (userObjectId == null || userObjectId.length == 0)) {
+			throw new IllegalArgumentException("User-supplied ObjectId may not be null or empty. Did you forget to set the userObjectId?");
 		}
 
-		// Register the TIE or the servant with the POA
-		POA poa = poaBean.getPoa();
-		if (poaBean.getPolicyValue(PoaPolicyName.IdAssignment) == PoaPolicyValue.User) {
-			if (userObjectId == null || userObjectId.length == 0) {
-				throw new IllegalArgumentException("User-supplied ObjectId may not be null or empty. Did you forget to set the userObjectId?");
+		if (lazy) {
+			// Only create the reference; the servant is created and activated on the first request
+			String repositoryId = getRepositoryId();
+			if (userId) {
+				objectId = Arrays.copyOf(userObjectId, userObjectId.length);
+				ref = poa.create_reference_with_id(objectId, repositoryId);
+			} else {
+				ref = poa.create_reference(repositoryId);
+				objectId = poa.reference_to_id(ref);
+			}
+			poaBean.registerLazyServant(objectId, this);
+			LOG.debug("Object reference created, servant will be activated on first request.");
+		}
+		else {
+			// Register the TIE or the servant with the POA
+			Servant tieObject = createServant();
+			if (userId) {
+				poa.activate_object_with_id(userObjectId, poaBean.prepareServant(tieObject));
+				objectId = Arrays.copyOf(userObjectId, userObjectId.length);
+				LOG.debug("Object activated, with user-supplied ObjectId '{}'.", new String(objectId));
+			} else {
+				objectId = poa.activate_object(poaBean.prepareServant(tieObject));
+				LOG.debug("Object activated, with system-supplied objectId.");
 			}
-			poa.activate_object_with_id(userObjectId, (Servant)tieObject);
-			objectId = Arrays.copyOf(userObjectId, userObjectId.length);
-			LOG.debug("Object activated, with user-supplied ObjectId '{}'.", new String(objectId));
-		} else {
-			objectId = poa.activate_object((Servant)tieObject);
-			LOG.debug("Object activated, with system-supplied objectId.");
 		}
 
 		// Store a reference for convenience
-		ref = poa.id_to_reference(objectId);
+		if (ref == null) {
+			ref = poa.id_to_reference(objectId);
+		}
 
 		// If applicable, store the reference in the Naming Service
 		if (namingCtx != null) {
@@ -192,16 +237,74 @@ public class NamedServantObject {
 			if (name.indexOf('/') != -1) {
 				throw new IllegalArgumentException("No compound NS names may be used for NamedServiceObjectWrapper.");
 			}
-			NamingContextExt ctx = namingCtx.getNamingCtx();
-			try {
-				ctx.rebind(ctx.to_name(name), ref);
-			} catch (NotFound | InvalidName e) {
-				throw new IllegalArgumentException("Invalid NS name '" + name + "'.");
+			if (publisher == null || !publisher.register(this)) {
+				bind();
 			}
 		}
 	}
 
 
+	/**
+	 * Binds the object reference in the Naming Context given in the constructor.
+	 */
+	void bind() throws CannotProceed
+	{
+		NamingContextExt ctx = namingCtx.getNamingCtx();
+		try {
+			ctx.rebind(ctx.to_name(name), ref);
+			namingCtx.invalidate(name);
+		} catch (NotFound | InvalidName e) {
+			throw new IllegalArgumentException("Invalid NS name '" + name + "'.");
+		}
+	}
+
+
+	/**
+	 * Creates the TIE object (with the servant as its delegate), or returns the servant itself if no
+	 * TIE class was given.
+	 */
+	Servant createServant()
+	{
+		if (tieClass == null) {
+			LOG.debug("No TIE object created, assuming inheritance-based approach.");
+			return (Servant) servant;
+		}
+		Servant tieObject = tieFactory().createUnchecked(servant, poaBean.getPoa());
+		LOG.debug("TIE object created.");
+		return tieObject;
+	}
+
+
+	private TieFactory<?> tieFactory()
+	{
+		if (!Servant.class.isAssignableFrom(tieClass)) {
+			throw new IllegalArgumentException("Class " + tieClass.getName() + " is not an IDL-generated TIE class.");
+		}
+		return TieFactory.forTieClass(tieClass.asSubclass(Servant.class));
+	}
+
+
+	/**
+	 * Determines the repository id of the servant's IDL interface without creating a TIE object: from the
+	 * {@code Operations} interface the TIE class delegates to, or from the servant itself.
+	 */
+	private String getRepositoryId()
+	{
+		if (tieClass == null) {
+			return ((Servant) servant)._all_interfaces(poaBean.getPoa(), null)[0];
+		}
+		Class<?> opsInterface = tieFactory().getOperationsInterface();
+		try {
+			String ifName = opsInterface.getName().substring(0, opsInterface.getName().length() - "Operations".length());
+			Class<?> ifClass = Class.forName(ifName, false, opsInterface.getClassLoader());
+			return HelperAccess.forInterface(ifClass.asSubclass(org.omg.CORBA.Object.class)).id();
+		}
+		catch (ClassNotFoundException | ClassCastException xcp) {
+			throw new IllegalArgumentException("Cannot determine the IDL interface of TIE class " + tieClass.getName() + ".", xcp);
+		}
+	}
+
+
 	/**
 	 * Returns the object id of the activated servant; if the POA encapsulated by the
 	 * {@link PoaBean} given in the
@@ -219,6 +322,18 @@ public class NamedServantObject {
 	}
 
 
+	/**
+	 * Returns the COS Naming name under which the object reference is published.
+	 * @return
+	 *     The name given in the constructor; {@code null} if the reference is not published.
+	 * @since 1.4.0
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+
 	/**
 	 * A CORBA object reference of the activated servant.
 	 * @return
@@ -129,6 +129,7 @@ public class NamedServantReference {
 			NamingContextExt ctx = namingCtx.getNamingCtx();
 			try {
 				ctx.rebind(ctx.to_name(name), ref);
+				namingCtx.invalidate(name);
 			} catch (NotFound | InvalidName e) {
 				throw new IllegalArgumentException("Invalid NS name '" + name + "'.");
 			}
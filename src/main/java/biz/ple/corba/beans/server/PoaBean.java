@@ -1,12 +1,14 @@
 package biz.ple.corba.beans.server;
 
-import java.io.UnsupportedEncodingException;
-import java.lang.reflect.InvocationTargetException;
-import java.util.Map.Entry;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
 import javax.annotation.PostConstruct;
 
 import org.omg.CORBA.Policy;
+import org.omg.CORBA.SystemException;
 import org.omg.CORBA.ORBPackage.InvalidName;
 import org.omg.PortableServer.Current;
 import org.omg.PortableServer.CurrentHelper;
@@ -20,13 +22,16 @@ import org.omg.PortableServer.RequestProcessingPolicyValue;
 import org.omg.PortableServer.Servant;
 import org.omg.PortableServer.ServantActivator;
 import org.omg.PortableServer.ServantLocator;
+import org.omg.PortableServer.ServantManager;
 import org.omg.PortableServer.ServantRetentionPolicyValue;
 import org.omg.PortableServer.ThreadPolicyValue;
+import org.omg.PortableServer.CurrentPackage.NoContext;
 import org.omg.PortableServer.POAPackage.AdapterAlreadyExists;
 import org.omg.PortableServer.POAPackage.InvalidPolicy;
 import org.omg.PortableServer.POAPackage.WrongPolicy;
 
 import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.interfaces.ChildPoaConfigurer;
 import biz.ple.corba.interfaces.PoaInjectable;
 
 
@@ -51,6 +56,19 @@ public class PoaBean {
     private Servant defSrv;
     private boolean useParentPoaMgr;
     private boolean created;
+    private final ConcurrentMap<Class<?>, ReferenceFactory<?>> refFactories = new ConcurrentHashMap<>();
+    private Executor upcallExecutor;
+    private UpcallDispatcher upcallDispatcher;
+    private final ConcurrentMap<Integer, Policy[]> policyArrays = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PoaBean> childPoas = new ConcurrentHashMap<>();
+    private PoaPolicies childPoaTemplate;
+    private ChildPoaConfigurer childPoaConfigurer;
+    private long childPoaIdleTimeout;
+    private ChildPoaActivator childPoaActivator;
+    private RequestTracker requestTracker;
+    private PoaManagerGroup poaManagerGroup;
+    private boolean lazyActivation;
+    private LazyServantActivator lazyActivator;
 
 
     /**
@@ -129,10 +147,11 @@ public class PoaBean {
      * @throws IllegalArgumentException
      *      if POA Policies require the use of a Servant Locator, Servant Activator or Default Servant, and
      *      a Servant Locator, Servant Activator or Default Servant has not been set via the respective
-     *      setter methods.
+     *      setter methods (unless {@link #setLazyActivation(boolean) lazy activation} has been enabled).
      * @see #setDefaultServant(Servant)
      * @see #setServantLocator(ServantLocator)
      * @see #setServantActivator(ServantActivator)
+     * @see #setLazyActivation(boolean)
      * @see #setUseParentPoaManager(boolean)
      */
     @PostConstruct
@@ -142,66 +161,46 @@ public class PoaBean {
             throw new IllegalArgumentException("Parent POA (bean) may not be null.");
         }
 
-        // Create the policies for the new POA
+        // Obtain the policies for the new POA (created once per combination of values and cached by the parent)
         POA parentPoa = parentPoaBean.getPoa();
-        Policy[] poaPolicies = new Policy[myPolicies.size()];
-        int index = 0;
-        for (Entry<PoaPolicyName, PoaPolicyValue> entry: myPolicies.entrySet()) {
-        	int intValue = entry.getValue().intValue();
-            switch(entry.getKey()) {
-            case IdAssignment:
-                poaPolicies[index++] = parentPoa.create_id_assignment_policy(IdAssignmentPolicyValue.from_int(intValue));
-                break;
-            case IdUniqueness:
-                poaPolicies[index++] = parentPoa.create_id_uniqueness_policy(IdUniquenessPolicyValue.from_int(intValue));
-                break;
-            case ImplicitActivation:
-                poaPolicies[index++] = parentPoa.create_implicit_activation_policy(ImplicitActivationPolicyValue.from_int(intValue));
-                break;
-            case Lifespan:
-                poaPolicies[index++] = parentPoa.create_lifespan_policy(LifespanPolicyValue.from_int(intValue));
-                break;
-            case RequestProcessing:
-                poaPolicies[index++] = parentPoa.create_request_processing_policy(RequestProcessingPolicyValue.from_int(intValue));
-                break;
-            case ServantRetention:
-                poaPolicies[index++] = parentPoa.create_servant_retention_policy(ServantRetentionPolicyValue.from_int(intValue));
-                break;
-            case Thread:
-                poaPolicies[index++] = parentPoa.create_thread_policy(ThreadPolicyValue.from_int(intValue));
-                break;
-            }
-        }
+        Policy[] poaPolicies = parentPoaBean.getPolicyArray(myPolicies);
 
         // Create the new POA
-        POAManager parentMgr = null;
-        if (useParentPoaMgr) {
-            parentMgr = parentPoa.the_POAManager();
+        if (poaManagerGroup != null) {
+            myPoa = poaManagerGroup.createPoa(parentPoa, myPoaName, poaPolicies);
+        }
+        else {
+            POAManager parentMgr = null;
+            if (useParentPoaMgr) {
+                parentMgr = parentPoa.the_POAManager();
+            }
+            myPoa = parentPoa.create_POA(myPoaName, parentMgr, poaPolicies);
         }
-        myPoa = parentPoa.create_POA(myPoaName, parentMgr, poaPolicies);
         created = true;
+        parentPoaBean.childPoas.put(myPoaName, this);
 
         // Set ServantManager or Default Servant as appropriate
         if (myPolicies.getPolicyValue(PoaPolicyName.RequestProcessing) == PoaPolicyValue.UseServantManager) {
             if (myPolicies.getPolicyValue(PoaPolicyName.ServantRetention) == PoaPolicyValue.Retain) {
                 if (activator != null) {
                     try {
-                        myPoa.set_servant_manager(activator);
+                        myPoa.set_servant_manager(prepareServantActivator(activator));
                         if (activator instanceof PoaInjectable) {
                             ((PoaInjectable) activator).setPoaBean(this);
                         }
                     } catch (WrongPolicy wp) {
                         throw new IllegalArgumentException("Internal error (WrongPolicy while setting the Servant Activator).");
                     }
-                } else {
+                } else if (!lazyActivation) {
                     throw new IllegalArgumentException(
                         "With the USE_SERVANT_MANAGER and RETAIN policies, you need to specify a non-null ServantActivator.");
                 }
+                // else: the internal activator is installed when the first lazy servant is registered
             }
             else {
                 if (locator != null) {
                     try {
-                        myPoa.set_servant_manager(locator);
+                        myPoa.set_servant_manager(prepareServantLocator(locator));
                         if (locator instanceof PoaInjectable) {
                             ((PoaInjectable) locator).setPoaBean(this);
                         }
@@ -218,7 +217,7 @@ public class PoaBean {
         if (myPolicies.getPolicyValue(PoaPolicyName.RequestProcessing) == PoaPolicyValue.UseDefaultServant) {
             if (defSrv != null) {
                 try {
-                    myPoa.set_servant(defSrv);
+                    myPoa.set_servant(prepareServant(defSrv));
                     // If the default servant implements the PoaInjectable interface, inject the PoaBean
                     if (defSrv instanceof PoaInjectable) {
                         ((PoaInjectable) defSrv).setPoaBean(this);
@@ -231,6 +230,14 @@ public class PoaBean {
                 throw new IllegalArgumentException("With the USE_DEFAULT_SERVANT policy, you must specify a non-null default servant.");
             }
         }
+
+        // Create child POAs on demand, if configured
+        if (childPoaConfigurer != null) {
+            childPoaActivator = new ChildPoaActivator(this, childPoaTemplate != null ? childPoaTemplate : new PoaPolicies(),
+                                                      childPoaConfigurer, childPoaIdleTimeout);
+            myPoa.the_activator(childPoaActivator);
+            childPoaActivator.startReaper();
+        }
     }
 
 
@@ -241,7 +248,8 @@ public class PoaBean {
      *      If {@code true}, the encapsulated POA is managed by its parent POA's POAManager (default). If set to
      *      {@code false}, no POAManager is set for the encapsulated POA in {@link #corbaInit()}; to set a
      *      POAManager for the encapsulated POA, retrieve the POA via {@link #getPoa()} and set the POAManager
-     *      using standard CORBA APIs.
+     *      using standard CORBA APIs. To share a POAManager among several POAs, use
+     *      {@link #setPoaManagerGroup(PoaManagerGroup)} instead.
      */
     public void setUseParentPoaManager(boolean useParent)
     {
@@ -249,6 +257,29 @@ public class PoaBean {
     }
 
 
+    /**
+     * Makes the encapsulated POA be managed by the POAManager of a {@link PoaManagerGroup}, which can hold,
+     * discard and activate requests independently of the parent POA's POAManager. Takes precedence over
+     * {@link #setUseParentPoaManager(boolean)}. Must be invoked <strong>before</strong> {@link #corbaInit()}.
+     * @param group
+     *      The group; {@code null} (the default) if the POA does not belong to a group.
+     * @since 1.4.0
+     */
+    public void setPoaManagerGroup(PoaManagerGroup group)
+    {
+        if (created) {
+            throw new IllegalStateException("POA Manager group cannot be set after POA bean initialization.");
+        }
+        this.poaManagerGroup = group;
+    }
+
+
+    public PoaManagerGroup getPoaManagerGroup()
+    {
+        return poaManagerGroup;
+    }
+
+
     /**
      * Sets the Servant Locator for the encapsulated POA. Must be invoked <strong>before</strong> {@code #corbaInit()}.
      * @param locator
@@ -279,6 +310,24 @@ public class PoaBean {
     }
 
 
+    /**
+     * Makes the encapsulated POA activate the servants of {@link NamedServantObject#setLazy(boolean) lazy}
+     * {@code NamedServantObject}s on the first request for them. The POA must have the {@code UseServantManager}
+     * and {@code Retain} policies and no Servant Activator of its own; an internal Servant Activator is set when
+     * the first lazy servant is registered. Must be invoked <strong>before</strong> {@code #corbaInit()}.
+     * @param lazyActivation
+     *      {@code true} to allow lazy servants (the default is {@code false}).
+     * @since 1.4.0
+     */
+    public void setLazyActivation(boolean lazyActivation)
+    {
+        if (created) {
+            throw new IllegalStateException("Lazy activation cannot be enabled after POA bean initialization.");
+        }
+        this.lazyActivation = lazyActivation;
+    }
+
+
     /**
      * Sets the Default Servant for the encapsulated POA. Must be invoked <strong>before</strong> {@code #corbaInit()}.
      * @param locator
@@ -294,6 +343,237 @@ public class PoaBean {
     }
 
 
+    /**
+     * <p>Sets a {@link ChildPoaConfigurer}, which makes the encapsulated POA create child POAs on demand:
+     * when a request arrives for a child POA which does not exist, a new {@code PoaBean} with the
+     * {@link #setChildPoaTemplate(PoaPolicies) template policies} is created, passed to the configurer and
+     * initialized, all within the POA's {@link org.omg.PortableServer.AdapterActivator AdapterActivator}.
+     * This allows e.g. one POA (and possibly one POA Manager) per tenant or shard, without creating all of
+     * them at startup. Must be invoked <strong>before</strong> {@link #corbaInit()}.</p>
+     * <p>The object references of objects in such a child POA are created as usual, e.g. via
+     * {@link #createChildPoa(String, PoaPolicies)} or {@link #getChildPoa(String)} and the child's
+     * {@code createObjectReference(...)} methods; the child POAs should have the {@code Persistent} and
+     * {@code User} policies, so that the references remain valid if a POA is destroyed and created again.</p>
+     * @param configurer
+     *      The configurer; {@code null} if child POAs are not created on demand (the default).
+     */
+    public void setChildPoaConfigurer(ChildPoaConfigurer configurer)
+    {
+        if (created) {
+            throw new IllegalStateException("Child POA configurer cannot be set after POA bean initialization.");
+        }
+        this.childPoaConfigurer = configurer;
+    }
+
+
+    /**
+     * Sets the POA policies of the child POAs created on demand (see {@link #setChildPoaConfigurer(ChildPoaConfigurer)});
+     * each child POA gets a copy. Must be invoked <strong>before</strong> {@link #corbaInit()}.
+     * @param template
+     *      The policies; if not set, the defaults of {@link PoaPolicies#PoaPolicies()} are used.
+     */
+    public void setChildPoaTemplate(PoaPolicies template)
+    {
+        if (created) {
+            throw new IllegalStateException("Child POA template cannot be set after POA bean initialization.");
+        }
+        this.childPoaTemplate = template;
+    }
+
+
+    /**
+     * Sets the time after which a child POA created on demand (see {@link #setChildPoaConfigurer(ChildPoaConfigurer)})
+     * is destroyed if it has not received any requests; it is created again by the next request. Servants of
+     * destroyed POAs are etherealized. A request arriving just while its POA is being destroyed may fail with
+     * a system exception, which clients can retry. Must be invoked <strong>before</strong> {@link #corbaInit()}.
+     * @param idleTimeoutMillis
+     *      The idle timeout in milliseconds; zero (the default) if child POAs are never destroyed.
+     */
+    public void setChildPoaIdleTimeout(long idleTimeoutMillis)
+    {
+        if (created) {
+            throw new IllegalStateException("Child POA idle timeout cannot be set after POA bean initialization.");
+        }
+        if (idleTimeoutMillis < 0L) {
+            throw new IllegalArgumentException("Idle timeout may not be negative.");
+        }
+        this.childPoaIdleTimeout = idleTimeoutMillis;
+    }
+
+
+    /**
+     * <p>Sets an {@link Executor} on which the upcalls of the servants of the encapsulated POA are executed,
+     * instead of on the ORB's request processor threads. Must be invoked <strong>before</strong>
+     * {@link #corbaInit()}. If not set, the executor set on the {@link OrbBean#setUpcallExecutor(Executor)
+     * OrbBean} (if any) is used.</p>
+     * <p>The executor applies to the Default Servant, to the servants returned by the Servant Activator or
+     * Servant Locator and to servants activated via {@link NamedServantObject}s; servants activated in other
+     * ways must be passed through {@link #prepareServant(Servant)}. The Portable Interceptor Current and the
+     * POA Current work as usual within the upcalls (this relies on JacORB internals, verified with JacORB 3.9
+     * only).</p>
+     * <p>Note that the ORB's request processor thread blocks until the upcall has completed, so the number of
+     * requests processed concurrently is still limited by the ORB's {@link OrbBean#setMaxThreads(int)
+     * thread pool}. The executor determines <i>where</i> servant code runs, e.g. on virtual threads (pass
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} on Java 21 or later) or on a dedicated, bounded
+     * pool isolating slow servants from other POAs sharing the ORB's threads. If the executor rejects an
+     * upcall, the request fails with {@code TRANSIENT}.</p>
+     * @param executor
+     *      The executor; {@code null} to execute upcalls on the ORB's threads.
+     */
+    public void setUpcallExecutor(Executor executor)
+    {
+        if (created) {
+            throw new IllegalStateException("Upcall executor cannot be set after POA bean initialization.");
+        }
+        this.upcallExecutor = executor;
+    }
+
+
+    /**
+     * Returns the {@link Executor} on which servant upcalls are executed.
+     * @return
+     *      The executor set via {@link #setUpcallExecutor(Executor)}, or the {@link OrbBean}'s if none was set;
+     *      {@code null} if upcalls are executed on the ORB's threads.
+     */
+    public Executor getUpcallExecutor()
+    {
+        return upcallExecutor != null ? upcallExecutor : myOrb.getUpcallExecutor();
+    }
+
+
+    /**
+     * Prepares a servant for activation with the encapsulated POA: if an {@link #getUpcallExecutor() upcall
+     * executor} is in effect, the servant is wrapped so that its upcalls are executed by that executor.
+     * Note that the POA then knows the wrapper, not {@code servant}, e.g. in {@code servant_to_id()}.
+     * @param servant
+     *      The servant.
+     * @return
+     *      The servant to be passed to the POA; {@code servant} itself if no upcall executor is in effect.
+     */
+    public Servant prepareServant(Servant servant)
+    {
+        UpcallDispatcher dispatcher = getUpcallDispatcher();
+        Servant prepared = dispatcher != null ? dispatcher.wrap(servant) : servant;
+        return requestTracker != null ? requestTracker.wrap(prepared) : prepared;
+    }
+
+
+    /**
+     * <p>Creates a child POA of the encapsulated POA at runtime, e.g. one POA per tenant or per session.
+     * The child POA is managed by the encapsulated POA's POAManager and uses this {@code PoaBean}'s upcall
+     * executor, if one was set.</p>
+     * <p>The CORBA Policy objects passed to {@code create_POA()} are created once per combination of
+     * policy values and reused for all child POAs with the same policies, so creating many child POAs
+     * costs little more than the {@code create_POA()} call itself. Child POAs are removed again via
+     * {@link #destroyChildPoa(String, boolean, boolean)}.</p>
+     * @param name
+     *      The name of the new POA; may not be {@code null}.
+     * @param policies
+     *      The POA policies of the new POA; the request processing policy must be {@code UseActiveObjectMapOnly}
+     *      (see the other {@code createChildPoa()} methods otherwise).
+     * @return
+     *      A {@code PoaBean} encapsulating the new, initialized POA.
+     * @throws AdapterAlreadyExists
+     *      if the encapsulated POA already has a child POA named {@code name}.
+     * @throws InvalidPolicy
+     *      if the policy mix is invalid.
+     * @since 1.4.0
+     */
+    public PoaBean createChildPoa(String name, PoaPolicies policies)
+        throws AdapterAlreadyExists, InvalidPolicy
+    {
+        return createChildPoa(name, policies, null, null, null);
+    }
+
+
+    /**
+     * Creates a child POA with the {@code UseDefaultServant} policy at runtime; see
+     * {@link #createChildPoa(String, PoaPolicies)}.
+     * @param defaultServant
+     *      The Default Servant of the new POA.
+     * @since 1.4.0
+     */
+    public PoaBean createChildPoa(String name, PoaPolicies policies, Servant defaultServant)
+        throws AdapterAlreadyExists, InvalidPolicy
+    {
+        return createChildPoa(name, policies, defaultServant, null, null);
+    }
+
+
+    /**
+     * Creates a child POA with the {@code UseServantManager} policy at runtime; see
+     * {@link #createChildPoa(String, PoaPolicies)}.
+     * @param servantManager
+     *      The Servant Activator (with the {@code Retain} policy) or the Servant Locator (with the
+     *      {@code NonRetain} policy) of the new POA.
+     * @since 1.4.0
+     */
+    public PoaBean createChildPoa(String name, PoaPolicies policies, ServantManager servantManager)
+        throws AdapterAlreadyExists, InvalidPolicy
+    {
+        return createChildPoa(name, policies, null,
+                              servantManager instanceof ServantActivator ? (ServantActivator) servantManager : null,
+                              servantManager instanceof ServantLocator ? (ServantLocator) servantManager : null);
+    }
+
+
+    /**
+     * Returns the {@code PoaBean} encapsulating a child POA of the encapsulated POA.
+     * @param name
+     *      The name of the child POA.
+     * @return
+     *      The {@code PoaBean} of the child POA; {@code null} if there is no child POA named {@code name},
+     *      or if it was not created by a {@code PoaBean}.
+     * @since 1.4.0
+     */
+    public PoaBean getChildPoa(String name)
+    {
+        return childPoas.get(name);
+    }
+
+
+    /**
+     * Destroys a child POA (and its descendants) created by a {@code PoaBean}, e.g. via
+     * {@link #createChildPoa(String, PoaPolicies)}; afterwards, the child's {@code PoaBean} returns
+     * {@code null} from {@link #getPoa()}. Must not be invoked with {@code waitForCompletion} set to
+     * {@code true} during a request processed by the child POA.
+     * @param name
+     *      The name of the child POA.
+     * @param etherealize
+     *      Passed to {@code POA.destroy()}: whether the servants of the child POA's Servant Activator are
+     *      to be etherealized.
+     * @param waitForCompletion
+     *      Passed to {@code POA.destroy()}: whether to wait until the requests in progress and the
+     *      etherealizations have completed.
+     * @return
+     *      {@code true} if the child POA was destroyed, {@code false} if there is no child POA named {@code name}.
+     * @since 1.4.0
+     */
+    public boolean destroyChildPoa(String name, boolean etherealize, boolean waitForCompletion)
+    {
+        PoaBean child = childPoas.get(name);
+        return child != null && destroyChildPoa(child, etherealize, waitForCompletion);
+    }
+
+
+    boolean destroyChildPoa(PoaBean child, boolean etherealize, boolean waitForCompletion)
+    {
+        if (!childPoas.remove(child.myPoaName, child)) {
+            return false;
+        }
+        POA childPoa = child.myPoa;
+        child.myPoa = null;
+        child.childPoas.clear();
+        if (child.childPoaActivator != null) {
+            child.childPoaActivator.stopReaper();
+        }
+        if (childPoa != null) {
+            childPoa.destroy(etherealize, waitForCompletion);
+        }
+        return true;
+    }
+
+
     /**
      * Returns the POA encapsulated by this {@code PoaBean}.
      * @return
@@ -345,6 +625,223 @@ public class PoaBean {
     }
 
 
+    String getName()
+    {
+        return myPoaName;
+    }
+
+
+    boolean isUsingParentPoaManager()
+    {
+        return useParentPoaMgr;
+    }
+
+
+    Collection<PoaBean> getChildPoas()
+    {
+        return childPoas.values();
+    }
+
+
+    /**
+     * Registers a {@link NamedServantObject} in lazy mode with the internal Servant Activator, which is set
+     * as the POA's Servant Manager on the first call.
+     */
+    synchronized void registerLazyServant(byte[] oid, NamedServantObject servantObject)
+    {
+        if (lazyActivator == null) {
+            if (!lazyActivation || myPoa == null) {
+                throw new IllegalStateException("Lazy activation requires the POA '" + myPoaName + "' to have the UseServantManager "
+                    + "and Retain policies, no Servant Activator of its own and lazy activation enabled.");
+            }
+            LazyServantActivator newActivator = new LazyServantActivator();
+            try {
+                if (myPoa.get_servant_manager() != null) {
+                    throw new IllegalStateException("The POA '" + myPoaName + "' already has a Servant Manager.");
+                }
+                myPoa.set_servant_manager(prepareServantActivator(newActivator));
+            }
+            catch (WrongPolicy wp) {
+                throw new IllegalStateException("Lazy activation requires the POA '" + myPoaName + "' to have the "
+                    + "UseServantManager and Retain policies.");
+            }
+            lazyActivator = newActivator;
+        }
+        lazyActivator.register(oid, servantObject);
+    }
+
+
+    /** Makes the POA record its requests, for {@link #isIdle(long)}; invoked before {@link #corbaInit()}. */
+    void trackRequests()
+    {
+        requestTracker = new RequestTracker();
+    }
+
+
+    boolean isIdle(long idleNanos)
+    {
+        return requestTracker != null && requestTracker.isIdle(idleNanos);
+    }
+
+
+    private ServantActivator prepareServantActivator(ServantActivator activator)
+    {
+        UpcallDispatcher dispatcher = getUpcallDispatcher();
+        ServantActivator prepared = dispatcher != null ? dispatcher.wrap(activator) : activator;
+        return requestTracker != null ? requestTracker.wrap(prepared) : prepared;
+    }
+
+
+    private ServantLocator prepareServantLocator(ServantLocator locator)
+    {
+        UpcallDispatcher dispatcher = getUpcallDispatcher();
+        ServantLocator prepared = dispatcher != null ? dispatcher.wrap(locator) : locator;
+        return requestTracker != null ? requestTracker.wrap(prepared) : prepared;
+    }
+
+
+    private synchronized UpcallDispatcher getUpcallDispatcher()
+    {
+        if (upcallDispatcher == null) {
+            Executor executor = getUpcallExecutor();
+            if (executor != null) {
+                upcallDispatcher = new UpcallDispatcher(executor, myOrb.getORB());
+            }
+        }
+        return upcallDispatcher;
+    }
+
+
+    private PoaBean createChildPoa(String name, PoaPolicies policies, Servant defaultServant,
+                                   ServantActivator activator, ServantLocator locator)
+        throws AdapterAlreadyExists, InvalidPolicy
+    {
+        if (myPoa == null) {
+            throw new IllegalStateException("POA bean is not initialized or its POA has been destroyed.");
+        }
+        PoaBean child = new PoaBean(this, name, policies);
+        child.defSrv = defaultServant;
+        child.activator = activator;
+        child.locator = locator;
+        child.upcallExecutor = upcallExecutor;
+        try {
+            child.corbaInit();
+        }
+        catch (RuntimeException | Error xcp) {
+            // The POA may have been created before the servant manager or default servant was rejected. It has
+            // not received any requests; waiting for its destruction (unless forbidden, i.e. within an upcall)
+            // frees its name right away.
+            if (child.created) {
+                try {
+                    destroyChildPoa(child, false, !isInvocationContext());
+                }
+                catch (SystemException sysx) {
+                    xcp.addSuppressed(sysx);
+                }
+            }
+            throw xcp;
+        }
+        return child;
+    }
+
+
+    /** Returns whether the current thread executes an upcall, in which POAs may not wait for their destruction. */
+    private boolean isInvocationContext()
+    {
+        try {
+            getPoaCurrent().get_POA();
+            return true;
+        }
+        catch (NoContext noCtx) {
+            return false;
+        }
+    }
+
+
+    /**
+     * Returns the Policy objects for a child POA with certain POA Policies. Policy objects are not bound to
+     * a POA, so the array is created only once per combination of values and passed to all child POAs
+     * with the same policies.
+     */
+    private Policy[] getPolicyArray(PoaPolicies policies)
+    {
+        Integer signature = policies.signature();
+        Policy[] poaPolicies = policyArrays.get(signature);
+        if (poaPolicies == null) {
+            poaPolicies = createPolicyArray(policies);
+            Policy[] previous = policyArrays.putIfAbsent(signature, poaPolicies);
+            if (previous != null) {
+                for (Policy policy: poaPolicies) {
+                    policy.destroy();
+                }
+                poaPolicies = previous;
+            }
+        }
+        return poaPolicies;
+    }
+
+
+    private Policy[] createPolicyArray(PoaPolicies policies)
+    {
+        Policy[] poaPolicies = new Policy[policies.size()];
+        int index = 0;
+        for (PoaPolicyValue value: policies.contents.values()) {
+            int intValue = value.intValue();
+            switch(value.getPolicyName()) {
+            case IdAssignment:
+                poaPolicies[index++] = myPoa.create_id_assignment_policy(IdAssignmentPolicyValue.from_int(intValue));
+                break;
+            case IdUniqueness:
+                poaPolicies[index++] = myPoa.create_id_uniqueness_policy(IdUniquenessPolicyValue.from_int(intValue));
+                break;
+            case ImplicitActivation:
+                poaPolicies[index++] = myPoa.create_implicit_activation_policy(ImplicitActivationPolicyValue.from_int(intValue));
+                break;
+            case Lifespan:
+                poaPolicies[index++] = myPoa.create_lifespan_policy(LifespanPolicyValue.from_int(intValue));
+                break;
+            case RequestProcessing:
+                poaPolicies[index++] = myPoa.create_request_processing_policy(RequestProcessingPolicyValue.from_int(intValue));
+                break;
+            case ServantRetention:
+                poaPolicies[index++] = myPoa.create_servant_retention_policy(ServantRetentionPolicyValue.from_int(intValue));
+                break;
+            case Thread:
+                poaPolicies[index++] = myPoa.create_thread_policy(ThreadPolicyValue.from_int(intValue));
+                break;
+            }
+        }
+        return poaPolicies;
+    }
+
+
+    /**
+     * Returns the {@link ReferenceFactory} for object references of a certain type, 'bound' to the
+     * encapsulated POA. The factory is created on first use and cached for the lifetime of this
+     * {@code PoaBean}; use it instead of the {@code createObjectReference(...)} methods if references
+     * of the same type are created frequently.
+     * @param interfaceClass
+     *      The Java class of an interface generated by the IDL compiler.
+     * @return
+     *      The {@code ReferenceFactory} creating references of type {@code interfaceClass}; never {@code null}.
+     * @throws IllegalArgumentException
+     *      if the {@code Helper} class of {@code interfaceClass} does not exist or is not usable.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends org.omg.CORBA.Object> ReferenceFactory<T> getReferenceFactory(Class<T> interfaceClass)
+    {
+        ReferenceFactory<?> factory = refFactories.get(interfaceClass);
+        if (factory == null) {
+            ReferenceFactory<?> newFactory = new ReferenceFactory<>(this, interfaceClass);
+            factory = refFactories.putIfAbsent(interfaceClass, newFactory);
+            if (factory == null) {
+                factory = newFactory;
+            }
+        }
+        return (ReferenceFactory<T>) factory;
+    }
+
+
     /**
      * Creates an object reference of a certain type with a user-supplied Object Id, 'bound' to the
      * encapsulated POA (i.e. the encapsulated POA must be able to resolve that reference).
@@ -360,22 +857,7 @@ public class PoaBean {
      */
     public <T extends org.omg.CORBA.Object> T createObjectReference(String objectId, Class<T> interfaceClass)
     {
-        try {
-            Class<?> helperClass = Class.forName(interfaceClass.getName() + "Helper");
-            String corbaInterfaceId = (String) (helperClass.getDeclaredMethod("id").invoke(null));
-            org.omg.CORBA.Object ref = myPoa.create_reference_with_id(objectId.getBytes("UTF-8"), corbaInterfaceId);
-            return interfaceClass.cast(helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class).invoke(null, ref));
-        }
-        catch (ClassNotFoundException cnf) {
-            throw new RuntimeException("Helper class " + interfaceClass.getName() + "Helper not found.");
-        }
-        catch (UnsupportedEncodingException uex) {
-            throw new RuntimeException("ObjectId string must be UTF-8 encoded, and UTF-8 must be supported by your platform.");
-        }
-        catch (IllegalAccessException | IllegalArgumentException |
-               InvocationTargetException | NoSuchMethodException | SecurityException xcp) {
-            throw new RuntimeException("createObjectReference(" + objectId + ", " + interfaceClass.getName() + ") failed.", xcp);
-        }
+        return getReferenceFactory(interfaceClass).create(objectId);
     }
 
 
@@ -393,19 +875,40 @@ public class PoaBean {
      */
     public <T extends org.omg.CORBA.Object> T createObjectReference(byte[] objectId, Class<T> interfaceClass)
     {
-        try {
-            Class<?> helperClass = Class.forName(interfaceClass.getName() + "Helper");
-            String corbaInterfaceId = (String) (helperClass.getDeclaredMethod("id").invoke(null));
-            org.omg.CORBA.Object ref = myPoa.create_reference_with_id(objectId, corbaInterfaceId);
-            return interfaceClass.cast(helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class).invoke(null, ref));
-        }
-        catch (ClassNotFoundException cnf) {
-            throw new RuntimeException("Helper class " + interfaceClass.getName() + "Helper not found.");
-        }
-        catch (IllegalAccessException | IllegalArgumentException |
-               InvocationTargetException | NoSuchMethodException | SecurityException xcp) {
-            throw new RuntimeException("createObjectReference(" + objectId + ", " + interfaceClass.getName() + ") failed.", xcp);
-        }
+        return getReferenceFactory(interfaceClass).create(objectId);
+    }
+
+
+    /**
+     * Creates object references of a certain type for a batch of user-supplied {@code long} Object Ids,
+     * 'bound' to the encapsulated POA. Intended for IDL operations returning sequences of references;
+     * see {@link ReferenceFactory#createAll(long[])}.
+     * @param objectIds
+     *      The user-supplied object ids, which will be converted as by {@link biz.ple.corba.util.CorbaObjectId#fromLong(long)}.
+     * @param interfaceClass
+     *      The Java class of an interface generated by the IDL compiler.
+     * @return
+     *      An array of references to objects of type {@code interfaceClass}, one per element of {@code objectIds}.
+     */
+    public <T extends org.omg.CORBA.Object> T[] createObjectReferences(long[] objectIds, Class<T> interfaceClass)
+    {
+        return getReferenceFactory(interfaceClass).createAll(objectIds);
+    }
+
+
+    /**
+     * Creates object references of a certain type for a batch of user-supplied Object Ids, 'bound' to the
+     * encapsulated POA. Intended for IDL operations returning sequences of references.
+     * @param objectIds
+     *      The user-supplied object ids.
+     * @param interfaceClass
+     *      The Java class of an interface generated by the IDL compiler.
+     * @return
+     *      An array of references to objects of type {@code interfaceClass}, one per element of {@code objectIds}.
+     */
+    public <T extends org.omg.CORBA.Object> T[] createObjectReferences(Collection<byte[]> objectIds, Class<T> interfaceClass)
+    {
+        return getReferenceFactory(interfaceClass).createAll(objectIds);
     }
 
 
@@ -421,16 +924,7 @@ public class PoaBean {
      */
     public <T extends org.omg.CORBA.Object> T createObjectReference(Class<T> interfaceClass)
     {
-        try {
-            Class<?> helperClass = Class.forName(interfaceClass.getName() + "Helper");
-            String corbaInterfaceId = (String) (helperClass.getDeclaredMethod("id").invoke(null));
-            org.omg.CORBA.Object ref = myPoa.create_reference(corbaInterfaceId);
-            return interfaceClass.cast(helperClass.getDeclaredMethod("narrow", org.omg.CORBA.Object.class).invoke(null, ref));
-        }
-        catch (ClassNotFoundException | IllegalAccessException | IllegalArgumentException | WrongPolicy |
-               InvocationTargetException | NoSuchMethodException | SecurityException xcp ) {
-            throw new RuntimeException("createObjectReference(" + interfaceClass.getName() + ") failed.", xcp);
-        }
+        return getReferenceFactory(interfaceClass).create();
     }
 
 }
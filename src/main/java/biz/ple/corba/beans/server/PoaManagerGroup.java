@@ -0,0 +1,191 @@
+package biz.ple.corba.beans.server;
+
+import org.omg.CORBA.Policy;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAManager;
+import org.omg.PortableServer.POAManagerPackage.AdapterInactive;
+import org.omg.PortableServer.POAManagerPackage.State;
+import org.omg.PortableServer.POAPackage.AdapterAlreadyExists;
+import org.omg.PortableServer.POAPackage.InvalidPolicy;
+
+import biz.ple.corba.beans.OrbBean;
+
+
+/**
+ * <p>A named POA Manager shared by several POAs, which can be put into the holding, discarding or active
+ * state independently of the Root POA's POA Manager. Typical uses are shedding load from low-priority
+ * POAs during overload ({@link #discardRequests(boolean) discardRequests()}, which makes the ORB reject
+ * their requests with {@code TRANSIENT}) and draining a shard for maintenance
+ * ({@link #holdRequests(boolean) holdRequests()} followed by {@link #activate()}), without stopping the ORB.</p>
+ * <p>{@code PoaBean}s join a group via {@link PoaBean#setPoaManagerGroup(PoaManagerGroup)}. Since JacORB does
+ * not implement the {@code POAManagerFactory}, the POA Manager is created along with the first POA of the
+ * group. It is activated by {@link OrbBean#start()} (or immediately, if the ORB has already been started),
+ * unless {@link #setActivateOnStart(boolean)} is set to {@code false}. Groups are registered with their
+ * {@code OrbBean} by name, so that they can also be controlled remotely via the {@code ServerManager}.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class PoaManagerGroup {
+
+    private final String name;
+    private POAManager poaManager;
+    private boolean activateOnStart = true;
+    private boolean orbStarted;
+
+
+    /**
+     * Constructor; registers the group with an {@code OrbBean}.
+     * @param orbBean
+     *      The {@code OrbBean} encapsulating the ORB of the group's POAs; may not be {@code null}.
+     * @param name
+     *      The name of the group, which must be unique per {@code OrbBean}; may not be {@code null}.
+     * @throws IllegalArgumentException
+     *      if {@code orbBean} already has a group named {@code name}.
+     */
+    public PoaManagerGroup(OrbBean orbBean, String name)
+    {
+        if (orbBean == null) {
+            throw new IllegalArgumentException("OrbBean may not be null.");
+        }
+        if (name == null) {
+            throw new IllegalArgumentException("POA Manager group name may not be null.");
+        }
+        this.name = name;
+        orbBean.registerPoaManagerGroup(this);
+    }
+
+
+    /**
+     * Determines whether the group's POA Manager is activated by {@link OrbBean#start()} (the default).
+     * If set to {@code false}, the POAs of the group do not process requests until {@link #activate()}
+     * is invoked.
+     */
+    public synchronized void setActivateOnStart(boolean activateOnStart)
+    {
+        this.activateOnStart = activateOnStart;
+    }
+
+
+    public String getName()
+    {
+        return name;
+    }
+
+
+    /**
+     * Returns the group's POA Manager.
+     * @return
+     *      The POA Manager; {@code null} if no POA of the group has been created yet.
+     */
+    public synchronized POAManager getPoaManager()
+    {
+        return poaManager;
+    }
+
+
+    /**
+     * Returns the state of the group's POA Manager.
+     * @return
+     *      The state; {@code null} if no POA of the group has been created yet.
+     */
+    public synchronized State getState()
+    {
+        return poaManager != null ? poaManager.get_state() : null;
+    }
+
+
+    /**
+     * Makes the POAs of the group process requests, including the requests queued while holding.
+     * @throws IllegalStateException
+     *      if no POA of the group has been created yet, or if the POA Manager has been deactivated.
+     */
+    public void activate()
+    {
+        try {
+            requirePoaManager().activate();
+        }
+        catch (AdapterInactive ai) {
+            throw new IllegalStateException("POA Manager of group '" + name + "' has been deactivated.");
+        }
+    }
+
+
+    /**
+     * Makes the POAs of the group queue incoming requests (up to the ORB's request queue depth) instead of
+     * processing them.
+     * @param waitForCompletion
+     *      If {@code true}, waits until the requests in progress have completed; must then not be invoked
+     *      during a request processed by a POA of the group.
+     * @throws IllegalStateException
+     *      if no POA of the group has been created yet, or if the POA Manager has been deactivated.
+     */
+    public void holdRequests(boolean waitForCompletion)
+    {
+        try {
+            requirePoaManager().hold_requests(waitForCompletion);
+        }
+        catch (AdapterInactive ai) {
+            throw new IllegalStateException("POA Manager of group '" + name + "' has been deactivated.");
+        }
+    }
+
+
+    /**
+     * Makes the POAs of the group reject incoming requests with {@code TRANSIENT}, so that clients may
+     * retry later or elsewhere.
+     * @param waitForCompletion
+     *      If {@code true}, waits until the requests in progress have completed; must then not be invoked
+     *      during a request processed by a POA of the group.
+     * @throws IllegalStateException
+     *      if no POA of the group has been created yet, or if the POA Manager has been deactivated.
+     */
+    public void discardRequests(boolean waitForCompletion)
+    {
+        try {
+            requirePoaManager().discard_requests(waitForCompletion);
+        }
+        catch (AdapterInactive ai) {
+            throw new IllegalStateException("POA Manager of group '" + name + "' has been deactivated.");
+        }
+    }
+
+
+    /**
+     * Creates a POA managed by the group's POA Manager; the first POA created creates the POA Manager.
+     */
+    synchronized POA createPoa(POA parentPoa, String poaName, Policy[] policies)
+        throws AdapterAlreadyExists, InvalidPolicy
+    {
+        POA poa = parentPoa.create_POA(poaName, poaManager, policies);
+        if (poaManager == null) {
+            poaManager = poa.the_POAManager();
+            if (orbStarted && activateOnStart) {
+                activate();
+            }
+        }
+        return poa;
+    }
+
+
+    /**
+     * Invoked by {@link OrbBean#start()}; activates the POA Manager if so configured.
+     */
+    public synchronized void orbStarted()
+    {
+        orbStarted = true;
+        if (poaManager != null && activateOnStart) {
+            activate();
+        }
+    }
+
+
+    private synchronized POAManager requirePoaManager()
+    {
+        if (poaManager == null) {
+            throw new IllegalStateException("POA Manager group '" + name + "' does not contain any POA yet.");
+        }
+        return poaManager;
+    }
+
+}
@@ -1,7 +1,7 @@
 package biz.ple.corba.beans.server;
 
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -36,7 +36,7 @@ public class PoaPolicies {
      */
     public PoaPolicies()
     {
-        contents = new HashMap<PoaPolicyName, PoaPolicyValue>();
+        contents = new EnumMap<PoaPolicyName, PoaPolicyValue>(PoaPolicyName.class);
         contents.put(PoaPolicyName.IdAssignment, PoaPolicyValue.System);
         contents.put(PoaPolicyName.IdUniqueness, PoaPolicyValue.Unique);
         contents.put(PoaPolicyName.ImplicitActivation, PoaPolicyValue.NoImplicitActivation);
@@ -55,7 +55,7 @@ public class PoaPolicies {
      */
     public PoaPolicies(PoaPolicies other)
     {
-        contents = new HashMap<PoaPolicyName, PoaPolicyValue>(other.contents);
+        contents = new EnumMap<PoaPolicyName, PoaPolicyValue>(other.contents);
     }
 
 
@@ -78,22 +78,10 @@ public class PoaPolicies {
             throw new IllegalArgumentException("POA policy value may not be null.");
         }
 
-        String fieldName = value.toMemberName();
-        Class<?> omgClass = name.toOmgClass();
-        try {
-            Integer omgValue = omgClass.getField(fieldName).getInt(null);
-            if (omgValue.intValue() != value.intValue()) {
-            	throw new IllegalStateException("There's something wrong with the POA Policy wrapper classes.");
-            }
-            contents.put(name, value);
-        }
-        catch (IllegalAccessException e) {
-            throw new IllegalStateException("Surprisingly, the field '" + omgClass.getSimpleName() + '.' +
-                                            fieldName + "' does not seem to be public.");
-        }
-        catch (NoSuchFieldException e) {
+        if (value.getPolicyName() != name) {
             throw new IllegalArgumentException("'" + value + "' is not a legal value for policy '" + name + "'.");
         }
+        contents.put(name, value);
     }
 
 
@@ -150,4 +138,19 @@ public class PoaPolicies {
         return contents.size();
     }
 
+
+    /**
+     * Returns a value which identifies the combination of POA Policy values currently set; two
+     * {@code PoaPolicies} objects have the same signature if and only if they contain the same values.
+     * Used as the key of the Policy object arrays cached by {@link PoaBean}.
+     */
+    int signature()
+    {
+        int signature = 0;
+        for (PoaPolicyValue value: contents.values()) {
+            signature = (signature << 4) | (value.ordinal() + 1);
+        }
+        return signature;
+    }
+
 }
@@ -20,33 +20,48 @@ import org.omg.PortableServer.ThreadPolicyValue;
  */
 public enum PoaPolicyValue {
 
-    System("_SYSTEM_ID", IdAssignmentPolicyValue._SYSTEM_ID),
-    User("_USER_ID", IdAssignmentPolicyValue._USER_ID),
-    Multiple("_MULTIPLE_ID", IdUniquenessPolicyValue._MULTIPLE_ID),
-    Unique("_UNIQUE_ID", IdUniquenessPolicyValue._UNIQUE_ID),
-    ImplicitActivation("_IMPLICIT_ACTIVATION", ImplicitActivationPolicyValue._IMPLICIT_ACTIVATION),
-    NoImplicitActivation("_NO_IMPLICIT_ACTIVATION", ImplicitActivationPolicyValue._NO_IMPLICIT_ACTIVATION),
-    Transient("_TRANSIENT", LifespanPolicyValue._TRANSIENT),
-    Persistent("_PERSISTENT", LifespanPolicyValue._PERSISTENT),
-    UseActiveObjectMapOnly("_USE_ACTIVE_OBJECT_MAP_ONLY", RequestProcessingPolicyValue._USE_ACTIVE_OBJECT_MAP_ONLY),
-    UseServantManager("_USE_SERVANT_MANAGER", RequestProcessingPolicyValue._USE_SERVANT_MANAGER),
-    UseDefaultServant("_USE_DEFAULT_SERVANT", RequestProcessingPolicyValue._USE_DEFAULT_SERVANT),
-    Retain("_RETAIN", ServantRetentionPolicyValue._RETAIN),
-    NonRetain("_NON_RETAIN", ServantRetentionPolicyValue._NON_RETAIN),
-    OrbCtrlModel("_ORB_CTRL_MODEL", ThreadPolicyValue._ORB_CTRL_MODEL),
-    SingleThreadModel("_SINGLE_THREAD_MODEL", ThreadPolicyValue._SINGLE_THREAD_MODEL);
+    System("_SYSTEM_ID", PoaPolicyName.IdAssignment, IdAssignmentPolicyValue._SYSTEM_ID),
+    User("_USER_ID", PoaPolicyName.IdAssignment, IdAssignmentPolicyValue._USER_ID),
+    Multiple("_MULTIPLE_ID", PoaPolicyName.IdUniqueness, IdUniquenessPolicyValue._MULTIPLE_ID),
+    Unique("_UNIQUE_ID", PoaPolicyName.IdUniqueness, IdUniquenessPolicyValue._UNIQUE_ID),
+    ImplicitActivation("_IMPLICIT_ACTIVATION", PoaPolicyName.ImplicitActivation, ImplicitActivationPolicyValue._IMPLICIT_ACTIVATION),
+    NoImplicitActivation("_NO_IMPLICIT_ACTIVATION", PoaPolicyName.ImplicitActivation, ImplicitActivationPolicyValue._NO_IMPLICIT_ACTIVATION),
+    Transient("_TRANSIENT", PoaPolicyName.Lifespan, LifespanPolicyValue._TRANSIENT),
+    Persistent("_PERSISTENT", PoaPolicyName.Lifespan, LifespanPolicyValue._PERSISTENT),
+    UseActiveObjectMapOnly("_USE_ACTIVE_OBJECT_MAP_ONLY", PoaPolicyName.RequestProcessing, RequestProcessingPolicyValue._USE_ACTIVE_OBJECT_MAP_ONLY),
+    UseServantManager("_USE_SERVANT_MANAGER", PoaPolicyName.RequestProcessing, RequestProcessingPolicyValue._USE_SERVANT_MANAGER),
+    UseDefaultServant("_USE_DEFAULT_SERVANT", PoaPolicyName.RequestProcessing, RequestProcessingPolicyValue._USE_DEFAULT_SERVANT),
+    Retain("_RETAIN", PoaPolicyName.ServantRetention, ServantRetentionPolicyValue._RETAIN),
+    NonRetain("_NON_RETAIN", PoaPolicyName.ServantRetention, ServantRetentionPolicyValue._NON_RETAIN),
+    OrbCtrlModel("_ORB_CTRL_MODEL", PoaPolicyName.Thread, ThreadPolicyValue._ORB_CTRL_MODEL),
+    SingleThreadModel("_SINGLE_THREAD_MODEL", PoaPolicyName.Thread, ThreadPolicyValue._SINGLE_THREAD_MODEL);
 
     private final String memberName;
+    private final PoaPolicyName policyName;
     private int intValue;
 
 
-    private PoaPolicyValue(String strValue, int intValue)
+    private PoaPolicyValue(String strValue, PoaPolicyName policyName, int intValue)
     {
         this.memberName = strValue;
+        this.policyName = policyName;
         this.intValue = intValue;
     }
 
 
+    /**
+     * Returns the name of the POA Policy this is a value of.
+     * @return
+     *      The POA Policy to which this {@code PoaPolicyValue} applies, e.g. {@code ServantRetention}
+     *      for {@code NonRetain}.
+     * @since 1.4.0
+     */
+    public PoaPolicyName getPolicyName()
+    {
+        return policyName;
+    }
+
+
     /**
      * The name of the (static final) field (of the corresponding CORBA Policy Value class)
      * containig the int value corresponding to this {@code PoaPolicyValue}.
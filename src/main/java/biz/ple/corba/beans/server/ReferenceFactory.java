@@ -0,0 +1,168 @@
+package biz.ple.corba.beans.server;
+
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.POAPackage.WrongPolicy;
+
+import biz.ple.corba.util.CorbaObjectId;
+import biz.ple.corba.util.HelperAccess;
+
+
+/**
+ * <p>Creates object references of one specific IDL interface type, 'bound' to the POA encapsulated by
+ * a {@link PoaBean}. Instances are obtained via {@link PoaBean#getReferenceFactory(Class)}, which
+ * creates one {@code ReferenceFactory} per interface class and caches it.</p>
+ * <p>The repository id and the narrowing method of the interface's {@code Helper} class are resolved
+ * once, when the factory is created (see {@link HelperAccess}). Since the POA creates the references
+ * itself with the repository id of the interface, they are narrowed with {@code unchecked_narrow()}.
+ * Instances are thread-safe.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The Java interface generated by the IDL compiler for the IDL interface of the references.
+ */
+public final class ReferenceFactory<T extends org.omg.CORBA.Object> {
+
+    private final PoaBean poaBean;
+    private final HelperAccess<T> helper;
+
+
+    ReferenceFactory(PoaBean poaBean, Class<T> interfaceClass)
+    {
+        this.poaBean = poaBean;
+        this.helper = HelperAccess.forInterface(interfaceClass);
+    }
+
+
+    /**
+     * Creates an object reference with a user-supplied Object Id.
+     * @param objectId
+     *      The user-supplied object id; will be 'embedded' in the resulting object reference.
+     * @return
+     *      A reference to an object with the id {@code objectId}, 'pointing' to the POA encapsulated
+     *      by the factory's {@code PoaBean}.
+     */
+    public T create(byte[] objectId)
+    {
+        return helper.uncheckedNarrow(poa().create_reference_with_id(objectId, helper.id()));
+    }
+
+
+    /**
+     * Creates an object reference with a user-supplied Object Id.
+     * @param objectId
+     *      The user-supplied object id; will be converted to a byte array using the UTF-8 encoding.
+     * @return
+     *      A reference to an object with the id {@code objectId}, 'pointing' to the POA encapsulated
+     *      by the factory's {@code PoaBean}.
+     */
+    public T create(String objectId)
+    {
+        return create(objectId.getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Creates an object reference with a system-created Object Id.
+     * @return
+     *      A reference to a new object, 'pointing' to the POA encapsulated by the factory's {@code PoaBean}.
+     * @throws RuntimeException
+     *      if the POA does not have the {@code SYSTEM_ID} policy.
+     */
+    public T create()
+    {
+        try {
+            return helper.uncheckedNarrow(poa().create_reference(helper.id()));
+        }
+        catch (WrongPolicy wp) {
+            throw new RuntimeException("createObjectReference(" + helper.getInterfaceClass().getName() + ") failed.", wp);
+        }
+    }
+
+
+    /**
+     * <p>Creates object references for a batch of {@code long} object ids, e.g. for IDL finder operations
+     * returning sequences. The ids are encoded in the same (big-endian) format as produced by
+     * {@link CorbaObjectId#fromLong(long)}.</p>
+     * <p>A single scratch buffer is used to encode all ids, since the POA copies the object id into
+     * the object key of the new reference; the result array is created with the exact element type
+     * {@code T} and can be returned to the ORB as an IDL sequence as is.</p>
+     * @param objectIds
+     *      The object ids; may not be {@code null}.
+     * @return
+     *      An array containing one reference per id, in the order of {@code objectIds}.
+     */
+    public T[] createAll(long[] objectIds)
+    {
+        POA poa = poa();
+        String repoId = helper.id();
+        T[] result = newArray(objectIds.length);
+        byte[] oid = new byte[8];
+        for (int k = 0; k < objectIds.length; ++k) {
+            CorbaObjectId.writeLong(objectIds[k], oid, 0);
+            result[k] = helper.uncheckedNarrow(poa.create_reference_with_id(oid, repoId));
+        }
+        return result;
+    }
+
+
+    /**
+     * Creates object references for a batch of object ids, e.g. for IDL finder operations returning sequences.
+     * @param objectIds
+     *      The object ids; may not be {@code null}.
+     * @return
+     *      An array containing one reference per id, in the iteration order of {@code objectIds}.
+     */
+    public T[] createAll(Collection<byte[]> objectIds)
+    {
+        POA poa = poa();
+        String repoId = helper.id();
+        T[] result = newArray(objectIds.size());
+        int k = 0;
+        for (byte[] oid: objectIds) {
+            result[k++] = helper.uncheckedNarrow(poa.create_reference_with_id(oid, repoId));
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the Java interface class of the references created by this factory.
+     */
+    public Class<T> getInterfaceClass()
+    {
+        return helper.getInterfaceClass();
+    }
+
+
+    /**
+     * Returns the CORBA repository id embedded in the references created by this factory.
+     */
+    public String getInterfaceId()
+    {
+        return helper.id();
+    }
+
+
+    @SuppressWarnings("unchecked")
+    private T[] newArray(int length)
+    {
+        return (T[]) Array.newInstance(helper.getInterfaceClass(), length);
+    }
+
+
+    private POA poa()
+    {
+        POA poa = poaBean.getPoa();
+        if (poa == null) {
+            throw new IllegalStateException("POA bean has not been initialized yet.");
+        }
+        return poa;
+    }
+
+}
@@ -0,0 +1,83 @@
+package biz.ple.corba.beans.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.Servant;
+
+
+/**
+ * <p>Records the requests in progress and the time of the last request of a POA created on demand (see
+ * {@link PoaBean#setChildPoaIdleTimeout(long)}), so that idle POAs can be destroyed. Servants are wrapped in
+ * a {@link TrackingServant}, which counts the upcalls; Servant Activators and Servant Locators are wrapped so
+ * that the servants they return are wrapped.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class RequestTracker extends ServantWrapper {
+
+    /** Stands in for a servant in the POA; counts the upcalls and delegates them to the wrapped servant. */
+    final class TrackingServant extends ForwardingServant {
+
+        TrackingServant(Servant target)
+        {
+            super(target);
+        }
+
+        @Override
+        protected OutputStream dispatch(String method, InputStream input, ResponseHandler handler)
+            throws SystemException
+        {
+            requestStarted();
+            try {
+                return forward(method, input, handler);
+            }
+            finally {
+                active.decrementAndGet();
+            }
+        }
+
+    }
+
+
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile long lastRequest = System.nanoTime();
+
+
+    RequestTracker()
+    {
+        super(TrackingServant.class);
+    }
+
+
+    @Override
+    ForwardingServant newWrapper(Servant target)
+    {
+        return new TrackingServant(target);
+    }
+
+
+    /**
+     * Returns {@code true} if no request is in progress and the last request was received more than
+     * {@code idleNanos} nanoseconds ago.
+     */
+    boolean isIdle(long idleNanos)
+    {
+        return active.get() == 0 && System.nanoTime() - lastRequest > idleNanos;
+    }
+
+
+    private void requestStarted()
+    {
+        active.incrementAndGet();
+        long now = System.nanoTime();
+        if (now - lastRequest > ForwardingServant.ACCESS_RESOLUTION) {
+            lastRequest = now;
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package biz.ple.corba.beans.server;
+
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantActivator;
+import org.omg.PortableServer.ServantLocator;
+import org.omg.PortableServer._ServantActivatorLocalBase;
+import org.omg.PortableServer._ServantLocatorLocalBase;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+
+
+/**
+ * <p>Wraps a POA's servants in {@link ForwardingServant}s of one type, whether they are activated
+ * explicitly or returned by a Servant Activator or Servant Locator: servant managers are wrapped as well,
+ * so that the POA receives wrapped servants and the application's servant manager receives the targets
+ * in {@code etherealize()} and {@code postinvoke()}.</p>
+ * <p>Wrappers may be nested, e.g. an {@link UpcallDispatcher}'s inside a {@link RequestTracker}'s; each
+ * wrapper unwraps its own level only.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+abstract class ServantWrapper {
+
+    /** Passes wrapped servants to the POA and the wrapped servant's targets to the application's activator. */
+    private final class WrappingActivator extends _ServantActivatorLocalBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ServantActivator activator;
+
+        WrappingActivator(ServantActivator activator)
+        {
+            this.activator = activator;
+        }
+
+        @Override
+        public Servant incarnate(byte[] oid, POA adapter) throws ForwardRequest
+        {
+            return wrap(activator.incarnate(oid, adapter));
+        }
+
+        @Override
+        public void etherealize(byte[] oid, POA adapter, Servant servant, boolean cleanupInProgress,
+                                boolean remainingActivations)
+        {
+            activator.etherealize(oid, adapter, unwrap(servant), cleanupInProgress, remainingActivations);
+        }
+
+    }
+
+
+    /** Passes wrapped servants to the POA and the wrapped servant's targets to the application's locator. */
+    private final class WrappingLocator extends _ServantLocatorLocalBase {
+
+        private static final long serialVersionUID = 1L;
+        private final ServantLocator locator;
+
+        WrappingLocator(ServantLocator locator)
+        {
+            this.locator = locator;
+        }
+
+        @Override
+        public Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie) throws ForwardRequest
+        {
+            return wrap(locator.preinvoke(oid, adapter, operation, cookie));
+        }
+
+        @Override
+        public void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant)
+        {
+            locator.postinvoke(oid, adapter, operation, cookie, unwrap(servant));
+        }
+
+    }
+
+
+    private final Class<? extends ForwardingServant> wrapperType;
+
+
+    ServantWrapper(Class<? extends ForwardingServant> wrapperType)
+    {
+        this.wrapperType = wrapperType;
+    }
+
+
+    /**
+     * Creates the wrapper of a servant.
+     */
+    abstract ForwardingServant newWrapper(Servant target);
+
+
+    /**
+     * Wraps a servant, unless it does not implement {@link InvokeHandler} (e.g. a DSI servant) or is
+     * already wrapped.
+     */
+    Servant wrap(Servant servant)
+    {
+        if (!(servant instanceof InvokeHandler) || wrapperType.isInstance(servant)) {
+            return servant;
+        }
+        return newWrapper(servant);
+    }
+
+
+    Servant unwrap(Servant servant)
+    {
+        return wrapperType.isInstance(servant) ? ((ForwardingServant) servant).getTarget() : servant;
+    }
+
+
+    ServantActivator wrap(ServantActivator activator)
+    {
+        return new WrappingActivator(activator);
+    }
+
+
+    ServantLocator wrap(ServantLocator locator)
+    {
+        return new WrappingLocator(locator);
+    }
+
+}
@@ -0,0 +1,239 @@
+package biz.ple.corba.beans.server;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.jacorb.orb.portableInterceptor.InterceptorManager;
+import org.jacorb.poa.InvocationContext;
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.ORB;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.TRANSIENT;
+import org.omg.CORBA.ORBPackage.InvalidName;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableInterceptor.Current;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.CurrentPackage.NoContext;
+
+
+/**
+ * <p>Executes the upcalls of a POA's servants on an {@link Executor} instead of JacORB's request processor
+ * threads; see {@link PoaBean#setUpcallExecutor(Executor)}. Servants are wrapped in a
+ * {@link DispatchingServant}, whose {@code _invoke()} hands the upcall to the executor and waits for it
+ * to complete.</p>
+ * <p>Before the upcall, the invocation context is transferred to the executing thread: the Portable
+ * Interceptor Current (the thread scope {@code PICurrent} slots, which are shared with the request
+ * processor thread, so that slots set by the servant are visible to the interceptors), the POA Current
+ * (object id, POA and the <i>wrapped</i> servant) and the context class loader. Both Currents are
+ * JacORB-specific.</p>
+ * <p><b>Limitations:</b> JacORB has no asynchronous server-side dispatch, so the request processor thread
+ * is <i>not</i> released: it blocks in {@link Upcall#await()} until the upcall has completed on the
+ * executor, and the number of requests processed concurrently remains bounded by the POA's thread pool.
+ * The transfer of the Currents relies on JacORB internals that are not part of its public API,
+ * {@code org.jacorb.poa.Current._addContext()}/{@code _removeContext()} and
+ * {@code InterceptorManager.setTSCurrent()}/{@code removeTSCurrent()}; it was written against
+ * JacORB 3.9 and must be re-checked when upgrading JacORB.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class UpcallDispatcher extends ServantWrapper {
+
+    /** The POA Current context of an upcall, as seen by the executing thread. */
+    private static final class UpcallContext implements InvocationContext {
+
+        private final byte[] objectId;
+        private final ORB orb;
+        private final org.jacorb.poa.POA poa;
+        private final Servant servant;
+
+        UpcallContext(byte[] objectId, ORB orb, org.jacorb.poa.POA poa, Servant servant)
+        {
+            this.objectId = objectId;
+            this.orb = orb;
+            this.poa = poa;
+            this.servant = servant;
+        }
+
+        @Override
+        public byte[] getObjectId()
+        {
+            return objectId;
+        }
+
+        @Override
+        public ORB getORB()
+        {
+            return orb;
+        }
+
+        @Override
+        public org.jacorb.poa.POA getPOA()
+        {
+            return poa;
+        }
+
+        @Override
+        public Servant getServant()
+        {
+            return servant;
+        }
+
+    }
+
+
+    /** A single upcall, created on the request processor thread and run on the executor. */
+    private final class Upcall implements Runnable {
+
+        private final DispatchingServant dispatching;
+        private final String method;
+        private final InputStream input;
+        private final ResponseHandler handler;
+        private final Current piCurrent;
+        private final UpcallContext poaContext;
+        private final ClassLoader contextLoader;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private OutputStream result;
+        private Throwable failure;
+
+        Upcall(DispatchingServant dispatching, String method, InputStream input, ResponseHandler handler)
+        {
+            this.dispatching = dispatching;
+            this.method = method;
+            this.input = input;
+            this.handler = handler;
+            this.piCurrent = interceptorMgr != null ? interceptorMgr.getCurrent() : null;
+            this.poaContext = currentPoaContext(dispatching.getTarget());
+            this.contextLoader = Thread.currentThread().getContextClassLoader();
+        }
+
+        @Override
+        public void run()
+        {
+            Thread thread = Thread.currentThread();
+            ClassLoader previousLoader = thread.getContextClassLoader();
+            thread.setContextClassLoader(contextLoader);
+            if (piCurrent != null) {
+                interceptorMgr.setTSCurrent(piCurrent);
+            }
+            if (poaContext != null) {
+                poaCurrent._addContext(thread, poaContext);
+            }
+            try {
+                result = dispatching.forward(method, input, handler);
+            }
+            catch (Throwable thr) {
+                failure = thr;
+            }
+            finally {
+                if (poaContext != null) {
+                    poaCurrent._removeContext(thread);
+                }
+                if (piCurrent != null) {
+                    interceptorMgr.removeTSCurrent();
+                }
+                thread.setContextClassLoader(previousLoader);
+                done.countDown();
+            }
+        }
+
+        OutputStream await()
+        {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    done.await();
+                    break;
+                }
+                catch (InterruptedException ie) {
+                    // The request's streams are in use by the upcall, so we cannot give up on it
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            if (failure != null) {
+                throw new org.omg.CORBA.UNKNOWN(failure.toString());
+            }
+            return result;
+        }
+
+    }
+
+
+    /**
+     * Stands in for a servant in the POA; delegates all upcalls to the wrapped servant, via the executor.
+     */
+    final class DispatchingServant extends ForwardingServant {
+
+        DispatchingServant(Servant target)
+        {
+            super(target);
+        }
+
+        @Override
+        protected OutputStream dispatch(String method, InputStream input, ResponseHandler handler)
+            throws SystemException
+        {
+            Upcall upcall = new Upcall(this, method, input, handler);
+            try {
+                executor.execute(upcall);
+            }
+            catch (RejectedExecutionException rex) {
+                throw new TRANSIENT("Upcall executor rejected the request.", 0, CompletionStatus.COMPLETED_NO);
+            }
+            return upcall.await();
+        }
+
+    }
+
+
+    private final Executor executor;
+    private final ORB orb;
+    private final org.jacorb.poa.Current poaCurrent;
+    private final InterceptorManager interceptorMgr;
+
+
+    UpcallDispatcher(Executor executor, ORB orb)
+    {
+        super(DispatchingServant.class);
+        this.executor = executor;
+        this.orb = orb;
+        try {
+            this.poaCurrent = (org.jacorb.poa.Current) orb.resolve_initial_references("POACurrent");
+        }
+        catch (InvalidName | ClassCastException xcp) {
+            throw new IllegalStateException("Upcall executors require JacORB's POACurrent.", xcp);
+        }
+        this.interceptorMgr = orb instanceof org.jacorb.orb.ORB ? ((org.jacorb.orb.ORB) orb).getInterceptorManager() : null;
+    }
+
+
+    @Override
+    ForwardingServant newWrapper(Servant target)
+    {
+        return new DispatchingServant(target);
+    }
+
+
+    private UpcallContext currentPoaContext(Servant target)
+    {
+        try {
+            return new UpcallContext(poaCurrent.get_object_id(), orb, (org.jacorb.poa.POA) poaCurrent.get_POA(), target);
+        }
+        catch (NoContext noCtx) {
+            return null;
+        }
+    }
+
+}
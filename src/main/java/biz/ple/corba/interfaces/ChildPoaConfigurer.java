@@ -0,0 +1,38 @@
+package biz.ple.corba.interfaces;
+
+import org.omg.PortableServer.AdapterActivator;
+
+import biz.ple.corba.beans.server.PoaBean;
+
+
+/**
+ * <p>Configures the child POAs a {@link PoaBean} creates on demand, i.e. when a request arrives for a
+ * child POA which does not exist (yet); see {@link PoaBean#setChildPoaConfigurer(ChildPoaConfigurer)}.
+ * Typically used for one POA per tenant or per shard, whose servant managers are created only when the
+ * tenant's objects are first used.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ * @see    AdapterActivator
+ */
+@FunctionalInterface
+public interface ChildPoaConfigurer {
+
+    /**
+     * Invoked when a request arrives for a child POA which does not exist; configures the {@code PoaBean}
+     * of the new child POA <i>before</i> it is initialized, e.g. by setting its Servant Activator, Servant
+     * Locator or Default Servant (as required by its policies) or by invoking
+     * {@link PoaBean#setPoaManagerGroup(biz.ple.corba.beans.server.PoaManagerGroup) setPoaManagerGroup()}
+     * to assign it to a shard's POA Manager.
+     * @param adapterName
+     *      The name of the requested child POA.
+     * @param poaBean
+     *      The {@code PoaBean} of the new child POA, whose policies are a copy of the
+     *      {@link PoaBean#setChildPoaTemplate(biz.ple.corba.beans.server.PoaPolicies) template}; not yet initialized.
+     * @return
+     *      {@code true} if the child POA is to be created; {@code false} if there is no such POA, in which
+     *      case the request fails with {@code OBJECT_NOT_EXIST}.
+     */
+    boolean configure(String adapterName, PoaBean poaBean);
+
+}
@@ -0,0 +1,187 @@
+package biz.ple.corba.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.omg.CORBA.portable.ObjectImpl;
+import org.omg.PortableInterceptor.ClientRequestInfo;
+import org.omg.PortableInterceptor.Current;
+
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.interfaces.PICurrentInjectable;
+import biz.ple.corba.interfaces.StandaloneClientRequestInterceptor;
+
+
+/**
+ * <p>A Client Request Interceptor which records the latency of every invocation made through the ORB, per
+ * interface of the target object and operation, in {@link LatencyHistogram}s, and counts the exceptions
+ * by kind. Enabled via {@link OrbBean#setClientMetricsEnabled(boolean)} and obtained via
+ * {@link OrbBean#getClientMetrics()}.</p>
+ * <p>The latency is measured from {@code send_request} to {@code receive_reply}, {@code receive_exception} or
+ * {@code receive_other}. The start time is kept in a Portable Interceptor Current slot of the request, so
+ * that it is correct for nested and concurrent invocations alike. The interface of the target object is
+ * the repository id of the stub the invocation was made through.</p>
+ * <p>The metrics can be pulled via {@link #getOperations()} and {@link #getLatencies(String, String)}, and
+ * are exposed as an MXBean once {@link #registerMBean(String) registered}.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class ClientInvocationMetrics extends RequestMetricsBase
+                                     implements StandaloneClientRequestInterceptor, PICurrentInjectable,
+                                                InvocationMetricsMXBean {
+
+    private final ConcurrentMap<String, ConcurrentMap<String, OperationMetrics>> metrics = new ConcurrentHashMap<>();
+    private Current piCurrent;
+
+
+    /**
+     * Constructor.
+     */
+    public ClientInvocationMetrics()
+    {
+        super("ClientInvocationMetrics");
+    }
+
+
+    @Override
+    public void setPortableInterceptorCurrent(Current current, int slotId)
+    {
+        this.piCurrent = current;
+        this.slotId = slotId;
+    }
+
+
+    @Override
+    public String name()
+    {
+        return "corbaBeans.ClientInvocationMetrics";
+    }
+
+
+    @Override
+    public void destroy()
+    {
+        unregisterMBean();
+    }
+
+
+    @Override
+    public void send_request(ClientRequestInfo ri)
+    {
+        recordStart(piCurrent::set_slot);
+    }
+
+
+    @Override
+    public void send_poll(ClientRequestInfo ri)
+    {
+        // Not timed
+    }
+
+
+    @Override
+    public void receive_reply(ClientRequestInfo ri)
+    {
+        requestCompleted(ri, false);
+    }
+
+
+    @Override
+    public void receive_exception(ClientRequestInfo ri)
+    {
+        requestCompleted(ri, true);
+    }
+
+
+    @Override
+    public void receive_other(ClientRequestInfo ri)
+    {
+        requestCompleted(ri, false);
+    }
+
+
+    @Override
+    public List<OperationStats> getOperations()
+    {
+        List<OperationStats> result = new ArrayList<>();
+        for (Map<String, OperationMetrics> ops: metrics.values()) {
+            for (OperationMetrics op: ops.values()) {
+                result.add(op.stats());
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the latencies of an operation.
+     * @param interfaceId
+     *      The repository id of the interface of the target objects.
+     * @param operation
+     *      The name of the operation (for attributes, {@code _get_xxx} or {@code _set_xxx}).
+     * @return
+     *      A snapshot of the operation's latency histogram; {@code null} if the operation has not been invoked.
+     */
+    public LatencyHistogram.Snapshot getLatencies(String interfaceId, String operation)
+    {
+        Map<String, OperationMetrics> ops = metrics.get(interfaceId);
+        OperationMetrics op = ops != null ? ops.get(operation) : null;
+        return op != null ? op.latencySnapshot() : null;
+    }
+
+
+    @Override
+    public void reset()
+    {
+        metrics.clear();
+    }
+
+
+    private void requestCompleted(ClientRequestInfo ri, boolean exception)
+    {
+        long nanos = elapsedNanos(ri);
+        if (nanos < 0L) {
+            // send_request() was not invoked for this request, e.g. because an earlier interceptor failed
+            return;
+        }
+        OperationMetrics op = operationMetrics(interfaceId(ri), ri.operation());
+        if (exception) {
+            op.recordException(nanos, ri.received_exception_id());
+        }
+        else {
+            op.recordReply(nanos);
+        }
+    }
+
+
+    private OperationMetrics operationMetrics(String interfaceId, String operation)
+    {
+        ConcurrentMap<String, OperationMetrics> ops = metrics.get(interfaceId);
+        if (ops == null) {
+            ops = metrics.computeIfAbsent(interfaceId, id -> new ConcurrentHashMap<>());
+        }
+        OperationMetrics op = ops.get(operation);
+        if (op == null) {
+            op = ops.computeIfAbsent(operation, name -> new OperationMetrics(interfaceId, name));
+        }
+        return op;
+    }
+
+
+    private static String interfaceId(ClientRequestInfo ri)
+    {
+        org.omg.CORBA.Object target = ri.target();
+        if (target instanceof ObjectImpl) {
+            String[] ids = ((ObjectImpl) target)._ids();
+            if (ids != null && ids.length > 0) {
+                return ids[0];
+            }
+        }
+        return "IDL:omg.org/CORBA/Object:1.0";
+    }
+
+}
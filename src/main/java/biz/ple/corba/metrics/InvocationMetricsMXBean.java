@@ -0,0 +1,26 @@
+package biz.ple.corba.metrics;
+
+import java.util.List;
+
+
+/**
+ * The management interface of the invocation metrics collected by {@link ClientInvocationMetrics}.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public interface InvocationMetricsMXBean {
+
+    /** Returns a snapshot of the metrics of all operations invoked so far (or since the last {@link #reset()}). */
+    List<OperationStats> getOperations();
+
+    /** Returns the total number of completed invocations. */
+    long getInvocationCount();
+
+    /** Returns the total number of invocations completed with an exception. */
+    long getExceptionCount();
+
+    /** Discards all metrics collected so far. */
+    void reset();
+
+}
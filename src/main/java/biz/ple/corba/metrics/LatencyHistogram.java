@@ -0,0 +1,214 @@
+package biz.ple.corba.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * <p>A lock-free histogram of latencies in nanoseconds, with log-linear buckets in the style of an HDR
+ * histogram: values below 64 ns have buckets of their own, and every power-of-two range above is divided
+ * into 32 buckets of equal width, so that every recorded value is represented with a relative error of at
+ * most about 3%. Values above about 2.4 hours are recorded as the maximum trackable value.</p>
+ * <p>{@link #record(long)} costs one atomic increment of a bucket counter (plus, rarely, an update of the
+ * maximum); no objects are allocated. A histogram occupies about 10 KB per stripe. Histograms updated by many
+ * threads concurrently can be {@link #LatencyHistogram(int) striped}, i.e. have one set of counters per group
+ * of threads, so that the threads do not contend for the same counters. {@link #snapshot()} copies (and sums
+ * up) the counters, so that percentiles can be computed without disturbing the recording threads; a snapshot
+ * taken while values are being recorded may be off by the values recorded concurrently.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 37;
+    private static final int BUCKETS = (MAX_MAGNITUDE + 2) * SUB_BUCKETS;
+
+    /** The highest value recorded as is; higher values are clamped. */
+    public static final long MAX_TRACKABLE_VALUE = (1L << (MAX_MAGNITUDE + SUB_BUCKET_BITS + 1)) - 1L;
+
+
+    /**
+     * An immutable copy of the counters of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long sum, long max)
+        {
+            long total = 0L;
+            for (long c: counts) {
+                total += c;
+            }
+            this.counts = counts;
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /** Returns the number of recorded values. */
+        public long getCount()
+        {
+            return count;
+        }
+
+        /** Returns the mean of the recorded values in nanoseconds; 0 if no values have been recorded. */
+        public double getMean()
+        {
+            return count > 0L ? (double) sum / count : 0.0;
+        }
+
+        /** Returns the highest recorded value in nanoseconds; 0 if no values have been recorded. */
+        public long getMax()
+        {
+            return max;
+        }
+
+        /**
+         * Returns the value at a percentile, i.e. the highest value (within the precision of the histogram)
+         * below which the given percentage of the recorded values lie.
+         * @param percentile
+         *      The percentile, between 0.0 and 100.0 (e.g. 99.9).
+         * @return
+         *      The value in nanoseconds; 0 if no values have been recorded.
+         */
+        public long getValueAtPercentile(double percentile)
+        {
+            if (count == 0L) {
+                return 0L;
+            }
+            double clamped = Math.min(Math.max(percentile, 0.0), 100.0);
+            long rank = Math.max(1L, (long) Math.ceil(clamped / 100.0 * count));
+            long seen = 0L;
+            for (int idx = 0; idx < counts.length; ++idx) {
+                seen += counts[idx];
+                if (seen >= rank) {
+                    return Math.min(highestEquivalentValue(idx), max);
+                }
+            }
+            return max;
+        }
+
+        /** Returns the value at a percentile, converted to the given unit. */
+        public double getValueAtPercentile(double percentile, TimeUnit unit)
+        {
+            return (double) getValueAtPercentile(percentile) / unit.toNanos(1L);
+        }
+
+    }
+
+
+    private final AtomicLongArray counts;
+    private final int stripeMask;
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+
+    /**
+     * Constructor for a histogram with a single set of counters.
+     */
+    public LatencyHistogram()
+    {
+        this(1);
+    }
+
+
+    /**
+     * Constructor for a striped histogram.
+     * @param stripes
+     *      The number of sets of counters; rounded up to a power of two. Threads are assigned to stripes by
+     *      their id.
+     */
+    public LatencyHistogram(int stripes)
+    {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive.");
+        }
+        int rounded = Integer.highestOneBit(stripes);
+        if (rounded < stripes) {
+            rounded <<= 1;
+        }
+        this.counts = new AtomicLongArray(rounded * BUCKETS);
+        this.stripeMask = rounded - 1;
+    }
+
+
+    /**
+     * Records a value.
+     * @param nanos
+     *      The value in nanoseconds; negative values are recorded as 0.
+     */
+    public void record(long nanos)
+    {
+        long value = nanos < 0L ? 0L : Math.min(nanos, MAX_TRACKABLE_VALUE);
+        int stripe = stripeMask == 0 ? 0 : (int) Thread.currentThread().getId() & stripeMask;
+        counts.incrementAndGet(stripe * BUCKETS + bucketIndex(value));
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+
+    /**
+     * Returns a copy of the counters.
+     */
+    public Snapshot snapshot()
+    {
+        long[] copy = new long[BUCKETS];
+        for (int idx = 0; idx < counts.length(); ++idx) {
+            copy[idx % BUCKETS] += counts.get(idx);
+        }
+        return new Snapshot(copy, sum.sum(), max.get());
+    }
+
+
+    /**
+     * Resets all counters; values recorded concurrently may or may not be lost.
+     */
+    public void reset()
+    {
+        for (int idx = 0; idx < counts.length(); ++idx) {
+            counts.set(idx, 0L);
+        }
+        sum.reset();
+        max.set(0L);
+    }
+
+
+    /**
+     * Values below {@code 2 * SUB_BUCKETS} map to themselves; above, the magnitude {@code m} is the number of
+     * low bits dropped, and {@code value >>> m} lies in {@code [SUB_BUCKETS, 2 * SUB_BUCKETS)}.
+     */
+    static int bucketIndex(long value)
+    {
+        int magnitude = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS + 1));
+        return (magnitude << SUB_BUCKET_BITS) + (int) (value >>> magnitude);
+    }
+
+
+    static long lowestEquivalentValue(int idx)
+    {
+        if (idx < 2 * SUB_BUCKETS) {
+            return idx;
+        }
+        int magnitude = (idx >> SUB_BUCKET_BITS) - 1;
+        return (long) (idx - (magnitude << SUB_BUCKET_BITS)) << magnitude;
+    }
+
+
+    static long highestEquivalentValue(int idx)
+    {
+        return idx + 1 < BUCKETS ? lowestEquivalentValue(idx + 1) - 1L : MAX_TRACKABLE_VALUE;
+    }
+
+}
@@ -0,0 +1,62 @@
+package biz.ple.corba.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * Registers the metrics MXBeans with the platform MBean server; failures are logged, not thrown.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class MBeans {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MBeans.class);
+
+
+    private MBeans()
+    {
+    }
+
+
+    /**
+     * Registers an MXBean as {@code biz.ple.corba:type=<type>,name=<name>}.
+     * @return
+     *      The object name; {@code null} if the registration failed.
+     */
+    static ObjectName register(Object mxBean, String type, String name)
+    {
+        try {
+            ObjectName objName = new ObjectName("biz.ple.corba:type=" + type + ",name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mxBean, objName);
+            return objName;
+        }
+        catch (MalformedObjectNameException | InstanceAlreadyExistsException | MBeanRegistrationException
+               | NotCompliantMBeanException xcp) {
+            LOG.warn("Could not register " + type + " MBean '" + name + "'.", xcp);
+            return null;
+        }
+    }
+
+
+    static void unregister(ObjectName objName)
+    {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objName);
+        }
+        catch (InstanceNotFoundException | MBeanRegistrationException xcp) {
+            LOG.debug("Could not unregister MBean {}: {}", objName, xcp.toString());
+        }
+    }
+
+}
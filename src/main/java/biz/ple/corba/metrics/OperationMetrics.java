@@ -0,0 +1,96 @@
+package biz.ple.corba.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * The latencies and exception counts of one operation (of one target, and possibly of one group of objects
+ * identified by an object id prefix). Thread-safe and lock-free.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+final class OperationMetrics {
+
+    private final String target;
+    private final String objectIdPrefix;
+    private final String operation;
+    private final LatencyHistogram latencies;
+    private final LongAdder exceptions = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> exceptionsByKind = new ConcurrentHashMap<>();
+
+
+    OperationMetrics(String target, String operation)
+    {
+        this(target, null, operation, 1);
+    }
+
+
+    OperationMetrics(String target, String objectIdPrefix, String operation, int stripes)
+    {
+        this.target = target;
+        this.objectIdPrefix = objectIdPrefix;
+        this.operation = operation;
+        this.latencies = new LatencyHistogram(stripes);
+    }
+
+
+    void recordReply(long nanos)
+    {
+        latencies.record(nanos);
+    }
+
+
+    /**
+     * Records a request completed with an exception.
+     * @param exceptionId
+     *      The repository id of the exception; counted by its simple name (e.g. {@code TRANSIENT}).
+     */
+    void recordException(long nanos, String exceptionId)
+    {
+        latencies.record(nanos);
+        exceptions.increment();
+        String kind = kindOf(exceptionId);
+        LongAdder counter = exceptionsByKind.get(kind);
+        if (counter == null) {
+            counter = exceptionsByKind.computeIfAbsent(kind, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+
+    LatencyHistogram.Snapshot latencySnapshot()
+    {
+        return latencies.snapshot();
+    }
+
+
+    OperationStats stats()
+    {
+        Map<String, Long> byKind = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry: exceptionsByKind.entrySet()) {
+            byKind.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new OperationStats(target, objectIdPrefix, operation, latencies.snapshot(), exceptions.sum(), byKind);
+    }
+
+
+    /** Turns e.g. {@code IDL:omg.org/CORBA/TRANSIENT:1.0} into {@code TRANSIENT}. */
+    static String kindOf(String exceptionId)
+    {
+        if (exceptionId == null) {
+            return "UNKNOWN";
+        }
+        int end = exceptionId.lastIndexOf(':');
+        if (end <= 0) {
+            end = exceptionId.length();
+        }
+        int start = Math.max(exceptionId.lastIndexOf('/', end - 1), exceptionId.indexOf(':')) + 1;
+        return start < end ? exceptionId.substring(start, end) : exceptionId;
+    }
+
+}
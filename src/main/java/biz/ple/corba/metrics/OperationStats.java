@@ -0,0 +1,140 @@
+package biz.ple.corba.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * <p>A snapshot of the metrics of one operation: the number of invocations, their latency percentiles and
+ * the number of exceptions by kind. Latencies are given in microseconds. Instances are immutable and can be
+ * read via JMX (as {@code CompositeData}).</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class OperationStats {
+
+    private final String target;
+    private final String objectIdPrefix;
+    private final String operation;
+    private final long count;
+    private final double meanMicros;
+    private final double p50Micros;
+    private final double p90Micros;
+    private final double p99Micros;
+    private final double p999Micros;
+    private final double maxMicros;
+    private final long exceptionCount;
+    private final Map<String, Long> exceptionCounts;
+
+
+    OperationStats(String target, String objectIdPrefix, String operation, LatencyHistogram.Snapshot latencies,
+                   long exceptionCount, Map<String, Long> exceptionCounts)
+    {
+        this.target = target;
+        this.objectIdPrefix = objectIdPrefix;
+        this.operation = operation;
+        this.count = latencies.getCount();
+        this.meanMicros = latencies.getMean() / 1000.0;
+        this.p50Micros = latencies.getValueAtPercentile(50.0, TimeUnit.MICROSECONDS);
+        this.p90Micros = latencies.getValueAtPercentile(90.0, TimeUnit.MICROSECONDS);
+        this.p99Micros = latencies.getValueAtPercentile(99.0, TimeUnit.MICROSECONDS);
+        this.p999Micros = latencies.getValueAtPercentile(99.9, TimeUnit.MICROSECONDS);
+        this.maxMicros = latencies.getMax() / 1000.0;
+        this.exceptionCount = exceptionCount;
+        this.exceptionCounts = Collections.unmodifiableMap(exceptionCounts);
+    }
+
+
+    /**
+     * Returns the target of the operation: the repository id of the interface of the target object (client
+     * metrics), or the name of the POA which processed the requests (server metrics).
+     */
+    public String getTarget()
+    {
+        return target;
+    }
+
+
+    /**
+     * Returns the common prefix of the object ids of the target objects (server metrics with an object id
+     * prefix length only), in printable form; {@code null} if the metrics are not broken down by object id.
+     */
+    public String getObjectIdPrefix()
+    {
+        return objectIdPrefix;
+    }
+
+
+    public String getOperation()
+    {
+        return operation;
+    }
+
+
+    /** Returns the number of completed invocations, including those completed with an exception. */
+    public long getCount()
+    {
+        return count;
+    }
+
+
+    public double getMeanMicros()
+    {
+        return meanMicros;
+    }
+
+
+    public double getP50Micros()
+    {
+        return p50Micros;
+    }
+
+
+    public double getP90Micros()
+    {
+        return p90Micros;
+    }
+
+
+    public double getP99Micros()
+    {
+        return p99Micros;
+    }
+
+
+    public double getP999Micros()
+    {
+        return p999Micros;
+    }
+
+
+    public double getMaxMicros()
+    {
+        return maxMicros;
+    }
+
+
+    /** Returns the number of invocations completed with a user or system exception. */
+    public long getExceptionCount()
+    {
+        return exceptionCount;
+    }
+
+
+    /** Returns the number of exceptions by simple exception name (e.g. {@code TRANSIENT}). */
+    public Map<String, Long> getExceptionCounts()
+    {
+        return exceptionCounts;
+    }
+
+
+    @Override
+    public String toString()
+    {
+        return "OperationStats[" + target + (objectIdPrefix != null ? "[" + objectIdPrefix + "]" : "") + "::" + operation + ", count=" + count + ", p50=" + p50Micros
+            + "us, p99=" + p99Micros + "us, max=" + maxMicros + "us, exceptions=" + exceptionCounts + "]";
+    }
+
+}
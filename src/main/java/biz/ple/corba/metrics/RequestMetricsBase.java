@@ -0,0 +1,144 @@
+package biz.ple.corba.metrics;
+
+import java.util.List;
+
+import javax.management.ObjectName;
+
+import org.omg.CORBA.Any;
+import org.omg.CORBA.TCKind;
+import org.omg.PortableInterceptor.InvalidSlot;
+import org.omg.PortableInterceptor.RequestInfo;
+
+import biz.ple.corba.beans.OrbBean;
+
+
+/**
+ * Common part of {@link ClientInvocationMetrics} and {@link ServerRequestMetrics}: the start time of each
+ * request in a Portable Interceptor Current slot, the totals over all operations and the registration with
+ * the platform MBean server.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+abstract class RequestMetricsBase {
+
+    /** Sets a slot, either of the PI Current or of the request scope (via the {@code ServerRequestInfo}). */
+    @FunctionalInterface
+    interface SlotSetter {
+
+        void set_slot(int id, Any data) throws InvalidSlot;
+
+    }
+
+
+    private final String mbeanType;
+    private OrbBean orbBean;
+    private ObjectName mbeanName;
+    /** The slot allocated for this interceptor. */
+    int slotId;
+
+
+    /**
+     * Constructor.
+     * @param mbeanType
+     *      The type under which the MXBean is registered.
+     */
+    RequestMetricsBase(String mbeanType)
+    {
+        this.mbeanType = mbeanType;
+    }
+
+
+    public void setOrb(OrbBean orbBean)
+    {
+        this.orbBean = orbBean;
+    }
+
+
+    public abstract List<OperationStats> getOperations();
+
+
+    public long getInvocationCount()
+    {
+        long total = 0L;
+        for (OperationStats stats: getOperations()) {
+            total += stats.getCount();
+        }
+        return total;
+    }
+
+
+    public long getExceptionCount()
+    {
+        long total = 0L;
+        for (OperationStats stats: getOperations()) {
+            total += stats.getExceptionCount();
+        }
+        return total;
+    }
+
+
+    /**
+     * Registers this object with the platform MBean server, as
+     * {@code biz.ple.corba:type=<simple class name>,name=<name>}, i.e. as {@code type=ClientInvocationMetrics}
+     * or {@code type=ServerRequestMetrics}. Failures are logged, not thrown.
+     */
+    public synchronized void registerMBean(String name)
+    {
+        if (mbeanName == null) {
+            mbeanName = MBeans.register(this, mbeanType, name);
+        }
+    }
+
+
+    /**
+     * Unregisters this object from the platform MBean server, if registered.
+     */
+    public synchronized void unregisterMBean()
+    {
+        if (mbeanName != null) {
+            MBeans.unregister(mbeanName);
+            mbeanName = null;
+        }
+    }
+
+
+    /**
+     * Stores the current time as the start time of a request in the slot allocated for this interceptor.
+     */
+    void recordStart(SlotSetter slots)
+    {
+        Any start = orbBean.createAny();
+        start.insert_longlong(System.nanoTime());
+        try {
+            slots.set_slot(slotId, start);
+        }
+        catch (InvalidSlot ivs) {
+            // Cannot happen; the slot has been allocated for this interceptor
+        }
+    }
+
+
+    /**
+     * Returns the nanoseconds elapsed since {@link #recordStart(SlotSetter)} for a request.
+     * @return
+     *      The elapsed time; negative if no start time has been recorded for the request, e.g. because an
+     *      earlier interceptor failed.
+     */
+    long elapsedNanos(RequestInfo ri)
+    {
+        long end = System.nanoTime();
+        Any start;
+        try {
+            start = ri.get_slot(slotId);
+        }
+        catch (InvalidSlot ivs) {
+            return -1L;
+        }
+        if (start == null || start.type().kind() != TCKind.tk_longlong) {
+            return -1L;
+        }
+        return end - start.extract_longlong();
+    }
+
+}
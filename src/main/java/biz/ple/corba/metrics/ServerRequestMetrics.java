@@ -0,0 +1,365 @@
+package biz.ple.corba.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.omg.CORBA.Any;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.TypeCodePackage.BadKind;
+import org.omg.PortableInterceptor.Current;
+import org.omg.PortableInterceptor.ForwardRequest;
+import org.omg.PortableInterceptor.ServerRequestInfo;
+
+import biz.ple.corba.annotations.CorbaServerInterceptor;
+import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.interfaces.PICurrentInjectable;
+import biz.ple.corba.interfaces.StandaloneServerRequestInterceptor;
+
+
+/**
+ * <p>A Server Request Interceptor which records the latency of every request processed by the ORB, per POA,
+ * (optionally) object id prefix and operation, in striped {@link LatencyHistogram}s, and counts the exceptions
+ * by kind. Enabled via {@link OrbBean#setServerMetricsEnabled(boolean)} and obtained via
+ * {@link OrbBean#getServerMetrics()}; it can also be registered like any other interceptor, e.g. by annotating
+ * a subclass with {@link CorbaServerInterceptor @CorbaServerInterceptor}.</p>
+ * <p>The latency is measured from {@code receive_request_service_contexts} to {@code send_reply},
+ * {@code send_exception} or {@code send_other}, i.e. it includes the time a request spends in the POA and
+ * servant manager, but not in the request queue. The start time is kept in a Portable Interceptor Current slot
+ * of the request.</p>
+ * <p>With an {@link #setObjectIdPrefixLength(int) object id prefix length}, the metrics of each POA are broken
+ * down further by the leading bytes of the object ids, e.g. by the type tag of composite ids (see
+ * {@link biz.ple.corba.util.CorbaObjectId}); to bound the memory used, requests for new combinations beyond
+ * {@link #setMaxKeys(int) maxKeys} are recorded under an overflow entry (target and operation {@code "*"}).</p>
+ * <p>Counters and histograms are lock-free and striped, so that concurrent request processor threads rarely
+ * update the same counter. If {@link #setEnabled(boolean) disabled}, each interception point costs one
+ * volatile read.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class ServerRequestMetrics extends RequestMetricsBase
+                                  implements StandaloneServerRequestInterceptor, PICurrentInjectable,
+                                             ServerRequestMetricsMXBean {
+
+    private static final String OVERFLOW = "*";
+
+    private final ConcurrentMap<String, ConcurrentMap<String, ConcurrentMap<String, OperationMetrics>>> metrics =
+        new ConcurrentHashMap<>();
+    private final AtomicInteger keyCount = new AtomicInteger();
+    private final int stripes;
+    private volatile OperationMetrics overflow;
+    private volatile boolean enabled = true;
+    private volatile int objectIdPrefixLength = 0;
+    private volatile int maxKeys = 10000;
+
+
+    /**
+     * Constructor; the histograms have one stripe per available processor (up to 16).
+     */
+    public ServerRequestMetrics()
+    {
+        this(Math.min(Runtime.getRuntime().availableProcessors(), 16));
+    }
+
+
+    /**
+     * Constructor.
+     * @param stripes
+     *      The number of stripes of each latency histogram; more stripes mean less contention between request
+     *      processor threads, but about 10 KB of memory per stripe and operation.
+     */
+    public ServerRequestMetrics(int stripes)
+    {
+        super("ServerRequestMetrics");
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Number of stripes must be positive.");
+        }
+        this.stripes = stripes;
+        this.overflow = new OperationMetrics(OVERFLOW, null, OVERFLOW, stripes);
+    }
+
+
+    @Override
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+
+    /**
+     * Switches the recording of requests on or off (default: on). Requests in progress when recording is
+     * switched on are not recorded.
+     */
+    @Override
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+
+    @Override
+    public int getObjectIdPrefixLength()
+    {
+        return objectIdPrefixLength;
+    }
+
+
+    /**
+     * Sets the number of leading object id bytes by which the metrics of each POA are broken down (default: 0,
+     * i.e. not broken down). Takes effect for subsequent requests; consider {@link #reset() resetting} the
+     * metrics after changing it.
+     */
+    public void setObjectIdPrefixLength(int length)
+    {
+        if (length < 0) {
+            throw new IllegalArgumentException("Object id prefix length may not be negative.");
+        }
+        this.objectIdPrefixLength = length;
+    }
+
+
+    /**
+     * Sets the maximum number of distinct (POA, object id prefix, operation) combinations recorded separately
+     * (default: 10000).
+     */
+    public void setMaxKeys(int maxKeys)
+    {
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("Maximum number of keys must be positive.");
+        }
+        this.maxKeys = maxKeys;
+    }
+
+
+    @Override
+    public void setPortableInterceptorCurrent(Current current, int slotId)
+    {
+        // The start time is set in the request scope slot via the ServerRequestInfo
+        this.slotId = slotId;
+    }
+
+
+    @Override
+    public String name()
+    {
+        return "corbaBeans.ServerRequestMetrics";
+    }
+
+
+    @Override
+    public void destroy()
+    {
+        unregisterMBean();
+    }
+
+
+    @Override
+    public void receive_request_service_contexts(ServerRequestInfo ri) throws ForwardRequest
+    {
+        if (!enabled) {
+            return;
+        }
+        recordStart(ri::set_slot);
+    }
+
+
+    @Override
+    public void receive_request(ServerRequestInfo ri) throws ForwardRequest
+    {
+        // Timed from receive_request_service_contexts()
+    }
+
+
+    @Override
+    public void send_reply(ServerRequestInfo ri)
+    {
+        if (enabled) {
+            requestCompleted(ri, false);
+        }
+    }
+
+
+    @Override
+    public void send_exception(ServerRequestInfo ri) throws ForwardRequest
+    {
+        if (enabled) {
+            requestCompleted(ri, true);
+        }
+    }
+
+
+    @Override
+    public void send_other(ServerRequestInfo ri) throws ForwardRequest
+    {
+        if (enabled) {
+            requestCompleted(ri, false);
+        }
+    }
+
+
+    @Override
+    public List<OperationStats> getOperations()
+    {
+        List<OperationStats> result = new ArrayList<>();
+        for (Map<String, ConcurrentMap<String, OperationMetrics>> prefixes: metrics.values()) {
+            for (Map<String, OperationMetrics> ops: prefixes.values()) {
+                for (OperationMetrics op: ops.values()) {
+                    result.add(op.stats());
+                }
+            }
+        }
+        OperationStats overflowStats = overflow.stats();
+        if (overflowStats.getCount() > 0L) {
+            result.add(overflowStats);
+        }
+        return result;
+    }
+
+
+    /**
+     * Returns the latencies of an operation.
+     * @param poaName
+     *      The name of the POA, i.e. the names of the POAs on its path from the Root POA (excluded),
+     *      separated by slashes.
+     * @param objectIdPrefix
+     *      The object id prefix as returned by {@link OperationStats#getObjectIdPrefix()}; {@code null} if the
+     *      metrics are not broken down by object id.
+     * @param operation
+     *      The name of the operation.
+     * @return
+     *      A snapshot of the operation's latency histogram; {@code null} if no such request has been recorded.
+     */
+    public LatencyHistogram.Snapshot getLatencies(String poaName, String objectIdPrefix, String operation)
+    {
+        Map<String, ConcurrentMap<String, OperationMetrics>> prefixes = metrics.get(poaName);
+        Map<String, OperationMetrics> ops = prefixes != null ? prefixes.get(objectIdPrefix != null ? objectIdPrefix : "") : null;
+        OperationMetrics op = ops != null ? ops.get(operation) : null;
+        return op != null ? op.latencySnapshot() : null;
+    }
+
+
+    @Override
+    public void reset()
+    {
+        metrics.clear();
+        keyCount.set(0);
+        overflow = new OperationMetrics(OVERFLOW, null, OVERFLOW, stripes);
+    }
+
+
+    private void requestCompleted(ServerRequestInfo ri, boolean exception)
+    {
+        long nanos = elapsedNanos(ri);
+        if (nanos < 0L) {
+            // Not started while enabled, or an earlier interceptor failed
+            return;
+        }
+        OperationMetrics op = operationMetrics(poaName(ri), objectIdPrefix(ri), ri.operation());
+        if (exception) {
+            op.recordException(nanos, exceptionId(ri));
+        }
+        else {
+            op.recordReply(nanos);
+        }
+    }
+
+
+    private OperationMetrics operationMetrics(String poaName, String prefix, String operation)
+    {
+        ConcurrentMap<String, ConcurrentMap<String, OperationMetrics>> prefixes = metrics.get(poaName);
+        if (prefixes != null) {
+            ConcurrentMap<String, OperationMetrics> ops = prefixes.get(prefix);
+            if (ops != null) {
+                OperationMetrics op = ops.get(operation);
+                if (op != null) {
+                    return op;
+                }
+            }
+        }
+        if (keyCount.get() >= maxKeys) {
+            return overflow;
+        }
+        ConcurrentMap<String, OperationMetrics> ops = metrics.computeIfAbsent(poaName, n -> new ConcurrentHashMap<>())
+                                                             .computeIfAbsent(prefix, p -> new ConcurrentHashMap<>());
+        return ops.computeIfAbsent(operation, name -> {
+            keyCount.incrementAndGet();
+            return new OperationMetrics(poaName, prefix.isEmpty() ? null : prefix, name, stripes);
+        });
+    }
+
+
+    private static String poaName(ServerRequestInfo ri)
+    {
+        String[] path;
+        try {
+            path = ri.adapter_name();
+        }
+        catch (SystemException sx) {
+            return "?";
+        }
+        // The first element is the Root POA
+        int first = path.length > 1 ? 1 : 0;
+        if (path.length - first == 1) {
+            return path[first];
+        }
+        StringBuilder name = new StringBuilder();
+        for (int k = first; k < path.length; ++k) {
+            if (k > first) {
+                name.append('/');
+            }
+            name.append(path[k]);
+        }
+        return name.toString();
+    }
+
+
+    private String objectIdPrefix(ServerRequestInfo ri)
+    {
+        int length = objectIdPrefixLength;
+        if (length == 0) {
+            return "";
+        }
+        byte[] oid;
+        try {
+            oid = ri.object_id();
+        }
+        catch (SystemException sx) {
+            return "?";
+        }
+        return printable(oid, Math.min(length, oid.length));
+    }
+
+
+    /** Renders printable ASCII bytes as characters, others as {@code \xx}. */
+    static String printable(byte[] bytes, int length)
+    {
+        StringBuilder result = new StringBuilder(length);
+        for (int k = 0; k < length; ++k) {
+            int b = bytes[k] & 0xff;
+            if (b >= 0x20 && b < 0x7f && b != '\\') {
+                result.append((char) b);
+            }
+            else {
+                result.append('\\').append(Character.forDigit(b >> 4, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+        }
+        return result.toString();
+    }
+
+
+    private static String exceptionId(ServerRequestInfo ri)
+    {
+        try {
+            Any exception = ri.sending_exception();
+            return exception != null ? exception.type().id() : null;
+        }
+        catch (BadKind | SystemException xcp) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,21 @@
+package biz.ple.corba.metrics;
+
+
+/**
+ * The management interface of the request metrics collected by {@link ServerRequestMetrics}.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public interface ServerRequestMetricsMXBean extends InvocationMetricsMXBean {
+
+    /** Returns {@code true} if requests are currently being recorded. */
+    boolean isEnabled();
+
+    /** Switches the recording of requests on or off. */
+    void setEnabled(boolean enabled);
+
+    /** Returns the number of leading object id bytes the metrics are broken down by; 0 if not broken down. */
+    int getObjectIdPrefixLength();
+
+}
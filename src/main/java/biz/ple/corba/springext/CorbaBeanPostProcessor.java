@@ -7,6 +7,7 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import org.omg.CosNaming.NamingContextPackage.CannotProceed;
 import org.omg.PortableInterceptor.ClientRequestInterceptor;
@@ -14,14 +15,18 @@ import org.omg.PortableInterceptor.ServerRequestInterceptor;
 import org.omg.PortableServer.Servant;
 import org.omg.PortableServer.ServantActivator;
 import org.omg.PortableServer.ServantLocator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.support.BeanDefinitionValidationException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import biz.ple.corba.annotations.CorbaAsync;
 import biz.ple.corba.annotations.CorbaClientInterceptor;
 import biz.ple.corba.annotations.CorbaDefaultServant;
 import biz.ple.corba.annotations.CorbaRef;
@@ -34,6 +39,7 @@ import biz.ple.corba.beans.NamedReferenceLookup;
 import biz.ple.corba.beans.NamingContextBean;
 import biz.ple.corba.beans.OrbBean;
 import biz.ple.corba.beans.ServiceContextDefinition;
+import biz.ple.corba.beans.server.NameServicePublisher;
 import biz.ple.corba.beans.server.NamedServantObject;
 import biz.ple.corba.beans.server.PoaBean;
 import biz.ple.corba.interfaces.PICurrentInjectable;
@@ -41,7 +47,10 @@ import biz.ple.corba.interfaces.ServiceContextPropagatingClientRequestIntercepto
 import biz.ple.corba.interfaces.ServiceContextPropagatingServerRequestInterceptor;
 
 
-public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware {
+public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationContextAware, SmartInitializingSingleton {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CorbaBeanPostProcessor.class);
+
 
     private static class ServantMgrRec {
 
@@ -98,6 +107,67 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
 
     private ApplicationContext appCtx;
 
+    private boolean deferredRefResolution = false;
+    private int refResolutionThreads = 8;
+    private boolean singletonsInstantiated = false;
+    private DeferredCorbaRefResolver deferredRefs = new DeferredCorbaRefResolver();
+    private NameServicePublisher nsPublisher;
+
+
+    /**
+     * <p>Switches deferred, bulk resolution of {@link CorbaRef @CorbaRef} annotated fields and setter methods
+     * on or off (default: off).</p>
+     * <p>By default, each reference is resolved while its bean is post-processed, walking the complete COS Naming
+     * path for every single reference. In deferred mode, the injection points of all singleton beans are collected
+     * first. Once all singletons have been instantiated, each naming context on the collected paths is resolved
+     * exactly once, the references are looked up and narrowed in parallel (see {@link #setRefResolutionThreads(int)}),
+     * and the results are injected. This speeds up the startup of clients with many references considerably,
+     * particularly with a remote Name Service.</p>
+     * <p><b>Note:</b> in deferred mode, {@code @CorbaRef} fields and setters of singleton beans have not been
+     * injected yet when the beans' init-methods run. Beans created after startup (e.g. prototypes) are injected
+     * immediately.</p>
+     * @param deferred
+     *      {@code true} to resolve references in bulk after all singletons have been instantiated.
+     */
+    public void setDeferredRefResolution(boolean deferred)
+    {
+        this.deferredRefResolution = deferred;
+    }
+
+
+    /**
+     * Sets the maximum number of concurrent Name Service requests in {@link #setDeferredRefResolution(boolean)
+     * deferred resolution} mode (default: 8).
+     * @param threads
+     *      The number of threads used to resolve references; must be positive.
+     */
+    public void setRefResolutionThreads(int threads)
+    {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Number of reference resolution threads must be positive.");
+        }
+        this.refResolutionThreads = threads;
+    }
+
+
+    /**
+     * <p>Sets a {@link NameServicePublisher} which publishes the object references of all {@link CorbaServant @CorbaServant}
+     * beans in the Naming Service once all singletons have been instantiated, in parallel and with retries, instead
+     * of one blocking {@code rebind()} per servant while its bean is initialized (default: none).</p>
+     * <p>Publication runs in the background; when it has completed, a {@link NameServicePublicationEvent} is
+     * published in the application context (unless a binding failed with an {@code Error}, which is logged), and
+     * the publisher's {@link NameServicePublisher#getPublication()
+     * future} is completed. {@code NamedServantObject}s declared as beans of their own can use the same publisher
+     * via {@link NamedServantObject#setPublisher(NameServicePublisher)}.</p>
+     * @param publisher
+     *      The publisher; {@code null} to bind references synchronously.
+     * @since 1.4.0
+     */
+    public void setNameServicePublisher(NameServicePublisher publisher)
+    {
+        this.nsPublisher = publisher;
+    }
+
 
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName)
@@ -205,7 +275,12 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
             List<Method> corbaSetters = new LinkedList<>();
             List<Field> corbaFields = new LinkedList<>();
             if (isCorbaRefAnnotated(beanName, bean, corbaSetters, corbaFields)) {
-                injectCorbaRefs(beanName, bean, corbaSetters, corbaFields);
+                if (deferredRefResolution && !singletonsInstantiated) {
+                    deferCorbaRefs(beanName, bean, corbaSetters, corbaFields);
+                }
+                else {
+                    injectCorbaRefs(beanName, bean, corbaSetters, corbaFields);
+                }
             }
         }
         return bean;
@@ -220,6 +295,43 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
     }
 
 
+    @Override
+    public void afterSingletonsInstantiated()
+    {
+        singletonsInstantiated = true;
+        if (nsPublisher != null) {
+            NameServicePublisher publisher = nsPublisher;
+            publisher.publish().whenComplete((report, failure) -> {
+                if (failure != null) {
+                    LOG.error("Publication of object references in the Naming Service failed.", failure);
+                }
+                else {
+                    appCtx.publishEvent(new NameServicePublicationEvent(publisher, report));
+                }
+            });
+        }
+        if (deferredRefs.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        for (DeferredCorbaRefResolver.InjectionPoint ip: deferredRefs.resolveAll(refResolutionThreads)) {
+            if (ip.resolved == null && !ip.refInfo.optional()) {
+                throw new BeanInitializationException("COS Naming lookup failed for " + ip.describe() + ".");
+            }
+            if (ip.setter != null) {
+                Object obj = adaptCorbaRef(ip.setter.getParameterTypes()[0], ip.refInfo, ip.resolved);
+                invokeCorbaRefSetter(ip.beanName, ip.bean, ip.setter, obj);
+            }
+            else {
+                assignCorbaRefField(ip.beanName, ip.bean, ip.field, adaptCorbaRef(ip.field.getType(), ip.refInfo, ip.resolved));
+            }
+        }
+        LOG.info("Resolved {} @CorbaRef injection points ({} naming contexts) in {} ms.",
+                 deferredRefs.size(), deferredRefs.contextCount(), (System.nanoTime() - start) / 1000000L);
+        deferredRefs = new DeferredCorbaRefResolver();
+    }
+
+
     private Object makeNamedServantObject(String beanName, Object bean, CorbaServant ts)
         throws BeansException
     {
@@ -245,7 +357,10 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
         // Create an appropriate NamedServantObject with the data from the annotation; this will be the actual Spring bean
         try {
             // Note that null is a perfectly legal value for the tieClass constructor argument
-            NamedServantObject namedServant = new NamedServantObject(reqPoa, ts.tieClass(), bean, ctxBean, corbaName);
+            Class<?> tieClass = ts.tieClass() != Void.class ? ts.tieClass() : null;
+            NamedServantObject namedServant = new NamedServantObject(reqPoa, tieClass, bean, ctxBean, corbaName);
+            namedServant.setLazy(ts.lazy());
+            namedServant.setPublisher(nsPublisher);
             if (ts.userObjectId().trim().isEmpty()) {
                 namedServant.setUserObjectId(ts.userObjectId().trim().getBytes());
             }
@@ -279,10 +394,11 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
                         meth.getName() + "() in bean '" + beanName + "' has " + meth.getParameterCount() + ".");
                 }
                 Parameter param = meth.getParameters()[0];
-                if (!org.omg.CORBA.Object.class.isAssignableFrom(param.getType())) {
+                if (!isCorbaRefType(param.getType())) {
                     throw new BeanDefinitionValidationException(
                         "The type of the (only) parameter of a method annotated with @CorbaRef must be a subtype of " +
-                        "org.omg.CORBA.Object, but it is of type " + param.getType().getClass() + " in method " +
+                        "org.omg.CORBA.Object or an interface annotated with @CorbaAsync, but it is of type " +
+                        param.getType().getName() + " in method " +
                         meth.getName() + "() of bean '" + beanName + "'.");
                 }
                 corbaSetters.add(meth);
@@ -293,10 +409,11 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
         // Check fields for the @CorbaRef annotation
         for (Field fld: beanClass.getDeclaredFields()) {
             if (fld.isAnnotationPresent(CorbaRef.class)) {
-                if (!org.omg.CORBA.Object.class.isAssignableFrom(fld.getType())) {
+                if (!isCorbaRefType(fld.getType())) {
                     throw new BeanDefinitionValidationException(
-                        "The type of a field annotated with @CorbaRef must be a subtype of org.omg.CORBA.Object, but the type " +
-                        "of field " + fld.getName() + " in bean '" + beanName + "' is not.");
+                        "The type of a field annotated with @CorbaRef must be a subtype of org.omg.CORBA.Object or an " +
+                        "interface annotated with @CorbaAsync, but the type of field " + fld.getName() + " in bean '" +
+                        beanName + "' is neither.");
                 }
                 corbaFields.add(fld);
                 result = true;
@@ -307,10 +424,57 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
     }
 
 
-    private <T> T resolveCorbaRef(CorbaRef refInfo, Class<T> refType)
+    private static boolean isCorbaRefType(Class<?> type)
+    {
+        return org.omg.CORBA.Object.class.isAssignableFrom(type) || (type.isInterface() && type.isAnnotationPresent(CorbaAsync.class));
+    }
+
+
+    /**
+     * Returns the type a {@code @CorbaRef} reference is looked up as: the IDL interface of an asynchronous
+     * interface, otherwise the type of the field or parameter itself.
+     */
+    private static Class<?> lookupType(Class<?> refType)
+    {
+        CorbaAsync async = refType.getAnnotation(CorbaAsync.class);
+        return async != null ? async.value() : refType;
+    }
+
+
+    /**
+     * Wraps a resolved reference in an asynchronous proxy if the field or parameter is of an interface
+     * annotated with {@link CorbaAsync @CorbaAsync}, using the {@link OrbBean} the reference belongs to.
+     */
+    private Object adaptCorbaRef(Class<?> refType, CorbaRef refInfo, Object obj)
+        throws BeansException
+    {
+        if (obj == null || !refType.isAnnotationPresent(CorbaAsync.class)) {
+            return obj;
+        }
+        org.omg.CORBA.ORB refOrb = ((org.omg.CORBA.portable.ObjectImpl) obj)._orb();
+        for (OrbBean orbBean: appCtx.getBeansOfType(OrbBean.class).values()) {
+            if (orbBean.getORB() == refOrb) {
+                try {
+                    if (refInfo.executor().isEmpty()) {
+                        return orbBean.getAsyncProxyFactory().createProxy((org.omg.CORBA.Object) obj, refType);
+                    }
+                    Executor executor = appCtx.getBean(refInfo.executor(), Executor.class);
+                    return orbBean.getAsyncProxyFactory().createProxy((org.omg.CORBA.Object) obj, refType, executor);
+                }
+                catch (IllegalArgumentException | IllegalStateException xcp) {
+                    throw new BeanInitializationException("Could not create an asynchronous proxy of type " +
+                                                          refType.getName() + ".", xcp);
+                }
+            }
+        }
+        throw new BeanInitializationException("No ORB bean found for the reference to be wrapped in an asynchronous " +
+                                              "proxy of type " + refType.getName() + ".");
+    }
+
+
+    private NamingContextBean getStartingContext(CorbaRef refInfo)
         throws BeansException
     {
-        // Obtain the starting context for the lookup
         NamingContextBean ctxBean = null;
         if (refInfo.rootCtxBean() != null && refInfo.rootCtxBean().length() > 0) {
             ctxBean = appCtx.getBean(refInfo.rootCtxBean(), NamingContextBean.class);
@@ -331,6 +495,15 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
                 throw new BeanInitializationException("No starting naming context given and no (unique) ORB bean found.", nbd);
             }
         }
+        return ctxBean;
+    }
+
+
+    private <T> T resolveCorbaRef(CorbaRef refInfo, Class<T> refType)
+        throws BeansException
+    {
+        // Obtain the starting context for the lookup
+        NamingContextBean ctxBean = getStartingContext(refInfo);
         // Lop off the (last) name from the COS Naming Path given in the annotation
         String path = null, name = null, fullPath = refInfo.cosNamingPath();
         int lastSlashPos = fullPath.lastIndexOf('/');
@@ -659,37 +832,69 @@ public class CorbaBeanPostProcessor implements BeanPostProcessor, ApplicationCon
             // Resolve the object (reference) specified by the annotation
             CorbaRef ref = setter.getAnnotation(CorbaRef.class);
             Class<?> refType = setter.getParameterTypes()[0];
-            Object obj = resolveCorbaRef(ref, refType);
+            Object obj = resolveCorbaRef(ref, lookupType(refType));
             if (obj == null && !ref.optional()) {
                 throw new BeanInitializationException("COS Naming lookup failed for setter method " + setter.getName() +
                                                       "() on bean '" + beanName + "'.");
             }
+            obj = adaptCorbaRef(refType, ref, obj);
             // Immediately invoke the setter method with the resolved object as argument
-            setter.setAccessible(true);
-            try {
-                setter.invoke(bean, obj);
-            }
-            catch (Exception xcp) {
-                throw new BeanInitializationException("Could not invoke setter method " + setter.getName() + "() of bean '" + beanName + "'.", xcp);
-            }
+            invokeCorbaRefSetter(beanName, bean, setter, obj);
         }
         for (Field fld: corbaFields) {
             // Resolve the object (reference) specified by the annotation
             CorbaRef ref = fld.getAnnotation(CorbaRef.class);
             Class<?> refType = fld.getType();
-            Object obj = resolveCorbaRef(ref, refType);
+            Object obj = resolveCorbaRef(ref, lookupType(refType));
             if (obj == null && !ref.optional()) {
                 throw new BeanInitializationException("COS Naming lookup failed for field '" + fld.getName() +
                                                       "' of bean '" + beanName + "'.");
             }
+            obj = adaptCorbaRef(refType, ref, obj);
             // Immediately assign the resolved reference to the field
-            fld.setAccessible(true);
-            try {
-                fld.set(bean, obj);
-            }
-            catch (Exception xcp) {
-                throw new BeanInitializationException("Could not assign field '" + fld.getName() + "' of bean '" + beanName + "'.", xcp);
-            }
+            assignCorbaRefField(beanName, bean, fld, obj);
+        }
+    }
+
+
+    private void deferCorbaRefs(String beanName, Object bean, List<Method> corbaSetters, List<Field> corbaFields)
+        throws BeansException
+    {
+        for (Method setter: corbaSetters) {
+            CorbaRef ref = setter.getAnnotation(CorbaRef.class);
+            deferredRefs.add(new DeferredCorbaRefResolver.InjectionPoint(
+                beanName, bean, setter, null, ref, lookupType(setter.getParameterTypes()[0])), getStartingContext(ref).getNamingCtx());
+        }
+        for (Field fld: corbaFields) {
+            CorbaRef ref = fld.getAnnotation(CorbaRef.class);
+            deferredRefs.add(new DeferredCorbaRefResolver.InjectionPoint(
+                beanName, bean, null, fld, ref, lookupType(fld.getType())), getStartingContext(ref).getNamingCtx());
+        }
+    }
+
+
+    private void invokeCorbaRefSetter(String beanName, Object bean, Method setter, Object obj)
+        throws BeansException
+    {
+        setter.setAccessible(true);
+        try {
+            setter.invoke(bean, obj);
+        }
+        catch (Exception xcp) {
+            throw new BeanInitializationException("Could not invoke setter method " + setter.getName() + "() of bean '" + beanName + "'.", xcp);
+        }
+    }
+
+
+    private void assignCorbaRefField(String beanName, Object bean, Field fld, Object obj)
+        throws BeansException
+    {
+        fld.setAccessible(true);
+        try {
+            fld.set(bean, obj);
+        }
+        catch (Exception xcp) {
+            throw new BeanInitializationException("Could not assign field '" + fld.getName() + "' of bean '" + beanName + "'.", xcp);
         }
     }
 
@@ -0,0 +1,298 @@
+package biz.ple.corba.springext;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.omg.CORBA.BAD_PARAM;
+import org.omg.CosNaming.NamingContextExt;
+import org.omg.CosNaming.NamingContextExtHelper;
+import org.omg.CosNaming.NamingContextPackage.CannotProceed;
+import org.omg.CosNaming.NamingContextPackage.InvalidName;
+import org.omg.CosNaming.NamingContextPackage.NotFound;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanInitializationException;
+
+import biz.ple.corba.annotations.CorbaRef;
+import biz.ple.corba.util.HelperAccess;
+
+
+/**
+ * Collects {@link CorbaRef @CorbaRef} injection points during bean post processing and resolves them
+ * in bulk: every naming context on the paths of all collected references is resolved exactly once,
+ * level by level, and the references themselves are then looked up and narrowed in parallel on a
+ * bounded thread pool. Used by the {@link CorbaBeanPostProcessor} in deferred resolution mode.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+class DeferredCorbaRefResolver {
+
+    /** A field or setter method annotated with {@code @CorbaRef}, and the reference resolved for it. */
+    static class InjectionPoint {
+
+        final String beanName;
+        final Object bean;
+        final Method setter;
+        final Field field;
+        final CorbaRef refInfo;
+        final Class<?> refType;
+        ContextKey ctxKey;
+        String name;
+        Object resolved;
+
+        InjectionPoint(String beanName, Object bean, Method setter, Field field, CorbaRef refInfo, Class<?> refType)
+        {
+            this.beanName = beanName;
+            this.bean = bean;
+            this.setter = setter;
+            this.field = field;
+            this.refInfo = refInfo;
+            this.refType = refType;
+        }
+
+        String describe()
+        {
+            return setter != null ? "setter method " + setter.getName() + "() on bean '" + beanName + "'"
+                                  : "field '" + field.getName() + "' of bean '" + beanName + "'";
+        }
+
+    }
+
+
+    /** Identifies a naming context by the (identity of the) starting context and the path from there. */
+    private static final class ContextKey {
+
+        final NamingContextExt root;
+        final String path;
+        final ContextKey parent;
+        final String component;
+        final int depth;
+
+        ContextKey(NamingContextExt root, ContextKey parent, String component)
+        {
+            this.root = root;
+            this.parent = parent;
+            this.component = component;
+            this.path = parent == null ? "" : (parent.path.isEmpty() ? component : parent.path + "/" + component);
+            this.depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (!(other instanceof ContextKey)) {
+                return false;
+            }
+            ContextKey key = (ContextKey) other;
+            return root == key.root && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System.identityHashCode(root) + path.hashCode();
+        }
+
+    }
+
+
+    private final List<InjectionPoint> pending = new ArrayList<>();
+    private final Map<ContextKey, ContextKey> contextKeys = new HashMap<>();
+
+
+    /**
+     * Registers an injection point for deferred resolution.
+     * @param ip
+     *      The injection point.
+     * @param startCtx
+     *      The naming context the {@code @CorbaRef} path is relative to.
+     */
+    void add(InjectionPoint ip, NamingContextExt startCtx)
+    {
+        ContextKey key = intern(new ContextKey(startCtx, null, null));
+        String fullPath = ip.refInfo.cosNamingPath();
+        int lastSlashPos = fullPath.lastIndexOf('/');
+        if (lastSlashPos > -1) {
+            for (String elem: fullPath.substring(0, lastSlashPos).split("/")) {
+                if (elem.trim().length() > 0) {
+                    key = intern(new ContextKey(startCtx, key, elem));
+                }
+            }
+        }
+        ip.ctxKey = key;
+        ip.name = fullPath.substring(lastSlashPos + 1);
+        pending.add(ip);
+    }
+
+
+    boolean isEmpty()
+    {
+        return pending.isEmpty();
+    }
+
+
+    int size()
+    {
+        return pending.size();
+    }
+
+
+    int contextCount()
+    {
+        return contextKeys.size();
+    }
+
+
+    /**
+     * Resolves all registered injection points; afterwards, {@link InjectionPoint#resolved} holds the
+     * narrowed reference, or {@code null} if the name or a naming context on its path does not exist.
+     * @param threads
+     *      The maximum number of concurrent Naming Service requests.
+     * @return
+     *      The injection points, in registration order.
+     */
+    List<InjectionPoint> resolveAll(int threads)
+        throws BeansException
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new ResolverThreadFactory());
+        try {
+            // Resolve the naming contexts level by level, so that each shared prefix is resolved only once
+            Map<ContextKey, NamingContextExt> contexts = new HashMap<>();
+            TreeMap<Integer, List<ContextKey>> byDepth = new TreeMap<>();
+            for (ContextKey key: contextKeys.keySet()) {
+                if (key.depth == 0) {
+                    contexts.put(key, key.root);
+                }
+                else {
+                    byDepth.computeIfAbsent(key.depth, d -> new ArrayList<>()).add(key);
+                }
+            }
+            for (List<ContextKey> level: byDepth.values()) {
+                Map<ContextKey, CompletableFuture<NamingContextExt>> results = new LinkedHashMap<>();
+                for (ContextKey key: level) {
+                    NamingContextExt parentCtx = contexts.get(key.parent);
+                    results.put(key, CompletableFuture.supplyAsync(() -> resolveContext(parentCtx, key), pool));
+                }
+                for (Map.Entry<ContextKey, CompletableFuture<NamingContextExt>> entry: results.entrySet()) {
+                    contexts.put(entry.getKey(), join(entry.getValue()));
+                }
+            }
+
+            // Look up and narrow the references
+            List<CompletableFuture<Object>> lookups = new ArrayList<>(pending.size());
+            for (InjectionPoint ip: pending) {
+                NamingContextExt ctx = contexts.get(ip.ctxKey);
+                lookups.add(CompletableFuture.supplyAsync(() -> lookup(ctx, ip), pool));
+            }
+            for (int k = 0; k < pending.size(); ++k) {
+                pending.get(k).resolved = join(lookups.get(k));
+            }
+            return pending;
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    private ContextKey intern(ContextKey key)
+    {
+        ContextKey existing = contextKeys.putIfAbsent(key, key);
+        return existing != null ? existing : key;
+    }
+
+
+    private static NamingContextExt resolveContext(NamingContextExt parentCtx, ContextKey key)
+    {
+        if (parentCtx == null) {
+            return null;
+        }
+        try {
+            return NamingContextExtHelper.narrow(parentCtx.resolve_str(key.component));
+        }
+        catch (NotFound nfe) {
+            return null;
+        }
+        catch (InvalidName ivn) {
+            throw new IllegalArgumentException("The string '" + key.component + "' is not a valid CORBA naming component.");
+        }
+        catch (BAD_PARAM bpe) {
+            throw new IllegalStateException("Node '" + key.path + "' on the naming path is not a NamingContext.");
+        }
+        catch (CannotProceed cnp) {
+            throw new BeanInitializationException("COS Naming lookup failed.", cnp);
+        }
+    }
+
+
+    private static Object lookup(NamingContextExt ctx, InjectionPoint ip)
+    {
+        if (ctx == null) {
+            return null;
+        }
+        org.omg.CORBA.Object obj;
+        try {
+            obj = ctx.resolve_str(ip.name);
+        }
+        catch (NotFound nfe) {
+            return null;
+        }
+        catch (InvalidName ivn) {
+            throw new IllegalArgumentException("The string '" + ip.name + "' is not a valid CosNaming name.");
+        }
+        catch (CannotProceed cnp) {
+            throw new BeanInitializationException("COS Naming lookup failed.", cnp);
+        }
+        try {
+            return HelperAccess.forInterface(ip.refType.asSubclass(org.omg.CORBA.Object.class)).narrow(obj);
+        }
+        catch (BAD_PARAM cbp) {
+            throw new BeanInitializationException("Object resolved in NamingContext could not be narrowed to " +
+                                                  ip.refType.getName() + " for " + ip.describe() + ".");
+        }
+    }
+
+
+    private static <T> T join(CompletableFuture<T> future)
+        throws BeansException
+    {
+        try {
+            return future.join();
+        }
+        catch (CompletionException cex) {
+            Throwable cause = cex.getCause();
+            if (cause instanceof BeansException) {
+                throw (BeansException) cause;
+            }
+            throw new BeanInitializationException("Deferred @CorbaRef resolution failed.", cause);
+        }
+    }
+
+
+    private static class ResolverThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, "CorbaRefResolver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
@@ -0,0 +1,36 @@
+package biz.ple.corba.springext;
+
+import org.springframework.context.ApplicationEvent;
+
+import biz.ple.corba.beans.server.NameServicePublisher;
+
+
+/**
+ * Published by the {@link CorbaBeanPostProcessor} when the {@link NameServicePublisher} set via
+ * {@link CorbaBeanPostProcessor#setNameServicePublisher(NameServicePublisher)} has published (or finally
+ * failed to publish) the object references of all servants initialized during startup. Note that the event
+ * is published on one of the publisher's threads.
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class NameServicePublicationEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient NameServicePublisher.Report report;
+
+
+    public NameServicePublicationEvent(NameServicePublisher publisher, NameServicePublisher.Report report)
+    {
+        super(publisher);
+        this.report = report;
+    }
+
+
+    public NameServicePublisher.Report getReport()
+    {
+        return report;
+    }
+
+}
@@ -0,0 +1,217 @@
+package biz.ple.corba.util;
+
+import java.util.Arrays;
+
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.OBJECT_NOT_EXIST;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.ServantLocatorPackage.CookieHolder;
+
+
+/**
+ * <p>Base class for Servant Locators which cache the servants (typically TIE objects) they create, so that
+ * a POA with the NON_RETAIN policy does not have to create a new servant for every request.</p>
+ * <ul>
+ *   <li>Servants are cached per object id. The cache is bounded; the least recently used servants are
+ *       evicted. Optionally, servants expire after a time-to-live.</li>
+ *   <li>Cache hits do not lock. The cache is split into segments, so that an eviction only scans and
+ *       locks one segment. Concurrent requests for the same uncached object create only one servant.</li>
+ *   <li>{@link #preinvoke(byte[], POA, String, CookieHolder) preinvoke()} passes the servant to
+ *       {@link #postinvoke(byte[], POA, String, Object, Servant) postinvoke()} via the cookie, so that the
+ *       servant returned by {@code preinvoke()} is handed to {@link #servantReleased(byte[], String, Servant)}
+ *       even if the POA passes a different object (e.g. a wrapper).</li>
+ * </ul>
+ * <p>Derived classes implement {@link #createServant(byte[], POA)}. Since a cached servant may serve
+ * several requests concurrently, it must be thread-safe (which TIE objects are if their delegates are).
+ * Servants of objects which have changed or ceased to exist should be removed via {@link #invalidate(byte[])}.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public abstract class CachingServantLocatorBase extends ServantLocatorBase {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int MIN_ENTRIES_PER_SEGMENT = 64;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final ExpiringCache<ObjectIdKey, Servant>[] segments;
+    private final int segmentMask;
+
+
+    /**
+     * Constructor; cached servants do not expire.
+     * @param maxServants
+     *      The maximum number of cached servants; must be positive.
+     */
+    protected CachingServantLocatorBase(int maxServants)
+    {
+        this(maxServants, 0L);
+    }
+
+
+    /**
+     * Constructor.
+     * @param maxServants
+     *      The maximum number of cached servants; must be positive.
+     * @param ttlMillis
+     *      The time-to-live of cached servants in milliseconds; if zero or negative, servants are only
+     *      removed from the cache when they are evicted or invalidated.
+     */
+    @SuppressWarnings("unchecked")
+    protected CachingServantLocatorBase(int maxServants, long ttlMillis)
+    {
+        if (maxServants <= 0) {
+            throw new IllegalArgumentException("Maximum number of cached servants must be positive.");
+        }
+        int count = 1;
+        while (count < MAX_SEGMENTS && maxServants / (count * 2) >= MIN_ENTRIES_PER_SEGMENT) {
+            count *= 2;
+        }
+        segments = new ExpiringCache[count];
+        for (int k = 0; k < count; ++k) {
+            segments[k] = new ExpiringCache<>(ttlMillis, 0L, (maxServants + count - 1) / count);
+        }
+        segmentMask = count - 1;
+    }
+
+
+    /**
+     * Creates the servant for an object on a cache miss.
+     * @param oid
+     *      The object id of the object; must not be modified or retained.
+     * @param adapter
+     *      The POA the request has been received by.
+     * @return
+     *      The servant; {@code null} if the object does not exist, in which case the request is answered
+     *      with {@code OBJECT_NOT_EXIST}.
+     * @throws ForwardRequest
+     *      to forward the request to another object (the result is not cached).
+     */
+    protected abstract Servant createServant(byte[] oid, POA adapter)
+        throws ForwardRequest;
+
+
+    /**
+     * Invoked by {@link #postinvoke(byte[], POA, String, Object, Servant) postinvoke()} with the servant
+     * returned by the corresponding {@link #preinvoke(byte[], POA, String, CookieHolder) preinvoke()}.
+     * Does nothing by default.
+     */
+    protected void servantReleased(byte[] oid, String operation, Servant servant)
+    {
+        // Nothing to do by default
+    }
+
+
+    @Override
+    public final Servant preinvoke(byte[] oid, POA adapter, String operation, CookieHolder cookie)
+        throws ForwardRequest
+    {
+        ObjectIdKey key = new ObjectIdKey(oid);
+        Servant servant;
+        try {
+            servant = segmentFor(key).get(key, k -> createServant(Arrays.copyOf(oid, oid.length), adapter));
+        }
+        catch (ForwardRequest | RuntimeException xcp) {
+            throw xcp;
+        }
+        catch (Exception xcp) {
+            throw new org.omg.CORBA.UNKNOWN("Servant creation failed: " + xcp);
+        }
+        if (servant == null) {
+            throw new OBJECT_NOT_EXIST(0, CompletionStatus.COMPLETED_NO);
+        }
+        cookie.value = servant;
+        return servant;
+    }
+
+
+    @Override
+    public final void postinvoke(byte[] oid, POA adapter, String operation, Object cookie, Servant servant)
+    {
+        servantReleased(oid, operation, cookie instanceof Servant ? (Servant) cookie : servant);
+    }
+
+
+    /**
+     * Removes the cached servant of an object; the next request for the object creates a new servant.
+     */
+    public void invalidate(byte[] oid)
+    {
+        ObjectIdKey key = new ObjectIdKey(oid);
+        segmentFor(key).invalidate(key);
+    }
+
+
+    /**
+     * Removes all cached servants.
+     */
+    public void invalidateAll()
+    {
+        for (ExpiringCache<ObjectIdKey, Servant> segment: segments) {
+            segment.invalidateAll();
+        }
+    }
+
+
+    /**
+     * Returns the number of cached servants.
+     */
+    public int getCachedServantCount()
+    {
+        int count = 0;
+        for (ExpiringCache<ObjectIdKey, Servant> segment: segments) {
+            count += segment.size();
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the number of requests served by a cached servant.
+     */
+    public long getHitCount()
+    {
+        long count = 0L;
+        for (ExpiringCache<ObjectIdKey, Servant> segment: segments) {
+            count += segment.getHitCount();
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the number of requests for which no cached servant was available (including expired servants).
+     */
+    public long getMissCount()
+    {
+        long count = 0L;
+        for (ExpiringCache<ObjectIdKey, Servant> segment: segments) {
+            count += segment.getMissCount();
+        }
+        return count;
+    }
+
+
+    /**
+     * Returns the number of servants evicted because the cache was full.
+     */
+    public long getEvictionCount()
+    {
+        long count = 0L;
+        for (ExpiringCache<ObjectIdKey, Servant> segment: segments) {
+            count += segment.getEvictionCount();
+        }
+        return count;
+    }
+
+
+    private ExpiringCache<ObjectIdKey, Servant> segmentFor(ObjectIdKey key)
+    {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+}
@@ -0,0 +1,149 @@
+package biz.ple.corba.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import org.omg.CORBA.Any;
+import org.omg.CORBA.TypeCode;
+import org.omg.CORBA.ORBPackage.InvalidName;
+import org.omg.IOP.Codec;
+import org.omg.IOP.CodecFactory;
+import org.omg.IOP.CodecFactoryHelper;
+import org.omg.IOP.ENCODING_CDR_ENCAPS;
+import org.omg.IOP.Encoding;
+import org.omg.IOP.CodecFactoryPackage.UnknownEncoding;
+import org.omg.IOP.CodecPackage.FormatMismatch;
+import org.omg.IOP.CodecPackage.InvalidTypeForEncoding;
+import org.omg.IOP.CodecPackage.TypeMismatch;
+
+import biz.ple.corba.beans.OrbBean;
+
+
+/**
+ * <p>{@link ServiceContextCodec} for IDL-defined types (typically structs), encoded as CDR encapsulations
+ * (GIOP 1.2) by the ORB's {@code IOP::Codec}. This is the standard encoding for service contexts and
+ * can be decoded by CORBA peers written in any language.</p>
+ * <p>The value is inserted into and extracted from an {@code Any} via the {@code Helper} class generated
+ * by the IDL compiler for the type, whose methods are resolved once. The {@code Codec} is obtained
+ * from the ORB on first use, so instances can be created before the {@code OrbBean} is initialized.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The Java class generated by the IDL compiler for the IDL type.
+ */
+public class CdrEncapsulationContextCodec<T> implements ServiceContextCodec<T> {
+
+    private final OrbBean orbBean;
+    private final Class<T> valueClass;
+    private final TypeCode typeCode;
+    private final MethodHandle insert;
+    private final MethodHandle extract;
+    private volatile Codec codec;
+
+
+    /**
+     * Constructor.
+     * @param orbBean
+     *      The {@code OrbBean} providing the {@code IOP::Codec}; may not be {@code null}.
+     * @param valueClass
+     *      The Java class generated by the IDL compiler for the IDL type; the corresponding
+     *      {@code Helper} class must exist.
+     * @throws IllegalArgumentException
+     *      if the {@code Helper} class does not exist or lacks the methods {@code type()},
+     *      {@code insert(Any, T)} or {@code extract(Any)}.
+     */
+    public CdrEncapsulationContextCodec(OrbBean orbBean, Class<T> valueClass)
+    {
+        if (orbBean == null) {
+            throw new IllegalArgumentException("OrbBean may not be null.");
+        }
+        this.orbBean = orbBean;
+        this.valueClass = valueClass;
+        Class<?> helperClass;
+        try {
+            helperClass = Class.forName(valueClass.getName() + "Helper", true, valueClass.getClassLoader());
+        }
+        catch (ClassNotFoundException cnf) {
+            throw new IllegalArgumentException("Helper class " + valueClass.getName() + "Helper not found.");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            MethodHandle type = lookup.findStatic(helperClass, "type", MethodType.methodType(TypeCode.class));
+            this.typeCode = (TypeCode) type.invokeExact();
+            this.insert = lookup.findStatic(helperClass, "insert", MethodType.methodType(void.class, Any.class, valueClass))
+                .asType(MethodType.methodType(void.class, Any.class, Object.class));
+            this.extract = lookup.findStatic(helperClass, "extract", MethodType.methodType(valueClass, Any.class))
+                .asType(MethodType.methodType(Object.class, Any.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException xcp) {
+            throw new IllegalArgumentException("Class " + helperClass.getName() + " does not provide public static methods "
+                + "'type()', 'insert(Any, " + valueClass.getSimpleName() + ")' and 'extract(Any)'.", xcp);
+        }
+        catch (Throwable thr) {
+            throw new IllegalArgumentException("Method " + helperClass.getName() + ".type() failed.", thr);
+        }
+    }
+
+
+    @Override
+    public byte[] encode(T value)
+    {
+        Any any = orbBean.createAny();
+        try {
+            insert.invokeExact(any, (Object) value);
+            return codec().encode_value(any);
+        }
+        catch (InvalidTypeForEncoding itfe) {
+            throw new IllegalArgumentException("Type " + valueClass.getName() + " cannot be CDR-encoded.", itfe);
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new RuntimeException(valueClass.getName() + "Helper.insert() failed.", thr);
+        }
+    }
+
+
+    @Override
+    public T decode(byte[] contextData)
+    {
+        try {
+            Any any = codec().decode_value(contextData, typeCode);
+            return valueClass.cast((Object) extract.invokeExact(any));
+        }
+        catch (FormatMismatch | TypeMismatch xcp) {
+            throw new IllegalArgumentException("Context data is not a CDR encapsulation of type " + valueClass.getName() + ".", xcp);
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new RuntimeException(valueClass.getName() + "Helper.extract() failed.", thr);
+        }
+    }
+
+
+    private Codec codec()
+    {
+        Codec cdc = codec;
+        if (cdc == null) {
+            if (orbBean.getORB() == null) {
+                throw new IllegalStateException("The OrbBean has not been initialized yet.");
+            }
+            try {
+                CodecFactory factory = CodecFactoryHelper.narrow(orbBean.getORB().resolve_initial_references("CodecFactory"));
+                cdc = factory.create_codec(new Encoding(ENCODING_CDR_ENCAPS.value, (byte) 1, (byte) 2));
+            }
+            catch (InvalidName | UnknownEncoding xcp) {
+                throw new RuntimeException("The ORB does not provide a CDR encapsulation Codec.", xcp);
+            }
+            codec = cdc;
+        }
+        return cdc;
+    }
+
+}
@@ -1,9 +1,25 @@
 package biz.ple.corba.util;
 
-import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 
 /**
- * Contains static conversion methods for CORBA object ids (byte arrays).
+ * <p>Contains static conversion methods for CORBA object ids (byte arrays).</p>
+ * <p>All numeric values are encoded in big-endian byte order, i.e. in the same format as produced
+ * by {@code java.nio.ByteBuffer}. Encoding and decoding work directly on the byte arrays; no
+ * intermediate objects are created. The {@code write...} and offset-based {@code to...} methods
+ * operate on caller-supplied arrays and can be used with reusable buffers.</p>
+ * <p>Besides plain numeric ids, composite ids are supported, which allow servers managing several
+ * kinds of entities to encode the entity type in the object id itself:</p>
+ * <ul>
+ *   <li>Tagged long ids ({@link #fromTaggedLong(byte, long)}): a one-byte type tag followed by a long value.</li>
+ *   <li>Long pairs ({@link #fromLongPair(long, long)}): two long values, e.g. a parent and a child key.</li>
+ *   <li>UUIDs ({@link #fromUuid(UUID)}): the 16 bytes of a {@code java.util.UUID}.</li>
+ *   <li>Tagged short strings ({@link #fromTaggedString(byte, String)}): a type tag, a length byte and
+ *       up to {@value #MAX_STRING_LENGTH} bytes of UTF-8.</li>
+ * </ul>
+ * <p>The components of composite ids are decoded in place, e.g. via {@link #tagOf(byte[])} and
+ * {@link #toLong(byte[], int)}, without copying the object id.</p>
  *
  * @author Philipp Leibfried
  * @since  1.0.0
@@ -11,63 +27,266 @@ import java.nio.ByteBuffer;
  */
 public class CorbaObjectId {
 
+    /** Offset of the payload in tagged object ids. */
+    public static final int TAGGED_PAYLOAD_OFFSET = 1;
+
+    /** Maximum length (in UTF-8 bytes) of the string in a tagged string id. */
+    public static final int MAX_STRING_LENGTH = 255;
+
+
     public static byte[] fromShort(short s)
     {
-        return ByteBuffer.allocate(2).putShort(s).array();
+        byte[] oid = new byte[2];
+        writeShort(s, oid, 0);
+        return oid;
     }
 
 
     public static byte[] fromInt(int i)
     {
-        return ByteBuffer.allocate(4).putInt(i).array();
+        byte[] oid = new byte[4];
+        writeInt(i, oid, 0);
+        return oid;
     }
 
 
     public static byte[] fromLong(long l)
     {
-        return ByteBuffer.allocate(8).putLong(l).array();
+        byte[] oid = new byte[8];
+        writeLong(l, oid, 0);
+        return oid;
     }
 
 
     public static byte[] fromFloat(float f)
     {
-        return ByteBuffer.allocate(4).putFloat(f).array();
+        return fromInt(Float.floatToRawIntBits(f));
     }
 
 
     public static byte[] fromDouble(double d)
     {
-        return ByteBuffer.allocate(8).putDouble(d).array();
+        return fromLong(Double.doubleToRawLongBits(d));
     }
 
 
     public static short toShort(byte[] objectId)
     {
-        return ByteBuffer.wrap(objectId).getShort();
+        return toShort(objectId, 0);
     }
 
 
     public static int toInt(byte[] objectId)
     {
-        return ByteBuffer.wrap(objectId).getInt();
+        return toInt(objectId, 0);
     }
 
 
     public static long toLong(byte[] objectId)
     {
-        return ByteBuffer.wrap(objectId).getLong();
+        return toLong(objectId, 0);
     }
 
 
     public static float toFloat(byte[] objectId)
     {
-        return ByteBuffer.wrap(objectId).getFloat();
+        return Float.intBitsToFloat(toInt(objectId, 0));
     }
 
 
     public static double toDouble(byte[] objectId)
     {
-        return ByteBuffer.wrap(objectId).getDouble();
+        return Double.longBitsToDouble(toLong(objectId, 0));
+    }
+
+
+    // Offset-based encoding and decoding
+    // ==================================
+
+    /**
+     * Writes a short value to {@code dest} at position {@code offset}.
+     * @return
+     *      The position in {@code dest} following the value written.
+     */
+    public static int writeShort(short s, byte[] dest, int offset)
+    {
+        dest[offset] = (byte) (s >> 8);
+        dest[offset + 1] = (byte) s;
+        return offset + 2;
+    }
+
+
+    /**
+     * Writes an int value to {@code dest} at position {@code offset}.
+     * @return
+     *      The position in {@code dest} following the value written.
+     */
+    public static int writeInt(int i, byte[] dest, int offset)
+    {
+        dest[offset] = (byte) (i >> 24);
+        dest[offset + 1] = (byte) (i >> 16);
+        dest[offset + 2] = (byte) (i >> 8);
+        dest[offset + 3] = (byte) i;
+        return offset + 4;
+    }
+
+
+    /**
+     * Writes a long value to {@code dest} at position {@code offset}.
+     * @return
+     *      The position in {@code dest} following the value written.
+     */
+    public static int writeLong(long l, byte[] dest, int offset)
+    {
+        writeInt((int) (l >> 32), dest, offset);
+        writeInt((int) l, dest, offset + 4);
+        return offset + 8;
+    }
+
+
+    public static short toShort(byte[] objectId, int offset)
+    {
+        checkLength(objectId, offset, 2);
+        return (short) ((objectId[offset] << 8) | (objectId[offset + 1] & 0xFF));
+    }
+
+
+    public static int toInt(byte[] objectId, int offset)
+    {
+        checkLength(objectId, offset, 4);
+        return (objectId[offset] << 24)
+            | ((objectId[offset + 1] & 0xFF) << 16)
+            | ((objectId[offset + 2] & 0xFF) << 8)
+            |  (objectId[offset + 3] & 0xFF);
+    }
+
+
+    public static long toLong(byte[] objectId, int offset)
+    {
+        checkLength(objectId, offset, 8);
+        return ((long) toInt(objectId, offset) << 32) | (toInt(objectId, offset + 4) & 0xFFFFFFFFL);
+    }
+
+
+    // Composite object ids
+    // ====================
+
+    /**
+     * Creates a tagged object id consisting of a one-byte type tag followed by a long value.
+     * Decode with {@link #tagOf(byte[])} and {@link #toTaggedLong(byte[])}.
+     */
+    public static byte[] fromTaggedLong(byte tag, long l)
+    {
+        byte[] oid = new byte[9];
+        oid[0] = tag;
+        writeLong(l, oid, TAGGED_PAYLOAD_OFFSET);
+        return oid;
+    }
+
+
+    /**
+     * Returns the type tag of a tagged object id.
+     */
+    public static byte tagOf(byte[] objectId)
+    {
+        checkLength(objectId, 0, 1);
+        return objectId[0];
+    }
+
+
+    /**
+     * Checks whether {@code objectId} is a tagged object id with the type tag {@code tag}.
+     */
+    public static boolean hasTag(byte[] objectId, byte tag)
+    {
+        return objectId != null && objectId.length > 0 && objectId[0] == tag;
+    }
+
+
+    /**
+     * Returns the long value of a tagged long object id.
+     */
+    public static long toTaggedLong(byte[] objectId)
+    {
+        return toLong(objectId, TAGGED_PAYLOAD_OFFSET);
+    }
+
+
+    /**
+     * Creates an object id consisting of two long values. Decode with {@link #firstOfPair(byte[])}
+     * and {@link #secondOfPair(byte[])}.
+     */
+    public static byte[] fromLongPair(long first, long second)
+    {
+        byte[] oid = new byte[16];
+        writeLong(first, oid, 0);
+        writeLong(second, oid, 8);
+        return oid;
+    }
+
+
+    public static long firstOfPair(byte[] objectId)
+    {
+        return toLong(objectId, 0);
+    }
+
+
+    public static long secondOfPair(byte[] objectId)
+    {
+        return toLong(objectId, 8);
+    }
+
+
+    /**
+     * Creates an object id from a UUID (most significant bits first).
+     */
+    public static byte[] fromUuid(UUID uuid)
+    {
+        return fromLongPair(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+
+    public static UUID toUuid(byte[] objectId)
+    {
+        return new UUID(toLong(objectId, 0), toLong(objectId, 8));
+    }
+
+
+    /**
+     * Creates a tagged object id consisting of a one-byte type tag, a one-byte length and the
+     * UTF-8 representation of a short string.
+     * @throws IllegalArgumentException
+     *      if the UTF-8 representation of {@code str} is longer than {@value #MAX_STRING_LENGTH} bytes.
+     */
+    public static byte[] fromTaggedString(byte tag, String str)
+    {
+        byte[] utf8 = str.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > MAX_STRING_LENGTH) {
+            throw new IllegalArgumentException("String ids may not be longer than " + MAX_STRING_LENGTH + " bytes (UTF-8).");
+        }
+        byte[] oid = new byte[utf8.length + 2];
+        oid[0] = tag;
+        oid[1] = (byte) utf8.length;
+        System.arraycopy(utf8, 0, oid, 2, utf8.length);
+        return oid;
+    }
+
+
+    public static String toTaggedString(byte[] objectId)
+    {
+        checkLength(objectId, 0, 2);
+        int length = objectId[1] & 0xFF;
+        checkLength(objectId, 2, length);
+        return new String(objectId, 2, length, StandardCharsets.UTF_8);
+    }
+
+
+    private static void checkLength(byte[] objectId, int offset, int length)
+    {
+        if (offset < 0 || objectId.length - offset < length) {
+            throw new IllegalArgumentException("ObjectId is too short (" + objectId.length + " bytes) to hold "
+                + length + " bytes at offset " + offset + ".");
+        }
     }
 
 }
@@ -0,0 +1,138 @@
+package biz.ple.corba.util;
+
+import org.omg.CORBA.CompletionStatus;
+import org.omg.CORBA.INTERNAL;
+import org.omg.CORBA.OBJECT_NOT_EXIST;
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.CurrentPackage.NoContext;
+
+
+/**
+ * <p>Base class for Default Servants which dispatch requests by means of the skeleton the IDL compiler
+ * generates for an interface, instead of a hand-written {@code _invoke()} which switches on operation names
+ * and marshals the reply itself.</p>
+ * <p>Derived classes pass the IDL-generated TIE class (e.g. {@code FooPOATie}) to the constructor and implement
+ * {@link #resolveTarget(byte[])}, which returns an implementation of the corresponding {@code Operations}
+ * interface (e.g. {@code FooOperations}) for the object id of a request. For each request,</p>
+ * <ul>
+ *   <li>the object id is obtained from the POA Current exactly once and passed to {@code resolveTarget()};</li>
+ *   <li>the returned target is set as the delegate of a TIE instance owned by the request processing
+ *       thread, i.e. no TIE object is created per request;</li>
+ *   <li>the TIE's {@code _invoke()} looks up the operation in the skeleton's static operation table,
+ *       unmarshals the arguments, invokes the target and marshals the result (or a user exception declared
+ *       in IDL) directly to the reply stream.</li>
+ * </ul>
+ * <p>The TIE objects are created and their delegates set by the (shared) {@link TieFactory} of the TIE class;
+ * no reflection is involved in request processing.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The {@code Operations} interface generated by the IDL compiler, which the TIE class delegates to.
+ */
+public abstract class DispatchingDefaultServant<T> extends DefaultServantBase {
+
+    /** The TIE instance of a request processing thread. */
+    private static final class TieSlot {
+
+        final Servant tie;
+        boolean inUse;
+
+        TieSlot(Servant tie)
+        {
+            this.tie = tie;
+        }
+
+    }
+
+
+    private final TieFactory<T> tieFactory;
+    private final Servant prototype;
+    private final ThreadLocal<TieSlot> tieSlots;
+
+
+    /**
+     * Constructor.
+     * @param tieClass
+     *      The TIE class generated by the IDL compiler for the IDL interface the default servant implements;
+     *      the {@code Operations} interface is determined from the return type of its {@code _delegate()} method.
+     * @throws IllegalArgumentException
+     *      if {@code tieClass} is not an IDL-generated TIE class.
+     */
+    @SuppressWarnings("unchecked")
+    protected DispatchingDefaultServant(Class<? extends Servant> tieClass)
+    {
+        tieFactory = (TieFactory<T>) TieFactory.forTieClass(tieClass);
+        prototype = tieFactory.create(null, null);
+        tieSlots = ThreadLocal.withInitial(() -> new TieSlot(tieFactory.create(null, null)));
+    }
+
+
+    /**
+     * Returns the object implementing the IDL interface for an object.
+     * @param oid
+     *      The object id of the request's target object; must not be modified or retained.
+     * @return
+     *      The implementation the request is delegated to; {@code null} if the object does not exist, in which
+     *      case the request is answered with {@code OBJECT_NOT_EXIST}.
+     */
+    protected abstract T resolveTarget(byte[] oid);
+
+
+    /**
+     * Returns the {@code Operations} interface of the TIE class passed to the constructor.
+     */
+    public Class<T> getOperationsInterface()
+    {
+        return tieFactory.getOperationsInterface();
+    }
+
+
+    @Override
+    public final OutputStream _invoke(String method, InputStream input, ResponseHandler handler)
+        throws SystemException
+    {
+        byte[] oid;
+        try {
+            oid = poaCurrent.get_object_id();
+        }
+        catch (NoContext ncx) {
+            throw new INTERNAL("Default servant invoked outside of a request.", 0, CompletionStatus.COMPLETED_NO);
+        }
+        T target = resolveTarget(oid);
+        if (target == null) {
+            throw new OBJECT_NOT_EXIST(0, CompletionStatus.COMPLETED_NO);
+        }
+
+        TieSlot slot = tieSlots.get();
+        if (slot.inUse) {
+            // Nested upcall on the same thread (e.g. a collocated call); the thread's TIE is busy
+            Servant tie = tieFactory.create(target, null);
+            return ((InvokeHandler) tie)._invoke(method, input, handler);
+        }
+        slot.inUse = true;
+        tieFactory.setDelegate(slot.tie, target);
+        try {
+            return ((InvokeHandler) slot.tie)._invoke(method, input, handler);
+        }
+        finally {
+            tieFactory.setDelegate(slot.tie, null);
+            slot.inUse = false;
+        }
+    }
+
+
+    @Override
+    public String[] _all_interfaces(POA poa, byte[] objectId)
+    {
+        return prototype._all_interfaces(poa, objectId);
+    }
+
+}
@@ -0,0 +1,345 @@
+package biz.ple.corba.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.omg.CORBA.SystemException;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+import org.omg.PortableServer.POAPackage.WrongPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import biz.ple.corba.beans.server.ForwardingServant;
+
+
+/**
+ * <p>Base class for Servant Activators of POAs with the RETAIN policy which limits the number (or the
+ * estimated heap size) of active servants. Without such a limit, every servant ever incarnated stays in
+ * the POA's Active Object Map until the POA is destroyed.</p>
+ * <ul>
+ *   <li>Each servant returned by {@link #createServant(byte[], POA)} is registered with the POA wrapped
+ *       in a thin servant which records the time of the last request.</li>
+ *   <li>If, after an incarnation, the number of active servants exceeds the {@link #setMaxServants(int)
+ *       maximum count} or their estimated total size exceeds the {@link #setMaxBytes(long) heap budget},
+ *       the least recently used servants are deactivated via {@link POA#deactivate_object(byte[])
+ *       deactivate_object()}, until 90% of the limits are reached. This happens on a background thread,
+ *       never on the request processing thread.</li>
+ *   <li>The POA then etherealizes the deactivated servants (after completing the requests they are
+ *       executing) and {@link #destroyServant(byte[], Servant, boolean) destroyServant()} is invoked.
+ *       A later request for an evicted object simply incarnates it again.</li>
+ * </ul>
+ * <p>Note that the POA knows the wrapper, not the servant returned by {@code createServant()}, e.g. in
+ * {@code servant_to_id()}; within upcalls, the POA Current and {@code _this()} work as usual.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public abstract class EvictingServantActivatorBase extends ServantActivatorBase {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOG = LoggerFactory.getLogger(EvictingServantActivatorBase.class);
+    private static final AtomicInteger EVICTOR_COUNT = new AtomicInteger(0);
+
+    /** The fraction of the limits evictions reduce the active servants to, in percent. */
+    private static final int LOW_WATER_PERCENT = 90;
+
+
+    /** Registered with the POA in place of the actual servant; records the time of the last request. */
+    private static final class TrackedServant extends ForwardingServant {
+
+        final byte[] oid;
+        final long size;
+        volatile long lastAccess;
+        volatile boolean evicting;
+
+        TrackedServant(byte[] oid, Servant target, long size)
+        {
+            super(target);
+            this.oid = oid;
+            this.size = size;
+            this.lastAccess = System.nanoTime();
+        }
+
+        @Override
+        protected OutputStream dispatch(String method, InputStream input, ResponseHandler handler)
+            throws SystemException
+        {
+            long now = System.nanoTime();
+            if (now - lastAccess > ACCESS_RESOLUTION) {
+                lastAccess = now;
+            }
+            return forward(method, input, handler);
+        }
+
+    }
+
+
+    /** A servant and the time of its last request, as of the start of an eviction. */
+    private static final class EvictionCandidate {
+
+        final TrackedServant tracked;
+        final long lastAccess;
+
+        EvictionCandidate(TrackedServant tracked)
+        {
+            this.tracked = tracked;
+            this.lastAccess = tracked.lastAccess;
+        }
+
+    }
+
+
+    private final ConcurrentMap<ObjectIdKey, TrackedServant> active = new ConcurrentHashMap<>();
+    private final AtomicLong activeBytes = new AtomicLong();
+    private final AtomicLong incarnations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicBoolean evictionScheduled = new AtomicBoolean(false);
+    private volatile int maxServants = Integer.MAX_VALUE;
+    private volatile long maxBytes = Long.MAX_VALUE;
+    private volatile POA adapter;
+    private transient Executor evictor;
+
+
+    /**
+     * Creates the servant for an object which is not active.
+     * @param oid
+     *      The object id of the object.
+     * @param adapter
+     *      The POA the object is to be activated in.
+     * @return
+     *      The servant; may not be {@code null} (throw {@code OBJECT_NOT_EXIST} if the object does not exist).
+     * @throws ForwardRequest
+     *      to forward the request to another object.
+     */
+    protected abstract Servant createServant(byte[] oid, POA adapter)
+        throws ForwardRequest;
+
+
+    /**
+     * Invoked when a servant has been etherealized, i.e. deactivated after eviction, explicit deactivation
+     * or destruction of the POA. Does nothing by default.
+     * @param oid
+     *      The object id of the object.
+     * @param servant
+     *      The servant returned by {@link #createServant(byte[], POA)}.
+     * @param cleanupInProgress
+     *      {@code true} if the POA is being destroyed or deactivated.
+     */
+    protected void destroyServant(byte[] oid, Servant servant, boolean cleanupInProgress)
+    {
+        // Nothing to do by default
+    }
+
+
+    /**
+     * Returns the estimated heap size of a servant (including the objects only it references), for the
+     * {@link #setMaxBytes(long) heap budget}. Override if a heap budget is used; the default is a rough
+     * guess of 256 bytes plus the length of the object id.
+     */
+    protected long estimateSize(byte[] oid, Servant servant)
+    {
+        return 256L + oid.length;
+    }
+
+
+    /**
+     * Sets the maximum number of active servants (default: unlimited).
+     */
+    public void setMaxServants(int maxServants)
+    {
+        if (maxServants <= 0) {
+            throw new IllegalArgumentException("Maximum number of servants must be positive.");
+        }
+        this.maxServants = maxServants;
+    }
+
+
+    /**
+     * Sets the maximum estimated total heap size of the active servants in bytes (default: unlimited);
+     * see {@link #estimateSize(byte[], Servant)}.
+     */
+    public void setMaxBytes(long maxBytes)
+    {
+        if (maxBytes <= 0L) {
+            throw new IllegalArgumentException("Heap budget must be positive.");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+
+    /**
+     * Sets the executor on which evictions (i.e. the invocations of {@code deactivate_object()}) run;
+     * by default, a single daemon thread is used.
+     */
+    public void setEvictionExecutor(Executor executor)
+    {
+        this.evictor = executor;
+    }
+
+
+    @Override
+    public final Servant incarnate(byte[] oid, POA adapter)
+        throws ForwardRequest
+    {
+        this.adapter = adapter;
+        Servant servant = createServant(oid, adapter);
+        byte[] oidCopy = Arrays.copyOf(oid, oid.length);
+        TrackedServant tracked = new TrackedServant(oidCopy, servant, estimateSize(oidCopy, servant));
+        TrackedServant previous = active.put(new ObjectIdKey(oidCopy), tracked);
+        if (previous != null) {
+            activeBytes.addAndGet(-previous.size);
+        }
+        activeBytes.addAndGet(tracked.size);
+        incarnations.incrementAndGet();
+        if (active.size() > maxServants || activeBytes.get() > maxBytes) {
+            scheduleEviction();
+        }
+        return servant instanceof InvokeHandler ? tracked : servant;
+    }
+
+
+    @Override
+    public final void etherealize(byte[] oid, POA adapter, Servant servant, boolean cleanupInProgress,
+                                  boolean remainingActivations)
+    {
+        ObjectIdKey key = new ObjectIdKey(oid);
+        TrackedServant tracked = active.get(key);
+        Servant target = servant instanceof TrackedServant ? ((TrackedServant) servant).getTarget() : servant;
+        if (tracked != null && tracked.getTarget() == target && active.remove(key, tracked)) {
+            activeBytes.addAndGet(-tracked.size);
+        }
+        destroyServant(oid, target, cleanupInProgress);
+    }
+
+
+    /**
+     * Returns the number of active servants.
+     */
+    public int getActiveCount()
+    {
+        return active.size();
+    }
+
+
+    /**
+     * Returns the estimated total heap size of the active servants.
+     */
+    public long getActiveBytes()
+    {
+        return activeBytes.get();
+    }
+
+
+    public long getIncarnationCount()
+    {
+        return incarnations.get();
+    }
+
+
+    /**
+     * Returns the number of servants deactivated because a limit was exceeded.
+     */
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+
+    private void scheduleEviction()
+    {
+        if (evictionScheduled.compareAndSet(false, true)) {
+            try {
+                evictor().execute(this::evict);
+            }
+            catch (RuntimeException rex) {
+                evictionScheduled.set(false);
+                LOG.warn("Could not schedule eviction of servants.", rex);
+            }
+        }
+    }
+
+
+    private synchronized Executor evictor()
+    {
+        if (evictor == null) {
+            evictor = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "ServantEvictor-" + EVICTOR_COUNT.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return evictor;
+    }
+
+
+    private void evict()
+    {
+        long evicted = 0L;
+        try {
+            POA poa = myPoa != null && myPoa.getPoa() != null ? myPoa.getPoa() : adapter;
+            long countTarget = maxServants == Integer.MAX_VALUE ? Long.MAX_VALUE : (long) maxServants * LOW_WATER_PERCENT / 100;
+            long bytesTarget = maxBytes == Long.MAX_VALUE ? Long.MAX_VALUE : maxBytes / 100 * LOW_WATER_PERCENT;
+
+            // Sort the servants not yet being evicted by the time of their last request, coldest first; the
+            // times are copied first, since requests keep updating them and the sort needs a stable order
+            List<EvictionCandidate> candidates = new ArrayList<>(active.size());
+            long count = 0L;
+            long bytes = 0L;
+            for (TrackedServant tracked: active.values()) {
+                if (!tracked.evicting) {
+                    candidates.add(new EvictionCandidate(tracked));
+                    ++count;
+                    bytes += tracked.size;
+                }
+            }
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.lastAccess));
+
+            for (EvictionCandidate candidate: candidates) {
+                if (count <= countTarget && bytes <= bytesTarget) {
+                    break;
+                }
+                TrackedServant tracked = candidate.tracked;
+                tracked.evicting = true;
+                try {
+                    poa.deactivate_object(tracked.oid);
+                    evictions.incrementAndGet();
+                    ++evicted;
+                }
+                catch (ObjectNotActive ona) {
+                    // Deactivated in the meantime
+                }
+                catch (WrongPolicy | SystemException xcp) {
+                    LOG.warn("Could not deactivate object; eviction stopped.", xcp);
+                    break;
+                }
+                --count;
+                bytes -= tracked.size;
+            }
+        }
+        finally {
+            evictionScheduled.set(false);
+        }
+        // Incarnations during the eviction did not schedule another one; servants deactivated but not yet
+        // etherealized still count, so only check again if this eviction made progress
+        if (evicted > 0L && (active.size() > maxServants || activeBytes.get() > maxBytes)) {
+            scheduleEviction();
+        }
+    }
+
+}
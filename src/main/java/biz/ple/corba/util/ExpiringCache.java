@@ -0,0 +1,362 @@
+package biz.ple.corba.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+
+/**
+ * <p>A small, thread-safe cache with time-to-live and size-bounded (least recently used) eviction,
+ * intended for the results of remote lookups such as COS Naming resolutions.</p>
+ * <ul>
+ *   <li>Entries expire after a configurable time-to-live. {@code null} values (e.g. 'not found' results)
+ *       can be cached with a separate, usually shorter, time-to-live, or not at all.</li>
+ *   <li>If the number of entries exceeds the maximum size, the least recently used entries are evicted,
+ *       down to 90% of the maximum size, so that the eviction's scan of the entries is amortized.</li>
+ *   <li>Concurrent misses for the same key are coalesced: only one thread invokes the {@link Loader},
+ *       the others wait for and share its result (or exception).</li>
+ *   <li>Entries can be invalidated explicitly, individually, by predicate, or all at once. A value loaded
+ *       concurrently with the invalidation of its key is returned to its callers, but not cached; loads of
+ *       other keys are not affected.</li>
+ * </ul>
+ * <p>Hits do not lock: the entries are kept in a {@link ConcurrentHashMap}, and each entry records its
+ * expiry and last access time. Only evictions are serialized.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <K>
+ *      The key type; keys must implement {@code equals()} and {@code hashCode()}.
+ * @param <V>
+ *      The value type.
+ */
+public class ExpiringCache<K, V> {
+
+    /**
+     * Loads the value for a key on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<K, V> {
+
+        /**
+         * @return
+         *      The value for {@code key}; {@code null} if there is none (which is cached only if the
+         *      cache's negative time-to-live is positive).
+         */
+        V load(K key) throws Exception;
+
+    }
+
+
+    private static final class CacheEntry<V> {
+
+        final V value;
+        final long expiresAt;
+        volatile long lastAccess;
+
+        CacheEntry(V value, long expiresAt)
+        {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = System.nanoTime();
+        }
+
+        boolean isExpired(long now)
+        {
+            return expiresAt != 0L && expiresAt - now <= 0L;
+        }
+
+    }
+
+
+    /** An entry's last access time, copied so that the eviction's sort is not affected by concurrent hits. */
+    private static final class EvictionCandidate<K, V> {
+
+        final K key;
+        final CacheEntry<V> entry;
+        final long lastAccess;
+
+        EvictionCandidate(K key, CacheEntry<V> entry)
+        {
+            this.key = key;
+            this.entry = entry;
+            this.lastAccess = entry.lastAccess;
+        }
+
+    }
+
+
+    /** A load in progress; discarded if its key is invalidated before the loaded value is cached. */
+    private static final class Load<V> {
+
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile boolean discarded;
+
+    }
+
+
+    private static final int LOW_WATER_PERCENT = 90;
+
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final int maxSize;
+    private final int lowWaterSize;
+    private final ConcurrentMap<K, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<K, Load<V>> loading = new ConcurrentHashMap<>();
+    private final Object evictionLock = new Object();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+
+    /**
+     * Constructor.
+     * @param ttlMillis
+     *      The time-to-live of cached non-{@code null} values in milliseconds; if zero or negative,
+     *      values do not expire by age.
+     * @param negativeTtlMillis
+     *      The time-to-live of cached {@code null} values in milliseconds; if zero or negative,
+     *      {@code null} values are not cached.
+     * @param maxSize
+     *      The maximum number of entries; must be positive.
+     */
+    public ExpiringCache(long ttlMillis, long negativeTtlMillis, int maxSize)
+    {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Maximum cache size must be positive.");
+        }
+        this.ttlNanos = ttlMillis > 0 ? ttlMillis * 1000000L : 0L;
+        this.negativeTtlNanos = negativeTtlMillis > 0 ? negativeTtlMillis * 1000000L : 0L;
+        this.maxSize = maxSize;
+        this.lowWaterSize = Math.max(1, (int) ((long) maxSize * LOW_WATER_PERCENT / 100L));
+    }
+
+
+    /**
+     * Returns the cached value for a key, loading it if it is not cached or has expired.
+     * @param key
+     *      The key; may not be {@code null}.
+     * @param loader
+     *      Loads the value on a miss.
+     * @return
+     *      The cached or loaded value; may be {@code null}.
+     * @throws Exception
+     *      any exception thrown by {@code loader}, in this or in a concurrent, coalesced call.
+     */
+    public V get(K key, Loader<? super K, ? extends V> loader)
+        throws Exception
+    {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry != null) {
+            long now = System.nanoTime();
+            if (!entry.isExpired(now)) {
+                entry.lastAccess = now;
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            entries.remove(key, entry);
+        }
+        misses.incrementAndGet();
+
+        Load<V> myLoad = new Load<>();
+        Load<V> otherLoad = loading.putIfAbsent(key, myLoad);
+        if (otherLoad != null) {
+            try {
+                return otherLoad.future.get();
+            }
+            catch (ExecutionException eex) {
+                Throwable cause = eex.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+        try {
+            V value = loader.load(key);
+            put(key, value, myLoad);
+            myLoad.future.complete(value);
+            return value;
+        }
+        catch (Exception | Error xcp) {
+            myLoad.future.completeExceptionally(xcp);
+            throw xcp;
+        }
+        finally {
+            loading.remove(key, myLoad);
+        }
+    }
+
+
+    /**
+     * Returns the cached value for a key without loading it.
+     * @return
+     *      The cached value; {@code null} if there is none, it has expired, or a {@code null} value is cached.
+     */
+    public V getIfPresent(K key)
+    {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            return null;
+        }
+        entry.lastAccess = now;
+        return entry.value;
+    }
+
+
+    /**
+     * Caches a value, replacing a cached value for the same key.
+     */
+    public void put(K key, V value)
+    {
+        put(key, value, null);
+    }
+
+
+    /**
+     * Removes the entry for a key; a value being loaded for the key is not cached.
+     */
+    public void invalidate(K key)
+    {
+        entries.compute(key, (k, entry) -> {
+            discardLoad(k);
+            return null;
+        });
+    }
+
+
+    /**
+     * Removes all entries whose keys match a predicate; values being loaded for matching keys are not cached.
+     */
+    public void invalidateIf(Predicate<? super K> condition)
+    {
+        for (K key: loading.keySet()) {
+            if (condition.test(key)) {
+                invalidate(key);
+            }
+        }
+        Iterator<K> keys = entries.keySet().iterator();
+        while (keys.hasNext()) {
+            if (condition.test(keys.next())) {
+                keys.remove();
+            }
+        }
+    }
+
+
+    /**
+     * Removes all entries; values being loaded are not cached.
+     */
+    public void invalidateAll()
+    {
+        invalidateIf(key -> true);
+    }
+
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+
+    /**
+     * Caches a value, unless it was loaded by a load which has been discarded in the meantime. The check
+     * and the update are atomic with respect to {@link #invalidate(Object)}, which discards the load within
+     * the same {@code compute()}.
+     */
+    private void put(K key, V value, Load<V> load)
+    {
+        long ttl = value != null ? ttlNanos : negativeTtlNanos;
+        entries.compute(key, (k, entry) -> {
+            if (load != null && load.discarded) {
+                // Invalidated while the value was being loaded; the value may be stale
+                return entry;
+            }
+            if (value == null && ttl == 0L) {
+                return null;
+            }
+            long expiresAt = ttl == 0L ? 0L : System.nanoTime() + ttl;
+            if (expiresAt == 0L && ttl != 0L) {
+                expiresAt = 1L;
+            }
+            return new CacheEntry<>(value, expiresAt);
+        });
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+
+    private void discardLoad(K key)
+    {
+        Load<V> load = loading.get(key);
+        if (load != null) {
+            load.discarded = true;
+        }
+    }
+
+
+    /** Removes expired entries and then the least recently used ones, until the low water mark is reached. */
+    private void evict()
+    {
+        synchronized (evictionLock) {
+            if (entries.size() <= maxSize) {
+                return;
+            }
+            long now = System.nanoTime();
+            List<EvictionCandidate<K, V>> candidates = new ArrayList<>(entries.size());
+            for (Map.Entry<K, CacheEntry<V>> mapEntry: entries.entrySet()) {
+                CacheEntry<V> entry = mapEntry.getValue();
+                if (entry.isExpired(now)) {
+                    entries.remove(mapEntry.getKey(), entry);
+                }
+                else {
+                    candidates.add(new EvictionCandidate<>(mapEntry.getKey(), entry));
+                }
+            }
+            if (entries.size() <= maxSize) {
+                return;
+            }
+            candidates.sort((c1, c2) -> Long.compare(c1.lastAccess, c2.lastAccess));
+            for (EvictionCandidate<K, V> candidate: candidates) {
+                if (entries.size() <= lowWaterSize) {
+                    break;
+                }
+                if (entries.remove(candidate.key, candidate.entry)) {
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package biz.ple.corba.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+
+/**
+ * <p>Gives typed access to the static methods of the {@code Helper} class the IDL compiler generates
+ * for an IDL interface ({@code id()}, {@code narrow()} and {@code unchecked_narrow()}).</p>
+ * <p>The {@code Helper} class is located and its methods are resolved to {@link MethodHandle}s only once
+ * per interface class; the resulting {@code HelperAccess} instance is cached and shared by all callers.
+ * Calling {@link #narrow(org.omg.CORBA.Object)} or {@link #uncheckedNarrow(org.omg.CORBA.Object)} therefore
+ * costs about as much as calling the {@code Helper} method directly, instead of a class lookup and two
+ * reflective method lookups per call.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The Java interface generated by the IDL compiler for an IDL interface.
+ */
+public final class HelperAccess<T extends org.omg.CORBA.Object> {
+
+    private static final MethodType NARROW_TYPE =
+        MethodType.methodType(org.omg.CORBA.Object.class, org.omg.CORBA.Object.class);
+
+    private static final ClassValue<HelperAccess<?>> CACHE = new ClassValue<HelperAccess<?>>() {
+        @Override
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        protected HelperAccess<?> computeValue(Class<?> type)
+        {
+            return new HelperAccess(type.asSubclass(org.omg.CORBA.Object.class));
+        }
+    };
+
+    private final Class<T> interfaceClass;
+    private final String repositoryId;
+    private final MethodHandle narrow;
+    private final MethodHandle uncheckedNarrow;
+
+
+    private HelperAccess(Class<T> interfaceClass)
+    {
+        this.interfaceClass = interfaceClass;
+        Class<?> helperClass;
+        try {
+            helperClass = Class.forName(interfaceClass.getName() + "Helper", true, interfaceClass.getClassLoader());
+        }
+        catch (ClassNotFoundException cnf) {
+            throw new IllegalArgumentException("Helper class " + interfaceClass.getName() + "Helper not found.");
+        }
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            MethodHandle id = lookup.findStatic(helperClass, "id", MethodType.methodType(String.class));
+            this.repositoryId = (String) id.invokeExact();
+            this.narrow = lookup.findStatic(helperClass, "narrow",
+                MethodType.methodType(interfaceClass, org.omg.CORBA.Object.class)).asType(NARROW_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException xcp) {
+            throw new IllegalArgumentException("Class " + helperClass.getName() + " does not provide public static methods "
+                + "'id()' and 'narrow(org.omg.CORBA.Object)'.", xcp);
+        }
+        catch (Throwable thr) {
+            throw new IllegalArgumentException("Method " + helperClass.getName() + ".id() failed.", thr);
+        }
+        MethodHandle unchecked;
+        try {
+            unchecked = lookup.findStatic(helperClass, "unchecked_narrow",
+                MethodType.methodType(interfaceClass, org.omg.CORBA.Object.class)).asType(NARROW_TYPE);
+        }
+        catch (NoSuchMethodException | IllegalAccessException xcp) {
+            // Helpers generated by older IDL compilers lack unchecked_narrow(); fall back to narrow()
+            unchecked = narrow;
+        }
+        this.uncheckedNarrow = unchecked;
+    }
+
+
+    /**
+     * Returns the (cached) {@code HelperAccess} for an IDL-generated interface.
+     * @param interfaceClass
+     *      The Java interface generated by the IDL compiler; the corresponding {@code Helper} class
+     *      must be visible to the interface's class loader.
+     * @return
+     *      The {@code HelperAccess} for {@code interfaceClass}; never {@code null}.
+     * @throws IllegalArgumentException
+     *      if the {@code Helper} class does not exist or lacks the required static methods.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends org.omg.CORBA.Object> HelperAccess<T> forInterface(Class<T> interfaceClass)
+    {
+        return (HelperAccess<T>) CACHE.get(interfaceClass);
+    }
+
+
+    /**
+     * Returns the Java interface this {@code HelperAccess} was created for.
+     */
+    public Class<T> getInterfaceClass()
+    {
+        return interfaceClass;
+    }
+
+
+    /**
+     * Returns the CORBA repository id of the interface, as returned by {@code Helper.id()}.
+     */
+    public String id()
+    {
+        return repositoryId;
+    }
+
+
+    /**
+     * Narrows an object reference by means of {@code Helper.narrow()}. Depending on the ORB and the
+     * reference, this may involve a remote {@code _is_a()} call.
+     * @param obj
+     *      The object reference to be narrowed; may be {@code null}.
+     * @return
+     *      The narrowed reference, or {@code null} if {@code obj} is {@code null}.
+     * @throws org.omg.CORBA.BAD_PARAM
+     *      if {@code obj} is not of the expected type.
+     */
+    public T narrow(org.omg.CORBA.Object obj)
+    {
+        try {
+            return interfaceClass.cast((org.omg.CORBA.Object) narrow.invokeExact(obj));
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new RuntimeException(interfaceClass.getName() + "Helper.narrow() failed.", thr);
+        }
+    }
+
+
+    /**
+     * Narrows an object reference by means of {@code Helper.unchecked_narrow()}, i.e. without checking
+     * the type of the referenced object. Use this only for references whose type is known, e.g. references
+     * created locally by a POA.
+     * @param obj
+     *      The object reference to be narrowed; may be {@code null}.
+     * @return
+     *      The narrowed reference, or {@code null} if {@code obj} is {@code null}.
+     */
+    public T uncheckedNarrow(org.omg.CORBA.Object obj)
+    {
+        try {
+            return interfaceClass.cast((org.omg.CORBA.Object) uncheckedNarrow.invokeExact(obj));
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new RuntimeException(interfaceClass.getName() + "Helper.unchecked_narrow() failed.", thr);
+        }
+    }
+
+}
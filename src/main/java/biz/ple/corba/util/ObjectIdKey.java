@@ -0,0 +1,41 @@
+package biz.ple.corba.util;
+
+import java.util.Arrays;
+
+
+/**
+ * <p>An object id as the key of a map or cache. Object ids are byte arrays, which do not implement
+ * {@code equals()} and {@code hashCode()}; keys compare the contents of their object ids.</p>
+ * <p>The object id is not copied, so it must not be modified while the key is in use. The hash code
+ * is computed once.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class ObjectIdKey {
+
+    private final byte[] oid;
+    private final int hash;
+
+
+    public ObjectIdKey(byte[] oid)
+    {
+        this.oid = oid;
+        this.hash = Arrays.hashCode(oid);
+    }
+
+
+    @Override
+    public boolean equals(Object other)
+    {
+        return other instanceof ObjectIdKey && Arrays.equals(oid, ((ObjectIdKey) other).oid);
+    }
+
+
+    @Override
+    public int hashCode()
+    {
+        return hash;
+    }
+
+}
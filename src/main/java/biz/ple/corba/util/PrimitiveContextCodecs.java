@@ -0,0 +1,135 @@
+package biz.ple.corba.util;
+
+import java.nio.charset.StandardCharsets;
+
+
+/**
+ * <p>{@link ServiceContextCodec}s for single primitive values. Numbers are encoded in big-endian byte
+ * order with their fixed IDL size, i.e. in the same format as produced by {@code java.nio.ByteBuffer}.
+ * Besides the generic (boxed) {@code encode()}/{@code decode()} methods, the numeric codecs provide
+ * primitive variants which avoid boxing.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public final class PrimitiveContextCodecs {
+
+    /** Codec for an IDL {@code long} (4 bytes). */
+    public static final Int32Codec INT32 = new Int32Codec();
+
+    /** Codec for an IDL {@code long long} (8 bytes). */
+    public static final Int64Codec INT64 = new Int64Codec();
+
+    /** Codec for a string, encoded as UTF-8 (without length prefix or terminating zero). */
+    public static final StringCodec UTF8_STRING = new StringCodec();
+
+
+    private PrimitiveContextCodecs()
+    {
+    }
+
+
+    public static final class Int32Codec implements ServiceContextCodec<Integer> {
+
+        private Int32Codec()
+        {
+        }
+
+        public byte[] encodeInt(int value)
+        {
+            return new byte[] { (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value };
+        }
+
+        public int decodeInt(byte[] contextData)
+        {
+            checkLength(contextData, 4);
+            return (contextData[0] & 0xFF) << 24 | (contextData[1] & 0xFF) << 16 | (contextData[2] & 0xFF) << 8
+                   | (contextData[3] & 0xFF);
+        }
+
+        @Override
+        public byte[] encode(Integer value)
+        {
+            return encodeInt(value);
+        }
+
+        @Override
+        public Integer decode(byte[] contextData)
+        {
+            return decodeInt(contextData);
+        }
+
+    }
+
+
+    public static final class Int64Codec implements ServiceContextCodec<Long> {
+
+        private Int64Codec()
+        {
+        }
+
+        public byte[] encodeLong(long value)
+        {
+            byte[] data = new byte[8];
+            for (int k = 7; k >= 0; --k) {
+                data[k] = (byte) value;
+                value >>>= 8;
+            }
+            return data;
+        }
+
+        public long decodeLong(byte[] contextData)
+        {
+            checkLength(contextData, 8);
+            long value = 0L;
+            for (int k = 0; k < 8; ++k) {
+                value = value << 8 | (contextData[k] & 0xFF);
+            }
+            return value;
+        }
+
+        @Override
+        public byte[] encode(Long value)
+        {
+            return encodeLong(value);
+        }
+
+        @Override
+        public Long decode(byte[] contextData)
+        {
+            return decodeLong(contextData);
+        }
+
+    }
+
+
+    public static final class StringCodec implements ServiceContextCodec<String> {
+
+        private StringCodec()
+        {
+        }
+
+        @Override
+        public byte[] encode(String value)
+        {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String decode(byte[] contextData)
+        {
+            return new String(contextData, StandardCharsets.UTF_8);
+        }
+
+    }
+
+
+    private static void checkLength(byte[] contextData, int expected)
+    {
+        if (contextData.length != expected) {
+            throw new IllegalArgumentException("Context data has unexpected length " + contextData.length
+                + " (should be " + expected + ").");
+        }
+    }
+
+}
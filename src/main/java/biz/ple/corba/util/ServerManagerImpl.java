@@ -1,13 +1,21 @@
 package biz.ple.corba.util;
 
+import org.omg.CORBA.BAD_INV_ORDER;
+import org.omg.CORBA.CompletionStatus;
+import org.omg.PortableServer.POAManagerPackage.State;
+
 import biz.ple.corba.beans.OrbBean;
+import biz.ple.corba.beans.server.PoaManagerGroup;
+import biz.ple_idl.srvmgmt.PoaManagerGroupState;
 import biz.ple_idl.srvmgmt.ServerManagerOperations;
+import biz.ple_idl.srvmgmt.UnknownPoaManagerGroup;
 
 
 /**
  * <p>Implementation of the {@code ServerManager} IDL interface.</p>
  * <p>This object, if registered with a POA and thus made accessible
- * to remote clients, enables remote shutdown of the ORB.</p>
+ * to remote clients, enables remote shutdown of the ORB and remote control
+ * of the ORB's {@link PoaManagerGroup}s (e.g. for load shedding).</p>
  * @author Philipp Leibfried
  * @since  1.0.0
  */
@@ -37,4 +45,81 @@ public class ServerManagerImpl implements ServerManagerOperations {
 		orbWrapper.stop(waitForCompletion);
 	}
 
+
+
+	/**
+	 * Makes the POAs of a {@link PoaManagerGroup} queue incoming requests.
+	 * @see PoaManagerGroup#holdRequests(boolean)
+	 */
+	@Override
+	public void holdRequests(String groupName, boolean waitForCompletion) throws UnknownPoaManagerGroup
+	{
+		PoaManagerGroup group = findGroup(groupName);
+		try {
+			group.holdRequests(waitForCompletion);
+		}
+		catch (IllegalStateException isx) {
+			throw new BAD_INV_ORDER(isx.getMessage(), 0, CompletionStatus.COMPLETED_NO);
+		}
+	}
+
+
+	/**
+	 * Makes the POAs of a {@link PoaManagerGroup} reject incoming requests with {@code TRANSIENT}.
+	 * @see PoaManagerGroup#discardRequests(boolean)
+	 */
+	@Override
+	public void discardRequests(String groupName, boolean waitForCompletion) throws UnknownPoaManagerGroup
+	{
+		PoaManagerGroup group = findGroup(groupName);
+		try {
+			group.discardRequests(waitForCompletion);
+		}
+		catch (IllegalStateException isx) {
+			throw new BAD_INV_ORDER(isx.getMessage(), 0, CompletionStatus.COMPLETED_NO);
+		}
+	}
+
+
+	/**
+	 * Makes the POAs of a {@link PoaManagerGroup} process requests again.
+	 * @see PoaManagerGroup#activate()
+	 */
+	@Override
+	public void activate(String groupName) throws UnknownPoaManagerGroup
+	{
+		PoaManagerGroup group = findGroup(groupName);
+		try {
+			group.activate();
+		}
+		catch (IllegalStateException isx) {
+			throw new BAD_INV_ORDER(isx.getMessage(), 0, CompletionStatus.COMPLETED_NO);
+		}
+	}
+
+
+	/**
+	 * Returns the state of the POA Manager of a {@link PoaManagerGroup}.
+	 */
+	@Override
+	public PoaManagerGroupState getGroupState(String groupName) throws UnknownPoaManagerGroup
+	{
+		State state = findGroup(groupName).getState();
+		if (state == null) {
+			throw new BAD_INV_ORDER("POA Manager group '" + groupName + "' does not contain any POA yet.",
+			                        0, CompletionStatus.COMPLETED_NO);
+		}
+		return PoaManagerGroupState.from_int(state.value());
+	}
+
+
+	private PoaManagerGroup findGroup(String groupName) throws UnknownPoaManagerGroup
+	{
+		PoaManagerGroup group = orbWrapper.getPoaManagerGroup(groupName);
+		if (group == null) {
+			throw new UnknownPoaManagerGroup(groupName);
+		}
+		return group;
+	}
+
 }
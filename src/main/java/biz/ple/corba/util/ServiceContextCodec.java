@@ -0,0 +1,52 @@
+package biz.ple.corba.util;
+
+import org.omg.IOP.ServiceContext;
+
+
+/**
+ * <p>Converts the value carried by a service context to and from the {@code context_data} byte array
+ * of an {@link ServiceContext IOP::ServiceContext}.</p>
+ * <p>Implementations provided:</p>
+ * <ul>
+ *   <li>{@link PrimitiveContextCodecs}: single {@code long}, {@code long long} and string values in fixed,
+ *       big-endian layouts.</li>
+ *   <li>{@link VarintContextCodec}: several integral values, each encoded as a zig-zag varint; a compact
+ *       encoding for multi-field contexts with mostly small values.</li>
+ *   <li>{@link CdrEncapsulationContextCodec}: IDL-defined types, encoded as CDR encapsulations via the
+ *       ORB's {@code IOP::Codec}; interoperable with non-Java peers.</li>
+ * </ul>
+ * <p>{@code encode()} must return an array of exactly the encoded length, since the ORB marshals
+ * the complete array and may still hold a reference to it after the interceptor has returned. Codecs
+ * may however use reusable (e.g. thread-local) scratch buffers internally. Implementations must be
+ * thread-safe.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The type of the value carried by the service context.
+ */
+public interface ServiceContextCodec<T> {
+
+    /**
+     * Encodes a value.
+     * @param value
+     *      The value to be encoded.
+     * @return
+     *      The encoded value, to be used as a service context's {@code context_data}.
+     */
+    byte[] encode(T value);
+
+
+    /**
+     * Decodes a value.
+     * @param contextData
+     *      The {@code context_data} of a service context; neither {@code null} nor empty.
+     * @return
+     *      The decoded value.
+     * @throws IllegalArgumentException
+     *      if {@code contextData} is not a valid encoding.
+     */
+    T decode(byte[] contextData);
+
+}
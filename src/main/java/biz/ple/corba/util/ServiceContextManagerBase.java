@@ -6,7 +6,7 @@ import org.omg.CORBA.Any;
 import org.omg.CORBA.TCKind;
 import org.omg.PortableInterceptor.InvalidSlot;
 
-import biz.ple.corba.interfaces.PICurrentInjectable;;
+import biz.ple.corba.interfaces.PICurrentInjectable;
 
 
 /**
@@ -23,72 +23,94 @@ import biz.ple.corba.interfaces.PICurrentInjectable;;
  * were executed in the same thread, even when that is not the case.</p>
  * <p>This class implements the {@link PICurrentInjectable} interface and provides
  * a set of protected methods which simplify getting and setting the slot data for
- * simple data types. It does not have any public methods. Application specific
- * public methods must be provided in a derived, concrete class.
+ * simple data types. Apart from {@link #setReuseSlotValues(boolean)}, it does not have
+ * any public methods. Application specific public methods must be provided in a derived,
+ * concrete class.</p>
+ * <p>By default, every {@code setXxxData()} call creates a new {@code Any}. Managers whose
+ * slot is written on every request should call {@link #setReuseSlotValues(boolean)
+ * setReuseSlotValues(true)}; the primitive setters then write into one {@code Any} per
+ * thread, and the getters recognize that {@code Any} without inspecting its type code.
+ * The getters with a default value parameter avoid boxing the result.</p>
  *
  * @author Philipp Leibfried
  * @since  1.0.0
  */
 public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl {
 
+    private final ThreadLocal<AnyBuilder> slotValues = new ThreadLocal<>();
+    private volatile boolean reuseSlotValues;
+    private volatile AnyBuilder nullValue;
+
+
     public ServiceContextManagerBase() {
         piCurrentSlotId = -1;
+        reuseSlotValues = false;
     }
 
     protected class AnyBuilder {
 
         private Any anyVal;
+        private int kind;
 
         public AnyBuilder()
         {
             anyVal = orbBean.createAny();
+            kind = TCKind._tk_null;
         }
 
         public AnyBuilder withShortValue(short val)
         {
             anyVal.insert_short(val);
+            kind = TCKind._tk_short;
             return this;
         }
 
         public AnyBuilder withLongValue(int val)
         {
             anyVal.insert_long(val);
+            kind = TCKind._tk_long;
             return this;
         }
 
         public AnyBuilder withLongLongValue(long val)
         {
             anyVal.insert_longlong(val);
+            kind = TCKind._tk_longlong;
             return this;
         }
 
         public AnyBuilder withFloatValue(float val)
         {
             anyVal.insert_float(val);
+            kind = TCKind._tk_float;
             return this;
         }
 
         public AnyBuilder withDoubleValue(double val)
         {
             anyVal.insert_double(val);
+            kind = TCKind._tk_double;
             return this;
         }
 
         public AnyBuilder withFixedValue(BigDecimal val)
         {
             anyVal.insert_fixed(val);
+            kind = TCKind._tk_fixed;
             return this;
         }
 
         public AnyBuilder withStringValue(String val)
         {
             anyVal.insert_wstring(val);
+            kind = TCKind._tk_wstring;
             return this;
         }
 
         public AnyBuilder withBoolValue(boolean val)
         {
             anyVal.insert_boolean(val);
+            kind = TCKind._tk_boolean;
             return this;
         }
 
@@ -99,6 +121,62 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
 
     }
 
+    /**
+     * Determines whether the primitive {@code setXxxData()} methods create a new {@code Any} for each
+     * call (the default) or reuse one {@code Any} per thread.
+     * <p>Since the PICurrent stores a reference to the {@code Any} passed to it, a reused {@code Any} is
+     * overwritten by the next {@code setXxxData()} call on the same thread. Enable reuse only if the slot
+     * contents are not retained beyond the next slot write of the same thread, which holds for the usual
+     * pattern of setting a value and invoking a remote operation.</p>
+     * @param reuse
+     *      {@code true} to reuse one {@code Any} per thread; {@code false} to create a new {@code Any} per call.
+     */
+    public void setReuseSlotValues(boolean reuse)
+    {
+        this.reuseSlotValues = reuse;
+    }
+
+
+    public boolean isReuseSlotValues()
+    {
+        return reuseSlotValues;
+    }
+
+
+    /**
+     * Returns an {@code AnyBuilder} for writing a primitive slot value: a new one, or the one of the
+     * current thread if {@link #setReuseSlotValues(boolean) reuse} is enabled.
+     */
+    protected AnyBuilder slotValueBuilder()
+    {
+        if (!reuseSlotValues) {
+            return new AnyBuilder();
+        }
+        AnyBuilder builder = slotValues.get();
+        if (builder == null) {
+            builder = new AnyBuilder();
+            slotValues.set(builder);
+        }
+        return builder;
+    }
+
+
+    /**
+     * Returns the {@link TCKind} value of the slot contents; for a value written by this thread's
+     * reused {@code AnyBuilder}, the kind recorded when writing is returned.
+     */
+    protected int kindOf(Any data)
+    {
+        if (reuseSlotValues) {
+            AnyBuilder builder = slotValues.get();
+            if (builder != null && builder.anyVal == data) {
+                return builder.kind;
+            }
+        }
+        return data.type().kind().value();
+    }
+
+
     protected void setSlotContents(AnyBuilder anyBld)
     {
         try {
@@ -123,49 +201,49 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
 
     protected void setShortData(short corbaShort)
     {
-        setSlotContents(new AnyBuilder().withShortValue(corbaShort));
+        setSlotContents(slotValueBuilder().withShortValue(corbaShort));
     }
 
 
     protected void setLongData(int corbaLong)
     {
-        setSlotContents(new AnyBuilder().withLongValue(corbaLong));
+        setSlotContents(slotValueBuilder().withLongValue(corbaLong));
     }
 
 
     protected void setLongLongData(long corbaLongLong)
     {
-        setSlotContents(new AnyBuilder().withLongLongValue(corbaLongLong));
+        setSlotContents(slotValueBuilder().withLongLongValue(corbaLongLong));
     }
 
 
     protected void setFloatData(float corbaFloat)
     {
-        setSlotContents(new AnyBuilder().withFloatValue(corbaFloat));
+        setSlotContents(slotValueBuilder().withFloatValue(corbaFloat));
     }
 
 
     protected void setDoubleData(double corbaDouble)
     {
-        setSlotContents(new AnyBuilder().withDoubleValue(corbaDouble));
+        setSlotContents(slotValueBuilder().withDoubleValue(corbaDouble));
     }
 
 
     protected void setFixedData(BigDecimal corbaFixed)
     {
-        setSlotContents(new AnyBuilder().withFixedValue(corbaFixed));
+        setSlotContents(slotValueBuilder().withFixedValue(corbaFixed));
     }
 
 
     protected void setStringData(String corbaWString)
     {
-        setSlotContents(new AnyBuilder().withStringValue(corbaWString));
+        setSlotContents(slotValueBuilder().withStringValue(corbaWString));
     }
 
 
     protected void setBooleanData(boolean corbaBool)
     {
-        setSlotContents(new AnyBuilder().withBoolValue(corbaBool));
+        setSlotContents(slotValueBuilder().withBoolValue(corbaBool));
     }
 
 
@@ -174,14 +252,24 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
      */
     protected void setNullData()
     {
-        setSlotContents(new AnyBuilder());
+        if (!reuseSlotValues) {
+            setSlotContents(new AnyBuilder());
+            return;
+        }
+        // The empty Any is never modified and can therefore be shared by all threads
+        AnyBuilder empty = nullValue;
+        if (empty == null) {
+            empty = new AnyBuilder();
+            nullValue = empty;
+        }
+        setSlotContents(empty);
     }
 
 
     protected Boolean getBooleanData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_boolean)) {
+        if (data != null && kindOf(data) == TCKind._tk_boolean) {
             return data.extract_boolean();
         }
         return null;
@@ -191,7 +279,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected Short getShortData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_short)) {
+        if (data != null && kindOf(data) == TCKind._tk_short) {
             return data.extract_short();
         }
         return null;
@@ -201,7 +289,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected Integer getLongData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_long)) {
+        if (data != null && kindOf(data) == TCKind._tk_long) {
             return data.extract_long();
         }
         return null;
@@ -211,7 +299,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected Long  getLongLongData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_longlong)) {
+        if (data != null && kindOf(data) == TCKind._tk_longlong) {
             return data.extract_longlong();
         }
         return null;
@@ -221,7 +309,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected Float getFloatData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_float)) {
+        if (data != null && kindOf(data) == TCKind._tk_float) {
             return data.extract_float();
         }
         return null;
@@ -231,7 +319,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected Double getDoubleData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_double)) {
+        if (data != null && kindOf(data) == TCKind._tk_double) {
             return data.extract_double();
         }
         return null;
@@ -241,7 +329,7 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected BigDecimal getFixedData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_fixed)) {
+        if (data != null && kindOf(data) == TCKind._tk_fixed) {
             return data.extract_fixed();
         }
         return null;
@@ -251,10 +339,52 @@ public abstract class ServiceContextManagerBase extends PICurrentInjectableImpl
     protected String getStringData()
     {
         Any data = getSlotContents();
-        if (data != null && data.type().kind().equals(TCKind.tk_string)) {
+        if (data != null && kindOf(data) == TCKind._tk_string) {
             return data.extract_string();
         }
         return null;
     }
 
+
+    protected boolean getBooleanData(boolean defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_boolean ? data.extract_boolean() : defaultValue;
+    }
+
+
+    protected short getShortData(short defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_short ? data.extract_short() : defaultValue;
+    }
+
+
+    protected int getLongData(int defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_long ? data.extract_long() : defaultValue;
+    }
+
+
+    protected long getLongLongData(long defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_longlong ? data.extract_longlong() : defaultValue;
+    }
+
+
+    protected float getFloatData(float defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_float ? data.extract_float() : defaultValue;
+    }
+
+
+    protected double getDoubleData(double defaultValue)
+    {
+        Any data = getSlotContents();
+        return data != null && kindOf(data) == TCKind._tk_double ? data.extract_double() : defaultValue;
+    }
+
 }
@@ -1,5 +1,9 @@
 package biz.ple.corba.util;
 
+import org.omg.CORBA.BAD_PARAM;
+import org.omg.IOP.ServiceContext;
+import org.omg.PortableInterceptor.ServerRequestInfo;
+
 import biz.ple.corba.beans.ServiceContextDefinition;
 import biz.ple.corba.interfaces.PICurrentInjectable;
 import biz.ple.corba.interfaces.ServiceContextPropagatingServerRequestInterceptor;
@@ -9,6 +13,8 @@ import biz.ple.corba.interfaces.ServiceContextPropagatingServerRequestIntercepto
  * Base class for Server Request Interceptors which are part of a {@link ServiceContextDefinition}.
  * <p>Inhterits an implementation of the {@link PICurrentInjectable} interface and the methods
  * of a local CORBA object (via default methods).</p>
+ * <p>The protected helper methods add and read service contexts using a {@link ServiceContextCodec},
+ * so that derived classes need not implement the encoding themselves.</p>
  *
  * @author Philipp Leibfried
  * @since  1.0.0
@@ -18,4 +24,73 @@ public abstract class ServiceContextPropagatingServerRequestInterceptorBase
     implements ServiceContextPropagatingServerRequestInterceptor
 {
 
+    /**
+     * Adds a service context to the reply, replacing a service context with the same id.
+     * @param ri
+     *      The request info passed to the interception point.
+     * @param contextId
+     *      The service context id.
+     * @param codec
+     *      The codec used to encode {@code value}.
+     * @param value
+     *      The value to be propagated.
+     */
+    protected <T> void addReplyContext(ServerRequestInfo ri, int contextId, ServiceContextCodec<T> codec, T value)
+    {
+        addReplyContext(ri, contextId, codec.encode(value));
+    }
+
+
+    /**
+     * Adds a service context with already encoded data (e.g. by one of the primitive methods of the
+     * {@link PrimitiveContextCodecs}) to the reply, replacing a service context with the same id.
+     */
+    protected void addReplyContext(ServerRequestInfo ri, int contextId, byte[] contextData)
+    {
+        ri.add_reply_service_context(new ServiceContext(contextId, contextData), true);
+    }
+
+
+    /**
+     * Returns the data of a request service context.
+     * @param ri
+     *      The request info passed to the interception point.
+     * @param contextId
+     *      The service context id.
+     * @return
+     *      The {@code context_data} of the service context; {@code null} if the request does not carry a service
+     *      context with id {@code contextId} or its data is empty.
+     */
+    protected byte[] getRequestContextData(ServerRequestInfo ri, int contextId)
+    {
+        try {
+            byte[] data = ri.get_request_service_context(contextId).context_data;
+            return data != null && data.length > 0 ? data : null;
+        }
+        catch (BAD_PARAM noSuchContext) {
+            return null;
+        }
+    }
+
+
+    /**
+     * Returns the decoded value of a request service context.
+     * @param ri
+     *      The request info passed to the interception point.
+     * @param contextId
+     *      The service context id.
+     * @param codec
+     *      The codec used to decode the service context data.
+     * @return
+     *      The decoded value; {@code null} if the request does not carry a service context with id
+     *      {@code contextId} or its data is empty.
+     * @throws IllegalArgumentException
+     *      if the service context data cannot be decoded by {@code codec}.
+     */
+    protected <T> T getRequestContext(ServerRequestInfo ri, int contextId, ServiceContextCodec<T> codec)
+    {
+        byte[] data = getRequestContextData(ri, contextId);
+        return data != null ? codec.decode(data) : null;
+    }
+
 }
@@ -0,0 +1,251 @@
+package biz.ple.corba.util;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+
+
+/**
+ * <p>Creates instances of a TIE class generated by the IDL compiler (e.g. {@code FooPOATie}) and sets their
+ * delegates, for Servant Activators, Servant Locators and Default Servants which do not know the TIE class
+ * at compile time.</p>
+ * <p>The TIE's {@code (delegate, POA)} constructor and its {@code _delegate()} setter are resolved only once
+ * per TIE class, and the resulting {@code TieFactory} instance is cached and shared by all callers. Where the
+ * TIE class is visible to the class loader of this class, the constructor and setter are bound to functional
+ * interfaces via the {@link LambdaMetafactory}, so that {@link #create(Object, POA)} costs the same as
+ * {@code new FooPOATie(delegate, poa)}; otherwise, they are invoked via {@link MethodHandle}s. No reflection
+ * is involved in either case.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ *
+ * @param <T>
+ *      The {@code Operations} interface generated by the IDL compiler, which the TIE class delegates to.
+ */
+public final class TieFactory<T> {
+
+    private static final ClassValue<TieFactory<?>> CACHE = new ClassValue<TieFactory<?>>() {
+        @Override
+        protected TieFactory<?> computeValue(Class<?> type)
+        {
+            return new TieFactory<>(type.asSubclass(Servant.class));
+        }
+    };
+
+    private final Class<? extends Servant> tieClass;
+    private final Class<T> operationsInterface;
+    private final BiFunction<T, POA, Servant> constructor;
+    private final BiConsumer<Servant, T> delegateSetter;
+
+
+    @SuppressWarnings("unchecked")
+    private TieFactory(Class<? extends Servant> tieClass)
+    {
+        if (!InvokeHandler.class.isAssignableFrom(tieClass)) {
+            throw new IllegalArgumentException("Class " + tieClass.getName() + " is not an IDL-generated TIE class.");
+        }
+        Method getter;
+        try {
+            getter = tieClass.getMethod("_delegate");
+        }
+        catch (NoSuchMethodException nsm) {
+            throw new IllegalArgumentException("Class " + tieClass.getName() + " is not an IDL-generated TIE class.");
+        }
+        this.tieClass = tieClass;
+        this.operationsInterface = (Class<T>) getter.getReturnType();
+
+        MethodHandle ctor;
+        MethodHandle setter;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            ctor = lookup.findConstructor(tieClass, MethodType.methodType(void.class, operationsInterface, POA.class));
+            setter = lookup.findVirtual(tieClass, "_delegate", MethodType.methodType(void.class, operationsInterface));
+        }
+        catch (NoSuchMethodException | IllegalAccessException xcp) {
+            throw new IllegalArgumentException("Class " + tieClass.getName() + " does not provide a public constructor ("
+                + operationsInterface.getName() + ", POA) and a public method '_delegate()' accepting a "
+                + operationsInterface.getName() + ".", xcp);
+        }
+
+        BiFunction<T, POA, Servant> boundCtor = null;
+        BiConsumer<Servant, T> boundSetter = null;
+        if (isVisible(tieClass) && isVisible(operationsInterface)) {
+            try {
+                boundCtor = (BiFunction<T, POA, Servant>) bind(BiFunction.class, "apply",
+                    MethodType.methodType(Object.class, Object.class, Object.class), ctor);
+                boundSetter = (BiConsumer<Servant, T>) bind(BiConsumer.class, "accept",
+                    MethodType.methodType(void.class, Object.class, Object.class), setter);
+            }
+            catch (LambdaConversionException | RuntimeException xcp) {
+                boundCtor = null;
+                boundSetter = null;
+            }
+        }
+        if (boundCtor == null) {
+            MethodHandle genericCtor = ctor.asType(MethodType.methodType(Servant.class, Object.class, POA.class));
+            MethodHandle genericSetter = setter.asType(MethodType.methodType(void.class, Servant.class, Object.class));
+            boundCtor = (delegate, poa) -> construct(genericCtor, delegate, poa);
+            boundSetter = (tie, delegate) -> setDelegate(genericSetter, tie, delegate);
+        }
+        this.constructor = boundCtor;
+        this.delegateSetter = boundSetter;
+    }
+
+
+    /**
+     * Returns the (cached) {@code TieFactory} for an IDL-generated TIE class.
+     * @param tieClass
+     *      The TIE class generated by the IDL compiler; the {@code Operations} interface is determined from
+     *      the return type of its {@code _delegate()} method.
+     * @return
+     *      The {@code TieFactory} for {@code tieClass}; never {@code null}.
+     * @throws IllegalArgumentException
+     *      if {@code tieClass} is not an IDL-generated TIE class.
+     */
+    public static TieFactory<?> forTieClass(Class<? extends Servant> tieClass)
+    {
+        return CACHE.get(tieClass);
+    }
+
+
+    /**
+     * Returns the (cached) {@code TieFactory} for an IDL-generated TIE class, typed with its {@code Operations}
+     * interface.
+     * @throws IllegalArgumentException
+     *      if {@code tieClass} is not an IDL-generated TIE class delegating to {@code operationsInterface}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> TieFactory<T> forTieClass(Class<? extends Servant> tieClass, Class<T> operationsInterface)
+    {
+        TieFactory<?> factory = CACHE.get(tieClass);
+        if (factory.operationsInterface != operationsInterface) {
+            throw new IllegalArgumentException("TIE class " + tieClass.getName() + " delegates to "
+                + factory.operationsInterface.getName() + ", not to " + operationsInterface.getName() + ".");
+        }
+        return (TieFactory<T>) factory;
+    }
+
+
+    public Class<? extends Servant> getTieClass()
+    {
+        return tieClass;
+    }
+
+
+    /**
+     * Returns the {@code Operations} interface the TIE class delegates to.
+     */
+    public Class<T> getOperationsInterface()
+    {
+        return operationsInterface;
+    }
+
+
+    /**
+     * Creates a TIE object.
+     * @param delegate
+     *      The implementation the TIE object delegates to; may be {@code null} if it is set later via
+     *      {@link #setDelegate(Servant, Object)}.
+     * @param poa
+     *      The POA returned by the TIE object's {@code _default_POA()}; {@code null} for the Root POA.
+     * @return
+     *      The new TIE object.
+     */
+    public Servant create(T delegate, POA poa)
+    {
+        return constructor.apply(delegate, poa);
+    }
+
+
+    /**
+     * Creates a TIE object for a delegate whose type is not known at compile time.
+     * @throws ClassCastException
+     *      if {@code delegate} does not implement the {@link #getOperationsInterface() Operations interface}.
+     */
+    public Servant createUnchecked(Object delegate, POA poa)
+    {
+        return create(operationsInterface.cast(delegate), poa);
+    }
+
+
+    /**
+     * Sets the delegate of a TIE object created by this factory.
+     * @param tie
+     *      The TIE object; must be an instance of the {@link #getTieClass() TIE class}.
+     * @param delegate
+     *      The new delegate; may be {@code null}.
+     */
+    public void setDelegate(Servant tie, T delegate)
+    {
+        delegateSetter.accept(tie, delegate);
+    }
+
+
+    /** Determines whether a class can be referenced by the classes the {@code LambdaMetafactory} spins. */
+    private static boolean isVisible(Class<?> type)
+    {
+        try {
+            return Class.forName(type.getName(), false, TieFactory.class.getClassLoader()) == type;
+        }
+        catch (ClassNotFoundException | LinkageError xcp) {
+            return false;
+        }
+    }
+
+
+    /** Binds a constructor or method handle to a functional interface; its type is the instantiated method type. */
+    private static Object bind(Class<?> functionalInterface, String methodName, MethodType erasedType, MethodHandle impl)
+        throws LambdaConversionException
+    {
+        CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(), methodName,
+            MethodType.methodType(functionalInterface), erasedType, impl, impl.type());
+        try {
+            return site.getTarget().invoke();
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new IllegalStateException("Could not bind " + impl + ".", thr);
+        }
+    }
+
+
+    private static Servant construct(MethodHandle ctor, Object delegate, POA poa)
+    {
+        try {
+            return (Servant) ctor.invokeExact(delegate, poa);
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new IllegalStateException("Could not create TIE object.", thr);
+        }
+    }
+
+
+    private static void setDelegate(MethodHandle setter, Servant tie, Object delegate)
+    {
+        try {
+            setter.invokeExact(tie, delegate);
+        }
+        catch (RuntimeException | Error xcp) {
+            throw xcp;
+        }
+        catch (Throwable thr) {
+            throw new IllegalStateException("Could not set the TIE object's delegate.", thr);
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package biz.ple.corba.util;
+
+/**
+ * <p>{@link ServiceContextCodec} for a fixed number of integral values, each encoded as a zig-zag
+ * varint (7 bits per byte, least significant group first, as in Protocol Buffers). Small values, which
+ * are typical for tenant ids, flags or counters, take a single byte, so multi-field contexts stay
+ * compact.</p>
+ * <p>Encoding computes the encoded size first and writes into an exactly sized array; decoding reads
+ * directly from the context data.</p>
+ *
+ * @author Philipp Leibfried
+ * @since  1.4.0
+ */
+public class VarintContextCodec implements ServiceContextCodec<long[]> {
+
+    private final int fieldCount;
+
+
+    /**
+     * Constructor.
+     * @param fieldCount
+     *      The number of values in each service context; must be positive.
+     */
+    public VarintContextCodec(int fieldCount)
+    {
+        if (fieldCount <= 0) {
+            throw new IllegalArgumentException("Field count must be positive.");
+        }
+        this.fieldCount = fieldCount;
+    }
+
+
+    public int getFieldCount()
+    {
+        return fieldCount;
+    }
+
+
+    /**
+     * Encodes the values; equivalent to {@link #encode(long[])} with a varargs array.
+     */
+    public byte[] encodeValues(long... values)
+    {
+        return encode(values);
+    }
+
+
+    @Override
+    public byte[] encode(long[] values)
+    {
+        if (values.length != fieldCount) {
+            throw new IllegalArgumentException("Expected " + fieldCount + " values, got " + values.length + ".");
+        }
+        int size = 0;
+        for (long value: values) {
+            size += varintSize(zigzag(value));
+        }
+        byte[] buffer = new byte[size];
+        int pos = 0;
+        for (long value: values) {
+            long zigzag = zigzag(value);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[pos++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[pos++] = (byte) zigzag;
+        }
+        return buffer;
+    }
+
+
+    @Override
+    public long[] decode(byte[] contextData)
+    {
+        long[] values = new long[fieldCount];
+        decodeInto(contextData, values);
+        return values;
+    }
+
+
+    /**
+     * Decodes the context data into a caller-supplied array.
+     * @param contextData
+     *      The {@code context_data} of a service context.
+     * @param values
+     *      Receives the decoded values; must have at least {@link #getFieldCount()} elements.
+     * @throws IllegalArgumentException
+     *      if {@code contextData} is not a valid encoding.
+     */
+    public void decodeInto(byte[] contextData, long[] values)
+    {
+        int pos = 0;
+        for (int field = 0; field < fieldCount; ++field) {
+            long zigzag = 0L;
+            int shift = 0;
+            byte b;
+            do {
+                if (pos >= contextData.length || shift >= 64) {
+                    throw new IllegalArgumentException("Malformed varint context data (field " + field + ").");
+                }
+                b = contextData[pos++];
+                zigzag |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            values[field] = (zigzag >>> 1) ^ -(zigzag & 1L);
+        }
+        if (pos != contextData.length) {
+            throw new IllegalArgumentException("Varint context data has " + (contextData.length - pos) + " trailing bytes.");
+        }
+    }
+
+
+    private static long zigzag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+
+
+    /** The number of 7 bit groups needed for the (unsigned) value; 1 for zero. */
+    private static int varintSize(long zigzag)
+    {
+        return zigzag == 0L ? 1 : (63 - Long.numberOfLeadingZeros(zigzag)) / 7 + 1;
+    }
+
+}
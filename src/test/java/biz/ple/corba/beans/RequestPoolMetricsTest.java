@@ -0,0 +1,106 @@
+package biz.ple.corba.beans;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jacorb.poa.RequestQueueListener;
+import org.junit.Test;
+
+import biz.ple.corba.interfaces.StandaloneServerRequestInterceptor;
+
+
+public class RequestPoolMetricsTest {
+
+    private static final int QUEUE_DEPTH = 3;
+
+
+    /** Creates the queue listener the way JacORB does, i.e. from the name of the generated class. */
+    private static RequestQueueListener queueListener(RequestPoolMetrics metrics) throws Exception
+    {
+        String className = OrbBean.registerQueueListener(metrics);
+        return (RequestQueueListener) Class.forName(className, true, RequestQueueListener.class.getClassLoader())
+                                           .newInstance();
+    }
+
+
+    @Test
+    public void testActiveRequests() throws Exception
+    {
+        RequestPoolMetrics metrics = new RequestPoolMetrics(QUEUE_DEPTH);
+        StandaloneServerRequestInterceptor interceptor = metrics.getInterceptor();
+
+        interceptor.receive_request_service_contexts(null);
+        interceptor.receive_request_service_contexts(null);
+        interceptor.receive_request(null);
+        interceptor.receive_request_service_contexts(null);
+        assertEquals(3, metrics.getActiveThreads());
+        assertEquals(3, metrics.getPeakActiveThreads());
+
+        interceptor.send_reply(null);
+        interceptor.send_exception(null);
+        assertEquals(1, metrics.getActiveThreads());
+        assertEquals(3, metrics.getPeakActiveThreads());
+        assertEquals(2L, metrics.getCompletedCount());
+        assertEquals(1L, metrics.getFailedCount());
+
+        interceptor.send_other(null);
+        assertEquals(0, metrics.getActiveThreads());
+        assertEquals(3L, metrics.getCompletedCount());
+        assertEquals(1L, metrics.getFailedCount());
+
+        metrics.resetPeaks();
+        assertEquals(0, metrics.getPeakActiveThreads());
+        interceptor.receive_request_service_contexts(null);
+        assertEquals(1, metrics.getPeakActiveThreads());
+    }
+
+
+    @Test
+    public void testQueuedRequests() throws Exception
+    {
+        RequestPoolMetrics metrics = new RequestPoolMetrics(QUEUE_DEPTH);
+        RequestQueueListener listener = queueListener(metrics);
+
+        listener.requestAddedToQueue(null, 1);
+        listener.requestAddedToQueue(null, 2);
+        assertEquals(2, metrics.getQueueLength());
+        assertEquals(2, metrics.getPeakQueueLength());
+        assertEquals(0L, metrics.getQueueFullCount());
+
+        listener.requestAddedToQueue(null, 3);
+        assertEquals(3, metrics.getQueueLength());
+        assertEquals(1L, metrics.getQueueFullCount());
+
+        listener.requestRemovedFromQueue(null, 2);
+        listener.requestRemovedFromQueue(null, 1);
+        assertEquals(1, metrics.getQueueLength());
+        assertEquals(3, metrics.getPeakQueueLength());
+
+        // A queue refilled to its maximum depth counts again
+        listener.requestAddedToQueue(null, 2);
+        listener.requestAddedToQueue(null, 3);
+        assertEquals(3, metrics.getQueueLength());
+        assertEquals(2L, metrics.getQueueFullCount());
+
+        listener.requestRemovedFromQueue(null, 2);
+        listener.requestRemovedFromQueue(null, 1);
+        listener.requestRemovedFromQueue(null, 0);
+        assertEquals(0, metrics.getQueueLength());
+        metrics.resetPeaks();
+        assertEquals(0, metrics.getPeakQueueLength());
+    }
+
+
+    @Test
+    public void testUnlimitedQueue() throws Exception
+    {
+        RequestPoolMetrics metrics = new RequestPoolMetrics(0);
+        RequestQueueListener listener = queueListener(metrics);
+
+        for (int length = 1; length <= 1000; ++length) {
+            listener.requestAddedToQueue(null, length);
+        }
+        assertEquals(1000, metrics.getQueueLength());
+        assertEquals(0L, metrics.getQueueFullCount());
+    }
+
+}
@@ -0,0 +1,202 @@
+package biz.ple.corba.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.omg.CORBA.NO_IMPLEMENT;
+import org.omg.CORBA.portable.InputStream;
+import org.omg.CORBA.portable.InvokeHandler;
+import org.omg.CORBA.portable.OutputStream;
+import org.omg.CORBA.portable.ResponseHandler;
+import org.omg.PortableServer.ForwardRequest;
+import org.omg.PortableServer.POA;
+import org.omg.PortableServer.Servant;
+import org.omg.PortableServer.POAPackage.ObjectNotActive;
+import org.omg.PortableServer.portable.Delegate;
+
+
+public class EvictingServantActivatorBaseTest {
+
+    private static final int MAX_SERVANTS = 100;
+
+    /** The servants are never invoked through their delegate, but the wrappers check that they have one. */
+    private static final Delegate NO_DELEGATE = (Delegate) Proxy.newProxyInstance(
+        Delegate.class.getClassLoader(), new Class<?>[] { Delegate.class }, (proxy, method, args) -> {
+            throw new NO_IMPLEMENT(method.getName());
+        });
+
+
+    private static final class CountingServant extends Servant implements InvokeHandler {
+
+        @Override
+        public String[] _all_interfaces(POA poa, byte[] objectId)
+        {
+            return new String[] { "IDL:biz/ple/Test:1.0" };
+        }
+
+        @Override
+        public OutputStream _invoke(String method, InputStream input, ResponseHandler handler)
+        {
+            return null;
+        }
+
+    }
+
+
+    private static final class TestActivator extends EvictingServantActivatorBase {
+
+        private static final long serialVersionUID = 1L;
+
+        final AtomicInteger destroyed = new AtomicInteger();
+
+        @Override
+        protected Servant createServant(byte[] oid, POA adapter)
+        {
+            Servant servant = new CountingServant();
+            servant._set_delegate(NO_DELEGATE);
+            return servant;
+        }
+
+        @Override
+        protected void destroyServant(byte[] oid, Servant servant, boolean cleanupInProgress)
+        {
+            destroyed.incrementAndGet();
+        }
+
+    }
+
+
+    private TestActivator activator;
+    private POA poa;
+    private final Map<ByteBuffer, Servant> activeObjectMap = new HashMap<>();
+
+
+    /** A POA which only supports deactivate_object(), and etherealizes the servant right away. */
+    @Before
+    public void setup()
+    {
+        activator = new TestActivator();
+        activator.setMaxServants(MAX_SERVANTS);
+        poa = (POA) Proxy.newProxyInstance(POA.class.getClassLoader(), new Class<?>[] { POA.class }, (proxy, method, args) -> {
+            if ("deactivate_object".equals(method.getName())) {
+                byte[] oid = (byte[]) args[0];
+                Servant servant;
+                synchronized (activeObjectMap) {
+                    servant = activeObjectMap.remove(ByteBuffer.wrap(oid));
+                }
+                if (servant == null) {
+                    throw new ObjectNotActive();
+                }
+                activator.etherealize(oid, (POA) proxy, servant, false, false);
+                return null;
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return "equals".equals(method.getName()) ? proxy == args[0] : method.invoke(activator, args);
+            }
+            throw new NO_IMPLEMENT(method.getName());
+        });
+    }
+
+
+    /** Like the POA, activates the servant before the evictor can deactivate it. */
+    private Servant incarnate(long id) throws ForwardRequest
+    {
+        byte[] oid = ByteBuffer.allocate(Long.BYTES).putLong(id).array();
+        synchronized (activeObjectMap) {
+            Servant servant = activator.incarnate(oid, poa);
+            activeObjectMap.put(ByteBuffer.wrap(oid), servant);
+            return servant;
+        }
+    }
+
+
+    @Test
+    public void testActiveCountStaysBounded() throws Exception
+    {
+        activator.setEvictionExecutor(Runnable::run);
+        for (long id = 0L; id < 10 * MAX_SERVANTS; ++id) {
+            incarnate(id);
+            assertTrue(activator.getActiveCount() <= MAX_SERVANTS);
+        }
+        assertEquals(10 * MAX_SERVANTS, activator.getIncarnationCount());
+        assertTrue(activator.getEvictionCount() > 0L);
+        assertEquals(activator.getEvictionCount(), activator.destroyed.get());
+        assertEquals(activator.getIncarnationCount() - activator.getEvictionCount(), activator.getActiveCount());
+    }
+
+
+    @Test
+    public void testColdestServantsAreEvicted() throws Exception
+    {
+        activator.setEvictionExecutor(Runnable::run);
+        Servant[] servants = new Servant[MAX_SERVANTS];
+        for (int id = 0; id < MAX_SERVANTS; ++id) {
+            servants[id] = incarnate(id);
+        }
+        // Touch the first half, so the second half is coldest
+        Thread.sleep(5L);
+        for (int id = 0; id < MAX_SERVANTS / 2; ++id) {
+            ((InvokeHandler) servants[id])._invoke("ping", null, null);
+        }
+        incarnate(MAX_SERVANTS);
+        assertEquals(MAX_SERVANTS * 9 / 10, activator.getActiveCount());
+
+        // The touched servants are still active: incarnating them again replaces them without eviction
+        long evictions = activator.getEvictionCount();
+        int active = activator.getActiveCount();
+        for (int id = 0; id < MAX_SERVANTS / 2; ++id) {
+            incarnate(id);
+        }
+        assertEquals(evictions, activator.getEvictionCount());
+        assertEquals(active, activator.getActiveCount());
+    }
+
+
+    @Test
+    public void testConcurrentIncarnationsStayBounded() throws Exception
+    {
+        ExecutorService evictor = Executors.newSingleThreadExecutor();
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        activator.setEvictionExecutor(evictor);
+        try {
+            AtomicInteger nextId = new AtomicInteger();
+            for (int thread = 0; thread < 4; ++thread) {
+                clients.execute(() -> {
+                    for (int count = 0; count < 5 * MAX_SERVANTS; ++count) {
+                        try {
+                            incarnate(nextId.getAndIncrement());
+                        }
+                        catch (Exception xcp) {
+                            throw new IllegalStateException(xcp);
+                        }
+                    }
+                });
+            }
+            clients.shutdown();
+            assertTrue(clients.awaitTermination(30L, TimeUnit.SECONDS));
+
+            // Evictions scheduled while incarnations were still going on must not leave the POA over its limit
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10L);
+            while (activator.getActiveCount() > MAX_SERVANTS && System.nanoTime() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertTrue(activator.getActiveCount() <= MAX_SERVANTS);
+            assertTrue(activator.getEvictionCount() > 0L);
+        }
+        finally {
+            evictor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,275 @@
+package biz.ple.corba.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class ExpiringCacheTest {
+
+    private final ExecutorService threads = Executors.newCachedThreadPool();
+
+
+    @After
+    public void teardown()
+    {
+        threads.shutdownNow();
+    }
+
+
+    /** A loader which counts its invocations and returns "value-<key>-<invocation>". */
+    private static final class CountingLoader implements ExpiringCache.Loader<String, String> {
+
+        final AtomicInteger loads = new AtomicInteger();
+
+        @Override
+        public String load(String key)
+        {
+            return "value-" + key + "-" + loads.incrementAndGet();
+        }
+
+    }
+
+
+    /** A loader which blocks until released, so that loads can be observed while they are in progress. */
+    private static final class BlockingLoader implements ExpiringCache.Loader<String, String> {
+
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public String load(String key) throws Exception
+        {
+            int load = loads.incrementAndGet();
+            started.countDown();
+            assertTrue(release.await(10L, TimeUnit.SECONDS));
+            return "value-" + key + "-" + load;
+        }
+
+    }
+
+
+    @Test
+    public void testHitsAndMisses() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        CountingLoader loader = new CountingLoader();
+        assertEquals("value-a-1", cache.get("a", loader));
+        assertEquals("value-a-1", cache.get("a", loader));
+        assertEquals("value-a-1", cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(1, loader.loads.get());
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(1L, cache.getMissCount());
+    }
+
+
+    @Test
+    public void testExpiry() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(50L, 0L, 10);
+        CountingLoader loader = new CountingLoader();
+        assertEquals("value-a-1", cache.get("a", loader));
+        assertEquals("value-a-1", cache.get("a", loader));
+        Thread.sleep(100L);
+        assertNull(cache.getIfPresent("a"));
+        assertEquals("value-a-2", cache.get("a", loader));
+    }
+
+
+    @Test
+    public void testNullValues() throws Exception
+    {
+        AtomicInteger loads = new AtomicInteger();
+        ExpiringCache.Loader<String, String> notFound = key -> {
+            loads.incrementAndGet();
+            return null;
+        };
+        ExpiringCache<String, String> notCaching = new ExpiringCache<>(0L, 0L, 10);
+        assertNull(notCaching.get("a", notFound));
+        assertNull(notCaching.get("a", notFound));
+        assertEquals(2, loads.get());
+        assertEquals(0, notCaching.size());
+
+        loads.set(0);
+        ExpiringCache<String, String> caching = new ExpiringCache<>(0L, 50L, 10);
+        assertNull(caching.get("a", notFound));
+        assertNull(caching.get("a", notFound));
+        assertEquals(1, loads.get());
+        Thread.sleep(100L);
+        assertNull(caching.get("a", notFound));
+        assertEquals(2, loads.get());
+    }
+
+
+    @Test
+    public void testSizeBoundEvictsLeastRecentlyUsed() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        CountingLoader loader = new CountingLoader();
+        for (int k = 0; k < 10; ++k) {
+            cache.get("k" + k, loader);
+        }
+        Thread.sleep(2L);
+        cache.get("k0", loader);
+        cache.get("k1", loader);
+        for (int k = 10; k < 100; ++k) {
+            cache.get("k" + k, loader);
+            assertTrue(cache.size() <= 10);
+            // Keep k0 and k1 the most recently used
+            cache.getIfPresent("k0");
+            cache.getIfPresent("k1");
+        }
+        assertEquals("value-k0-1", cache.getIfPresent("k0"));
+        assertEquals("value-k1-2", cache.getIfPresent("k1"));
+        assertNull(cache.getIfPresent("k2"));
+        assertEquals(100L - cache.size(), cache.getEvictionCount());
+    }
+
+
+    @Test
+    public void testSizeBoundWithOneEntry() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 1);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        assertEquals(1, cache.size());
+        assertEquals("B", cache.getIfPresent("b"));
+    }
+
+
+    @Test
+    public void testConcurrentMissesAreCoalesced() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        BlockingLoader loader = new BlockingLoader();
+        List<Future<String>> results = new ArrayList<>();
+        results.add(threads.submit(() -> cache.get("a", loader)));
+        assertTrue(loader.started.await(10L, TimeUnit.SECONDS));
+        for (int k = 0; k < 7; ++k) {
+            results.add(threads.submit(() -> cache.get("a", loader)));
+        }
+        Thread.sleep(50L);
+        loader.release.countDown();
+        for (Future<String> result: results) {
+            assertEquals("value-a-1", result.get(10L, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loader.loads.get());
+    }
+
+
+    @Test
+    public void testLoaderExceptionIsShared() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExpiringCache.Loader<String, String> failing = key -> {
+            started.countDown();
+            release.await(10L, TimeUnit.SECONDS);
+            throw new IllegalStateException("lookup failed");
+        };
+        Future<String> first = threads.submit(() -> cache.get("a", failing));
+        assertTrue(started.await(10L, TimeUnit.SECONDS));
+        Future<String> second = threads.submit(() -> cache.get("a", failing));
+        Thread.sleep(50L);
+        release.countDown();
+        for (Future<String> result: Arrays.asList(first, second)) {
+            try {
+                result.get(10L, TimeUnit.SECONDS);
+                fail("The load should have failed.");
+            }
+            catch (ExecutionException eex) {
+                assertTrue(eex.getCause() instanceof IllegalStateException);
+            }
+        }
+        assertEquals(0, cache.size());
+    }
+
+
+    @Test
+    public void testInvalidateDuringLoad() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        BlockingLoader slowA = new BlockingLoader();
+        BlockingLoader slowB = new BlockingLoader();
+        Future<String> loadA = threads.submit(() -> cache.get("a", slowA));
+        Future<String> loadB = threads.submit(() -> cache.get("b", slowB));
+        assertTrue(slowA.started.await(10L, TimeUnit.SECONDS));
+        assertTrue(slowB.started.await(10L, TimeUnit.SECONDS));
+
+        cache.invalidate("a");
+        slowA.release.countDown();
+        slowB.release.countDown();
+
+        // The value loaded while its key was invalidated is returned, but not cached ...
+        assertEquals("value-a-1", loadA.get(10L, TimeUnit.SECONDS));
+        assertNull(cache.getIfPresent("a"));
+        // ... while the load of another key is not affected
+        assertEquals("value-b-1", loadB.get(10L, TimeUnit.SECONDS));
+        assertEquals("value-b-1", cache.getIfPresent("b"));
+    }
+
+
+    @Test
+    public void testInvalidateIfAndAll() throws Exception
+    {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0L, 0L, 10);
+        cache.put("ctx/a", "A");
+        cache.put("ctx/b", "B");
+        cache.put("other", "O");
+        cache.invalidateIf(key -> key.startsWith("ctx/"));
+        assertNull(cache.getIfPresent("ctx/a"));
+        assertNull(cache.getIfPresent("ctx/b"));
+        assertSame("O", cache.getIfPresent("other"));
+
+        BlockingLoader loader = new BlockingLoader();
+        Future<String> load = threads.submit(() -> cache.get("late", loader));
+        assertTrue(loader.started.await(10L, TimeUnit.SECONDS));
+        cache.invalidateAll();
+        loader.release.countDown();
+        assertEquals("value-late-1", load.get(10L, TimeUnit.SECONDS));
+        assertEquals(0, cache.size());
+    }
+
+
+    @Test
+    public void testConcurrentHitsAndEvictions() throws Exception
+    {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(0L, 0L, 100);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int thread = 0; thread < 4; ++thread) {
+            int offset = thread;
+            workers.add(threads.submit(() -> {
+                for (int k = 0; k < 20_000; ++k) {
+                    int key = (k * 7 + offset) % 400;
+                    assertEquals(Integer.valueOf(key * 2), cache.get(key, x -> x * 2));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker: workers) {
+            worker.get(30L, TimeUnit.SECONDS);
+        }
+        assertTrue(cache.size() <= 100);
+        assertTrue(cache.getEvictionCount() > 0L);
+    }
+
+}